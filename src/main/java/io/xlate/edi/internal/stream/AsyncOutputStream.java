@@ -0,0 +1,204 @@
+/*******************************************************************************
+ * Copyright 2023 xlate.io LLC, http://www.xlate.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package io.xlate.edi.internal.stream;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Double-buffered output stream. Bytes are written to the active buffer on
+ * the caller's thread while the previously filled buffer is written to the
+ * target stream by a background task. At most one buffer is being drained at
+ * any time - a caller filling the active buffer waits for the drain to
+ * complete before handing off the next buffer, bounding memory use to two
+ * buffers.
+ *
+ * An exception thrown by the target stream during a drain is reported to the
+ * caller by the next write, flush, or close.
+ */
+class AsyncOutputStream extends OutputStream {
+
+    private final OutputStream target;
+    private final Executor executor;
+    private final ExecutorService ownedExecutor;
+
+    private final Object lock = new Object();
+    private byte[] active;
+    private int count;
+
+    // Guarded by `lock`
+    private byte[] spare;
+    private boolean draining;
+
+    private volatile Exception failure;
+
+    AsyncOutputStream(OutputStream target, int bufferSize, Executor executor) {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("Buffer size must be positive: " + bufferSize);
+        }
+
+        this.target = target;
+        this.active = new byte[bufferSize];
+        this.spare = new byte[bufferSize];
+
+        if (executor != null) {
+            this.executor = executor;
+            this.ownedExecutor = null;
+        } else {
+            this.ownedExecutor = Executors.newSingleThreadExecutor(task -> {
+                Thread thread = new Thread(task, "staedi-async-output");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.executor = ownedExecutor;
+        }
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        checkFailure();
+
+        if (count == active.length) {
+            handoff(false);
+        }
+
+        active[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        checkFailure();
+
+        while (len > 0) {
+            if (count == active.length) {
+                handoff(false);
+            }
+
+            int chunk = Math.min(len, active.length - count);
+            System.arraycopy(b, off, active, count, chunk);
+            count += chunk;
+            off += chunk;
+            len -= chunk;
+        }
+    }
+
+    /**
+     * Hand off any buffered bytes to be written and flushed to the target
+     * stream in the background. This method does not wait for the target to be
+     * flushed.
+     */
+    @Override
+    public void flush() throws IOException {
+        checkFailure();
+        handoff(true);
+    }
+
+    /**
+     * Write and flush all buffered bytes to the target stream, waiting for the
+     * background drain to complete. The target stream is not closed. A
+     * background thread created by this stream is stopped.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            handoff(true);
+            awaitDrain();
+        } finally {
+            if (ownedExecutor != null) {
+                ownedExecutor.shutdown();
+            }
+        }
+    }
+
+    void handoff(boolean flushTarget) throws IOException {
+        // Backpressure: wait for the buffer in flight before releasing another
+        awaitDrain();
+
+        if (count == 0 && !flushTarget) {
+            return;
+        }
+
+        final byte[] filled = active;
+        final int length = count;
+
+        synchronized (lock) {
+            active = spare;
+            spare = null;
+            draining = true;
+        }
+
+        count = 0;
+
+        try {
+            executor.execute(() -> drain(filled, length, flushTarget));
+        } catch (RejectedExecutionException e) {
+            synchronized (lock) {
+                spare = active;
+                active = filled;
+                draining = false;
+            }
+            count = length;
+            throw new IOException("Asynchronous output rejected", e);
+        }
+    }
+
+    void drain(byte[] buffer, int length, boolean flushTarget) {
+        try {
+            target.write(buffer, 0, length);
+
+            if (flushTarget) {
+                target.flush();
+            }
+        } catch (Exception e) {
+            failure = e;
+        } finally {
+            synchronized (lock) {
+                spare = buffer;
+                draining = false;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    void awaitDrain() throws IOException {
+        synchronized (lock) {
+            while (draining) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted waiting for asynchronous output");
+                }
+            }
+        }
+
+        checkFailure();
+    }
+
+    void checkFailure() throws IOException {
+        Exception e = failure;
+
+        if (e != null) {
+            // Wrapped to capture the caller's stack, the cause retains the original
+            throw new IOException("Exception writing asynchronous output", e);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+/*******************************************************************************
+ * Copyright 2023 xlate.io LLC, http://www.xlate.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package io.xlate.edi.internal.stream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+
+/**
+ * Reads a binary stream in bulk and encodes it as (standard, unwrapped) Base64
+ * in bounded chunks. Each chunk other than the last encodes a multiple of three
+ * bytes, so the concatenated chunks are identical to the encoding of the
+ * complete stream.
+ *
+ * @since 1.24
+ */
+public final class Base64ChunkEncoder {
+
+    public static final int DEFAULT_CHUNK_SIZE = 3 * 1024;
+
+    private static final char[] ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+
+    private final byte[] input;
+    private final char[] output;
+
+    private InputStream source;
+    private int length;
+    private int lookahead = -1;
+    private boolean complete = true;
+
+    public Base64ChunkEncoder() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param chunkSize
+     *            the maximum number of input bytes per chunk, rounded down to a
+     *            multiple of three
+     */
+    public Base64ChunkEncoder(int chunkSize) {
+        int size = Math.max(3, chunkSize - (chunkSize % 3));
+        this.input = new byte[size];
+        this.output = new char[size / 3 * 4];
+    }
+
+    /**
+     * Begin encoding a new source stream, discarding the state of any previous
+     * stream.
+     *
+     * @param source
+     *            the binary data to encode
+     */
+    public void setSource(InputStream source) {
+        this.source = source;
+        this.length = 0;
+        this.lookahead = -1;
+        this.complete = false;
+    }
+
+    /**
+     * @return true when the final chunk of the current source has been encoded
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public char[] getChars() {
+        return output;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Read and encode the next chunk of the source. The first chunk of an
+     * empty source has a length of zero.
+     *
+     * @return the number of encoded characters available from
+     *         {@link #getChars()}
+     * @throws IOException
+     *             when the source can not be read
+     */
+    public int encodeNext() throws IOException {
+        if (complete) {
+            throw new IllegalStateException("Source has been completely encoded");
+        }
+
+        int count = 0;
+
+        if (lookahead > -1) {
+            input[count++] = (byte) lookahead;
+            lookahead = -1;
+        }
+
+        int amount;
+
+        while (count < input.length && (amount = source.read(input, count, input.length - count)) > -1) {
+            count += amount;
+        }
+
+        if (count < input.length || (lookahead = source.read()) < 0) {
+            complete = true;
+        }
+
+        length = encode(input, count, output);
+        return length;
+    }
+
+    /**
+     * Encode the remainder of the source to the writer.
+     *
+     * @param writer
+     *            destination of the encoded characters
+     * @return the number of characters written
+     * @throws IOException
+     *             when the source can not be read or the writer fails
+     */
+    public int encodeTo(Writer writer) throws IOException {
+        int total = 0;
+
+        while (!complete) {
+            total += encodeNext();
+            writer.write(output, 0, length);
+        }
+
+        return total;
+    }
+
+    static int encode(byte[] input, int count, char[] output) {
+        int o = 0;
+        int i = 0;
+
+        for (int m = count - (count % 3); i < m; i += 3) {
+            int bits = (input[i] & 0xFF) << 16 | (input[i + 1] & 0xFF) << 8 | (input[i + 2] & 0xFF);
+            output[o++] = ALPHABET[(bits >>> 18) & 0x3F];
+            output[o++] = ALPHABET[(bits >>> 12) & 0x3F];
+            output[o++] = ALPHABET[(bits >>> 6) & 0x3F];
+            output[o++] = ALPHABET[bits & 0x3F];
+        }
+
+        if (i < count) {
+            int bits = (input[i] & 0xFF) << 16;
+
+            if (i + 1 < count) {
+                bits |= (input[i + 1] & 0xFF) << 8;
+            }
+
+            output[o++] = ALPHABET[(bits >>> 18) & 0x3F];
+            output[o++] = ALPHABET[(bits >>> 12) & 0x3F];
+            output[o++] = i + 1 < count ? ALPHABET[(bits >>> 6) & 0x3F] : '=';
+            output[o++] = '=';
+        }
+
+        return o;
+    }
+}
@@ -0,0 +1,127 @@
+/*******************************************************************************
+ * Copyright 2023 xlate.io LLC, http://www.xlate.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package io.xlate.edi.internal.stream;
+
+import java.util.NoSuchElementException;
+
+import io.xlate.edi.stream.EDIInputErrorReporter;
+import io.xlate.edi.stream.EDIStreamEvent;
+import io.xlate.edi.stream.EDIStreamException;
+import io.xlate.edi.stream.EDIStreamReader;
+
+/**
+ * Event iteration and text copying shared by the readers of EDI input and of
+ * recorded event logs.
+ */
+abstract class EDIStreamReaderBase implements EDIStreamReader {
+
+    /**
+     * Advance to the next event, including errors that will be passed to the
+     * reporter.
+     */
+    abstract EDIStreamEvent nextEvent() throws EDIStreamException;
+
+    abstract EDIInputErrorReporter getReporter();
+
+    /**
+     * Copy the characters of the current event to the target. The arguments
+     * have already been checked against the text length.
+     */
+    abstract void copyText(int sourceStart, char[] target, int targetStart, int length);
+
+    @Override
+    public EDIStreamEvent next() throws EDIStreamException {
+        final EDIInputErrorReporter reporter = getReporter();
+        EDIStreamEvent event = null;
+        boolean eventFound = false;
+
+        do {
+            event = nextEvent();
+
+            if (reporter != null && event.isError()) {
+                reporter.report(getErrorType(), this);
+            } else {
+                eventFound = true;
+            }
+        } while (!eventFound && hasNext());
+
+        return event;
+    }
+
+    @Override
+    public EDIStreamEvent nextTag() throws EDIStreamException {
+        EDIStreamEvent event = null;
+        boolean tagFound = false;
+
+        do {
+            event = next();
+            switch (event) {
+            case START_GROUP:
+            case START_TRANSACTION:
+            case START_LOOP:
+            case START_SEGMENT:
+                tagFound = true;
+                break;
+            default:
+                break;
+            }
+        } while (!tagFound && hasNext());
+
+        if (!tagFound) {
+            throw new NoSuchElementException("No additional tags in stream");
+        }
+
+        return event;
+    }
+
+    @Override
+    public int getTextCharacters(int sourceStart,
+                                 char[] target,
+                                 int targetStart,
+                                 int length) {
+
+        if (target == null) {
+            throw new NullPointerException("Null target array");
+        }
+        if (targetStart < 0) {
+            throw new IndexOutOfBoundsException("targetStart < 0");
+        }
+        if (targetStart > target.length) {
+            throw new IndexOutOfBoundsException("targetStart > target.length");
+        }
+        if (length < 0) {
+            throw new IndexOutOfBoundsException("length < 0");
+        }
+        if (length > target.length) {
+            throw new IndexOutOfBoundsException("length (" + length + ") > target.length (" + target.length + ")");
+        }
+
+        final int count = getTextLength();
+
+        if (sourceStart < 0) {
+            throw new IndexOutOfBoundsException("sourceStart < 0");
+        }
+
+        if (sourceStart > count) {
+            throw new IndexOutOfBoundsException("sourceStart > source length");
+        }
+
+        int toCopy = Math.min(count - sourceStart, length);
+        copyText(sourceStart, target, targetStart, toCopy);
+
+        return toCopy;
+    }
+}
@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * Copyright 2023 xlate.io LLC, http://www.xlate.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package io.xlate.edi.internal.stream;
+
+import javax.xml.XMLConstants;
+import javax.xml.stream.XMLStreamException;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.Locator;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+
+import io.xlate.edi.stream.EDIStreamWriter;
+
+/**
+ * SAX entry point for writing EDI from XML. Callbacks are mapped to the same
+ * operations (and namespace rules) as the {@link StaEDIXMLStreamWriter} they
+ * are delegated to, so no intermediate tree or StAX events are created.
+ */
+final class StaEDIContentHandler implements ContentHandler {
+
+    static final String MSG_ATTRIBUTES_UNSUPPORTED = "Attributes are not supported: %s";
+
+    private final StaEDIXMLStreamWriter xmlWriter;
+    private Locator locator;
+
+    StaEDIContentHandler(EDIStreamWriter ediWriter) {
+        this.xmlWriter = new StaEDIXMLStreamWriter(ediWriter);
+    }
+
+    SAXException wrap(XMLStreamException e) {
+        String message = e.getMessage();
+
+        if (e.getNestedException() != null && e.getNestedException().getMessage() != null) {
+            message = e.getNestedException().getMessage();
+        }
+
+        if (locator != null) {
+            return new SAXParseException(message, locator, e);
+        }
+
+        return new SAXException(message, e);
+    }
+
+    @Override
+    public void setDocumentLocator(Locator locator) {
+        this.locator = locator;
+    }
+
+    @Override
+    public void startDocument() throws SAXException {
+        try {
+            xmlWriter.writeStartDocument();
+        } catch (XMLStreamException e) {
+            throw wrap(e);
+        }
+    }
+
+    @Override
+    public void endDocument() throws SAXException {
+        try {
+            xmlWriter.writeEndDocument();
+            xmlWriter.flush();
+        } catch (XMLStreamException e) {
+            throw wrap(e);
+        }
+    }
+
+    @Override
+    public void startPrefixMapping(String prefix, String uri) {
+        xmlWriter.setNextElementPrefix(prefix, uri);
+    }
+
+    @Override
+    public void endPrefixMapping(String prefix) {
+        // No operation - ignored
+    }
+
+    @Override
+    public void startElement(String uri, String localName, String qName, Attributes atts) throws SAXException {
+        for (int i = 0, m = atts.getLength(); i < m; i++) {
+            String attributeName = atts.getQName(i);
+
+            if (isNamespaceDeclaration(attributeName)) {
+                // Declarations are reported as attributes by parsers that are not namespace-aware
+                xmlWriter.setNextElementPrefix(declaredPrefix(attributeName), atts.getValue(i));
+            } else if (!XMLConstants.XMLNS_ATTRIBUTE_NS_URI.equals(atts.getURI(i))) {
+                throw new SAXException(String.format(MSG_ATTRIBUTES_UNSUPPORTED, attributeName));
+            }
+        }
+
+        try {
+            if (uri == null || uri.isEmpty()) {
+                xmlWriter.writeStartElement(qName);
+            } else {
+                xmlWriter.writeStartElement(uri, localName);
+            }
+        } catch (XMLStreamException e) {
+            throw wrap(e);
+        }
+    }
+
+    static boolean isNamespaceDeclaration(String qName) {
+        return qName.equals(XMLConstants.XMLNS_ATTRIBUTE) || qName.startsWith(XMLConstants.XMLNS_ATTRIBUTE + ':');
+    }
+
+    static String declaredPrefix(String qName) {
+        return qName.equals(XMLConstants.XMLNS_ATTRIBUTE)
+                ? XMLConstants.DEFAULT_NS_PREFIX
+                : qName.substring(XMLConstants.XMLNS_ATTRIBUTE.length() + 1);
+    }
+
+    @Override
+    public void endElement(String uri, String localName, String qName) throws SAXException {
+        try {
+            xmlWriter.writeEndElement();
+        } catch (XMLStreamException e) {
+            throw wrap(e);
+        }
+    }
+
+    @Override
+    public void characters(char[] ch, int start, int length) throws SAXException {
+        try {
+            xmlWriter.writeCharacters(ch, start, length);
+        } catch (XMLStreamException e) {
+            throw wrap(e);
+        }
+    }
+
+    @Override
+    public void ignorableWhitespace(char[] ch, int start, int length) {
+        // No operation - ignored
+    }
+
+    @Override
+    public void processingInstruction(String target, String data) {
+        // No operation - ignored
+    }
+
+    @Override
+    public void skippedEntity(String name) {
+        // No operation - ignored
+    }
+}
@@ -0,0 +1,353 @@
+/*******************************************************************************
+ * Copyright 2023 xlate.io LLC, http://www.xlate.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package io.xlate.edi.internal.stream;
+
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.xlate.edi.schema.EDIReference;
+import io.xlate.edi.stream.EDIDocument;
+import io.xlate.edi.stream.EDIStreamEvent;
+import io.xlate.edi.stream.EDIStreamException;
+import io.xlate.edi.stream.EDIStreamReader;
+import io.xlate.edi.stream.Location;
+
+/**
+ * Document model held as parallel arrays indexed by node handle with the text
+ * of all nodes in a single character buffer. The arrays are trimmed to size
+ * once the document has been read.
+ */
+final class StaEDIDocument implements EDIDocument {
+
+    private static final NodeType[] NODE_TYPES = NodeType.values();
+    private static final int INITIAL_NODES = 64;
+    private static final int INITIAL_TEXT = 1024;
+
+    private int count;
+    private byte[] types = new byte[INITIAL_NODES];
+    private int[] parents = new int[INITIAL_NODES];
+    // Handle following the last descendant of each node
+    private int[] ends = new int[INITIAL_NODES];
+    private int[] positions = new int[INITIAL_NODES];
+    private int[] occurrences = new int[INITIAL_NODES];
+    private int[] references = new int[INITIAL_NODES];
+    private int[] textStarts = new int[INITIAL_NODES];
+    private int[] textLengths = new int[INITIAL_NODES];
+
+    private char[] text = new char[INITIAL_TEXT];
+    private int textLength;
+
+    private final List<EDIReference> referenceList = new ArrayList<>();
+    private Map<EDIReference, Integer> referenceIds = new IdentityHashMap<>();
+
+    /**
+     * Read the interchange, group, transaction, or loop starting at the
+     * reader's current or next event, leaving the reader positioned at its
+     * end event.
+     */
+    static StaEDIDocument read(EDIStreamReader reader) throws EDIStreamException {
+        StaEDIDocument document = new StaEDIDocument();
+        document.build(reader);
+        return document;
+    }
+
+    static boolean isLoopStart(EDIStreamEvent event) {
+        return event == EDIStreamEvent.START_INTERCHANGE
+                || event == EDIStreamEvent.START_GROUP
+                || event == EDIStreamEvent.START_TRANSACTION
+                || event == EDIStreamEvent.START_LOOP;
+    }
+
+    void build(EDIStreamReader reader) throws EDIStreamException {
+        EDIStreamEvent event = reader.getEventType();
+
+        if (!isLoopStart(event)) {
+            event = reader.next();
+
+            if (!isLoopStart(event)) {
+                throw new IllegalStateException("not a valid document start [" + event + ']');
+            }
+        }
+
+        int open = addLoop(NONE, reader);
+
+        while (open != NONE && reader.hasNext()) {
+            switch (reader.next()) {
+            case START_INTERCHANGE:
+            case START_GROUP:
+            case START_TRANSACTION:
+            case START_LOOP:
+                open = addLoop(open, reader);
+                break;
+            case START_SEGMENT:
+                open = add(NodeType.SEGMENT, open, reader, reader.getLocation().getSegmentPosition(), -1);
+                appendText(open, StaEDISegmentView.text(reader));
+                break;
+            case START_COMPOSITE:
+                open = addElement(NodeType.COMPOSITE, open, reader);
+                break;
+            case ELEMENT_DATA:
+                appendText(addElement(NodeType.ELEMENT, open, reader), StaEDISegmentView.text(reader));
+                break;
+            case ELEMENT_DATA_BINARY:
+                // Binary data is not available in the document
+                addElement(NodeType.ELEMENT, open, reader);
+                break;
+            case END_INTERCHANGE:
+            case END_GROUP:
+            case END_TRANSACTION:
+            case END_LOOP:
+            case END_SEGMENT:
+            case END_COMPOSITE:
+                open = parents[open];
+                break;
+            default:
+                // Validation errors are not retained
+                break;
+            }
+        }
+
+        trim();
+    }
+
+    int addLoop(int parent, EDIStreamReader reader) {
+        int node = add(NodeType.LOOP, parent, reader, -1, -1);
+        String code = reader.getReferenceCode();
+
+        if (code != null) {
+            appendText(node, code);
+        }
+
+        return node;
+    }
+
+    int addElement(NodeType type, int parent, EDIStreamReader reader) {
+        Location location = reader.getLocation();
+
+        if (types[parent] == NodeType.COMPOSITE.ordinal()) {
+            return add(type, parent, reader, location.getComponentPosition(), -1);
+        }
+
+        return add(type, parent, reader, location.getElementPosition(), Math.max(1, location.getElementOccurrence()));
+    }
+
+    int add(NodeType type, int parent, EDIStreamReader reader, int position, int occurrence) {
+        if (count == types.length) {
+            int capacity = count * 2;
+            types = Arrays.copyOf(types, capacity);
+            parents = Arrays.copyOf(parents, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            positions = Arrays.copyOf(positions, capacity);
+            occurrences = Arrays.copyOf(occurrences, capacity);
+            references = Arrays.copyOf(references, capacity);
+            textStarts = Arrays.copyOf(textStarts, capacity);
+            textLengths = Arrays.copyOf(textLengths, capacity);
+        }
+
+        final int node = count++;
+        types[node] = (byte) type.ordinal();
+        parents[node] = parent;
+        positions[node] = position;
+        occurrences[node] = occurrence;
+        references[node] = referenceId(reader.getSchemaTypeReference());
+        textStarts[node] = 0;
+        textLengths[node] = -1;
+
+        // Ancestors end after the newest node until closed
+        for (int ancestor = node; ancestor != NONE; ancestor = parents[ancestor]) {
+            ends[ancestor] = count;
+        }
+
+        return node;
+    }
+
+    int referenceId(EDIReference reference) {
+        if (reference == null) {
+            return NONE;
+        }
+
+        return referenceIds.computeIfAbsent(reference, r -> {
+            referenceList.add(r);
+            return referenceList.size() - 1;
+        });
+    }
+
+    void appendText(int node, CharSequence value) {
+        final int length = value.length();
+
+        if (textLength + length > text.length) {
+            text = Arrays.copyOf(text, Math.max(text.length * 2, textLength + length));
+        }
+
+        if (value instanceof CharBuffer && ((CharBuffer) value).hasArray()) {
+            CharBuffer buffer = (CharBuffer) value;
+            System.arraycopy(buffer.array(), buffer.arrayOffset() + buffer.position(), text, textLength, length);
+        } else if (value instanceof String) {
+            ((String) value).getChars(0, length, text, textLength);
+        } else {
+            for (int i = 0; i < length; i++) {
+                text[textLength + i] = value.charAt(i);
+            }
+        }
+
+        textStarts[node] = textLength;
+        textLengths[node] = length;
+        textLength += length;
+    }
+
+    void trim() {
+        types = Arrays.copyOf(types, count);
+        parents = Arrays.copyOf(parents, count);
+        ends = Arrays.copyOf(ends, count);
+        positions = Arrays.copyOf(positions, count);
+        occurrences = Arrays.copyOf(occurrences, count);
+        references = Arrays.copyOf(references, count);
+        textStarts = Arrays.copyOf(textStarts, count);
+        textLengths = Arrays.copyOf(textLengths, count);
+        text = Arrays.copyOf(text, textLength);
+        referenceIds = null;
+    }
+
+    int checkNode(int node) {
+        if (node < 0 || node >= count) {
+            throw new IndexOutOfBoundsException("Invalid node: " + node);
+        }
+        return node;
+    }
+
+    boolean textEquals(int node, String value) {
+        final int length = textLengths[node];
+
+        if (length != value.length()) {
+            return false;
+        }
+
+        for (int i = 0, start = textStarts[node]; i < length; i++) {
+            if (text[start + i] != value.charAt(i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    int findChild(int parent, NodeType type, String value, int occurrence) {
+        int remaining = occurrence;
+
+        for (int child = getFirstChild(parent); child != NONE; child = getNextSibling(child)) {
+            if (types[child] == type.ordinal() && textEquals(child, value) && --remaining == 0) {
+                return child;
+            }
+        }
+
+        return NONE;
+    }
+
+    @Override
+    public int getNodeCount() {
+        return count;
+    }
+
+    @Override
+    public int getRoot() {
+        return count > 0 ? 0 : NONE;
+    }
+
+    @Override
+    public NodeType getNodeType(int node) {
+        return NODE_TYPES[types[checkNode(node)]];
+    }
+
+    @Override
+    public int getParent(int node) {
+        return parents[checkNode(node)];
+    }
+
+    @Override
+    public int getFirstChild(int node) {
+        return ends[checkNode(node)] > node + 1 ? node + 1 : NONE;
+    }
+
+    @Override
+    public int getNextSibling(int node) {
+        final int next = ends[checkNode(node)];
+        final int parent = parents[node];
+        return parent != NONE && next < ends[parent] ? next : NONE;
+    }
+
+    @Override
+    public int getPosition(int node) {
+        return positions[checkNode(node)];
+    }
+
+    @Override
+    public int getOccurrence(int node) {
+        return occurrences[checkNode(node)];
+    }
+
+    @Override
+    public EDIReference getSchemaTypeReference(int node) {
+        final int id = references[checkNode(node)];
+        return id != NONE ? referenceList.get(id) : null;
+    }
+
+    @Override
+    public int getTextLength(int node) {
+        return textLengths[checkNode(node)];
+    }
+
+    @Override
+    public String getText(int node) {
+        final int length = textLengths[checkNode(node)];
+        return length > -1 ? new String(text, textStarts[node], length) : null;
+    }
+
+    @Override
+    public int getLoop(int parent, String code, int occurrence) {
+        return findChild(parent, NodeType.LOOP, code, occurrence);
+    }
+
+    @Override
+    public int getSegment(int parent, String tag, int occurrence) {
+        return findChild(parent, NodeType.SEGMENT, tag, occurrence);
+    }
+
+    @Override
+    public int getElement(int segment, int position, int occurrence) {
+        for (int child = getFirstChild(segment); child != NONE; child = getNextSibling(child)) {
+            if (positions[child] == position && occurrences[child] == occurrence) {
+                return child;
+            }
+        }
+
+        return NONE;
+    }
+
+    @Override
+    public int getComponent(int composite, int position) {
+        for (int child = getFirstChild(composite); child != NONE; child = getNextSibling(child)) {
+            if (positions[child] == position) {
+                return child;
+            }
+        }
+
+        return NONE;
+    }
+}
@@ -0,0 +1,1038 @@
+/*******************************************************************************
+ * Copyright 2023 xlate.io LLC, http://www.xlate.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package io.xlate.edi.internal.stream;
+
+import static io.xlate.edi.internal.stream.StaEDIEventLogWriter.FLAG_BINARY;
+import static io.xlate.edi.internal.stream.StaEDIEventLogWriter.FLAG_ERROR;
+import static io.xlate.edi.internal.stream.StaEDIEventLogWriter.FLAG_LOCATION;
+import static io.xlate.edi.internal.stream.StaEDIEventLogWriter.FLAG_REFERENCE_CODE;
+import static io.xlate.edi.internal.stream.StaEDIEventLogWriter.FLAG_TEXT;
+import static io.xlate.edi.internal.stream.StaEDIEventLogWriter.FLAG_TEXT_TOKEN;
+import static io.xlate.edi.internal.stream.StaEDIEventLogWriter.FLAG_TYPE_REFERENCE;
+import static io.xlate.edi.internal.stream.StaEDIEventLogWriter.LOCATION_FIELDS;
+import static io.xlate.edi.internal.stream.StaEDIEventLogWriter.LOCATION_TAG;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.CharBuffer;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+import io.xlate.edi.schema.EDIComplexType;
+import io.xlate.edi.schema.EDIReference;
+import io.xlate.edi.schema.EDISimpleType;
+import io.xlate.edi.schema.EDISyntaxRule;
+import io.xlate.edi.schema.EDIType;
+import io.xlate.edi.schema.Schema;
+import io.xlate.edi.stream.EDIInputErrorReporter;
+import io.xlate.edi.stream.EDIStreamEvent;
+import io.xlate.edi.stream.EDIStreamException;
+import io.xlate.edi.stream.EDIStreamValidationError;
+import io.xlate.edi.stream.Location;
+import io.xlate.edi.stream.SegmentView;
+
+/**
+ * Replays the events of a log written by {@link StaEDIEventLogWriter}. The
+ * events, text, reference codes, locations, and errors are those reported by
+ * the reader that was recorded; the input is not lexed or validated again.
+ *
+ * Schema types are replayed without their enumerated values, and complex types
+ * with their child references but without their syntax rules. Schemas set on this reader
+ * are retained but do not affect the events replayed.
+ */
+class StaEDIEventLogReader extends EDIStreamReaderBase implements Configurable {
+
+    private static final EDIStreamEvent[] EVENTS = EDIStreamEvent.values();
+    private static final EDIStreamValidationError[] ERRORS = EDIStreamValidationError.values();
+    private static final EDIType.Type[] TYPES = EDIType.Type.values();
+    private static final EDISimpleType.Base[] BASES = EDISimpleType.Base.values();
+
+    static final String MSG_INVALID = "Invalid event log";
+
+    static class EventLocation extends LocationView {
+        void set(int[] values, String tag) {
+            lineNumber = values[0];
+            columnNumber = values[1];
+            characterOffset = values[2];
+            segmentPosition = values[3];
+            elementPosition = values[4];
+            componentPosition = values[5];
+            elementOccurrence = values[6];
+            segmentTag = tag;
+        }
+    }
+
+    static class Event {
+        EDIStreamEvent type;
+        boolean text;
+        String token;
+        char[] chars = new char[64];
+        int length;
+        String referenceCode;
+        EDIReference reference;
+        EDIStreamValidationError error;
+        byte[] binary = new byte[0];
+        int binaryLength;
+        final EventLocation location = new EventLocation();
+    }
+
+    private final Map<String, Object> properties;
+    private final EDIInputErrorReporter reporter;
+
+    private InputStream stream;
+    private final byte[] buffer = new byte[8192];
+    private int position;
+    private int limit;
+
+    private final List<String> tokens = new ArrayList<>();
+    private final List<EDIReference> references = new ArrayList<>();
+    private final List<EDIType> types = new ArrayList<>();
+    private final int[] location = new int[LOCATION_FIELDS];
+    private String segmentTag;
+
+    // Characters of the current token text, returned by getTextCharacters
+    private char[] tokenChars = new char[16];
+
+    private Event current = new Event();
+    private Event pending = new Event();
+    private boolean pendingAvailable;
+    private boolean closed;
+
+    private String standard;
+    private String[] version;
+    private Map<String, Character> delimiters;
+    private String transactionType;
+    private String[] transactionVersion;
+    private String transactionVersionString;
+
+    private Schema controlSchema;
+    private Schema transactionSchema;
+    private boolean inTransaction;
+    private int transactionSegments;
+
+    StaEDIEventLogReader(InputStream stream, Map<String, Object> properties, EDIInputErrorReporter reporter) throws EDIStreamException {
+        this.properties = new HashMap<>(properties);
+        this.reporter = reporter;
+        reset(stream);
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("Reader is closed");
+        }
+    }
+
+    private void requireEvent(String message, EDIStreamEvent... events) {
+        for (EDIStreamEvent e : events) {
+            if (current.type == e) {
+                return;
+            }
+        }
+
+        throw new IllegalStateException(message);
+    }
+
+    private static <T> T available(T value, String valueType) {
+        if (value == null) {
+            throw new IllegalStateException(valueType + " not accessible");
+        }
+        return value;
+    }
+
+    @Override
+    public Object getProperty(String name) {
+        if (name == null) {
+            throw new IllegalArgumentException("Name must not be null");
+        }
+        return properties.get(name);
+    }
+
+    @Override
+    public Map<String, Character> getDelimiters() {
+        if (delimiters == null) {
+            throw new IllegalStateException("getDelimiters must be called "
+                    + "within an interchange");
+        }
+        return delimiters;
+    }
+
+    @Override
+    EDIInputErrorReporter getReporter() {
+        return reporter;
+    }
+
+    @Override
+    EDIStreamEvent nextEvent() throws EDIStreamException {
+        ensureOpen();
+
+        if (pendingAvailable) {
+            Event next = pending;
+            pending = current;
+            current = next;
+            pendingAvailable = false;
+        } else if (!hasNext()) {
+            throw new NoSuchElementException("Reader is complete");
+        } else {
+            try {
+                read(current);
+            } catch (IOException e) {
+                throw new EDIStreamException("Error reading event log", getLocation(), e);
+            }
+        }
+
+        switch (current.type) {
+        case START_TRANSACTION:
+            inTransaction = true;
+            transactionSegments = 0;
+            transactionSchema = null;
+            break;
+        case START_SEGMENT:
+            transactionSegments++;
+            break;
+        case END_TRANSACTION:
+            inTransaction = false;
+            break;
+        default:
+            break;
+        }
+
+        return current.type;
+    }
+
+    @Override
+    public boolean nextSegment(SegmentView view) throws EDIStreamException {
+        return StaEDIStreamReader.segmentView(view).read(this);
+    }
+
+    @Override
+    public EDIStreamEvent skipSegment() throws EDIStreamException {
+        ensureOpen();
+        requireEvent("not a valid segment state [" + getEventType() + ']',
+                     EDIStreamEvent.START_SEGMENT,
+                     EDIStreamEvent.START_COMPOSITE,
+                     EDIStreamEvent.END_COMPOSITE,
+                     EDIStreamEvent.ELEMENT_DATA,
+                     EDIStreamEvent.ELEMENT_DATA_BINARY,
+                     EDIStreamEvent.ELEMENT_DATA_ERROR,
+                     EDIStreamEvent.ELEMENT_OCCURRENCE_ERROR);
+
+        return skipEvents(EDIStreamEvent.END_SEGMENT);
+    }
+
+    @Override
+    public EDIStreamEvent skipLoop() throws EDIStreamException {
+        ensureOpen();
+        requireEvent("not a valid loop state [" + getEventType() + ']', EDIStreamEvent.START_LOOP);
+
+        return skipEvents(EDIStreamEvent.END_LOOP);
+    }
+
+    @Override
+    public EDIStreamEvent skipTransaction() throws EDIStreamException {
+        ensureOpen();
+
+        if (!isTransactionSchemaAllowed()) {
+            throw new IllegalStateException("Transaction can only be skipped during transaction start");
+        }
+
+        if (current.type != EDIStreamEvent.END_SEGMENT) {
+            skipEvents(EDIStreamEvent.END_SEGMENT);
+        }
+
+        final String trailer = trailerTag();
+
+        try {
+            // Discard the recorded events until the trailer, which is held for the following call to `next`
+            while (!pendingAvailable && hasNext()) {
+                read(pending);
+
+                pendingAvailable = pending.type == EDIStreamEvent.END_TRANSACTION
+                        || (pending.type == EDIStreamEvent.START_SEGMENT && Objects.equals(trailer, pending.token));
+            }
+        } catch (IOException e) {
+            throw new EDIStreamException("Error reading event log", getLocation(), e);
+        }
+
+        return EDIStreamEvent.END_SEGMENT;
+    }
+
+    String trailerTag() {
+        if (standard == null) {
+            return null;
+        }
+
+        switch (standard) {
+        case Standards.X12:
+            return "SE";
+        case Standards.EDIFACT:
+            return "UNT";
+        case Standards.TRADACOMS:
+            return "MTR";
+        default:
+            return null;
+        }
+    }
+
+    boolean isTransactionSchemaAllowed() {
+        // From the start of the transaction until the header segment is complete
+        return inTransaction && transactionSegments < 2;
+    }
+
+    EDIStreamEvent skipEvents(EDIStreamEvent end) throws EDIStreamException {
+        int depth = 1;
+        EDIStreamEvent event = null;
+
+        while (depth > 0 && hasNext()) {
+            event = nextEvent();
+
+            if (event == end) {
+                depth--;
+            } else if (event == EDIStreamEvent.START_LOOP && end == EDIStreamEvent.END_LOOP) {
+                depth++;
+            }
+        }
+
+        return event;
+    }
+
+    @Override
+    public void reset(InputStream stream) throws EDIStreamException {
+        Objects.requireNonNull(stream, "stream");
+        this.stream = stream;
+        position = 0;
+        limit = 0;
+        tokens.clear();
+        references.clear();
+        types.clear();
+        System.arraycopy(StaEDIEventLogWriter.INITIAL_LOCATION, 0, location, 0, LOCATION_FIELDS);
+        segmentTag = null;
+        current.type = null;
+        current.location.set(location, null);
+        pendingAvailable = false;
+        closed = false;
+        standard = null;
+        version = null;
+        delimiters = null;
+        transactionType = null;
+        transactionVersion = null;
+        transactionVersionString = null;
+        controlSchema = null;
+        transactionSchema = null;
+        inTransaction = false;
+
+        try {
+            if (readInt() != StaEDIEventLogWriter.MAGIC) {
+                throw new EDIStreamException(MSG_INVALID);
+            }
+
+            int logVersion = read() << 8 | read();
+
+            if (logVersion != StaEDIEventLogWriter.VERSION) {
+                throw new EDIStreamException("Unsupported event log version: " + logVersion);
+            }
+        } catch (IOException e) {
+            throw new EDIStreamException(MSG_INVALID, null, e);
+        }
+    }
+
+    /**
+     * The event log is binary, the encoding is ignored.
+     */
+    @Override
+    public void reset(InputStream stream, String encoding) throws EDIStreamException {
+        reset(stream);
+    }
+
+    @Override
+    public boolean hasNext() throws EDIStreamException {
+        ensureOpen();
+
+        if (pendingAvailable) {
+            return true;
+        }
+
+        try {
+            return position < limit || fill();
+        } catch (IOException e) {
+            throw new EDIStreamException("Error reading event log", getLocation(), e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.closed = true;
+        // Do not close the stream
+    }
+
+    @Override
+    public EDIStreamEvent getEventType() {
+        ensureOpen();
+        return current.type;
+    }
+
+    @Override
+    public String getStandard() {
+        return available(standard, "standard");
+    }
+
+    @Override
+    public String[] getVersion() {
+        String[] value = available(version, "version");
+        return Arrays.copyOf(value, value.length);
+    }
+
+    @Override
+    public String[] getTransactionVersion() {
+        String[] value = available(transactionVersion, "transaction version");
+        return Arrays.copyOf(value, value.length);
+    }
+
+    @Override
+    public String getTransactionVersionString() {
+        return available(transactionVersionString, "transaction version");
+    }
+
+    @Override
+    public String getTransactionType() {
+        return available(transactionType, "transaction type");
+    }
+
+    @Override
+    public Schema getControlSchema() {
+        return controlSchema;
+    }
+
+    @Override
+    public void setControlSchema(Schema schema) {
+        if (getEventType() != EDIStreamEvent.START_INTERCHANGE) {
+            throw new IllegalStateException("control schema set after interchange start");
+        }
+
+        this.controlSchema = schema;
+    }
+
+    @Override
+    public Schema getTransactionSchema() {
+        return transactionSchema;
+    }
+
+    @Override
+    public void setTransactionSchema(Schema schema) {
+        if (!isTransactionSchemaAllowed()) {
+            throw new IllegalStateException("Transaction schema can only be set during transaction start");
+        }
+
+        this.transactionSchema = schema;
+    }
+
+    @Override
+    public String getReferenceCode() {
+        return current.referenceCode;
+    }
+
+    @Override
+    public EDIStreamValidationError getErrorType() {
+        requireEvent("not a valid error state",
+                     EDIStreamEvent.ELEMENT_DATA_ERROR,
+                     EDIStreamEvent.ELEMENT_OCCURRENCE_ERROR,
+                     EDIStreamEvent.SEGMENT_ERROR);
+        return current.error;
+    }
+
+    private void checkTextState() {
+        if (!hasText()) {
+            throw new IllegalStateException("not a valid text state [" + getEventType() + ']');
+        }
+    }
+
+    @Override
+    public boolean hasText() {
+        return current.type != null && current.text;
+    }
+
+    @Override
+    public String getText() {
+        checkTextState();
+        return current.token != null ? current.token : new String(current.chars, 0, current.length);
+    }
+
+    @Override
+    public char[] getTextCharacters() {
+        checkTextState();
+
+        if (current.token == null) {
+            return current.chars;
+        }
+
+        final int length = current.token.length();
+
+        if (tokenChars.length < length) {
+            tokenChars = new char[Math.max(length, tokenChars.length * 2)];
+        }
+
+        current.token.getChars(0, length, tokenChars, 0);
+        return tokenChars;
+    }
+
+    @Override
+    void copyText(int sourceStart, char[] target, int targetStart, int length) {
+        if (current.token != null) {
+            current.token.getChars(sourceStart, sourceStart + length, target, targetStart);
+        } else {
+            System.arraycopy(current.chars, sourceStart, target, targetStart, length);
+        }
+    }
+
+    @Override
+    public int getTextStart() {
+        checkTextState();
+        return 0;
+    }
+
+    @Override
+    public int getTextLength() {
+        checkTextState();
+        return current.token != null ? current.token.length() : current.length;
+    }
+
+    @Override
+    public long getLongValue() {
+        return ValueParser.parseLong(getElementCharacters());
+    }
+
+    @Override
+    public int getIntValue() {
+        return ValueParser.parseInt(getElementCharacters());
+    }
+
+    @Override
+    public BigDecimal getDecimalValue() {
+        CharBuffer value = getElementCharacters();
+        EDIReference reference = current.reference;
+        EDISimpleType type = null;
+
+        if (reference != null && reference.getReferencedType() instanceof EDISimpleType) {
+            type = (EDISimpleType) reference.getReferencedType();
+        }
+
+        Character mark = delimiters != null ? delimiters.get(Delimiters.DECIMAL) : null;
+
+        if (mark != null && mark != '.') {
+            // The value is parsed without a dialect, which accepts only a period
+            char[] text = Arrays.copyOf(current.chars, current.length);
+
+            for (int i = 0; i < text.length; i++) {
+                if (text[i] == mark) {
+                    text[i] = '.';
+                }
+            }
+
+            value = CharBuffer.wrap(text);
+        }
+
+        return ValueParser.parseDecimal(value, type, null);
+    }
+
+    @Override
+    public LocalDate getDateValue() {
+        return ValueParser.parseDate(getElementCharacters());
+    }
+
+    @Override
+    public LocalTime getTimeValue() {
+        return ValueParser.parseTime(getElementCharacters());
+    }
+
+    private CharBuffer getElementCharacters() {
+        ensureOpen();
+        requireEvent("not a valid element data state [" + getEventType() + ']', EDIStreamEvent.ELEMENT_DATA);
+        return CharBuffer.wrap(current.chars, 0, current.length);
+    }
+
+    @Override
+    public Location getLocation() {
+        ensureOpen();
+        return current.location;
+    }
+
+    /**
+     * The lengths of binary elements were determined when the log was
+     * recorded, the length given is not used.
+     */
+    @Override
+    public void setBinaryDataLength(long length) throws EDIStreamException {
+        ensureOpen();
+        requireEvent("invalid state for setting binary length",
+                     EDIStreamEvent.START_SEGMENT,
+                     EDIStreamEvent.ELEMENT_DATA,
+                     EDIStreamEvent.END_COMPOSITE);
+    }
+
+    @Override
+    public InputStream getBinaryData() {
+        ensureOpen();
+        requireEvent("not binary data element", EDIStreamEvent.ELEMENT_DATA_BINARY);
+        return new ByteArrayInputStream(current.binary, 0, current.binaryLength);
+    }
+
+    @Override
+    public EDIReference getSchemaTypeReference() {
+        return current.reference;
+    }
+
+    /**************************************************************************/
+
+    void read(Event event) throws IOException {
+        int kind = read();
+
+        while (kind == StaEDIEventLogWriter.RECORD_STATE) {
+            readState();
+            kind = read();
+        }
+
+        if (kind >= EVENTS.length) {
+            throw new IOException(MSG_INVALID);
+        }
+
+        final int flags = read();
+
+        event.type = EVENTS[kind];
+
+        if ((flags & FLAG_LOCATION) != 0) {
+            readLocation();
+        }
+
+        event.location.set(location, segmentTag);
+        event.text = (flags & (FLAG_TEXT | FLAG_TEXT_TOKEN)) != 0;
+
+        if ((flags & FLAG_TEXT_TOKEN) != 0) {
+            event.token = readToken();
+        } else {
+            event.token = null;
+            event.length = (flags & FLAG_TEXT) != 0 ? readText(event) : 0;
+        }
+
+        event.referenceCode = (flags & FLAG_REFERENCE_CODE) != 0 ? readToken() : null;
+        event.reference = (flags & FLAG_TYPE_REFERENCE) != 0 ? readReference() : null;
+        event.error = (flags & FLAG_ERROR) != 0 ? ERRORS[readVarint()] : null;
+
+        if ((flags & FLAG_BINARY) != 0) {
+            readBinary(event);
+        }
+    }
+
+    void readState() throws IOException {
+        standard = readToken();
+        version = readTokens();
+
+        int delimiterCount = readVarint();
+
+        if (delimiterCount == 0) {
+            delimiters = null;
+        } else {
+            Map<String, Character> values = new HashMap<>(delimiterCount);
+
+            for (int i = 1; i < delimiterCount; i++) {
+                values.put(readToken(), (char) readVarint());
+            }
+
+            delimiters = Collections.unmodifiableMap(values);
+        }
+
+        transactionType = readToken();
+        transactionVersion = readTokens();
+        transactionVersionString = readToken();
+    }
+
+    void readLocation() throws IOException {
+        final int mask = read();
+
+        for (int i = 0; i < LOCATION_FIELDS; i++) {
+            if ((mask & (1 << i)) != 0) {
+                int delta = readVarint();
+                location[i] += (delta >>> 1) ^ -(delta & 1);
+            }
+        }
+
+        if ((mask & LOCATION_TAG) != 0) {
+            segmentTag = readToken();
+        }
+    }
+
+    EDIReference readReference() throws IOException {
+        int index = readVarint() - 1;
+
+        if (index < references.size()) {
+            return references.get(index);
+        }
+
+        // Reserve the index, the type may contain further references
+        references.add(null);
+
+        final int minOccurs = readVarint();
+        final int maxOccurs = readVarint();
+        final String title = readToken();
+        final String description = readToken();
+        EDIReference reference = new LoggedReference(readType(), minOccurs, maxOccurs, title, description);
+        references.set(index, reference);
+        return reference;
+    }
+
+    EDIType readType() throws IOException {
+        int index = readVarint() - 1;
+
+        if (index < 0) {
+            return null;
+        }
+
+        if (index < types.size()) {
+            return types.get(index);
+        }
+
+        // Reserve the index, a complex type may contain further references
+        types.add(null);
+
+        final int kind = read();
+        final String id = readToken();
+        final String code = readToken();
+        final EDIType.Type type = TYPES[read()];
+        final String title = readToken();
+        final String description = readToken();
+        final EDIType result;
+
+        if (kind == StaEDIEventLogWriter.TYPE_SIMPLE) {
+            EDISimpleType.Base base = BASES[read()];
+            int scale = readVarint();
+            int number = readVarint();
+            long minLength = readVarlong();
+            long maxLength = readVarlong();
+            result = new LoggedSimpleType(id, code, type, title, description, base,
+                                          scale > 0 ? Integer.valueOf(scale - 1) : null,
+                                          (number >>> 1) ^ -(number & 1),
+                                          minLength,
+                                          maxLength);
+        } else if (kind == StaEDIEventLogWriter.TYPE_COMPLEX) {
+            int count = readVarint();
+            List<EDIReference> children = new ArrayList<>(count);
+
+            for (int i = 0; i < count; i++) {
+                children.add(readReference());
+            }
+
+            result = new LoggedComplexType(id, code, type, title, description, Collections.unmodifiableList(children));
+        } else {
+            result = new LoggedComplexType(id, code, type, title, description, Collections.emptyList());
+        }
+
+        types.set(index, result);
+        return result;
+    }
+
+    String[] readTokens() throws IOException {
+        int count = readVarint();
+
+        if (count == 0) {
+            return null;
+        }
+
+        String[] values = new String[count - 1];
+
+        for (int i = 0; i < values.length; i++) {
+            values[i] = readToken();
+        }
+
+        return values;
+    }
+
+    String readToken() throws IOException {
+        int index = readVarint() - 1;
+
+        if (index < 0) {
+            return null;
+        }
+
+        if (index < tokens.size()) {
+            return tokens.get(index);
+        }
+
+        char[] chars = new char[readVarint()];
+        readChars(chars, chars.length);
+        String value = new String(chars);
+        tokens.add(value);
+        return value;
+    }
+
+    int readText(Event event) throws IOException {
+        final int length = readVarint();
+
+        if (event.chars.length < length) {
+            event.chars = new char[Math.max(length, event.chars.length * 2)];
+        }
+
+        readChars(event.chars, length);
+        return length;
+    }
+
+    void readChars(char[] chars, int length) throws IOException {
+        for (int i = 0; i < length; i++) {
+            if (position == limit && !fill()) {
+                throw new EOFException();
+            }
+
+            final int b = buffer[position++];
+
+            if (b >= 0) {
+                chars[i] = (char) b;
+            } else if ((b & 0xE0) == 0xC0) {
+                chars[i] = (char) ((b & 0x1F) << 6 | (read() & 0x3F));
+            } else {
+                chars[i] = (char) ((b & 0x0F) << 12 | (read() & 0x3F) << 6 | (read() & 0x3F));
+            }
+        }
+    }
+
+    void readBinary(Event event) throws IOException {
+        final int length = readVarint();
+
+        if (event.binary.length < length) {
+            event.binary = new byte[length];
+        }
+
+        int offset = 0;
+
+        while (offset < length) {
+            if (position == limit && !fill()) {
+                throw new EOFException();
+            }
+
+            int count = Math.min(length - offset, limit - position);
+            System.arraycopy(buffer, position, event.binary, offset, count);
+            position += count;
+            offset += count;
+        }
+
+        event.binaryLength = length;
+    }
+
+    int readInt() throws IOException {
+        return read() << 24 | read() << 16 | read() << 8 | read();
+    }
+
+    int readVarint() throws IOException {
+        return (int) readVarlong();
+    }
+
+    long readVarlong() throws IOException {
+        long result = 0;
+
+        for (int shift = 0; shift < 64; shift += 7) {
+            final int b = read();
+            result |= (long) (b & 0x7F) << shift;
+
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+
+        throw new IOException(MSG_INVALID);
+    }
+
+    int read() throws IOException {
+        if (position == limit && !fill()) {
+            throw new EOFException();
+        }
+
+        return buffer[position++] & 0xFF;
+    }
+
+    boolean fill() throws IOException {
+        int count = stream.read(buffer, 0, buffer.length);
+
+        if (count > 0) {
+            position = 0;
+            limit = count;
+            return true;
+        }
+
+        return false;
+    }
+
+    static class LoggedReference implements EDIReference {
+        final EDIType referencedType;
+        final int minOccurs;
+        final int maxOccurs;
+        final String title;
+        final String description;
+
+        LoggedReference(EDIType referencedType, int minOccurs, int maxOccurs, String title, String description) {
+            this.referencedType = referencedType;
+            this.minOccurs = minOccurs;
+            this.maxOccurs = maxOccurs;
+            this.title = title;
+            this.description = description;
+        }
+
+        @Override
+        public EDIType getReferencedType() {
+            return referencedType;
+        }
+
+        @Override
+        public int getMinOccurs() {
+            return minOccurs;
+        }
+
+        @Override
+        public int getMaxOccurs() {
+            return maxOccurs;
+        }
+
+        @Override
+        public String getTitle() {
+            return title;
+        }
+
+        @Override
+        public String getDescription() {
+            return description;
+        }
+    }
+
+    static class LoggedType implements EDIType {
+        final String id;
+        final String code;
+        final Type type;
+        final String title;
+        final String description;
+
+        LoggedType(String id, String code, Type type, String title, String description) {
+            this.id = id;
+            this.code = code;
+            this.type = type;
+            this.title = title;
+            this.description = description;
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public String getCode() {
+            return code;
+        }
+
+        @Override
+        public Type getType() {
+            return type;
+        }
+
+        @Override
+        public String getTitle() {
+            return title;
+        }
+
+        @Override
+        public String getDescription() {
+            return description;
+        }
+
+        @Override
+        public String toString() {
+            return "id: " + id + ", type: " + type + ", code: " + code;
+        }
+    }
+
+    static class LoggedComplexType extends LoggedType implements EDIComplexType {
+        final List<EDIReference> references;
+
+        LoggedComplexType(String id, String code, Type type, String title, String description, List<EDIReference> references) {
+            super(id, code, type, title, description);
+            this.references = references;
+        }
+
+        @Override
+        public List<EDIReference> getReferences() {
+            return references;
+        }
+
+        @Override
+        public List<EDISyntaxRule> getSyntaxRules() {
+            return Collections.emptyList();
+        }
+    }
+
+    static class LoggedSimpleType extends LoggedType implements EDISimpleType {
+        final Base base;
+        final Integer scale;
+        final int number;
+        final long minLength;
+        final long maxLength;
+
+        @SuppressWarnings("java:S107")
+        LoggedSimpleType(String id, String code, Type type, String title, String description,
+                Base base, Integer scale, int number, long minLength, long maxLength) {
+            super(id, code, type, title, description);
+            this.base = base;
+            this.scale = scale;
+            this.number = number;
+            this.minLength = minLength;
+            this.maxLength = maxLength;
+        }
+
+        @Override
+        public Base getBase() {
+            return base;
+        }
+
+        @Override
+        public Integer getScale() {
+            return scale;
+        }
+
+        @Override
+        public int getNumber() {
+            return number;
+        }
+
+        @Override
+        public long getMinLength() {
+            return minLength;
+        }
+
+        @Override
+        public long getMaxLength() {
+            return maxLength;
+        }
+
+        @Override
+        public Map<String, String> getValues() {
+            return Collections.emptyMap();
+        }
+    }
+}
@@ -0,0 +1,502 @@
+/*******************************************************************************
+ * Copyright 2023 xlate.io LLC, http://www.xlate.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package io.xlate.edi.internal.stream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+import io.xlate.edi.schema.EDIComplexType;
+import io.xlate.edi.schema.EDIReference;
+import io.xlate.edi.schema.EDISimpleType;
+import io.xlate.edi.schema.EDIType;
+import io.xlate.edi.stream.EDIStreamEvent;
+import io.xlate.edi.stream.EDIStreamException;
+import io.xlate.edi.stream.EDIStreamReader;
+import io.xlate.edi.stream.Location;
+
+/**
+ * Records the events of a reader to a compact binary log that may be replayed
+ * by {@link StaEDIEventLogReader} without lexing or validating the original
+ * input again. Segment tags, reference codes, and schema references are
+ * written once and referred to by index thereafter. Locations are written as
+ * the differences from the location of the previous event.
+ */
+final class StaEDIEventLogWriter {
+
+    static final int MAGIC = 0x4544494C; // "EDIL"
+    static final int VERSION = 1;
+
+    /**
+     * Record of the reader's standard, versions, and delimiters. Written before
+     * the event at which a change was observed.
+     */
+    static final int RECORD_STATE = 0xFF;
+
+    static final int FLAG_TEXT = 0x01;
+    static final int FLAG_TEXT_TOKEN = 0x02;
+    static final int FLAG_REFERENCE_CODE = 0x04;
+    static final int FLAG_TYPE_REFERENCE = 0x08;
+    static final int FLAG_ERROR = 0x10;
+    static final int FLAG_BINARY = 0x20;
+    static final int FLAG_LOCATION = 0x40;
+
+    /*
+     * Location fields: line, column, offset, segment position, element
+     * position, component position, element occurrence. Bits 0 - 6 of the
+     * location mask identify the changed fields, bit 7 the segment tag.
+     */
+    static final int LOCATION_FIELDS = 7;
+    static final int LOCATION_TAG = 0x80;
+    static final int[] INITIAL_LOCATION = { 1, 0, 0, -1, -1, -1, -1 };
+
+    static final int TYPE_BASIC = 1;
+    static final int TYPE_SIMPLE = 2;
+    static final int TYPE_COMPLEX = 3;
+
+    private final OutputStream stream;
+    private final byte[] buffer = new byte[8192];
+    private int position;
+
+    private final Map<String, Integer> tokens = new HashMap<>();
+    private final Map<EDIReference, Integer> references = new IdentityHashMap<>();
+    private final Map<EDIType, Integer> types = new IdentityHashMap<>();
+
+    private final int[] location = Arrays.copyOf(INITIAL_LOCATION, LOCATION_FIELDS);
+    private final int[] nextLocation = new int[LOCATION_FIELDS];
+    private String segmentTag;
+
+    private boolean statePending;
+    private String standard;
+    private String[] version;
+    private Map<String, Character> delimiters;
+    private String transactionType;
+    private String[] transactionVersion;
+    private String transactionVersionString;
+
+    private byte[] binary = new byte[256];
+
+    StaEDIEventLogWriter(OutputStream stream) {
+        this.stream = stream;
+    }
+
+    /**
+     * Write the events of the reader until the end of its input, beginning
+     * with its current event, if any. The stream is flushed, but not closed.
+     */
+    void write(EDIStreamReader reader) throws EDIStreamException {
+        try {
+            writeInt(MAGIC);
+            write(VERSION >>> 8);
+            write(VERSION);
+
+            EDIStreamEvent event = reader.getEventType();
+
+            if (event != null) {
+                writeEvent(reader, event);
+            }
+
+            while (reader.hasNext()) {
+                writeEvent(reader, reader.next());
+            }
+
+            flush();
+            stream.flush();
+        } catch (IOException e) {
+            throw new EDIStreamException("Exception writing the event log", reader.getLocation(), e);
+        }
+    }
+
+    void writeEvent(EDIStreamReader reader, EDIStreamEvent event) throws IOException {
+        switch (event) {
+        case START_INTERCHANGE:
+        case START_GROUP:
+        case START_TRANSACTION:
+        case END_TRANSACTION:
+        case END_GROUP:
+        case END_INTERCHANGE:
+            // Also checked at the end of the header segment, once it is read completely
+            statePending = true;
+            writeState(reader);
+            break;
+        case END_SEGMENT:
+            if (statePending) {
+                statePending = false;
+                writeState(reader);
+            }
+            break;
+        default:
+            break;
+        }
+
+        final boolean text = reader.hasText();
+        final boolean textToken = text && isTokenText(event);
+        final String referenceCode = reader.getReferenceCode();
+        final EDIReference reference = reader.getSchemaTypeReference();
+        final int locationMask = locationChanges(reader.getLocation());
+
+        int flags = 0;
+
+        if (text) {
+            flags |= textToken ? FLAG_TEXT_TOKEN : FLAG_TEXT;
+        }
+        if (referenceCode != null) {
+            flags |= FLAG_REFERENCE_CODE;
+        }
+        if (reference != null) {
+            flags |= FLAG_TYPE_REFERENCE;
+        }
+        if (event.isError()) {
+            flags |= FLAG_ERROR;
+        }
+        if (event == EDIStreamEvent.ELEMENT_DATA_BINARY) {
+            flags |= FLAG_BINARY;
+        }
+        if (locationMask != 0) {
+            flags |= FLAG_LOCATION;
+        }
+
+        write(event.ordinal());
+        write(flags);
+
+        if (locationMask != 0) {
+            writeLocation(locationMask);
+        }
+
+        if (textToken) {
+            writeToken(reader.getText());
+        } else if (text) {
+            writeText(StaEDISegmentView.text(reader));
+        }
+
+        if (referenceCode != null) {
+            writeToken(referenceCode);
+        }
+        if (reference != null) {
+            writeReference(reference);
+        }
+        if (event.isError()) {
+            writeVarint(reader.getErrorType().ordinal());
+        }
+        if (event == EDIStreamEvent.ELEMENT_DATA_BINARY) {
+            writeBinary(reader.getBinaryData());
+        }
+    }
+
+    static boolean isTokenText(EDIStreamEvent event) {
+        switch (event) {
+        case ELEMENT_DATA:
+        case ELEMENT_DATA_ERROR:
+        case ELEMENT_OCCURRENCE_ERROR:
+            return false;
+        default:
+            // Segment tags and loop codes
+            return true;
+        }
+    }
+
+    void writeState(EDIStreamReader reader) throws IOException {
+        String nextStandard = available(reader::getStandard);
+        String[] nextVersion = available(reader::getVersion);
+        Map<String, Character> nextDelimiters = available(reader::getDelimiters);
+        String nextTransactionType = available(reader::getTransactionType);
+        String[] nextTransactionVersion = available(reader::getTransactionVersion);
+        String nextTransactionVersionString = available(reader::getTransactionVersionString);
+
+        if (Objects.equals(standard, nextStandard)
+                && Arrays.equals(version, nextVersion)
+                && Objects.equals(delimiters, nextDelimiters)
+                && Objects.equals(transactionType, nextTransactionType)
+                && Arrays.equals(transactionVersion, nextTransactionVersion)
+                && Objects.equals(transactionVersionString, nextTransactionVersionString)) {
+            return;
+        }
+
+        standard = nextStandard;
+        version = nextVersion;
+        delimiters = nextDelimiters;
+        transactionType = nextTransactionType;
+        transactionVersion = nextTransactionVersion;
+        transactionVersionString = nextTransactionVersionString;
+
+        write(RECORD_STATE);
+        writeToken(standard);
+        writeTokens(version);
+
+        if (delimiters == null) {
+            writeVarint(0);
+        } else {
+            writeVarint(delimiters.size() + 1);
+
+            for (Map.Entry<String, Character> delimiter : delimiters.entrySet()) {
+                writeToken(delimiter.getKey());
+                writeVarint(delimiter.getValue());
+            }
+        }
+
+        writeToken(transactionType);
+        writeTokens(transactionVersion);
+        writeToken(transactionVersionString);
+    }
+
+    static <T> T available(Supplier<T> value) {
+        try {
+            return value.get();
+        } catch (IllegalStateException e) {
+            return null;
+        }
+    }
+
+    int locationChanges(Location next) {
+        nextLocation[0] = next.getLineNumber();
+        nextLocation[1] = next.getColumnNumber();
+        nextLocation[2] = next.getCharacterOffset();
+        nextLocation[3] = next.getSegmentPosition();
+        nextLocation[4] = next.getElementPosition();
+        nextLocation[5] = next.getComponentPosition();
+        nextLocation[6] = next.getElementOccurrence();
+
+        int mask = 0;
+
+        for (int i = 0; i < LOCATION_FIELDS; i++) {
+            if (nextLocation[i] != location[i]) {
+                mask |= 1 << i;
+            }
+        }
+
+        String nextTag = next.getSegmentTag();
+
+        if (!Objects.equals(segmentTag, nextTag)) {
+            mask |= LOCATION_TAG;
+            segmentTag = nextTag;
+        }
+
+        return mask;
+    }
+
+    void writeLocation(int mask) throws IOException {
+        write(mask);
+
+        for (int i = 0; i < LOCATION_FIELDS; i++) {
+            if ((mask & (1 << i)) != 0) {
+                int delta = nextLocation[i] - location[i];
+                writeVarint((delta << 1) ^ (delta >> 31));
+                location[i] = nextLocation[i];
+            }
+        }
+
+        if ((mask & LOCATION_TAG) != 0) {
+            writeToken(segmentTag);
+        }
+    }
+
+    void writeReference(EDIReference reference) throws IOException {
+        Integer index = references.get(reference);
+
+        if (index != null) {
+            writeVarint(index + 1);
+            return;
+        }
+
+        references.put(reference, references.size());
+        writeVarint(references.size());
+        writeVarint(reference.getMinOccurs());
+        writeVarint(reference.getMaxOccurs());
+        writeToken(reference.getTitle());
+        writeToken(reference.getDescription());
+        writeType(reference.getReferencedType());
+    }
+
+    void writeType(EDIType type) throws IOException {
+        if (type == null) {
+            writeVarint(0);
+            return;
+        }
+
+        Integer index = types.get(type);
+
+        if (index != null) {
+            writeVarint(index + 1);
+            return;
+        }
+
+        types.put(type, types.size());
+        writeVarint(types.size());
+
+        final boolean simple = type instanceof EDISimpleType;
+        final boolean complex = type instanceof EDIComplexType;
+
+        write(simple ? TYPE_SIMPLE : (complex ? TYPE_COMPLEX : TYPE_BASIC));
+        writeToken(type.getId());
+        writeToken(type.getCode());
+        write(type.getType().ordinal());
+        writeToken(type.getTitle());
+        writeToken(type.getDescription());
+
+        if (simple) {
+            EDISimpleType simpleType = (EDISimpleType) type;
+            Integer scale = simpleType.getScale();
+            int number = simpleType.getNumber();
+
+            write(simpleType.getBase().ordinal());
+            writeVarint(scale != null ? scale + 1 : 0);
+            writeVarint((number << 1) ^ (number >> 31));
+            writeVarlong(simpleType.getMinLength());
+            writeVarlong(simpleType.getMaxLength());
+        } else if (complex) {
+            // Child references are needed by consumers such as the XML reader, e.g. to wrap transaction contents
+            List<EDIReference> children = ((EDIComplexType) type).getReferences();
+            writeVarint(children.size());
+
+            for (EDIReference child : children) {
+                writeReference(child);
+            }
+        }
+    }
+
+    void writeTokens(String[] values) throws IOException {
+        if (values == null) {
+            writeVarint(0);
+        } else {
+            writeVarint(values.length + 1);
+
+            for (String value : values) {
+                writeToken(value);
+            }
+        }
+    }
+
+    /**
+     * Write a string as a reference to its first occurrence, or in full
+     * preceded by its new index when not previously written.
+     */
+    void writeToken(String value) throws IOException {
+        if (value == null) {
+            writeVarint(0);
+            return;
+        }
+
+        Integer index = tokens.get(value);
+
+        if (index != null) {
+            writeVarint(index + 1);
+        } else {
+            tokens.put(value, tokens.size());
+            writeVarint(tokens.size());
+            writeText(value);
+        }
+    }
+
+    void writeText(CharSequence text) throws IOException {
+        final int length = text.length();
+        writeVarint(length);
+
+        if (text instanceof CharBuffer && ((CharBuffer) text).hasArray()) {
+            CharBuffer chars = (CharBuffer) text;
+            char[] array = chars.array();
+            int offset = chars.arrayOffset() + chars.position();
+
+            for (int i = 0; i < length; i++) {
+                writeChar(array[offset + i]);
+            }
+        } else {
+            for (int i = 0; i < length; i++) {
+                writeChar(text.charAt(i));
+            }
+        }
+    }
+
+    void writeChar(char c) throws IOException {
+        if (position + 3 > buffer.length) {
+            flush();
+        }
+
+        if (c < 0x80) {
+            buffer[position++] = (byte) c;
+        } else if (c < 0x800) {
+            buffer[position++] = (byte) (0xC0 | (c >> 6));
+            buffer[position++] = (byte) (0x80 | (c & 0x3F));
+        } else {
+            buffer[position++] = (byte) (0xE0 | (c >> 12));
+            buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+            buffer[position++] = (byte) (0x80 | (c & 0x3F));
+        }
+    }
+
+    void writeBinary(InputStream data) throws IOException {
+        int length = 0;
+        int count;
+
+        while ((count = data.read(binary, length, binary.length - length)) > -1) {
+            length += count;
+
+            if (length == binary.length) {
+                binary = Arrays.copyOf(binary, binary.length * 2);
+            }
+        }
+
+        writeVarint(length);
+        flush();
+        stream.write(binary, 0, length);
+    }
+
+    void writeInt(int value) throws IOException {
+        write(value >>> 24);
+        write(value >>> 16);
+        write(value >>> 8);
+        write(value);
+    }
+
+    void writeVarint(int value) throws IOException {
+        writeVarlong(value & 0xFFFFFFFFL);
+    }
+
+    void writeVarlong(long value) throws IOException {
+        if (position + 10 > buffer.length) {
+            flush();
+        }
+
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+
+        buffer[position++] = (byte) value;
+    }
+
+    void write(int value) throws IOException {
+        if (position == buffer.length) {
+            flush();
+        }
+
+        buffer[position++] = (byte) value;
+    }
+
+    void flush() throws IOException {
+        if (position > 0) {
+            stream.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+}
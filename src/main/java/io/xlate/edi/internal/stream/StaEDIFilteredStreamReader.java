@@ -17,6 +17,9 @@ package io.xlate.edi.internal.stream;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.Map;
 
 import io.xlate.edi.schema.EDIReference;
@@ -27,6 +30,7 @@ import io.xlate.edi.stream.EDIStreamFilter;
 import io.xlate.edi.stream.EDIStreamReader;
 import io.xlate.edi.stream.EDIStreamValidationError;
 import io.xlate.edi.stream.Location;
+import io.xlate.edi.stream.SegmentView;
 
 class StaEDIFilteredStreamReader implements EDIStreamReader {
 
@@ -66,6 +70,48 @@ class StaEDIFilteredStreamReader implements EDIStreamReader {
         return event;
     }
 
+    @Override
+    public boolean nextSegment(SegmentView view) throws EDIStreamException {
+        return StaEDIStreamReader.segmentView(view).read(this);
+    }
+
+    @Override
+    public EDIStreamEvent skipSegment() throws EDIStreamException {
+        ensureNotPeeked();
+        return delegate.skipSegment();
+    }
+
+    @Override
+    public EDIStreamEvent skipLoop() throws EDIStreamException {
+        ensureNotPeeked();
+        return delegate.skipLoop();
+    }
+
+    @Override
+    public EDIStreamEvent skipTransaction() throws EDIStreamException {
+        ensureNotPeeked();
+        return delegate.skipTransaction();
+    }
+
+    @Override
+    public void reset(InputStream stream) throws EDIStreamException {
+        delegate.reset(stream);
+        peekEvent = null;
+    }
+
+    @Override
+    public void reset(InputStream stream, String encoding) throws EDIStreamException {
+        delegate.reset(stream, encoding);
+        peekEvent = null;
+    }
+
+    void ensureNotPeeked() {
+        if (peekEvent != null) {
+            // The delegate has already advanced beyond the current event
+            throw new IllegalStateException("Skip not permitted following hasNext");
+        }
+    }
+
     @Override
     public EDIStreamEvent nextTag() throws EDIStreamException {
         if (peekEvent == EDIStreamEvent.START_SEGMENT) {
@@ -170,6 +216,31 @@ class StaEDIFilteredStreamReader implements EDIStreamReader {
         return delegate.getText();
     }
 
+    @Override
+    public long getLongValue() {
+        return delegate.getLongValue();
+    }
+
+    @Override
+    public int getIntValue() {
+        return delegate.getIntValue();
+    }
+
+    @Override
+    public BigDecimal getDecimalValue() {
+        return delegate.getDecimalValue();
+    }
+
+    @Override
+    public LocalDate getDateValue() {
+        return delegate.getDateValue();
+    }
+
+    @Override
+    public LocalTime getTimeValue() {
+        return delegate.getTimeValue();
+    }
+
     @Override
     public char[] getTextCharacters() {
         return delegate.getTextCharacters();
@@ -15,23 +15,43 @@
  ******************************************************************************/
 package io.xlate.edi.internal.stream;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.Objects;
 
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
 
 import io.xlate.edi.internal.stream.json.JsonParserFactory;
+import io.xlate.edi.internal.stream.json.JsonWriterFactory;
 import io.xlate.edi.schema.Schema;
 import io.xlate.edi.stream.EDIInputErrorReporter;
+import io.xlate.edi.stream.EDIDocument;
 import io.xlate.edi.stream.EDIInputFactory;
 import io.xlate.edi.stream.EDIStreamException;
 import io.xlate.edi.stream.EDIStreamFilter;
+import io.xlate.edi.stream.EDIStreamFilterSpec;
+import io.xlate.edi.stream.EDIStreamIndex;
 import io.xlate.edi.stream.EDIStreamReader;
+import io.xlate.edi.stream.SegmentView;
 
-public class StaEDIInputFactory extends EDIInputFactory {
+public class StaEDIInputFactory extends EDIInputFactory implements Configurable {
+
+    private static final int READER_POOL_SIZE = 8;
+
+    /*
+     * Idle readers closed on any thread, matched by the configuration of each
+     * reader. Pooled readers are only reachable from this factory and are
+     * released together with it.
+     */
+    private final Deque<StaEDIStreamReader> readerPool = new ArrayDeque<>(READER_POOL_SIZE);
 
     private EDIInputErrorReporter reporter;
 
@@ -42,6 +62,10 @@ public class StaEDIInputFactory extends EDIInputFactory {
         supportedProperties.add(EDI_IGNORE_EXTRANEOUS_CHARACTERS);
         supportedProperties.add(EDI_NEST_HIERARCHICAL_LOOPS);
         supportedProperties.add(EDI_ENABLE_LOOP_TEXT);
+        supportedProperties.add(EDI_LOCATION_TRACKING);
+        supportedProperties.add(EDI_ELEMENT_PROJECTION);
+        supportedProperties.add(EDI_READER_POOLING);
+        supportedProperties.add(EDI_ENVELOPE_ONLY);
 
         supportedProperties.add(XML_DECLARE_TRANSACTION_XMLNS);
         supportedProperties.add(XML_WRAP_TRANSACTION_CONTENTS);
@@ -64,7 +88,7 @@ public class StaEDIInputFactory extends EDIInputFactory {
     @Override
     public EDIStreamReader createEDIStreamReader(InputStream stream, Schema schema) {
         Objects.requireNonNull(stream, "stream must not be null");
-        return new StaEDIStreamReader(stream, StandardCharsets.UTF_8, schema, properties, getErrorReporter());
+        return createReader(stream, StandardCharsets.UTF_8, schema);
     }
 
     @SuppressWarnings("resource")
@@ -73,27 +97,158 @@ public class StaEDIInputFactory extends EDIInputFactory {
         Objects.requireNonNull(stream, "stream must not be null");
 
         if (Charset.isSupported(encoding)) {
-            return new StaEDIStreamReader(stream, Charset.forName(encoding), schema, properties, getErrorReporter());
+            return createReader(stream, Charset.forName(encoding), schema);
         }
 
         throw new EDIStreamException("Unsupported encoding: " + encoding);
     }
 
+    StaEDIStreamReader createReader(InputStream stream, Charset charset, Schema schema) {
+        if (!getProperty(EDI_READER_POOLING, Boolean::parseBoolean, false)) {
+            return new StaEDIStreamReader(stream, charset, schema, properties, getErrorReporter());
+        }
+
+        StaEDIStreamReader reader = acquire(schema);
+
+        if (reader != null) {
+            reader.reset(stream, charset);
+            return reader;
+        }
+
+        reader = new StaEDIStreamReader(stream, charset, schema, properties, getErrorReporter());
+        reader.setCloseListener(this::release);
+        return reader;
+    }
+
+    StaEDIStreamReader acquire(Schema schema) {
+        synchronized (readerPool) {
+            for (Iterator<StaEDIStreamReader> i = readerPool.iterator(); i.hasNext();) {
+                StaEDIStreamReader reader = i.next();
+
+                if (reader.getInitialControlSchema() == schema
+                        && reader.getReporter() == getErrorReporter()
+                        && reader.getProperties().equals(properties)) {
+                    i.remove();
+                    return reader;
+                }
+            }
+        }
+
+        return null;
+    }
+
+    void release(StaEDIStreamReader reader) {
+        // Do not retain the previous input while idle
+        reader.detach();
+
+        synchronized (readerPool) {
+            if (readerPool.size() < READER_POOL_SIZE) {
+                readerPool.push(reader);
+            }
+        }
+    }
+
+    @Override
+    public EDIStreamReader createEDIStreamReader(FileChannel channel, EDIStreamIndex.Entry entry) throws EDIStreamException {
+        Objects.requireNonNull(channel, "channel must not be null");
+
+        if (entry instanceof StaEDIStreamIndex.IndexEntry) {
+            StaEDIStreamIndex.IndexEntry indexEntry = (StaEDIStreamIndex.IndexEntry) entry;
+            return createEDIStreamReader(indexEntry.openStream(channel), indexEntry.index.getEncoding());
+        }
+
+        throw new IllegalArgumentException("Unsupported index entry: " + entry);
+    }
+
+    @Override
+    public EDIStreamIndex createEDIStreamIndex(InputStream stream) throws EDIStreamException {
+        return createEDIStreamIndex(stream, StandardCharsets.UTF_8.name());
+    }
+
+    @Override
+    public EDIStreamIndex createEDIStreamIndex(InputStream stream, String encoding) throws EDIStreamException {
+        Objects.requireNonNull(stream, "stream must not be null");
+
+        if (Charset.isSupported(encoding)) {
+            return new StaEDIStreamIndexer(Charset.forName(encoding)).index(stream);
+        }
+
+        throw new EDIStreamException("Unsupported encoding: " + encoding);
+    }
+
+    @Override
+    public EDIStreamIndex readEDIStreamIndex(InputStream stream) throws IOException {
+        Objects.requireNonNull(stream, "stream must not be null");
+        return StaEDIStreamIndex.read(stream);
+    }
+
+    @Override
+    public void writeEventLog(EDIStreamReader reader, OutputStream stream) throws EDIStreamException {
+        Objects.requireNonNull(stream, "stream must not be null");
+        new StaEDIEventLogWriter(stream).write(reader);
+    }
+
+    @Override
+    public EDIStreamReader createEventLogReader(InputStream stream) throws EDIStreamException {
+        Objects.requireNonNull(stream, "stream must not be null");
+        return new StaEDIEventLogReader(stream, properties, reporter);
+    }
+
+    @Override
+    public EDIDocument readDocument(EDIStreamReader reader) throws EDIStreamException {
+        return StaEDIDocument.read(reader);
+    }
+
+    @Override
+    public SegmentView createSegmentView() {
+        return new StaEDISegmentView();
+    }
+
     @Override
     public EDIStreamReader createFilteredReader(EDIStreamReader reader, EDIStreamFilter filter) {
         return new StaEDIFilteredStreamReader(reader, filter);
     }
 
+    @Override
+    public EDIStreamReader createFilteredReader(EDIStreamReader reader, EDIStreamFilterSpec spec) {
+        if (reader instanceof StaEDIStreamReader) {
+            StaEDIStreamReader staReader = (StaEDIStreamReader) reader;
+            // The specification is retained by reset, do not pool the reader
+            staReader.setCloseListener(null);
+            staReader.setFilterSpec(spec);
+            return reader;
+        }
+        throw new IllegalArgumentException("Unsupported reader: " + reader);
+    }
+
     @Override
     public XMLStreamReader createXMLStreamReader(EDIStreamReader reader) throws XMLStreamException {
         return new StaEDIXMLStreamReader(reader, properties);
     }
 
+    @Override
+    public void writeXML(EDIStreamReader reader, OutputStream stream) throws XMLStreamException {
+        Objects.requireNonNull(stream, "stream must not be null");
+        new StaEDIXMLSerializer(new StaEDIXMLStreamReader(reader, properties), stream).serialize();
+    }
+
     @Override
     public <J> J createJsonParser(EDIStreamReader reader, Class<J> type) {
         return JsonParserFactory.createJsonParser(reader, type, properties);
     }
 
+    @Override
+    public <G> void writeJSON(EDIStreamReader reader, Class<G> type, G generator) throws EDIStreamException {
+        Objects.requireNonNull(generator, "generator must not be null");
+        JsonWriterFactory.writeJson(reader, type, generator, properties);
+    }
+
+    @Override
+    public void writeJSON(EDIStreamReader reader, OutputStream stream) throws EDIStreamException {
+        Objects.requireNonNull(stream, "stream must not be null");
+        JsonWriterFactory.writeJson(reader, stream, properties);
+    }
+
     @Override
     public EDIInputErrorReporter getErrorReporter() {
         return reporter;
@@ -18,14 +18,22 @@ package io.xlate.edi.internal.stream;
 import java.io.OutputStream;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executor;
 
 import javax.xml.stream.XMLStreamWriter;
 
+import org.xml.sax.ContentHandler;
+
+import io.xlate.edi.internal.stream.json.JsonReaderFactory;
 import io.xlate.edi.stream.EDIOutputErrorReporter;
 import io.xlate.edi.stream.EDIOutputFactory;
 import io.xlate.edi.stream.EDIStreamConstants;
 import io.xlate.edi.stream.EDIStreamException;
+import io.xlate.edi.stream.EDIStreamPipe;
+import io.xlate.edi.stream.EDIStreamReader;
+import io.xlate.edi.stream.EDIStreamTranscoder;
 import io.xlate.edi.stream.EDIStreamWriter;
+import io.xlate.edi.stream.EDITransactionAssembler;
 
 public class StaEDIOutputFactory extends EDIOutputFactory {
 
@@ -41,6 +49,8 @@ public class StaEDIOutputFactory extends EDIOutputFactory {
         supportedProperties.add(PRETTY_PRINT);
         supportedProperties.add(TRUNCATE_EMPTY_ELEMENTS);
         supportedProperties.add(FORMAT_ELEMENTS);
+        supportedProperties.add(ASYNC_OUTPUT_BUFFER_SIZE);
+        supportedProperties.add(ASYNC_OUTPUT_EXECUTOR);
 
         properties.put(PRETTY_PRINT, Boolean.FALSE);
     }
@@ -63,6 +73,39 @@ public class StaEDIOutputFactory extends EDIOutputFactory {
         return new StaEDIXMLStreamWriter(writer);
     }
 
+    @Override
+    public ContentHandler createContentHandler(EDIStreamWriter writer) {
+        return new StaEDIContentHandler(writer);
+    }
+
+    @Override
+    public EDITransactionAssembler createTransactionAssembler(EDIStreamWriter writer, Executor executor) {
+        return new StaEDITransactionAssembler(writer, executor);
+    }
+
+    @Override
+    public EDIStreamPipe createEDIStreamPipe(EDIStreamReader reader, EDIStreamWriter writer) {
+        return new StaEDIStreamPipe(reader, writer);
+    }
+
+    @Override
+    public EDIStreamTranscoder createEDIStreamTranscoder(OutputStream stream) {
+        return new StaEDIStreamTranscoder(stream, StandardCharsets.UTF_8, properties);
+    }
+
+    @Override
+    public EDIStreamTranscoder createEDIStreamTranscoder(OutputStream stream, String encoding) throws EDIStreamException {
+        if (Charset.isSupported(encoding)) {
+            return new StaEDIStreamTranscoder(stream, Charset.forName(encoding), properties);
+        }
+        throw new EDIStreamException("Unsupported encoding: " + encoding);
+    }
+
+    @Override
+    public <P> void readJSON(Class<P> type, P parser, EDIStreamWriter writer) throws EDIStreamException {
+        JsonReaderFactory.readJson(type, parser, writer);
+    }
+
     @Override
     public EDIOutputErrorReporter getErrorReporter() {
         return this.reporter;
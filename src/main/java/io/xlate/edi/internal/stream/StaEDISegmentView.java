@@ -0,0 +1,343 @@
+/*******************************************************************************
+ * Copyright 2023 xlate.io LLC, http://www.xlate.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package io.xlate.edi.internal.stream;
+
+import java.nio.CharBuffer;
+import java.util.Arrays;
+
+import io.xlate.edi.schema.EDIReference;
+import io.xlate.edi.stream.EDIStreamException;
+import io.xlate.edi.stream.EDIStreamReader;
+import io.xlate.edi.stream.EDIStreamValidationError;
+import io.xlate.edi.stream.Location;
+import io.xlate.edi.stream.SegmentView;
+
+class StaEDISegmentView implements SegmentView {
+
+    private static final int INITIAL_TEXT = 256;
+    private static final int INITIAL_VALUES = 16;
+    private static final int INITIAL_ERRORS = 2;
+
+    // Text of the tag and all values
+    private char[] text = new char[INITIAL_TEXT];
+    private int textLength;
+
+    private final CharArraySequence tag = new CharArraySequence();
+    private int tagLength;
+    private boolean tagPresent;
+    private EDIReference segmentReference;
+
+    // Values, in the order read
+    private int valueCount;
+    private int[] valueStart = new int[INITIAL_VALUES];
+    private int[] valueLength = new int[INITIAL_VALUES];
+    private int[] valueRepetition = new int[INITIAL_VALUES];
+    private int[] valueComponent = new int[INITIAL_VALUES];
+    private CharArraySequence[] valueText = new CharArraySequence[INITIAL_VALUES];
+
+    // Elements, indexed by position
+    private int elementCount;
+    private int[] elementFirstValue = new int[INITIAL_VALUES];
+    private int[] elementValueCount = new int[INITIAL_VALUES];
+    private int[] elementRepetitions = new int[INITIAL_VALUES];
+    private EDIReference[] elementReference = new EDIReference[INITIAL_VALUES];
+
+    private int errorCount;
+    private EDIStreamValidationError[] errorType = new EDIStreamValidationError[INITIAL_ERRORS];
+    private StaEDIStreamLocation[] errorLocation = new StaEDIStreamLocation[INITIAL_ERRORS];
+
+    /**
+     * Fill this view from the events of the next segment available from the
+     * reader.
+     *
+     * @param reader
+     *            the reader, positioned before the segment
+     * @return true if a segment was read, false when the end of input was
+     *         reached before the start of a segment
+     * @throws EDIStreamException
+     *             when thrown by the reader
+     */
+    boolean read(EDIStreamReader reader) throws EDIStreamException {
+        clear();
+        boolean composite = false;
+
+        while (reader.hasNext()) {
+            switch (reader.next()) {
+            case START_SEGMENT:
+                setTag(text(reader), reader.getSchemaTypeReference());
+                break;
+            case START_COMPOSITE:
+                composite = true;
+                startElement(reader.getLocation(), reader.getSchemaTypeReference());
+                break;
+            case END_COMPOSITE:
+                composite = false;
+                break;
+            case ELEMENT_DATA:
+                addValue(reader.getLocation(), composite, text(reader), reader.getSchemaTypeReference());
+                break;
+            case ELEMENT_DATA_BINARY:
+                // Binary data is not available in the view
+                addValue(reader.getLocation(), composite, null, reader.getSchemaTypeReference());
+                break;
+            case SEGMENT_ERROR:
+            case ELEMENT_DATA_ERROR:
+            case ELEMENT_OCCURRENCE_ERROR:
+                addError(reader.getErrorType(), reader.getLocation());
+                break;
+            case END_SEGMENT:
+                if (tagPresent) {
+                    return true;
+                }
+                break;
+            default:
+                break;
+            }
+        }
+
+        return false;
+    }
+
+    static CharBuffer text(EDIStreamReader reader) {
+        if (reader instanceof StaEDIStreamReader) {
+            return ((StaEDIStreamReader) reader).getCharacters();
+        }
+        return CharBuffer.wrap(reader.getText().toCharArray());
+    }
+
+    void clear() {
+        textLength = 0;
+        tag.clear();
+        tagPresent = false;
+        segmentReference = null;
+
+        Arrays.fill(elementReference, 0, elementCount + 1, null);
+        Arrays.fill(elementRepetitions, 0, elementCount + 1, 0);
+        Arrays.fill(elementValueCount, 0, elementCount + 1, 0);
+
+        valueCount = 0;
+        elementCount = 0;
+        errorCount = 0;
+    }
+
+    void setTag(CharBuffer tagText, EDIReference reference) {
+        append(tagText);
+        tagLength = textLength;
+        tagPresent = true;
+        segmentReference = reference;
+    }
+
+    void startElement(Location location, EDIReference reference) {
+        final int element = location.getElementPosition();
+
+        if (element < 1) {
+            return;
+        }
+
+        ensureElementCapacity(element);
+
+        if (elementValueCount[element] == 0) {
+            elementFirstValue[element] = valueCount;
+        }
+
+        elementRepetitions[element] = Math.max(elementRepetitions[element], Math.max(1, location.getElementOccurrence()));
+        elementReference[element] = reference;
+        elementCount = Math.max(elementCount, element);
+    }
+
+    void addValue(Location location, boolean composite, CharBuffer value, EDIReference reference) {
+        final int element = location.getElementPosition();
+
+        if (element < 1) {
+            return;
+        }
+
+        if (!composite) {
+            startElement(location, reference);
+        }
+
+        ensureValueCapacity(valueCount + 1);
+        final int index = valueCount++;
+
+        valueRepetition[index] = Math.max(1, location.getElementOccurrence());
+        valueComponent[index] = composite ? Math.max(1, location.getComponentPosition()) : 0;
+        valueStart[index] = value != null ? append(value) : textLength;
+        valueLength[index] = textLength - valueStart[index];
+
+        if (elementValueCount[element]++ == 0) {
+            elementFirstValue[element] = index;
+        }
+    }
+
+    void addError(EDIStreamValidationError type, Location location) {
+        if (errorCount == errorType.length) {
+            errorType = Arrays.copyOf(errorType, errorCount * 2);
+            errorLocation = Arrays.copyOf(errorLocation, errorCount * 2);
+        }
+
+        if (errorLocation[errorCount] == null) {
+            errorLocation[errorCount] = new StaEDIStreamLocation(location);
+        } else {
+            errorLocation[errorCount].set(location);
+        }
+
+        errorType[errorCount++] = type;
+    }
+
+    int append(CharBuffer value) {
+        final int start = textLength;
+        final int length = value.remaining();
+
+        if (start + length > text.length) {
+            text = Arrays.copyOf(text, Math.max(text.length * 2, start + length));
+        }
+
+        System.arraycopy(value.array(), value.position(), text, start, length);
+        textLength += length;
+        return start;
+    }
+
+    void ensureValueCapacity(int capacity) {
+        if (capacity > valueStart.length) {
+            int size = Math.max(valueStart.length * 2, capacity);
+            valueStart = Arrays.copyOf(valueStart, size);
+            valueLength = Arrays.copyOf(valueLength, size);
+            valueRepetition = Arrays.copyOf(valueRepetition, size);
+            valueComponent = Arrays.copyOf(valueComponent, size);
+            valueText = Arrays.copyOf(valueText, size);
+        }
+    }
+
+    void ensureElementCapacity(int element) {
+        if (element >= elementFirstValue.length) {
+            int size = Math.max(elementFirstValue.length * 2, element + 1);
+            elementFirstValue = Arrays.copyOf(elementFirstValue, size);
+            elementValueCount = Arrays.copyOf(elementValueCount, size);
+            elementRepetitions = Arrays.copyOf(elementRepetitions, size);
+            elementReference = Arrays.copyOf(elementReference, size);
+        }
+    }
+
+    boolean isElementPresent(int element) {
+        return element > 0 && element <= elementCount && elementRepetitions[element] > 0;
+    }
+
+    CharSequence valueText(int index) {
+        CharArraySequence value = valueText[index];
+
+        if (value == null) {
+            value = valueText[index] = new CharArraySequence();
+        }
+
+        value.set(text, valueStart[index], valueLength[index]);
+        return value;
+    }
+
+    @Override
+    public CharSequence getTag() {
+        if (tagPresent) {
+            tag.set(text, 0, tagLength);
+            return tag;
+        }
+        return null;
+    }
+
+    @Override
+    public EDIReference getSchemaTypeReference() {
+        return segmentReference;
+    }
+
+    @Override
+    public int getElementCount() {
+        return elementCount;
+    }
+
+    @Override
+    public EDIReference getElementReference(int element) {
+        return isElementPresent(element) ? elementReference[element] : null;
+    }
+
+    @Override
+    public int getRepetitionCount(int element) {
+        return isElementPresent(element) ? elementRepetitions[element] : 0;
+    }
+
+    @Override
+    public int getComponentCount(int element, int repetition) {
+        int count = 0;
+
+        if (isElementPresent(element)) {
+            for (int i = elementFirstValue[element], m = i + elementValueCount[element]; i < m; i++) {
+                if (valueRepetition[i] == repetition) {
+                    count = Math.max(count, valueComponent[i]);
+                }
+            }
+        }
+
+        return count;
+    }
+
+    @Override
+    public CharSequence getElement(int element) {
+        return getElement(element, 1);
+    }
+
+    @Override
+    public CharSequence getElement(int element, int repetition) {
+        return getComponent(element, repetition, 0);
+    }
+
+    @Override
+    public CharSequence getComponent(int element, int repetition, int component) {
+        if (isElementPresent(element)) {
+            for (int i = elementFirstValue[element], m = i + elementValueCount[element]; i < m; i++) {
+                if (valueRepetition[i] == repetition && valueComponent[i] == component) {
+                    return valueText(i);
+                }
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    public int getErrorCount() {
+        return errorCount;
+    }
+
+    @Override
+    public EDIStreamValidationError getErrorType(int index) {
+        checkErrorIndex(index);
+        return errorType[index];
+    }
+
+    @Override
+    public Location getErrorLocation(int index) {
+        checkErrorIndex(index);
+        return errorLocation[index];
+    }
+
+    void checkErrorIndex(int index) {
+        if (index < 0 || index >= errorCount) {
+            throw new IndexOutOfBoundsException("Error index: " + index + ", count: " + errorCount);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return tagPresent ? getTag() + "[" + elementCount + " elements]" : "[empty]";
+    }
+}
@@ -0,0 +1,244 @@
+/*******************************************************************************
+ * Copyright 2023 xlate.io LLC, http://www.xlate.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package io.xlate.edi.internal.stream;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import io.xlate.edi.stream.EDIStreamConstants.Standards;
+import io.xlate.edi.stream.EDIStreamIndex;
+
+class StaEDIStreamIndex implements EDIStreamIndex {
+
+    static final int MAGIC = 0x45444958; // "EDIX"
+    static final int VERSION = 1;
+
+    private final String encoding;
+    private final List<Entry> entries;
+
+    static class IndexEntry implements Entry {
+        final StaEDIStreamIndex index;
+        final int position;
+        final Type type;
+        final IndexEntry parent;
+        final long offset;
+        long length = -1;
+        int headerLength;
+        String controlNumber;
+        String transactionType;
+
+        // Interchange delimiters, used to generate trailer segments
+        String standard;
+        char segmentTerminator;
+        char dataElementSeparator;
+
+        IndexEntry(StaEDIStreamIndex index, Type type, IndexEntry parent, long offset) {
+            this.index = index;
+            this.position = index.entries.size();
+            this.type = type;
+            this.parent = parent;
+            this.offset = offset;
+        }
+
+        @Override
+        public Type getType() {
+            return type;
+        }
+
+        @Override
+        public Entry getParent() {
+            return parent;
+        }
+
+        @Override
+        public long getOffset() {
+            return offset;
+        }
+
+        @Override
+        public long getLength() {
+            return length;
+        }
+
+        @Override
+        public String getControlNumber() {
+            return controlNumber;
+        }
+
+        @Override
+        public String getTransactionType() {
+            return transactionType;
+        }
+
+        IndexEntry getInterchange() {
+            return type == Type.INTERCHANGE ? this : parent.getInterchange();
+        }
+
+        /**
+         * Open a stream of the entry's bytes, preceded by the header segments
+         * of the enclosing group and interchange and followed by trailer
+         * segments for them. The result is a complete interchange containing
+         * only the entry.
+         */
+        InputStream openStream(FileChannel channel) {
+            if (type == Type.INTERCHANGE) {
+                return new FileChannelInputStream(channel, offset, length);
+            }
+
+            final IndexEntry interchange = getInterchange();
+            final Charset charset = Charset.forName(index.encoding);
+            List<InputStream> parts = new ArrayList<>(5);
+
+            parts.add(new FileChannelInputStream(channel, interchange.offset, interchange.headerLength));
+
+            if (type == Type.TRANSACTION && parent.type == Type.GROUP) {
+                parts.add(new FileChannelInputStream(channel, parent.offset, parent.headerLength));
+            }
+
+            parts.add(new FileChannelInputStream(channel, offset, length));
+
+            if (type == Type.TRANSACTION && parent.type == Type.GROUP) {
+                parts.add(trailer(interchange, Standards.X12.equals(interchange.standard) ? "GE" : "UNE", parent, charset));
+            }
+
+            parts.add(trailer(interchange, Standards.X12.equals(interchange.standard) ? "IEA" : "UNZ", interchange, charset));
+
+            return new SequenceInputStream(Collections.enumeration(parts));
+        }
+
+        static InputStream trailer(IndexEntry interchange, String tag, IndexEntry header, Charset charset) {
+            // Each generated envelope encloses exactly one group or transaction
+            String segment = tag
+                    + interchange.dataElementSeparator + '1'
+                    + interchange.dataElementSeparator + header.controlNumber
+                    + interchange.segmentTerminator;
+
+            return new ByteArrayInputStream(segment.getBytes(charset));
+        }
+
+        @Override
+        public String toString() {
+            return type + "[" + controlNumber + "]@" + offset + "+" + length;
+        }
+    }
+
+    StaEDIStreamIndex(String encoding) {
+        this.encoding = encoding;
+        this.entries = new ArrayList<>();
+    }
+
+    IndexEntry add(Type type, IndexEntry parent, long offset) {
+        IndexEntry entry = new IndexEntry(this, type, parent, offset);
+        entries.add(entry);
+        return entry;
+    }
+
+    @Override
+    public String getEncoding() {
+        return encoding;
+    }
+
+    @Override
+    public List<Entry> getEntries() {
+        return Collections.unmodifiableList(entries);
+    }
+
+    @Override
+    public Entry find(Type type, String controlNumber) {
+        for (Entry entry : entries) {
+            if (entry.getType() == type && Objects.equals(entry.getControlNumber(), controlNumber)) {
+                return entry;
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    public void write(OutputStream stream) throws IOException {
+        DataOutputStream output = new DataOutputStream(stream);
+        output.writeInt(MAGIC);
+        output.writeShort(VERSION);
+        output.writeUTF(encoding);
+        output.writeInt(entries.size());
+
+        for (Entry e : entries) {
+            IndexEntry entry = (IndexEntry) e;
+            output.writeByte(entry.type.ordinal());
+            output.writeInt(entry.parent != null ? entry.parent.position : -1);
+            output.writeLong(entry.offset);
+            output.writeLong(entry.length);
+            output.writeInt(entry.headerLength);
+            output.writeUTF(entry.controlNumber);
+
+            if (entry.type == Type.TRANSACTION) {
+                output.writeUTF(entry.transactionType);
+            } else if (entry.type == Type.INTERCHANGE) {
+                output.writeUTF(entry.standard);
+                output.writeChar(entry.segmentTerminator);
+                output.writeChar(entry.dataElementSeparator);
+            }
+        }
+
+        output.flush();
+    }
+
+    static StaEDIStreamIndex read(InputStream stream) throws IOException {
+        DataInputStream input = new DataInputStream(stream);
+
+        if (input.readInt() != MAGIC) {
+            throw new IOException("Invalid index");
+        }
+
+        int version = input.readShort();
+
+        if (version != VERSION) {
+            throw new IOException("Unsupported index version: " + version);
+        }
+
+        StaEDIStreamIndex index = new StaEDIStreamIndex(input.readUTF());
+
+        for (int i = 0, m = input.readInt(); i < m; i++) {
+            Type type = Type.values()[input.readByte()];
+            int parent = input.readInt();
+            IndexEntry entry = index.add(type, parent > -1 ? (IndexEntry) index.entries.get(parent) : null, input.readLong());
+            entry.length = input.readLong();
+            entry.headerLength = input.readInt();
+            entry.controlNumber = input.readUTF();
+
+            if (type == Type.TRANSACTION) {
+                entry.transactionType = input.readUTF();
+            } else if (type == Type.INTERCHANGE) {
+                entry.standard = input.readUTF();
+                entry.segmentTerminator = input.readChar();
+                entry.dataElementSeparator = input.readChar();
+            }
+        }
+
+        return index;
+    }
+}
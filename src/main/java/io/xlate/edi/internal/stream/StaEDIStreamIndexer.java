@@ -0,0 +1,400 @@
+/*******************************************************************************
+ * Copyright 2023 xlate.io LLC, http://www.xlate.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package io.xlate.edi.internal.stream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import io.xlate.edi.internal.stream.StaEDIStreamIndex.IndexEntry;
+import io.xlate.edi.internal.stream.tokenization.CharacterSet;
+import io.xlate.edi.internal.stream.tokenization.Dialect;
+import io.xlate.edi.internal.stream.tokenization.DialectFactory;
+import io.xlate.edi.internal.stream.tokenization.TradacomsDialect;
+import io.xlate.edi.stream.EDIStreamException;
+import io.xlate.edi.stream.EDIStreamIndex.Type;
+
+/**
+ * Builds a {@link StaEDIStreamIndex} by scanning the input for envelope
+ * segments. Only the delimiters are interpreted (similar to
+ * {@link StaEDIStreamTranscoder}); no events are generated and no validation
+ * is performed. Byte offsets are computed from the characters decoded, so
+ * only UTF-8 and single-byte encodings are supported.
+ */
+class StaEDIStreamIndexer {
+
+    static final int BUFFER_SIZE = 4096;
+    static final int TAG_LENGTH = 3;
+    static final int UNA_LENGTH = 9;
+    static final char BYTE_ORDER_MARK = '\uFEFF';
+
+    // Envelope segment kinds, indexes into ENVELOPE_TAGS
+    static final int OTHER = 0;
+    static final int ISA = 1;
+    static final int UNB = 2;
+    static final int GS = 3;
+    static final int UNG = 4;
+    static final int ST = 5;
+    static final int UNH = 6;
+    static final int SE = 7;
+    static final int UNT = 8;
+    static final int GE = 9;
+    static final int UNE = 10;
+    static final int IEA = 11;
+    static final int UNZ = 12;
+
+    static final String[] ENVELOPE_TAGS = {
+        null, "ISA", "UNB", "GS", "UNG", "ST", "UNH", "SE", "UNT", "GE", "UNE", "IEA", "UNZ"
+    };
+
+    private final Charset charset;
+    private final boolean utf8;
+    private final StaEDIStreamIndex index;
+    private final StaEDIStreamLocation location = new StaEDIStreamLocation();
+    private final char[] input = new char[BUFFER_SIZE];
+
+    // Byte offset of the next character
+    private long position;
+
+    // Header detection
+    private Dialect dialect;
+    private CharacterSet characters;
+    private final StringBuilder header = new StringBuilder();
+    private long interchangeStart;
+
+    // Delimiters of the current interchange
+    private char segmentTerminator;
+    private char dataElementSeparator;
+    private char componentElementSeparator;
+    private char repetitionSeparator;
+    private char releaseIndicator;
+
+    // Segment state
+    private long segmentStart = -1;
+    private final char[] tag = new char[TAG_LENGTH];
+    private int tagLength;
+    private boolean tagComplete;
+    private int segmentKind;
+    // Element values are only retained for envelope header segments
+    private boolean collecting;
+    private boolean released;
+    private boolean valueComplete;
+    private final StringBuilder value = new StringBuilder();
+    private final List<String> elements = new ArrayList<>();
+
+    // Open envelopes
+    private IndexEntry interchange;
+    private IndexEntry group;
+    private IndexEntry transaction;
+
+    StaEDIStreamIndexer(Charset charset) throws EDIStreamException {
+        this.charset = charset;
+        this.utf8 = StandardCharsets.UTF_8.equals(charset);
+
+        // Byte lengths can not be determined for decode-only charsets
+        if (!utf8 && (!charset.canEncode() || charset.newEncoder().maxBytesPerChar() > 1)) {
+            throw new EDIStreamException("Unsupported encoding for indexing: " + charset.name());
+        }
+
+        this.index = new StaEDIStreamIndex(charset.name());
+    }
+
+    StaEDIStreamIndex index(InputStream stream) throws EDIStreamException {
+        try {
+            Reader reader = new InputStreamReader(stream, charset.newDecoder());
+            int length;
+
+            while ((length = reader.read(input)) > -1) {
+                for (int i = 0; i < length; i++) {
+                    location.incrementOffset(input[i]);
+
+                    if (dialect == null || !dialect.isConfirmed()) {
+                        appendHeader(input[i]);
+                    } else {
+                        scan(input[i]);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new EDIStreamException("Exception indexing EDI stream", location, e);
+        }
+
+        if (header.length() > 0 || segmentStart > -1 || interchange != null) {
+            throw new EDIStreamException("Unexpected end of stream", location);
+        }
+
+        return index;
+    }
+
+    int byteLength(char value) {
+        if (!utf8 || value < 0x80) {
+            return 1;
+        }
+        if (value < 0x800 || Character.isSurrogate(value)) {
+            // Each half of a surrogate pair is counted as 2 of the 4 bytes
+            return 2;
+        }
+        return 3;
+    }
+
+    void appendHeader(char value) throws EDIStreamException {
+        if (dialect == null) {
+            if (header.length() == 0) {
+                if (Character.isWhitespace(value) || (value == BYTE_ORDER_MARK && position == 0)) {
+                    // Whitespace between interchanges or a byte order mark at the start of the input
+                    position += byteLength(value);
+                    return;
+                }
+
+                interchangeStart = position;
+            }
+
+            header.append(value);
+
+            if (header.length() < TAG_LENGTH) {
+                return;
+            }
+
+            dialect = DialectFactory.getDialect(header.toString());
+
+            if (dialect instanceof TradacomsDialect) {
+                throw new EDIStreamException("Indexing is not supported for TRADACOMS", location);
+            }
+
+            characters = new CharacterSet();
+
+            for (int i = 0; i < TAG_LENGTH; i++) {
+                dialect.appendHeader(characters, header.charAt(i));
+            }
+
+            return;
+        }
+
+        header.append(value);
+
+        if (!dialect.appendHeader(characters, value)) {
+            throw new EDIStreamException(String.format("Invalid %s header: %s", dialect.getStandard(), dialect.getRejectionMessage()), location);
+        }
+
+        if (dialect.isConfirmed()) {
+            segmentTerminator = dialect.getSegmentTerminator();
+            dataElementSeparator = dialect.getDataElementSeparator();
+            componentElementSeparator = dialect.getComponentElementSeparator();
+            repetitionSeparator = dialect.getRepetitionSeparator();
+            releaseIndicator = dialect.getReleaseIndicator();
+
+            int dataStart = 0;
+
+            if (dialect.isServiceAdviceSegment(dialect.getHeaderTag())) {
+                // The UNA segment is part of the interchange header, but has no elements
+                for (; dataStart < UNA_LENGTH; dataStart++) {
+                    position += byteLength(header.charAt(dataStart));
+                }
+            }
+
+            for (int i = dataStart, m = header.length(); i < m; i++) {
+                scan(header.charAt(i));
+            }
+
+            header.setLength(0);
+        }
+    }
+
+    void scan(char value) {
+        final int size = byteLength(value);
+
+        if (segmentStart < 0) {
+            if (Character.isWhitespace(value)) {
+                // Formatting between segments
+                position += size;
+                return;
+            }
+            segmentStart = position;
+        }
+
+        position += size;
+
+        if (released) {
+            released = false;
+            appendValue(value);
+        } else if (value == releaseIndicator && releaseIndicator != '\0') {
+            released = true;
+        } else if (value == segmentTerminator) {
+            endElement();
+            endSegment();
+        } else if (value == dataElementSeparator) {
+            if (tagComplete) {
+                endElement();
+            } else {
+                completeTag();
+            }
+        } else if (value == componentElementSeparator
+                || (value == repetitionSeparator && repetitionSeparator != '\0')) {
+            // Only the first component of the first repetition is retained
+            valueComplete = true;
+        } else {
+            appendValue(value);
+        }
+    }
+
+    void appendValue(char value) {
+        if (!tagComplete) {
+            if (tagLength < TAG_LENGTH) {
+                tag[tagLength] = value;
+            }
+            // Longer tags are counted so that they match no envelope segment
+            tagLength++;
+        } else if (!valueComplete) {
+            this.value.append(value);
+        }
+    }
+
+    void completeTag() {
+        tagComplete = true;
+        segmentKind = segmentKind(tag, tagLength);
+        collecting = segmentKind == ISA || segmentKind == UNB
+                || segmentKind == GS || segmentKind == UNG
+                || segmentKind == ST || segmentKind == UNH;
+        valueComplete = !collecting;
+    }
+
+    static int segmentKind(char[] tag, int length) {
+        if (length == 2) {
+            switch (tag[0]) {
+            case 'G':
+                return tag[1] == 'S' ? GS : (tag[1] == 'E' ? GE : OTHER);
+            case 'S':
+                return tag[1] == 'T' ? ST : (tag[1] == 'E' ? SE : OTHER);
+            default:
+                return OTHER;
+            }
+        }
+
+        if (length != TAG_LENGTH) {
+            return OTHER;
+        }
+
+        if (tag[0] == 'I' && tag[2] == 'A') {
+            return tag[1] == 'S' ? ISA : (tag[1] == 'E' ? IEA : OTHER);
+        }
+
+        if (tag[0] != 'U' || tag[1] != 'N') {
+            return OTHER;
+        }
+
+        switch (tag[2]) {
+        case 'B':
+            return UNB;
+        case 'G':
+            return UNG;
+        case 'H':
+            return UNH;
+        case 'T':
+            return UNT;
+        case 'E':
+            return UNE;
+        case 'Z':
+            return UNZ;
+        default:
+            return OTHER;
+        }
+    }
+
+    void endElement() {
+        if (collecting) {
+            elements.add(value.toString());
+        }
+        value.setLength(0);
+        valueComplete = !collecting;
+    }
+
+    String element(int position) {
+        return position <= elements.size() ? elements.get(position - 1) : "";
+    }
+
+    void endSegment() {
+        if (!tagComplete) {
+            completeTag();
+        }
+
+        // Tags of segments other than the envelope are not retained
+        location.incrementSegmentPosition(ENVELOPE_TAGS[segmentKind]);
+
+        switch (segmentKind) {
+        case ISA:
+        case UNB:
+            interchange = index.add(Type.INTERCHANGE, null, interchangeStart);
+            interchange.headerLength = (int) (position - interchangeStart);
+            interchange.controlNumber = element(segmentKind == ISA ? 13 : 5);
+            interchange.standard = dialect.getStandard();
+            interchange.segmentTerminator = segmentTerminator;
+            interchange.dataElementSeparator = dataElementSeparator;
+            break;
+        case GS:
+        case UNG:
+            group = startEntry(Type.GROUP, interchange);
+            group.controlNumber = element(segmentKind == GS ? 6 : 5);
+            break;
+        case ST:
+        case UNH:
+            transaction = startEntry(Type.TRANSACTION, group != null ? group : interchange);
+            transaction.controlNumber = element(segmentKind == ST ? 2 : 1);
+            transaction.transactionType = element(segmentKind == ST ? 1 : 2);
+            break;
+        case SE:
+        case UNT:
+            transaction = endEntry(transaction);
+            break;
+        case GE:
+        case UNE:
+            group = endEntry(group);
+            break;
+        case IEA:
+        case UNZ:
+            interchange = endEntry(interchange);
+            // The next interchange may use different delimiters
+            dialect = null;
+            break;
+        default:
+            break;
+        }
+
+        segmentStart = -1;
+        tagLength = 0;
+        tagComplete = false;
+        collecting = false;
+        valueComplete = false;
+        elements.clear();
+    }
+
+    IndexEntry startEntry(Type type, IndexEntry parent) {
+        IndexEntry entry = index.add(type, parent, segmentStart);
+        entry.headerLength = (int) (position - segmentStart);
+        return entry;
+    }
+
+    IndexEntry endEntry(IndexEntry entry) {
+        if (entry != null) {
+            entry.length = position - entry.offset;
+        }
+        return null;
+    }
+}
@@ -19,10 +19,39 @@ import io.xlate.edi.stream.Location;
 
 public class StaEDIStreamLocation extends LocationView implements Location {
 
+    /**
+     * Level of detail maintained for the position of the location within the
+     * input.
+     *
+     * @see io.xlate.edi.stream.EDIInputFactory#EDI_LOCATION_TRACKING
+     */
+    public enum Tracking {
+        /**
+         * Line, column, and character offset are updated for each character.
+         */
+        FULL,
+        /**
+         * Only the character offset is updated for each character. Line breaks
+         * are recorded at segment boundaries and line and column are derived
+         * from the offset when requested. Line breaks within element data are
+         * not counted.
+         */
+        OFFSET,
+        /**
+         * Only segment, element, and component positions are tracked.
+         */
+        SEGMENT
+    }
+
     private boolean composite = false;
     private boolean repeating = false;
     private int repeatCount = -1;
 
+    private Tracking tracking = Tracking.FULL;
+    // Used for Tracking.OFFSET
+    private int newlineCount;
+    private int lastNewlineOffset;
+
     public StaEDIStreamLocation() {
         super();
     }
@@ -40,6 +69,60 @@ public class StaEDIStreamLocation extends LocationView implements Location {
         return copy;
     }
 
+    public Tracking getTracking() {
+        return tracking;
+    }
+
+    public void setTracking(Tracking tracking) {
+        this.tracking = tracking;
+
+        if (tracking == Tracking.SEGMENT) {
+            lineNumber = -1;
+            columnNumber = -1;
+            characterOffset = -1;
+        }
+    }
+
+    /**
+     * Return the location to the start of the input, retaining the tracking
+     * level.
+     */
+    public void reset() {
+        lineNumber = 1;
+        columnNumber = 0;
+        characterOffset = 0;
+        segmentPosition = -1;
+        segmentTag = null;
+        clearSegmentLocations();
+        newlineCount = 0;
+        lastNewlineOffset = 0;
+        setTracking(tracking);
+    }
+
+    /**
+     * @return true if {@link #incrementOffset(int)} must be called for each
+     *         character of input
+     */
+    public boolean isOffsetTracked() {
+        return tracking != Tracking.SEGMENT;
+    }
+
+    @Override
+    public int getLineNumber() {
+        if (tracking == Tracking.OFFSET) {
+            return newlineCount + 1;
+        }
+        return lineNumber;
+    }
+
+    @Override
+    public int getColumnNumber() {
+        if (tracking == Tracking.OFFSET) {
+            return characterOffset - lastNewlineOffset;
+        }
+        return columnNumber;
+    }
+
     public void set(Location source) {
         lineNumber = source.getLineNumber();
         columnNumber = source.getColumnNumber();
@@ -51,6 +134,24 @@ public class StaEDIStreamLocation extends LocationView implements Location {
         elementOccurrence = source.getElementOccurrence();
     }
 
+    public void set(int lineNumber,
+                    int columnNumber,
+                    int characterOffset,
+                    int segmentPosition,
+                    String segmentTag,
+                    int elementPosition,
+                    int componentPosition,
+                    int elementOccurrence) {
+        this.lineNumber = lineNumber;
+        this.columnNumber = columnNumber;
+        this.characterOffset = characterOffset;
+        this.segmentPosition = segmentPosition;
+        this.segmentTag = segmentTag;
+        this.elementPosition = elementPosition;
+        this.componentPosition = componentPosition;
+        this.elementOccurrence = elementOccurrence;
+    }
+
     public void setElementPosition(int elementPosition) {
         this.elementPosition = elementPosition;
     }
@@ -65,6 +166,11 @@ public class StaEDIStreamLocation extends LocationView implements Location {
 
     public void incrementOffset(int value) {
         this.characterOffset++;
+
+        if (tracking == Tracking.OFFSET) {
+            return;
+        }
+
         if (value == '\n') {
             this.lineNumber++;
             this.columnNumber = 0;
@@ -72,6 +178,46 @@ public class StaEDIStreamLocation extends LocationView implements Location {
         this.columnNumber++;
     }
 
+    /**
+     * Record a line break for the character most recently passed to
+     * {@link #incrementOffset(int)}. Only used for {@link Tracking#OFFSET},
+     * where the reader calls this at segment boundaries rather than checking
+     * each character.
+     */
+    public void incrementLine() {
+        // The newline is the first column of the next line, consistent with FULL tracking
+        this.newlineCount++;
+        this.lastNewlineOffset = characterOffset - 1;
+    }
+
+    /**
+     * Advance this location past content that was written elsewhere, e.g. a
+     * transaction fragment encoded on another thread.
+     *
+     * @param fragment
+     *            the location at the end of the appended content, relative to
+     *            the start of that content
+     * @param segmentCount
+     *            the number of segments in the appended content
+     */
+    public void append(Location fragment, int segmentCount) {
+        this.characterOffset += fragment.getCharacterOffset();
+
+        if (fragment.getLineNumber() > 1) {
+            this.lineNumber += fragment.getLineNumber() - 1;
+            this.columnNumber = fragment.getColumnNumber();
+        } else {
+            this.columnNumber += fragment.getColumnNumber();
+        }
+
+        if (segmentCount > 0) {
+            this.segmentPosition = Math.max(segmentPosition, 0) + segmentCount;
+            this.segmentTag = fragment.getSegmentTag();
+        }
+
+        clearSegmentLocations();
+    }
+
     static int initOrIncrement(int position) {
         if (position < 0) {
             return 1;
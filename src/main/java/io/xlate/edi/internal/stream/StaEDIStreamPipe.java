@@ -0,0 +1,214 @@
+/*******************************************************************************
+ * Copyright 2023 xlate.io LLC, http://www.xlate.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package io.xlate.edi.internal.stream;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import io.xlate.edi.internal.stream.tokenization.EDIFACTDialect;
+import io.xlate.edi.schema.EDIComplexType;
+import io.xlate.edi.schema.EDIReference;
+import io.xlate.edi.schema.EDISimpleType;
+import io.xlate.edi.schema.EDIType;
+import io.xlate.edi.schema.Schema;
+import io.xlate.edi.stream.EDIStreamEvent;
+import io.xlate.edi.stream.EDIStreamException;
+import io.xlate.edi.stream.EDIStreamPipe;
+import io.xlate.edi.stream.EDIStreamReader;
+import io.xlate.edi.stream.EDIStreamWriter;
+
+public class StaEDIStreamPipe implements EDIStreamPipe {
+
+    /**
+     * Envelope segments of each supported standard, used in addition to the
+     * reader's control schema (when available).
+     */
+    static final Set<String> ENVELOPE_SEGMENTS = new HashSet<>(Arrays.asList(
+            // X12
+            "ISA", "IEA", "GS", "GE", "ST", "SE", "TA1",
+            // EDIFACT
+            "UNA", "UNB", "UNZ", "UNG", "UNE", "UNH", "UNT",
+            // TRADACOMS
+            "STX", "END", "BAT", "EOB", "MHD", "MTR"));
+
+    private final StaEDIStreamReader reader;
+    private final StaEDIStreamWriter writer;
+    private final CharArraySequence holder = new CharArraySequence();
+    private boolean validationEnabled = false;
+
+    public StaEDIStreamPipe(EDIStreamReader reader, EDIStreamWriter writer) {
+        if (!(reader instanceof StaEDIStreamReader)) {
+            throw new IllegalArgumentException("Unsupported reader: " + reader);
+        }
+        if (!(writer instanceof StaEDIStreamWriter)) {
+            throw new IllegalArgumentException("Unsupported writer: " + writer);
+        }
+
+        this.reader = (StaEDIStreamReader) reader;
+        this.writer = (StaEDIStreamWriter) writer;
+        this.reader.setRawSegmentCapture(true);
+    }
+
+    @Override
+    public EDIStreamPipe setValidationEnabled(boolean enabled) {
+        this.validationEnabled = enabled;
+        this.reader.setRawSegmentCapture(!enabled);
+        return this;
+    }
+
+    @Override
+    public boolean copySegment() throws EDIStreamException {
+        if (reader.getEventType() != EDIStreamEvent.START_SEGMENT) {
+            throw new IllegalStateException("Reader not positioned at the start of a segment");
+        }
+
+        final String tag = reader.getText();
+
+        if (validationEnabled || isEnvelopeSegment(tag) || hasBinaryElements(reader.getSchemaTypeReference())) {
+            copyElements(tag);
+            return false;
+        }
+
+        copyRaw(tag);
+        return true;
+    }
+
+    @Override
+    public long copy() throws EDIStreamException {
+        long count = 0;
+
+        while (reader.hasNext()) {
+            switch (reader.next()) {
+            case START_INTERCHANGE:
+                writer.startInterchange();
+                break;
+            case END_INTERCHANGE:
+                writer.endInterchange();
+                break;
+            case START_SEGMENT:
+                copySegment();
+                count++;
+                break;
+            default:
+                // Groups, transactions, loops, and errors are derived from the segments
+                break;
+            }
+        }
+
+        return count;
+    }
+
+    boolean isEnvelopeSegment(String tag) {
+        Schema controlSchema = reader.getControlSchema();
+        return ENVELOPE_SEGMENTS.contains(tag) || (controlSchema != null && controlSchema.containsSegment(tag));
+    }
+
+    static boolean hasBinaryElements(EDIReference segmentReference) {
+        if (segmentReference == null || !(segmentReference.getReferencedType() instanceof EDIComplexType)) {
+            return false;
+        }
+
+        for (EDIReference element : ((EDIComplexType) segmentReference.getReferencedType()).getReferences()) {
+            EDIType type = element.getReferencedType();
+
+            if (type instanceof EDISimpleType && ((EDISimpleType) type).getBase() == EDISimpleType.Base.BINARY) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    void copyRaw(String tag) throws EDIStreamException {
+        EDIStreamEvent event;
+
+        while ((event = reader.next()) != EDIStreamEvent.END_SEGMENT) {
+            if (event == EDIStreamEvent.ELEMENT_DATA_BINARY) {
+                throw new EDIStreamException("Binary data not supported for raw segment copy", reader.getLocation());
+            }
+        }
+
+        CharSequence raw = reader.getRawSegment();
+
+        if (raw == null) {
+            // The segment started before raw capture was enabled
+            throw new EDIStreamException("Raw segment not available", reader.getLocation());
+        }
+
+        writer.writeRawSegment(tag, raw, reader.getDialect());
+    }
+
+    void copyElements(String tag) throws EDIStreamException {
+        // The writer generates the service string advice content from its own delimiters
+        final boolean serviceAdvice = EDIFACTDialect.UNA.equals(tag);
+        boolean composite = false;
+
+        writer.writeStartSegment(tag);
+
+        for (;;) {
+            switch (reader.next()) {
+            case START_COMPOSITE:
+                startElement();
+                composite = true;
+                break;
+            case END_COMPOSITE:
+                writer.endElement();
+                composite = false;
+                break;
+            case ELEMENT_DATA:
+                if (!serviceAdvice) {
+                    writeElementData(composite);
+                }
+                break;
+            case ELEMENT_DATA_BINARY:
+                writer.writeStartElementBinary().writeBinaryData(reader.getBinaryData()).endElement();
+                break;
+            case END_SEGMENT:
+                writer.writeEndSegment();
+                return;
+            default:
+                // Loops and errors are not written
+                break;
+            }
+        }
+    }
+
+    void startElement() throws EDIStreamException {
+        if (reader.getLocation().getElementOccurrence() > 1) {
+            writer.writeRepeatElement();
+        } else {
+            writer.writeStartElement();
+        }
+    }
+
+    void writeElementData(boolean composite) throws EDIStreamException {
+        if (composite) {
+            writer.startComponent();
+        } else {
+            startElement();
+        }
+
+        holder.set(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+        writer.writeElementData(holder);
+
+        if (composite) {
+            writer.endComponent();
+        } else {
+            writer.endElement();
+        }
+    }
+}
@@ -17,13 +17,19 @@ package io.xlate.edi.internal.stream;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.math.BigDecimal;
 import java.nio.CharBuffer;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -36,21 +42,24 @@ import io.xlate.edi.internal.stream.tokenization.Lexer;
 import io.xlate.edi.internal.stream.tokenization.ProxyEventHandler;
 import io.xlate.edi.schema.EDIReference;
 import io.xlate.edi.schema.EDISchemaException;
+import io.xlate.edi.schema.EDISimpleType;
 import io.xlate.edi.schema.Schema;
 import io.xlate.edi.stream.EDIInputErrorReporter;
 import io.xlate.edi.stream.EDIInputFactory;
 import io.xlate.edi.stream.EDIStreamEvent;
 import io.xlate.edi.stream.EDIStreamException;
-import io.xlate.edi.stream.EDIStreamReader;
+import io.xlate.edi.stream.EDIStreamFilterSpec;
 import io.xlate.edi.stream.EDIStreamValidationError;
 import io.xlate.edi.stream.Location;
+import io.xlate.edi.stream.SegmentView;
 
-public class StaEDIStreamReader implements EDIStreamReader, Configurable {
+public class StaEDIStreamReader extends EDIStreamReaderBase implements Configurable {
 
     private static final Logger LOGGER = Logger.getLogger(StaEDIStreamReader.class.getName());
     private static final CharBuffer GROUP_TEXT = CharBuffer.wrap(ProxyEventHandler.LOOP_CODE_GROUP);
     private static final CharBuffer TRANSACTION_TEXT = CharBuffer.wrap(ProxyEventHandler.LOOP_CODE_TRANSACTION);
 
+    private final Schema initialControlSchema;
     private Schema controlSchema;
     private final Map<String, Object> properties;
     private final EDIInputErrorReporter reporter;
@@ -61,6 +70,7 @@ public class StaEDIStreamReader implements EDIStreamReader, Configurable {
     private boolean complete = false;
     private boolean closed = false;
     private boolean deprecationLogged = false;
+    private Consumer<StaEDIStreamReader> closeListener;
 
     public StaEDIStreamReader(
             InputStream stream,
@@ -69,11 +79,15 @@ public class StaEDIStreamReader implements EDIStreamReader, Configurable {
             Map<String, Object> properties,
             EDIInputErrorReporter reporter) {
 
+        this.initialControlSchema = schema;
         this.controlSchema = schema;
         this.properties = new HashMap<>(properties);
         this.reporter = reporter;
+        this.location.setTracking(locationTracking());
         this.proxy = new ProxyEventHandler(location, this.controlSchema, nestHierarchicalLoops());
         this.lexer = new Lexer(stream, charset, proxy, location, ignoreExtraneousCharacters());
+        this.proxy.setFilterSpec(elementProjection());
+        this.proxy.setEnvelopeOnly(envelopeOnly());
     }
 
     private void ensureOpen() {
@@ -187,7 +201,8 @@ public class StaEDIStreamReader implements EDIStreamReader, Configurable {
         });
     }
 
-    private EDIStreamEvent nextEvent() throws EDIStreamException {
+    @Override
+    EDIStreamEvent nextEvent() throws EDIStreamException {
         ensureOpen();
         ensureIncomplete();
 
@@ -232,50 +247,80 @@ public class StaEDIStreamReader implements EDIStreamReader, Configurable {
         return event;
     }
 
+    void setFilterSpec(EDIStreamFilterSpec spec) {
+        ensureOpen();
+        proxy.setFilterSpec(spec);
+    }
+
     @Override
-    public EDIStreamEvent next() throws EDIStreamException {
-        EDIStreamEvent event = null;
-        boolean eventFound = false;
+    public EDIStreamEvent skipSegment() throws EDIStreamException {
+        ensureOpen();
+        requireEvent("not a valid segment state [" + getEventType() + ']',
+                     EDIStreamEvent.START_SEGMENT,
+                     EDIStreamEvent.START_COMPOSITE,
+                     EDIStreamEvent.END_COMPOSITE,
+                     EDIStreamEvent.ELEMENT_DATA,
+                     EDIStreamEvent.ELEMENT_DATA_BINARY,
+                     EDIStreamEvent.ELEMENT_DATA_ERROR,
+                     EDIStreamEvent.ELEMENT_OCCURRENCE_ERROR);
 
-        do {
-            event = nextEvent();
+        proxy.skipSegment();
+        return skipEvents(EDIStreamEvent.END_SEGMENT);
+    }
 
-            if (this.reporter != null && event.isError()) {
-                reporter.report(getErrorType(), this);
-            } else {
-                eventFound = true;
-            }
-        } while (!complete && !eventFound);
+    @Override
+    public EDIStreamEvent skipLoop() throws EDIStreamException {
+        ensureOpen();
+        requireEvent("not a valid loop state [" + getEventType() + ']', EDIStreamEvent.START_LOOP);
 
-        return event;
+        proxy.skipLoop();
+        return skipEvents(EDIStreamEvent.END_LOOP);
     }
 
     @Override
-    public EDIStreamEvent nextTag() throws EDIStreamException {
+    public EDIStreamEvent skipTransaction() throws EDIStreamException {
+        ensureOpen();
+
+        if (!proxy.isTransactionSchemaAllowed()) {
+            throw new IllegalStateException("Transaction can only be skipped during transaction start");
+        }
+
+        proxy.skipTransaction();
+
+        if (getEventType() == EDIStreamEvent.END_SEGMENT) {
+            return EDIStreamEvent.END_SEGMENT;
+        }
+
+        return skipEvents(EDIStreamEvent.END_SEGMENT);
+    }
+
+    /**
+     * Discard events until the given end event is reached. No events are
+     * generated for the content of a skipped segment or loop, so only events
+     * already queued precede the end event.
+     */
+    EDIStreamEvent skipEvents(EDIStreamEvent end) throws EDIStreamException {
         EDIStreamEvent event = null;
-        boolean tagFound = false;
-
-        do {
-            event = next();
-            switch (event) {
-            case START_GROUP:
-            case START_TRANSACTION:
-            case START_LOOP:
-            case START_SEGMENT:
-                tagFound = true;
-                break;
-            default:
-                break;
-            }
-        } while (!complete && !tagFound);
 
-        if (!tagFound) {
-            throw new NoSuchElementException("No additional tags in stream");
+        while (event != end && !complete) {
+            event = nextEvent();
         }
 
         return event;
     }
 
+    @Override
+    public boolean nextSegment(SegmentView view) throws EDIStreamException {
+        return segmentView(view).read(this);
+    }
+
+    static StaEDISegmentView segmentView(SegmentView view) {
+        if (view instanceof StaEDISegmentView) {
+            return (StaEDISegmentView) view;
+        }
+        throw new IllegalArgumentException("Unsupported view: " + view);
+    }
+
     @Override
     public boolean hasNext() throws EDIStreamException {
         ensureOpen();
@@ -284,10 +329,70 @@ public class StaEDIStreamReader implements EDIStreamReader, Configurable {
 
     @Override
     public void close() throws IOException {
-        this.closed = true;
+        if (!closed) {
+            this.closed = true;
+
+            if (closeListener != null) {
+                closeListener.accept(this);
+            }
+        }
         // Do not close the stream
     }
 
+    /**
+     * Release the reader's input, the reader must be reset before it is used
+     * again.
+     */
+    void detach() {
+        lexer.detach();
+    }
+
+    /**
+     * Set a listener to be notified the first time the reader is closed
+     * following its creation or most recent reset.
+     */
+    void setCloseListener(Consumer<StaEDIStreamReader> closeListener) {
+        this.closeListener = closeListener;
+    }
+
+    Schema getInitialControlSchema() {
+        return initialControlSchema;
+    }
+
+    @Override
+    EDIInputErrorReporter getReporter() {
+        return reporter;
+    }
+
+    Map<String, Object> getProperties() {
+        return properties;
+    }
+
+    @Override
+    public void reset(InputStream stream) throws EDIStreamException {
+        reset(stream, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void reset(InputStream stream, String encoding) throws EDIStreamException {
+        if (!Charset.isSupported(encoding)) {
+            throw new EDIStreamException("Unsupported encoding: " + encoding);
+        }
+
+        reset(stream, Charset.forName(encoding));
+    }
+
+    void reset(InputStream stream, Charset charset) {
+        Objects.requireNonNull(stream, "stream");
+        location.reset();
+        proxy.reset();
+        controlSchema = initialControlSchema;
+        proxy.setControlSchema(initialControlSchema, true);
+        lexer.reset(stream, charset);
+        complete = false;
+        closed = false;
+    }
+
     @Override
     public EDIStreamEvent getEventType() {
         ensureOpen();
@@ -423,55 +528,87 @@ public class StaEDIStreamReader implements EDIStreamReader, Configurable {
     }
 
     @Override
-    public int getTextCharacters(int sourceStart,
-                                 char[] target,
-                                 int targetStart,
-                                 int length) {
+    void copyText(int sourceStart, char[] target, int targetStart, int length) {
+        System.arraycopy(getBuffer().array(), sourceStart, target, targetStart, length);
+    }
 
-        if (target == null) {
-            throw new NullPointerException("Null target array");
-        }
-        if (targetStart < 0) {
-            throw new IndexOutOfBoundsException("targetStart < 0");
-        }
-        if (targetStart > target.length) {
-            throw new IndexOutOfBoundsException("targetStart > target.length");
-        }
-        if (length < 0) {
-            throw new IndexOutOfBoundsException("length < 0");
-        }
-        if (length > target.length) {
-            throw new IndexOutOfBoundsException("length (" + length + ") > target.length (" + target.length + ")");
-        }
+    @Override
+    public int getTextStart() {
+        final CharBuffer buffer = getBuffer();
+        return buffer.position();
+    }
 
+    @Override
+    public int getTextLength() {
         final CharBuffer buffer = getBuffer();
-        final char[] contents = buffer.array();
-        final int count = buffer.remaining();
+        return buffer.limit();
+    }
 
-        if (sourceStart < 0) {
-            throw new IndexOutOfBoundsException("sourceStart < 0");
-        }
+    @Override
+    public long getLongValue() {
+        return ValueParser.parseLong(getElementCharacters());
+    }
 
-        if (sourceStart > count) {
-            throw new IndexOutOfBoundsException("sourceStart > source length");
-        }
+    @Override
+    public int getIntValue() {
+        return ValueParser.parseInt(getElementCharacters());
+    }
 
-        int toCopy = Math.min(count - sourceStart, length);
-        System.arraycopy(contents, sourceStart, target, targetStart, toCopy);
+    @Override
+    public BigDecimal getDecimalValue() {
+        CharBuffer value = getElementCharacters();
+        EDIReference reference = proxy.getSchemaTypeReference();
+        EDISimpleType type = null;
 
-        return toCopy;
+        if (reference != null && reference.getReferencedType() instanceof EDISimpleType) {
+            type = (EDISimpleType) reference.getReferencedType();
+        }
+
+        return ValueParser.parseDecimal(value, type, lexer.getDialect());
     }
 
     @Override
-    public int getTextStart() {
-        final CharBuffer buffer = getBuffer();
-        return buffer.position();
+    public LocalDate getDateValue() {
+        return ValueParser.parseDate(getElementCharacters());
     }
 
     @Override
-    public int getTextLength() {
-        final CharBuffer buffer = getBuffer();
-        return buffer.limit();
+    public LocalTime getTimeValue() {
+        return ValueParser.parseTime(getElementCharacters());
+    }
+
+    private CharBuffer getElementCharacters() {
+        ensureOpen();
+        requireEvent("not a valid element data state [" + getEventType() + ']', EDIStreamEvent.ELEMENT_DATA);
+        return proxy.getCharacters();
+    }
+
+    /**
+     * Retrieve the text of the current event without copying.
+     *
+     * @return the buffer holding the text of the current event
+     */
+    CharBuffer getCharacters() {
+        return getBuffer();
+    }
+
+    Dialect getDialect() {
+        return lexer.getDialect();
+    }
+
+    void setRawSegmentCapture(boolean enabled) {
+        lexer.setRawSegmentCapture(enabled);
+    }
+
+    /**
+     * Retrieve the raw text of the current segment when positioned at its
+     * END_SEGMENT event and raw segment capture is enabled.
+     *
+     * @return the raw text of the segment, including the terminator, or null
+     *         when not available
+     */
+    CharSequence getRawSegment() {
+        return lexer.getRawSegment();
     }
 
     @Override
@@ -520,10 +657,26 @@ public class StaEDIStreamReader implements EDIStreamReader, Configurable {
         return getProperty(EDIInputFactory.EDI_IGNORE_EXTRANEOUS_CHARACTERS, Boolean::parseBoolean, false);
     }
 
+    boolean envelopeOnly() {
+        return getProperty(EDIInputFactory.EDI_ENVELOPE_ONLY, Boolean::parseBoolean, false);
+    }
+
     boolean nestHierarchicalLoops() {
         return getProperty(EDIInputFactory.EDI_NEST_HIERARCHICAL_LOOPS, Boolean::parseBoolean, true);
     }
 
+    StaEDIStreamLocation.Tracking locationTracking() {
+        return getProperty(EDIInputFactory.EDI_LOCATION_TRACKING,
+                           value -> StaEDIStreamLocation.Tracking.valueOf(value.toUpperCase()),
+                           StaEDIStreamLocation.Tracking.FULL);
+    }
+
+    EDIStreamFilterSpec elementProjection() {
+        return getProperty(EDIInputFactory.EDI_ELEMENT_PROJECTION,
+                           value -> new EDIStreamFilterSpec().addElementReferences(value.trim().split("[\\s,]+")),
+                           null);
+    }
+
     @SuppressWarnings("deprecation")
     boolean enableLoopText() {
         return getProperty(EDIInputFactory.EDI_ENABLE_LOOP_TEXT, Boolean::parseBoolean, true);
@@ -0,0 +1,417 @@
+/*******************************************************************************
+ * Copyright 2023 xlate.io LLC, http://www.xlate.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package io.xlate.edi.internal.stream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import io.xlate.edi.internal.stream.tokenization.CharacterSet;
+import io.xlate.edi.internal.stream.tokenization.Dialect;
+import io.xlate.edi.internal.stream.tokenization.DialectFactory;
+import io.xlate.edi.internal.stream.tokenization.EDIFACTDialect;
+import io.xlate.edi.internal.stream.tokenization.TradacomsDialect;
+import io.xlate.edi.stream.EDIOutputFactory;
+import io.xlate.edi.stream.EDIStreamConstants.Delimiters;
+import io.xlate.edi.stream.EDIStreamException;
+import io.xlate.edi.stream.EDIStreamTranscoder;
+
+public class StaEDIStreamTranscoder implements EDIStreamTranscoder {
+
+    static final int BUFFER_SIZE = 4096;
+    static final int TAG_LENGTH = 3;
+    static final int UNA_LENGTH = 9;
+
+    /**
+     * EDIFACT syntax identifiers (UNB01-1) and their character sets, in order
+     * of preference when the identifier must be changed for the output.
+     */
+    static final Map<String, String> SYNTAX_IDENTIFIERS = new LinkedHashMap<>();
+
+    static {
+        SYNTAX_IDENTIFIERS.put("UNOB", "US-ASCII");
+        SYNTAX_IDENTIFIERS.put("UNOA", "US-ASCII");
+        SYNTAX_IDENTIFIERS.put("UNOC", "ISO-8859-1");
+        SYNTAX_IDENTIFIERS.put("UNOD", "ISO-8859-2");
+        SYNTAX_IDENTIFIERS.put("UNOE", "ISO-8859-5");
+        SYNTAX_IDENTIFIERS.put("UNOF", "ISO-8859-7");
+        SYNTAX_IDENTIFIERS.put("UNOG", "ISO-8859-3");
+        SYNTAX_IDENTIFIERS.put("UNOH", "ISO-8859-4");
+        SYNTAX_IDENTIFIERS.put("UNOI", "ISO-8859-6");
+        SYNTAX_IDENTIFIERS.put("UNOJ", "ISO-8859-8");
+        SYNTAX_IDENTIFIERS.put("UNOK", "ISO-8859-9");
+        SYNTAX_IDENTIFIERS.put("UNOW", "UTF-8");
+        SYNTAX_IDENTIFIERS.put("UNOY", "UTF-8");
+    }
+
+    private final Writer writer;
+    private final Charset charset;
+    private final Map<String, Object> properties;
+    private final boolean prettyPrint;
+
+    private final char[] input = new char[BUFFER_SIZE];
+    private final char[] output = new char[BUFFER_SIZE];
+    private int outputLength;
+
+    private StaEDIStreamLocation location;
+    private long segmentCount;
+    private Charset inputCharset;
+
+    // Header detection
+    private Dialect dialect;
+    private CharacterSet characters;
+    private final StringBuilder header = new StringBuilder();
+
+    // Delimiters of the input
+    private char segmentTerminator;
+    private char dataElementSeparator;
+    private char componentElementSeparator;
+    private char repetitionSeparator;
+    private char releaseIndicator;
+    private char segmentTagTerminator;
+
+    // Delimiters of the output
+    private char targetSegmentTerminator;
+    private char targetDataElementSeparator;
+    private char targetComponentElementSeparator;
+    private char targetRepetitionSeparator;
+    private char targetReleaseIndicator;
+    private char targetSegmentTagTerminator;
+    private String prettyPrintString;
+
+    // Segment state
+    private final StringBuilder tag = new StringBuilder(TAG_LENGTH);
+    private boolean segmentStart;
+    private boolean tagComplete;
+    private boolean released;
+
+    public StaEDIStreamTranscoder(OutputStream stream, Charset charset, Map<String, Object> properties) {
+        this.writer = new OutputStreamWriter(stream, charset.newEncoder());
+        this.charset = charset;
+        this.properties = new HashMap<>(properties);
+        this.prettyPrint = Boolean.parseBoolean(String.valueOf(properties.get(EDIOutputFactory.PRETTY_PRINT)));
+    }
+
+    @Override
+    public long transcode(InputStream stream) throws EDIStreamException {
+        return transcode(stream, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public long transcode(InputStream stream, String encoding) throws EDIStreamException {
+        if (Charset.isSupported(encoding)) {
+            return transcode(stream, Charset.forName(encoding));
+        }
+        throw new EDIStreamException("Unsupported encoding: " + encoding);
+    }
+
+    long transcode(InputStream stream, Charset charset) throws EDIStreamException {
+        location = new StaEDIStreamLocation();
+        segmentCount = 0;
+        inputCharset = charset;
+        dialect = null;
+        header.setLength(0);
+
+        try {
+            Reader reader = new InputStreamReader(stream, charset.newDecoder());
+            int length;
+
+            while ((length = reader.read(input)) > -1) {
+                for (int i = 0; i < length; i++) {
+                    location.incrementOffset(input[i]);
+
+                    if (dialect == null || !dialect.isConfirmed()) {
+                        appendHeader(input[i]);
+                    } else {
+                        translate(input[i]);
+                    }
+                }
+            }
+
+            if (header.length() > 0 || (dialect != null && !segmentStart)) {
+                throw new EDIStreamException("Unexpected end of stream", location);
+            }
+
+            flushOutput();
+            writer.flush();
+        } catch (IOException e) {
+            throw new EDIStreamException("Exception transcoding EDI stream", location, e);
+        }
+
+        return segmentCount;
+    }
+
+    void appendHeader(char value) throws IOException, EDIStreamException {
+        if (dialect == null) {
+            if (header.length() == 0 && isWhitespace(value)) {
+                // Whitespace between interchanges is not retained
+                return;
+            }
+
+            header.append(value);
+
+            if (header.length() < TAG_LENGTH) {
+                return;
+            }
+
+            dialect = DialectFactory.getDialect(header.toString());
+            characters = new CharacterSet();
+
+            for (int i = 0; i < TAG_LENGTH; i++) {
+                dialect.appendHeader(characters, header.charAt(i));
+            }
+
+            return;
+        }
+
+        header.append(value);
+
+        if (!dialect.appendHeader(characters, value)) {
+            throw new EDIStreamException(String.format("Invalid %s header: %s", dialect.getStandard(), dialect.getRejectionMessage()), location);
+        }
+
+        if (dialect.isConfirmed()) {
+            setupDelimiters();
+            writeHeader();
+        }
+    }
+
+    static boolean isWhitespace(char value) {
+        return Character.isWhitespace(value);
+    }
+
+    void setupDelimiters() {
+        segmentTerminator = dialect.getSegmentTerminator();
+        dataElementSeparator = dialect.getDataElementSeparator();
+        componentElementSeparator = dialect.getComponentElementSeparator();
+        repetitionSeparator = dialect.getRepetitionSeparator();
+        releaseIndicator = dialect.getReleaseIndicator();
+        segmentTagTerminator = dialect.getSegmentTagTerminator();
+
+        if (dialect instanceof TradacomsDialect) {
+            // TRADACOMS delimiters are fixed
+            targetSegmentTerminator = segmentTerminator;
+            targetDataElementSeparator = dataElementSeparator;
+            targetComponentElementSeparator = componentElementSeparator;
+            targetRepetitionSeparator = repetitionSeparator;
+            targetReleaseIndicator = releaseIndicator;
+        } else {
+            targetSegmentTerminator = getDelimiter(Delimiters.SEGMENT, segmentTerminator);
+            targetDataElementSeparator = getDelimiter(Delimiters.DATA_ELEMENT, dataElementSeparator);
+            targetComponentElementSeparator = getDelimiter(Delimiters.COMPONENT_ELEMENT, componentElementSeparator);
+            // Repetition is only available when supported by the version of the input
+            targetRepetitionSeparator = repetitionSeparator != '\0' ? getDelimiter(Delimiters.REPETITION, repetitionSeparator) : '\0';
+            targetReleaseIndicator = getDelimiter(Delimiters.RELEASE, releaseIndicator);
+        }
+
+        targetSegmentTagTerminator = segmentTagTerminator;
+
+        String lineSeparator = System.getProperty("line.separator");
+
+        if (prettyPrint && lineSeparator.indexOf(targetSegmentTerminator) < 0) {
+            prettyPrintString = lineSeparator;
+        } else {
+            prettyPrintString = "";
+        }
+    }
+
+    char getDelimiter(String key, char inputDelimiter) {
+        if (properties.containsKey(key)) {
+            return StaEDIStreamWriter.delimiterValue(key, properties.get(key));
+        }
+        return inputDelimiter;
+    }
+
+    boolean isDelimiterChanged() {
+        return segmentTerminator != targetSegmentTerminator
+                || dataElementSeparator != targetDataElementSeparator
+                || componentElementSeparator != targetComponentElementSeparator
+                || repetitionSeparator != targetRepetitionSeparator
+                || releaseIndicator != targetReleaseIndicator;
+    }
+
+    void writeHeader() throws IOException, EDIStreamException {
+        int dataStart = 0;
+        startSegment();
+
+        if (dialect.isServiceAdviceSegment(dialect.getHeaderTag())) {
+            writeServiceStringAdvice(header.charAt(5));
+            dataStart = UNA_LENGTH;
+        } else if (dialect instanceof EDIFACTDialect && isDelimiterChanged()) {
+            // Delimiters other than the defaults must be given by a UNA segment
+            writeServiceStringAdvice(dialect.getDecimalMark());
+        }
+
+        if (dialect instanceof EDIFACTDialect && !charset.equals(inputCharset)) {
+            replaceSyntaxIdentifier(dataStart);
+        }
+
+        for (int i = dataStart, m = header.length(); i < m; i++) {
+            translate(header.charAt(i));
+        }
+
+        header.setLength(0);
+    }
+
+    /**
+     * Replace the syntax identifier of the UNB segment held in the header
+     * buffer with one matching the output character set. The identifier is
+     * retained when it already matches.
+     */
+    void replaceSyntaxIdentifier(int dataStart) throws EDIStreamException {
+        final String identifier = dialect.getVersion()[0];
+        final String targetIdentifier = getSyntaxIdentifier(identifier, charset);
+
+        if (targetIdentifier == null) {
+            throw new EDIStreamException("No EDIFACT syntax identifier for encoding: " + charset.name(), location);
+        }
+
+        if (!targetIdentifier.equals(identifier)) {
+            // Skip four characters: UNB<delim>
+            int identifierStart = header.indexOf(EDIFACTDialect.UNB, dataStart) + TAG_LENGTH + 1;
+            header.replace(identifierStart, identifierStart + identifier.length(), targetIdentifier);
+        }
+    }
+
+    static String getSyntaxIdentifier(String identifier, Charset charset) {
+        if (charset.name().equals(SYNTAX_IDENTIFIERS.get(identifier))) {
+            return identifier;
+        }
+
+        for (Map.Entry<String, String> entry : SYNTAX_IDENTIFIERS.entrySet()) {
+            if (charset.name().equals(entry.getValue())) {
+                return entry.getKey();
+            }
+        }
+
+        return null;
+    }
+
+    void writeServiceStringAdvice(char decimalMark) throws IOException {
+        tag.append(EDIFACTDialect.UNA);
+
+        for (int i = 0; i < TAG_LENGTH; i++) {
+            write(tag.charAt(i));
+        }
+
+        write(targetComponentElementSeparator);
+        write(targetDataElementSeparator);
+        write(decimalMark);
+        write(targetReleaseIndicator != '\0' ? targetReleaseIndicator : ' ');
+        write(targetRepetitionSeparator != '\0' ? targetRepetitionSeparator : ' ');
+        write(targetSegmentTerminator);
+        endSegment();
+    }
+
+    void translate(char value) throws IOException, EDIStreamException {
+        if (released) {
+            released = false;
+            writeData(value);
+        } else if (value == releaseIndicator && releaseIndicator != '\0') {
+            released = true;
+        } else if (value == segmentTerminator) {
+            write(targetSegmentTerminator);
+            endSegment();
+        } else if (value == dataElementSeparator) {
+            tagComplete = true;
+            write(targetDataElementSeparator);
+        } else if (value == componentElementSeparator) {
+            write(targetComponentElementSeparator);
+        } else if (value == repetitionSeparator && repetitionSeparator != '\0') {
+            write(targetRepetitionSeparator);
+        } else if (!tagComplete && value == segmentTagTerminator && segmentTagTerminator != '\0') {
+            tagComplete = true;
+            write(targetSegmentTagTerminator);
+        } else if (segmentStart && isWhitespace(value)) {
+            // Formatting between segments is not retained
+        } else {
+            segmentStart = false;
+
+            if (!tagComplete) {
+                tag.append(value);
+            }
+
+            writeData(value);
+        }
+    }
+
+    void writeData(char value) throws IOException, EDIStreamException {
+        if (isTargetDelimiter(value)) {
+            if (targetReleaseIndicator == '\0') {
+                throw new EDIStreamException(String.format("Segment data contains delimiter: 0x%04X", (int) value), location);
+            }
+            write(targetReleaseIndicator);
+        }
+
+        write(value);
+    }
+
+    boolean isTargetDelimiter(char value) {
+        return value == targetSegmentTerminator
+                || value == targetDataElementSeparator
+                || value == targetComponentElementSeparator
+                || (value == targetRepetitionSeparator && targetRepetitionSeparator != '\0')
+                || (value == targetReleaseIndicator && targetReleaseIndicator != '\0');
+    }
+
+    void startSegment() {
+        tag.setLength(0);
+        segmentStart = true;
+        tagComplete = false;
+        released = false;
+    }
+
+    void endSegment() throws IOException {
+        segmentCount++;
+        location.incrementSegmentPosition(tag.toString());
+
+        for (int i = 0, m = prettyPrintString.length(); i < m; i++) {
+            write(prettyPrintString.charAt(i));
+        }
+
+        if (isInterchangeTrailer(tag)) {
+            // The next interchange may use different delimiters
+            dialect = null;
+        }
+
+        startSegment();
+    }
+
+    static boolean isInterchangeTrailer(CharSequence tag) {
+        return "IEA".contentEquals(tag) || "UNZ".contentEquals(tag) || "END".contentEquals(tag);
+    }
+
+    void write(char value) throws IOException {
+        if (outputLength == output.length) {
+            flushOutput();
+        }
+        output[outputLength++] = value;
+    }
+
+    void flushOutput() throws IOException {
+        writer.write(output, 0, outputLength);
+        outputLength = 0;
+    }
+}
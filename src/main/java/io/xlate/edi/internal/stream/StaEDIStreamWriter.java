@@ -15,13 +15,16 @@
  ******************************************************************************/
 package io.xlate.edi.internal.stream;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.math.BigDecimal;
 import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
 import java.nio.charset.Charset;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -30,6 +33,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.Executor;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 import java.util.logging.Logger;
@@ -47,6 +51,7 @@ import io.xlate.edi.internal.stream.tokenization.X12Dialect;
 import io.xlate.edi.internal.stream.validation.UsageError;
 import io.xlate.edi.internal.stream.validation.Validator;
 import io.xlate.edi.schema.EDIReference;
+import io.xlate.edi.schema.EDISimpleType;
 import io.xlate.edi.schema.EDIType;
 import io.xlate.edi.schema.Schema;
 import io.xlate.edi.stream.EDIOutputErrorReporter;
@@ -76,6 +81,7 @@ public class StaEDIStreamWriter implements EDIStreamWriter, ElementDataHandler,
     private CharacterSet characters = new CharacterSet();
 
     private final OutputStream stream;
+    private final Charset charset;
     private final OutputStreamWriter writer;
     private final Map<String, Object> properties;
     private final EDIOutputErrorReporter reporter;
@@ -95,6 +101,9 @@ public class StaEDIStreamWriter implements EDIStreamWriter, ElementDataHandler,
     private final StringBuilder formattedElement = new StringBuilder();
     private List<EDIValidationException> errors = new ArrayList<>();
     private CharArraySequence elementHolder = new CharArraySequence();
+    private final ValueRenderer renderer;
+    private CharBuffer rawBuffer = CharBuffer.allocate(500);
+    private List<String> fragmentSegments;
 
     private char segmentTerminator;
     private char segmentTagTerminator;
@@ -118,16 +127,134 @@ public class StaEDIStreamWriter implements EDIStreamWriter, ElementDataHandler,
     private boolean unterminatedComponent = false;
 
     public StaEDIStreamWriter(OutputStream stream, Charset charset, Map<String, Object> properties, EDIOutputErrorReporter reporter) {
-        this.stream = stream;
-        this.writer = new OutputStreamWriter(stream, charset);
+        this.stream = asyncOutput(stream, properties);
+        this.charset = charset;
+        this.writer = new OutputStreamWriter(this.stream, charset);
         this.properties = new HashMap<>(properties);
         this.reporter = reporter;
         this.emptyElementTruncation = booleanValue(properties.get(EDIOutputFactory.TRUNCATE_EMPTY_ELEMENTS));
         this.prettyPrint = booleanValue(properties.get(EDIOutputFactory.PRETTY_PRINT));
         this.formatElements = booleanValue(properties.get(EDIOutputFactory.FORMAT_ELEMENTS));
+        this.renderer = new ValueRenderer(formatElements);
         this.location = new StaEDIStreamLocation();
     }
 
+    /**
+     * Create a fragment writer for the body of a single transaction. The
+     * fragment shares the confirmed delimiters, control schema, and
+     * configuration of the parent writer but writes to its own stream so that
+     * it may be used on a thread other than the parent's. The fragment begins
+     * positioned within a transaction, following the transaction header
+     * segment described by the given header tag and elements. When the parent
+     * has a transaction schema, the fragment validates the transaction body
+     * with its own validator for that schema.
+     *
+     * @param parent
+     *            writer with a confirmed dialect into which the fragment will
+     *            later be spliced
+     * @param stream
+     *            output for the encoded fragment
+     * @param headerTag
+     *            the tag of the transaction header segment
+     * @param headerElements
+     *            the elements of the transaction header segment, each a String
+     *            or a String array for a composite
+     * @throws EDIStreamException
+     *             when the dialect of the parent can not be re-created
+     */
+    StaEDIStreamWriter(StaEDIStreamWriter parent, OutputStream stream, String headerTag, Object[] headerElements) throws EDIStreamException {
+        this(stream, parent.charset, synchronousOutput(parent.properties), parent.reporter);
+
+        if (parent.dialect == null || !parent.dialect.isConfirmed()) {
+            throw new IllegalStateException("interchange header not yet written");
+        }
+
+        this.controlSchema = parent.controlSchema;
+        this.dialect = DialectFactory.getDialect(parent.dialect.getHeaderTag());
+        this.dialect.copyTransactionContext(parent.dialect);
+
+        this.segmentTerminator = parent.segmentTerminator;
+        this.segmentTagTerminator = parent.segmentTagTerminator;
+        this.dataElementSeparator = parent.dataElementSeparator;
+        this.componentElementSeparator = parent.componentElementSeparator;
+        this.repetitionSeparator = parent.repetitionSeparator;
+        this.decimalMark = parent.decimalMark;
+        this.releaseIndicator = parent.releaseIndicator;
+        this.prettyPrintString = parent.prettyPrintString;
+
+        setCharacterClass(segmentTerminator, CharacterClass.SEGMENT_DELIMITER);
+        setCharacterClass(segmentTagTerminator, CharacterClass.SEGMENT_TAG_DELIMITER);
+        setCharacterClass(dataElementSeparator, CharacterClass.ELEMENT_DELIMITER);
+        setCharacterClass(componentElementSeparator, CharacterClass.COMPONENT_DELIMITER);
+        setCharacterClass(repetitionSeparator, CharacterClass.ELEMENT_REPEATER);
+        setCharacterClass(releaseIndicator, CharacterClass.RELEASE_CHARACTER);
+
+        // Let the dialect see the header so that the transaction type and version are available to validation
+        location.incrementSegmentPosition(headerTag);
+
+        for (Object element : headerElements) {
+            location.incrementElementPosition();
+
+            if (element instanceof String[]) {
+                for (String component : (String[]) element) {
+                    location.incrementComponentPosition();
+                    dialect.elementData(component, location);
+                }
+            } else {
+                dialect.elementData(String.valueOf(element), location);
+            }
+        }
+
+        location.clearSegmentLocations();
+
+        this.fragmentSegments = new ArrayList<>();
+        this.state = State.TAG_SEARCH;
+        this.level = LEVEL_INTERCHANGE;
+        this.transaction = true;
+
+        if (parent.transactionSchema != null) {
+            setTransactionSchema(parent.transactionSchema);
+        }
+    }
+
+    private void setCharacterClass(char delimiter, CharacterClass clazz) {
+        if (delimiter != '\0') {
+            characters.setClass(delimiter, clazz);
+        }
+    }
+
+    static OutputStream asyncOutput(OutputStream stream, Map<String, Object> properties) {
+        Object bufferSize = properties.get(EDIOutputFactory.ASYNC_OUTPUT_BUFFER_SIZE);
+
+        if (bufferSize == null) {
+            return stream;
+        }
+
+        int size = bufferSize instanceof Number
+            ? ((Number) bufferSize).intValue()
+            : Integer.parseInt(bufferSize.toString());
+
+        Executor executor = (Executor) properties.get(EDIOutputFactory.ASYNC_OUTPUT_EXECUTOR);
+        return new AsyncOutputStream(stream, size, executor);
+    }
+
+    void checkAsyncOutput() throws EDIStreamException {
+        if (stream instanceof AsyncOutputStream) {
+            try {
+                ((AsyncOutputStream) stream).checkFailure();
+            } catch (IOException e) {
+                throw new EDIStreamException("Exception to output stream", location, e);
+            }
+        }
+    }
+
+    static Map<String, Object> synchronousOutput(Map<String, Object> properties) {
+        // Fragments write to memory, background output would only add overhead
+        Map<String, Object> result = new HashMap<>(properties);
+        result.remove(EDIOutputFactory.ASYNC_OUTPUT_BUFFER_SIZE);
+        return result;
+    }
+
     boolean booleanValue(Object value) {
         if (value instanceof Boolean) {
             return (Boolean) value;
@@ -174,11 +301,32 @@ public class StaEDIStreamWriter implements EDIStreamWriter, ElementDataHandler,
 
     char getDelimiter(Map<String, Object> properties, String key, Supplier<Character> dialectSupplier) {
         if (properties.containsKey(key) && !dialect.isConfirmed()) {
-            return (char) properties.get(key);
+            return delimiterValue(key, properties.get(key));
         }
         return dialectSupplier.get();
     }
 
+    /**
+     * Convert the value of a delimiter property to a character.
+     *
+     * @param key
+     *            the name of the delimiter property
+     * @param value
+     *            the property value, a Character or a CharSequence of length 1
+     * @return the delimiter character
+     * @throws IllegalArgumentException
+     *             when the value is not a single character
+     */
+    static char delimiterValue(String key, Object value) {
+        if (value instanceof Character) {
+            return (Character) value;
+        }
+        if (value instanceof CharSequence && ((CharSequence) value).length() == 1) {
+            return ((CharSequence) value).charAt(0);
+        }
+        throw new IllegalArgumentException("Property " + key + " must be a single character: " + value);
+    }
+
     static void putDelimiter(String key, char value, Map<String, Character> delimiters) {
         if (value != '\0') {
             delimiters.put(key, value);
@@ -228,6 +376,15 @@ public class StaEDIStreamWriter implements EDIStreamWriter, ElementDataHandler,
     @Override
     public void close() throws EDIStreamException {
         flush();
+
+        if (stream instanceof AsyncOutputStream) {
+            try {
+                // Waits for background output, the target stream remains open
+                stream.close();
+            } catch (IOException e) {
+                throw new EDIStreamException("Exception closing asynchronous output", location, e);
+            }
+        }
         // Do not close the stream
     }
 
@@ -415,6 +572,7 @@ public class StaEDIStreamWriter implements EDIStreamWriter, ElementDataHandler,
     @Override
     public EDIStreamWriter writeStartSegment(String name) throws EDIStreamException {
         ensureLevel(LEVEL_INTERCHANGE);
+        checkAsyncOutput();
         location.incrementSegmentPosition(name);
 
         if (state == State.INITIAL) {
@@ -462,6 +620,200 @@ public class StaEDIStreamWriter implements EDIStreamWriter, ElementDataHandler,
         if (controlValidator != null) {
             controlValidator.countSegment(name);
         }
+        if (fragmentSegments != null) {
+            fragmentSegments.add(name);
+        }
+    }
+
+    /**
+     * Complete the transaction body written to this fragment writer. When
+     * both control and transaction schemas are in use, the transaction
+     * validator is given the trailer segment tag so that any missing
+     * mandatory segments or loops are reported before the fragment is
+     * spliced.
+     *
+     * @param trailerTag
+     *            the tag of the transaction trailer segment
+     * @throws EDIStreamException
+     *             when the fragment is not positioned between segments or the
+     *             output can not be flushed
+     */
+    void completeFragment(String trailerTag) throws EDIStreamException {
+        ensureLevel(LEVEL_INTERCHANGE);
+
+        if (transactionValidator != null && controlSchema != null) {
+            location.incrementSegmentPosition(trailerTag);
+            segmentValidation(trailerTag);
+            location.clearSegmentLocations();
+        }
+
+        flush();
+    }
+
+    /**
+     * The tags of the segments written to this fragment writer, in order.
+     *
+     * @return the list of segment tags written, or null when this writer is
+     *         not a fragment
+     */
+    List<String> getFragmentSegments() {
+        return fragmentSegments;
+    }
+
+    /**
+     * Copy the encoded output of a completed fragment directly to the
+     * underlying stream. The segments of the fragment are counted by the
+     * control validator and the location of this writer is advanced past the
+     * fragment content. The transaction body and its trailer position have
+     * already been validated by the fragment, so the remainder of the
+     * transaction is validated by the control validator only.
+     *
+     * @param fragment
+     *            the completed fragment writer
+     * @param encoded
+     *            the encoded output of the fragment
+     * @throws EDIStreamException
+     *             when the writer is not positioned between segments or the
+     *             output can not be written
+     */
+    void appendFragment(StaEDIStreamWriter fragment, ByteArrayOutputStream encoded) throws EDIStreamException {
+        ensureLevel(LEVEL_INTERCHANGE);
+
+        try {
+            writer.flush();
+            encoded.writeTo(stream);
+        } catch (IOException e) {
+            throw new EDIStreamException("Exception writing transaction fragment", location, e);
+        }
+
+        for (String tag : fragment.fragmentSegments) {
+            if (controlValidator != null) {
+                controlValidator.countSegment(tag);
+            }
+        }
+
+        location.append(fragment.location, fragment.fragmentSegments.size());
+        transaction = false;
+    }
+
+    /**
+     * Write a complete segment in raw form, as read from another interchange
+     * with the given source dialect. Delimiters of the source are replaced
+     * with those of this writer and release characters are added or removed
+     * only where the delimiters differ. When all delimiters are the same, the
+     * raw text is written unchanged. The segment tag is validated and counted
+     * in the same way as by {@link #writeStartSegment(String)}, including
+     * validation against a transaction schema when one is in use. The
+     * content of the segment's elements is not validated.
+     *
+     * @param tag
+     *            the segment tag
+     * @param raw
+     *            the raw text of the segment, including the terminator
+     * @param source
+     *            the dialect of the interchange from which the segment was
+     *            read
+     * @throws EDIStreamException
+     *             when the segment contains a character used as a delimiter
+     *             by this writer and no release character is available, or
+     *             the output can not be written
+     * @throws EDIValidationException
+     *             when the segment is not valid at the current position of
+     *             the control or transaction structure
+     */
+    void writeRawSegment(String tag, CharSequence raw, Dialect source) throws EDIStreamException {
+        ensureLevel(LEVEL_INTERCHANGE);
+        checkAsyncOutput();
+        location.incrementSegmentPosition(tag);
+        segmentValidation(tag);
+
+        if (sameDelimiters(source)) {
+            rawBuffer.clear();
+            ensureRawCapacity(raw.length());
+            rawBuffer.append(raw);
+        } else {
+            translateRawSegment(raw, source);
+        }
+
+        if (prettyPrint) {
+            ensureRawCapacity(prettyPrintString.length());
+            rawBuffer.append(prettyPrintString);
+        }
+
+        rawBuffer.flip();
+
+        try {
+            writer.write(rawBuffer.array(), 0, rawBuffer.limit());
+        } catch (IOException e) {
+            throw new EDIStreamException("Exception to output stream", location, e);
+        }
+
+        for (int i = 0, m = rawBuffer.limit(); i < m; i++) {
+            location.incrementOffset(rawBuffer.get(i));
+        }
+
+        countSegment(tag);
+        location.clearSegmentLocations();
+    }
+
+    boolean sameDelimiters(Dialect source) {
+        return source.getSegmentTerminator() == segmentTerminator
+                && source.getDataElementSeparator() == dataElementSeparator
+                && source.getComponentElementSeparator() == componentElementSeparator
+                && source.getRepetitionSeparator() == repetitionSeparator
+                && source.getReleaseIndicator() == releaseIndicator
+                && source.getSegmentTagTerminator() == segmentTagTerminator;
+    }
+
+    void translateRawSegment(CharSequence raw, Dialect source) throws EDIStreamException {
+        final char sourceRelease = source.getReleaseIndicator();
+        rawBuffer.clear();
+
+        for (int i = 0, m = raw.length(); i < m; i++) {
+            char curr = raw.charAt(i);
+            char translated;
+
+            if (sourceRelease != '\0' && curr == sourceRelease && i + 1 < m) {
+                translated = releasedRawCharacter(raw.charAt(++i));
+            } else if (curr == source.getSegmentTerminator()) {
+                translated = segmentTerminator;
+            } else if (curr == source.getDataElementSeparator()) {
+                translated = dataElementSeparator;
+            } else if (curr == source.getComponentElementSeparator()) {
+                translated = componentElementSeparator;
+            } else if (curr != '\0' && curr == source.getRepetitionSeparator()) {
+                translated = repetitionSeparator;
+            } else if (curr != '\0' && curr == source.getSegmentTagTerminator()) {
+                translated = segmentTagTerminator;
+            } else {
+                translated = releasedRawCharacter(curr);
+            }
+
+            ensureRawCapacity(1);
+            rawBuffer.put(translated);
+        }
+    }
+
+    char releasedRawCharacter(char value) throws EDIStreamException {
+        if (characters.isDelimiter(value)) {
+            if (releaseIndicator == '\0') {
+                throw new EDIStreamException(String.format("Segment data contains delimiter: 0x%04X", (int) value), location);
+            }
+
+            ensureRawCapacity(1);
+            rawBuffer.put(releaseIndicator);
+        }
+
+        return value;
+    }
+
+    void ensureRawCapacity(int additional) {
+        if (rawBuffer.remaining() < additional) {
+            CharBuffer expanded = CharBuffer.allocate(Math.max(rawBuffer.capacity() * 2, rawBuffer.position() + additional));
+            rawBuffer.flip();
+            expanded.put(rawBuffer);
+            rawBuffer = expanded;
+        }
     }
 
     void segmentValidation(String name) {
@@ -681,6 +1033,57 @@ public class StaEDIStreamWriter implements EDIStreamWriter, ElementDataHandler,
         return this;
     }
 
+    @Override
+    public EDIStreamWriter writeElement(long value) throws EDIStreamException {
+        atomicElementWrite = true;
+        writeStartElement();
+        renderer.render(value, elementType());
+        writeRenderedValue();
+        endElement();
+        atomicElementWrite = false;
+        return this;
+    }
+
+    @Override
+    public EDIStreamWriter writeElement(BigDecimal value) throws EDIStreamException {
+        atomicElementWrite = true;
+        writeStartElement();
+        renderer.render(value, elementType(), decimalMark);
+        writeRenderedValue();
+        endElement();
+        atomicElementWrite = false;
+        return this;
+    }
+
+    @Override
+    public EDIStreamWriter writeElement(LocalDate value) throws EDIStreamException {
+        atomicElementWrite = true;
+        writeStartElement();
+        renderer.render(value, elementType());
+        writeRenderedValue();
+        endElement();
+        atomicElementWrite = false;
+        return this;
+    }
+
+    EDISimpleType elementType() {
+        return validator().map(validator -> validator.getElementType(dialect, location)).orElse(null);
+    }
+
+    void writeRenderedValue() throws EDIStreamException {
+        dataHolder.set(renderer.buffer(), 0, renderer.length());
+        CharSequence value;
+
+        if (renderer.formatted()) {
+            // Written directly from the renderer's buffer, the validator does not format the value again
+            value = validator().map(validator -> validateElement(() -> {}, dataHolder, validator, null)).orElse(dataHolder);
+        } else {
+            value = validateElement(() -> {}, dataHolder);
+        }
+
+        writeElementData(value);
+    }
+
     @Override
     public EDIStreamWriter writeEmptyElement() throws EDIStreamException {
         atomicElementWrite = true;
@@ -714,6 +1117,39 @@ public class StaEDIStreamWriter implements EDIStreamWriter, ElementDataHandler,
         return this;
     }
 
+    @Override
+    public EDIStreamWriter writeComponent(long value) throws EDIStreamException {
+        atomicElementWrite = true;
+        startComponent();
+        renderer.render(value, elementType());
+        writeRenderedValue();
+        endComponent();
+        atomicElementWrite = false;
+        return this;
+    }
+
+    @Override
+    public EDIStreamWriter writeComponent(BigDecimal value) throws EDIStreamException {
+        atomicElementWrite = true;
+        startComponent();
+        renderer.render(value, elementType(), decimalMark);
+        writeRenderedValue();
+        endComponent();
+        atomicElementWrite = false;
+        return this;
+    }
+
+    @Override
+    public EDIStreamWriter writeComponent(LocalDate value) throws EDIStreamException {
+        atomicElementWrite = true;
+        startComponent();
+        renderer.render(value, elementType());
+        writeRenderedValue();
+        endComponent();
+        atomicElementWrite = false;
+        return this;
+    }
+
     @Override
     public EDIStreamWriter writeEmptyComponent() throws EDIStreamException {
         atomicElementWrite = true;
@@ -964,12 +1400,21 @@ public class StaEDIStreamWriter implements EDIStreamWriter, ElementDataHandler,
     }
 
     CharSequence validateElement(Runnable setupCommand, CharSequence data, Validator validator) {
+        return validateElement(setupCommand, data, validator, this.formatElements ? this.formattedElement : null);
+    }
+
+    /**
+     * Validate the element data, formatting it into the given buffer when
+     * present. A null buffer indicates that the data is written as given,
+     * either because formatting is disabled or the data is already formatted.
+     */
+    CharSequence validateElement(Runnable setupCommand, CharSequence data, Validator validator, StringBuilder formattedValue) {
         CharSequence elementData;
 
-        if (this.formatElements) {
-            elementData = this.formattedElement;
-            this.formattedElement.setLength(0);
-            this.formattedElement.append(data); // Validator will clear and re-format if configured
+        if (formattedValue != null) {
+            elementData = formattedValue;
+            formattedValue.setLength(0);
+            formattedValue.append(data); // Validator will clear and re-format if configured
         } else {
             elementData = data;
         }
@@ -977,7 +1422,7 @@ public class StaEDIStreamWriter implements EDIStreamWriter, ElementDataHandler,
         errors.clear();
         setupCommand.run();
 
-        if (!validator.validateElement(dialect, location, data, this.formattedElement)) {
+        if (!validator.validateElement(dialect, location, data, formattedValue)) {
             reportElementErrors(validator, elementData);
         }
 
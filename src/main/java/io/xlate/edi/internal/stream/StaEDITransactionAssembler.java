@@ -0,0 +1,344 @@
+/*******************************************************************************
+ * Copyright 2023 xlate.io LLC, http://www.xlate.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package io.xlate.edi.internal.stream;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import io.xlate.edi.stream.EDIStreamConstants.Standards;
+import io.xlate.edi.stream.EDIStreamException;
+import io.xlate.edi.stream.EDIStreamWriter;
+import io.xlate.edi.stream.EDITransactionAssembler;
+
+public class StaEDITransactionAssembler implements EDITransactionAssembler {
+
+    private static final int INITIAL_BUFFER_SIZE = 8192;
+    private static final int PENDING_PER_THREAD = 2;
+    // Limit for unbounded pools, e.g. a cached thread pool
+    private static final int MAX_DEFAULT_PARALLELISM = 64;
+
+    enum Envelope {
+        X12("GS", 5, "GE", "ST", 1, "SE", 4),
+        EDIFACT("UNG", 4, "UNE", "UNH", 0, "UNT", 0),
+        TRADACOMS(null, -1, null, "MHD", 0, "MTR", 0);
+
+        final String groupHeader;
+        final int groupControlIndex;
+        final String groupTrailer;
+        final String transactionHeader;
+        final int transactionControlIndex;
+        final String transactionTrailer;
+        final int transactionControlLength;
+
+        Envelope(String groupHeader,
+                int groupControlIndex,
+                String groupTrailer,
+                String transactionHeader,
+                int transactionControlIndex,
+                String transactionTrailer,
+                int transactionControlLength) {
+            this.groupHeader = groupHeader;
+            this.groupControlIndex = groupControlIndex;
+            this.groupTrailer = groupTrailer;
+            this.transactionHeader = transactionHeader;
+            this.transactionControlIndex = transactionControlIndex;
+            this.transactionTrailer = transactionTrailer;
+            this.transactionControlLength = transactionControlLength;
+        }
+
+        static Envelope forStandard(String standard) {
+            switch (standard) {
+            case Standards.X12:
+                return X12;
+            case Standards.EDIFACT:
+                return EDIFACT;
+            default:
+                return TRADACOMS;
+            }
+        }
+
+        boolean trailerHasReference() {
+            return this != TRADACOMS;
+        }
+    }
+
+    static class Fragment {
+        final Object[] header;
+        final StaEDIStreamWriter writer;
+        final ByteArrayOutputStream buffer;
+        final CompletableFuture<Void> result;
+
+        Fragment(Object[] header, StaEDIStreamWriter writer, ByteArrayOutputStream buffer, CompletableFuture<Void> result) {
+            this.header = header;
+            this.writer = writer;
+            this.buffer = buffer;
+            this.result = result;
+        }
+    }
+
+    private final StaEDIStreamWriter target;
+    private final Executor executor;
+    private final Envelope envelope;
+
+    private final Deque<Fragment> pending = new ArrayDeque<>();
+    private final Queue<ByteArrayOutputStream> bufferPool = new ConcurrentLinkedQueue<>();
+
+    private int maxPending;
+    private long groupControlNumber = 1;
+    private long transactionControlNumber = 1;
+
+    private String groupReference;
+    private int groupTransactionCount;
+    private int transactionCount;
+
+    public StaEDITransactionAssembler(EDIStreamWriter target, Executor executor) {
+        if (!(target instanceof StaEDIStreamWriter)) {
+            throw new IllegalArgumentException("Unsupported writer: " + target);
+        }
+
+        this.target = (StaEDIStreamWriter) target;
+        this.executor = executor;
+        this.envelope = Envelope.forStandard(target.getStandard());
+        this.maxPending = defaultMaxPending(executor);
+    }
+
+    static int defaultMaxPending(Executor executor) {
+        final int parallelism;
+
+        if (executor instanceof ForkJoinPool) {
+            parallelism = ((ForkJoinPool) executor).getParallelism();
+        } else if (executor instanceof ThreadPoolExecutor) {
+            parallelism = ((ThreadPoolExecutor) executor).getMaximumPoolSize();
+        } else {
+            parallelism = Runtime.getRuntime().availableProcessors();
+        }
+
+        return Math.max(1, Math.min(parallelism, MAX_DEFAULT_PARALLELISM)) * PENDING_PER_THREAD;
+    }
+
+    @Override
+    public EDITransactionAssembler setGroupControlNumber(long controlNumber) {
+        this.groupControlNumber = controlNumber;
+        return this;
+    }
+
+    @Override
+    public EDITransactionAssembler setTransactionControlNumber(long controlNumber) {
+        this.transactionControlNumber = controlNumber;
+        return this;
+    }
+
+    @Override
+    public EDITransactionAssembler setMaxPendingTransactions(int maxPending) {
+        if (maxPending < 1) {
+            throw new IllegalArgumentException("maxPending must be at least 1");
+        }
+
+        this.maxPending = maxPending;
+        return this;
+    }
+
+    int getMaxPendingTransactions() {
+        return maxPending;
+    }
+
+    @Override
+    public EDITransactionAssembler startGroup(Object... headerElements) throws EDIStreamException {
+        if (envelope.groupHeader == null) {
+            throw new IllegalStateException("Functional groups not supported");
+        }
+        if (groupReference != null) {
+            throw new IllegalStateException("Group already started");
+        }
+
+        flush();
+        groupReference = String.valueOf(groupControlNumber++);
+        groupTransactionCount = 0;
+        writeSegment(envelope.groupHeader, insert(headerElements, envelope.groupControlIndex, groupReference));
+        return this;
+    }
+
+    @Override
+    public EDITransactionAssembler submit(ContentWriter content, Object... headerElements) throws EDIStreamException {
+        // Bound the buffered output, waiting for the oldest transaction(s)
+        while (pending.size() >= maxPending) {
+            splice(pending.remove());
+        }
+
+        String reference = controlNumber(transactionControlNumber++, envelope.transactionControlLength);
+        Object[] header = insert(headerElements, envelope.transactionControlIndex, reference);
+
+        ByteArrayOutputStream buffer = bufferPool.poll();
+
+        if (buffer == null) {
+            buffer = new ByteArrayOutputStream(INITIAL_BUFFER_SIZE);
+        }
+
+        // Created on the caller's thread while the target writer's state is stable
+        final StaEDIStreamWriter fragment = new StaEDIStreamWriter(target, buffer, envelope.transactionHeader, header);
+        final String trailer = envelope.transactionTrailer;
+
+        CompletableFuture<Void> result = CompletableFuture.runAsync(() -> {
+            try {
+                content.write(fragment);
+                fragment.completeFragment(trailer);
+            } catch (EDIStreamException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+
+        pending.add(new Fragment(header, fragment, buffer, result));
+
+        // Opportunistically splice any completed fragments to limit buffered output
+        while (!pending.isEmpty() && pending.peek().result.isDone()) {
+            splice(pending.remove());
+        }
+
+        return this;
+    }
+
+    @Override
+    public EDITransactionAssembler endGroup() throws EDIStreamException {
+        if (groupReference == null) {
+            throw new IllegalStateException("Group not started");
+        }
+
+        flush();
+        writeSegment(envelope.groupTrailer, new Object[] { String.valueOf(groupTransactionCount), groupReference });
+        groupReference = null;
+        return this;
+    }
+
+    @Override
+    public EDITransactionAssembler flush() throws EDIStreamException {
+        while (!pending.isEmpty()) {
+            splice(pending.remove());
+        }
+        return this;
+    }
+
+    @Override
+    public int getTransactionCount() {
+        return transactionCount;
+    }
+
+    @Override
+    public void close() throws EDIStreamException {
+        flush();
+    }
+
+    void splice(Fragment fragment) throws EDIStreamException {
+        try {
+            fragment.result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new EDIStreamException("Interrupted waiting for transaction", target.getLocation(), e);
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        }
+
+        Object[] header = fragment.header;
+        String reference = String.valueOf(header[envelope.transactionControlIndex]);
+
+        writeSegment(envelope.transactionHeader, header);
+        target.appendFragment(fragment.writer, fragment.buffer);
+
+        // Header and trailer segments are included in the count
+        String count = String.valueOf(fragment.writer.getFragmentSegments().size() + 2);
+
+        if (envelope.trailerHasReference()) {
+            writeSegment(envelope.transactionTrailer, new Object[] { count, reference });
+        } else {
+            writeSegment(envelope.transactionTrailer, new Object[] { count });
+        }
+
+        fragment.buffer.reset();
+        bufferPool.add(fragment.buffer);
+
+        groupTransactionCount++;
+        transactionCount++;
+    }
+
+    void writeSegment(String tag, Object[] elements) throws EDIStreamException {
+        target.writeStartSegment(tag);
+
+        for (Object element : elements) {
+            if (element instanceof String[]) {
+                target.writeStartElement();
+
+                for (String component : (String[]) element) {
+                    target.writeComponent(component);
+                }
+
+                target.endElement();
+            } else {
+                target.writeElement(String.valueOf(element));
+            }
+        }
+
+        target.writeEndSegment();
+    }
+
+    static Object[] insert(Object[] elements, int index, String value) {
+        if (index > elements.length) {
+            throw new IllegalArgumentException("Header requires at least " + index + " elements");
+        }
+
+        Object[] result = new Object[elements.length + 1];
+        System.arraycopy(elements, 0, result, 0, index);
+        result[index] = value;
+        System.arraycopy(elements, index, result, index + 1, elements.length - index);
+        return result;
+    }
+
+    static String controlNumber(long value, int minLength) {
+        String number = String.valueOf(value);
+
+        if (number.length() >= minLength) {
+            return number;
+        }
+
+        StringBuilder padded = new StringBuilder(minLength);
+
+        for (int i = number.length(); i < minLength; i++) {
+            padded.append('0');
+        }
+
+        return padded.append(number).toString();
+    }
+
+    EDIStreamException unwrap(Throwable cause) {
+        if (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof EDIStreamException) {
+            return (EDIStreamException) cause;
+        }
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        return new EDIStreamException("Exception writing transaction", target.getLocation(), cause);
+    }
+}
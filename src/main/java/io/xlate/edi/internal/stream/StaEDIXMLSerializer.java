@@ -0,0 +1,260 @@
+/*******************************************************************************
+ * Copyright 2023 xlate.io LLC, http://www.xlate.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package io.xlate.edi.internal.stream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+
+/**
+ * Writes the events of an {@link StaEDIXMLStreamReader} directly to an output
+ * stream as UTF-8 encoded XML. Element names are taken from the reader (so
+ * the naming rules and XML properties are identical to the StAX route) and
+ * the bytes of each distinct start and end tag are encoded only once.
+ */
+final class StaEDIXMLSerializer {
+
+    private static final byte[] DECLARATION = bytes("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+    private static final byte[] CDATA_START = bytes("<![CDATA[");
+    private static final byte[] CDATA_END = bytes("]]>");
+    private static final byte[] EMPTY_END = bytes("/>");
+    private static final byte[] AMP = bytes("&amp;");
+    private static final byte[] LT = bytes("&lt;");
+    private static final byte[] GT = bytes("&gt;");
+
+    private final StaEDIXMLStreamReader reader;
+    private final OutputStream stream;
+    private final byte[] buffer = new byte[8192];
+    private int position = 0;
+
+    private final Map<QName, byte[]> startTags = new IdentityHashMap<>();
+    private final Map<QName, byte[]> endTags = new IdentityHashMap<>();
+    private byte[] namespaceDeclarations;
+
+    // A start tag has been written and not yet closed with '>' or '/>'
+    private boolean startTagOpen = false;
+
+    StaEDIXMLSerializer(StaEDIXMLStreamReader reader, OutputStream stream) {
+        this.reader = reader;
+        this.stream = stream;
+    }
+
+    static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    void serialize() throws XMLStreamException {
+        try {
+            write(DECLARATION);
+            int event = reader.getEventType();
+
+            while (true) {
+                handleEvent(event);
+
+                if (event == XMLStreamConstants.END_DOCUMENT || !reader.hasNext()) {
+                    break;
+                }
+
+                event = reader.next();
+            }
+
+            flush();
+        } catch (IOException e) {
+            throw new XMLStreamException(e);
+        }
+    }
+
+    void handleEvent(int event) throws IOException {
+        switch (event) {
+        case XMLStreamConstants.START_ELEMENT:
+            closeStartTag();
+            QName name = reader.getName();
+            write(startTags.computeIfAbsent(name, n -> bytes('<' + qualifiedName(n))));
+
+            if (reader.getNamespaceCount() > 0) {
+                write(namespaceDeclarations());
+            }
+
+            startTagOpen = true;
+            break;
+        case XMLStreamConstants.END_ELEMENT:
+            if (startTagOpen) {
+                startTagOpen = false;
+                write(EMPTY_END);
+            } else {
+                write(endTags.computeIfAbsent(reader.getName(), n -> bytes("</" + qualifiedName(n) + '>')));
+            }
+            break;
+        case XMLStreamConstants.CHARACTERS:
+            if (reader.getTextLength() > 0) {
+                closeStartTag();
+                writeEscaped(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+            }
+            break;
+        case XMLStreamConstants.CDATA:
+            closeStartTag();
+            writeCData(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+            break;
+        default:
+            // START_DOCUMENT and END_DOCUMENT produce no content
+            break;
+        }
+    }
+
+    static String qualifiedName(QName name) {
+        return name.getPrefix() + ':' + name.getLocalPart();
+    }
+
+    byte[] namespaceDeclarations() {
+        if (namespaceDeclarations == null) {
+            StringBuilder declarations = new StringBuilder();
+
+            for (int i = 0, m = reader.getNamespaceCount(); i < m; i++) {
+                declarations.append(" xmlns:")
+                            .append(reader.getNamespacePrefix(i))
+                            .append("=\"")
+                            .append(reader.getNamespaceURI(i))
+                            .append('"');
+            }
+
+            namespaceDeclarations = bytes(declarations.toString());
+        }
+
+        return namespaceDeclarations;
+    }
+
+    void closeStartTag() throws IOException {
+        if (startTagOpen) {
+            startTagOpen = false;
+            write('>');
+        }
+    }
+
+    /**
+     * Encode the characters as UTF-8, escaping the XML markup characters.
+     */
+    void writeEscaped(char[] text, int start, int length) throws IOException {
+        final int end = start + length;
+
+        for (int i = start; i < end; i++) {
+            switch (text[i]) {
+            case '&':
+                write(AMP);
+                break;
+            case '<':
+                write(LT);
+                break;
+            case '>':
+                write(GT);
+                break;
+            default:
+                i = writeEncoded(text, i, end);
+                break;
+            }
+        }
+    }
+
+    /**
+     * Write the characters as a CDATA section encoded as UTF-8 without
+     * escaping. An occurrence of <code>]]&gt;</code> in the text is split
+     * across two sections.
+     */
+    void writeCData(char[] text, int start, int length) throws IOException {
+        final int end = start + length;
+        write(CDATA_START);
+
+        for (int i = start; i < end; i++) {
+            if (text[i] == '>' && i - start > 1 && text[i - 1] == ']' && text[i - 2] == ']') {
+                write(CDATA_END);
+                write(CDATA_START);
+            }
+
+            i = writeEncoded(text, i, end);
+        }
+
+        write(CDATA_END);
+    }
+
+    /**
+     * Encode the character at the index as UTF-8, together with the following
+     * character when the two form a surrogate pair. An unpaired surrogate can
+     * not be encoded and is replaced with '?', as by the JDK's UTF-8 encoder.
+     *
+     * @return the index of the last character written
+     */
+    int writeEncoded(char[] text, int i, int end) throws IOException {
+        final char c = text[i];
+
+        if (c < 0x80) {
+            write(c);
+        } else if (c < 0x800) {
+            write(0xC0 | (c >> 6));
+            write(0x80 | (c & 0x3F));
+        } else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(text[i + 1])) {
+            final int codePoint = Character.toCodePoint(c, text[++i]);
+            write(0xF0 | (codePoint >> 18));
+            write(0x80 | ((codePoint >> 12) & 0x3F));
+            write(0x80 | ((codePoint >> 6) & 0x3F));
+            write(0x80 | (codePoint & 0x3F));
+        } else if (Character.isSurrogate(c)) {
+            write('?');
+        } else {
+            write(0xE0 | (c >> 12));
+            write(0x80 | ((c >> 6) & 0x3F));
+            write(0x80 | (c & 0x3F));
+        }
+
+        return i;
+    }
+
+    void write(int b) throws IOException {
+        if (position == buffer.length) {
+            flushBuffer();
+        }
+
+        buffer[position++] = (byte) b;
+    }
+
+    void write(byte[] bytes) throws IOException {
+        if (bytes.length > buffer.length - position) {
+            flushBuffer();
+
+            if (bytes.length > buffer.length) {
+                stream.write(bytes);
+                return;
+            }
+        }
+
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    void flushBuffer() throws IOException {
+        stream.write(buffer, 0, position);
+        position = 0;
+    }
+
+    void flush() throws IOException {
+        flushBuffer();
+        stream.flush();
+    }
+}
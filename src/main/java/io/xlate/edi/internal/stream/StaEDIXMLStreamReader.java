@@ -16,17 +16,14 @@
 package io.xlate.edi.internal.stream;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
 import java.util.ArrayDeque;
 import java.util.Arrays;
-import java.util.Base64;
 import java.util.Collections;
 import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Queue;
+import java.util.NoSuchElementException;
 import java.util.logging.Logger;
 
 import javax.xml.namespace.NamespaceContext;
@@ -58,8 +55,19 @@ final class StaEDIXMLStreamReader implements XMLStreamReader {
     private final boolean useSegmentImplementationCodes;
     private final Location location = new ProxyLocation();
 
-    private final Queue<Integer> eventQueue = new ArrayDeque<>(3);
-    private final Queue<QName> elementQueue = new ArrayDeque<>(3);
+    // Pending XML events and their element names, a circular buffer
+    private int[] eventQueue = new int[8];
+    private QName[] elementQueue = new QName[8];
+    private int queueHead = 0;
+    private int queueSize = 0;
+
+    // Names are created once per distinct segment, loop, or element position
+    private final NameTable elementNames = new NameTable(EDINamespaces.ELEMENTS, "");
+    private final NameTable componentNames = new NameTable(EDINamespaces.ELEMENTS, "-");
+    private final NameTable compositeNames = new NameTable(EDINamespaces.COMPOSITES, "");
+    private final NameTable segmentNames = new NameTable(EDINamespaces.SEGMENTS, "");
+    private final NameTable loopNames = new NameTable(EDINamespaces.LOOPS, "");
+
     private final Deque<QName> elementStack = new ArrayDeque<>(5);
     private final Deque<QName> standardNameStack = new ArrayDeque<>(5);
 
@@ -73,14 +81,10 @@ final class StaEDIXMLStreamReader implements XMLStreamReader {
     private NamespaceContext namespaceContext;
     private String compositeCode = null;
 
-    private final StringBuilder cdataBuilder = new StringBuilder();
-    private final OutputStream cdataStream = new OutputStream() {
-        @Override
-        public void write(int b) throws IOException {
-            cdataBuilder.append((char) b);
-        }
-    };
-
+    // Binary element data, encoded as one CDATA event per bounded chunk
+    private final Base64ChunkEncoder binaryEncoder = new Base64ChunkEncoder();
+    private QName binaryElement;
+    private boolean cdataAvailable = false;
     private char[] cdata;
 
     StaEDIXMLStreamReader(EDIStreamReader ediReader, Map<String, Object> properties) throws XMLStreamException {
@@ -115,30 +119,89 @@ final class StaEDIXMLStreamReader implements XMLStreamReader {
         return this.transactionDeclaresXmlns && TRANSACTION.equals(element);
     }
 
-    private boolean isEvent(int... eventTypes) {
-        return Arrays.stream(eventTypes).anyMatch(type -> type == currentEvent);
+    /**
+     * Cache of the {@link QName}s of a namespace, either named directly (e.g.
+     * segments and loops) or by the name of their parent and their position
+     * within the parent (e.g. <code>N101</code> or <code>C001-01</code>).
+     */
+    static final class NameTable {
+        private final String namespace;
+        private final String prefix;
+        private final String separator;
+        private final Map<String, QName> names = new HashMap<>();
+        private final Map<String, QName[]> positionalNames = new HashMap<>();
+
+        NameTable(String namespace, String separator) {
+            this.namespace = namespace;
+            this.prefix = prefixOf(namespace);
+            this.separator = separator;
+        }
+
+        QName get(String name) {
+            QName result = names.get(name);
+
+            if (result == null) {
+                result = new QName(namespace, name, prefix);
+                names.put(name, result);
+            }
+
+            return result;
+        }
+
+        QName get(String parentName, int position) {
+            if (position < 0) {
+                // No position available, not expected for valid input
+                return get(parentName + separator + position);
+            }
+
+            QName[] positions = positionalNames.get(parentName);
+
+            if (positions == null || positions.length <= position) {
+                positions = Arrays.copyOf(positions != null ? positions : new QName[0], Math.max(position + 1, 10));
+                positionalNames.put(parentName, positions);
+            }
+
+            QName result = positions[position];
+
+            if (result == null) {
+                StringBuilder name = new StringBuilder(parentName.length() + separator.length() + 2);
+                name.append(parentName).append(separator);
+
+                if (position < 10) {
+                    name.append('0');
+                }
+
+                name.append(position);
+                result = new QName(namespace, name.toString(), prefix);
+                positions[position] = result;
+            }
+
+            return result;
+        }
     }
 
-    private QName buildName(QName parent, String namespace) {
-        return buildName(parent, namespace, null);
+    private boolean isEvent(int eventType) {
+        return currentEvent == eventType;
     }
 
-    private QName buildName(QName parent, String namespace, String name) {
-        String prefix = prefixOf(namespace);
+    private QName buildName(QName parent, NameTable table) {
+        final io.xlate.edi.stream.Location l = ediReader.getLocation();
+        final int componentPosition = l.getComponentPosition();
 
-        if (name == null) {
-            final io.xlate.edi.stream.Location l = ediReader.getLocation();
-            final int componentPosition = l.getComponentPosition();
+        if (componentPosition > 0) {
+            String localPart = this.compositeCode != null ? this.compositeCode : parent.getLocalPart();
+            return componentNames.get(localPart, componentPosition);
+        }
 
-            if (componentPosition > 0) {
-                String localPart = this.compositeCode != null ? this.compositeCode : parent.getLocalPart();
-                name = String.format("%s-%02d", localPart, componentPosition);
-            } else {
-                name = String.format("%s%02d", parent.getLocalPart(), l.getElementPosition());
-            }
+        return table.get(parent.getLocalPart(), l.getElementPosition());
+    }
+
+    private QName buildName(QName parent, NameTable table, String name) {
+        if (name == null) {
+            return buildName(parent, table);
         }
 
-        return new QName(namespace, name, prefix);
+        return table.get(name);
     }
 
     private void enqueueEvent(int xmlEvent, QName element, boolean remember) {
@@ -147,8 +210,14 @@ final class StaEDIXMLStreamReader implements XMLStreamReader {
 
     private void enqueueEvent(int xmlEvent, QName element, QName standardName, boolean remember) {
         LOGGER.finer(() -> "Enqueue XML event: " + xmlEvent + ", element: " + element);
-        eventQueue.add(xmlEvent);
-        elementQueue.add(element);
+
+        if (queueSize == eventQueue.length) {
+            growQueue();
+        }
+
+        int tail = (queueHead + queueSize++) % eventQueue.length;
+        eventQueue[tail] = xmlEvent;
+        elementQueue[tail] = element;
 
         if (remember) {
             elementStack.addFirst(element);
@@ -165,21 +234,47 @@ final class StaEDIXMLStreamReader implements XMLStreamReader {
         return elementStack.removeFirst();
     }
 
+    private void growQueue() {
+        int[] events = new int[eventQueue.length * 2];
+        QName[] elements = new QName[events.length];
+
+        for (int i = 0; i < queueSize; i++) {
+            int index = (queueHead + i) % eventQueue.length;
+            events[i] = eventQueue[index];
+            elements[i] = elementQueue[index];
+        }
+
+        eventQueue = events;
+        elementQueue = elements;
+        queueHead = 0;
+    }
+
+    private void clearQueue() {
+        Arrays.fill(elementQueue, null);
+        queueHead = 0;
+        queueSize = 0;
+    }
+
     private void advanceEvent() {
-        currentEvent = eventQueue.remove();
-        currentElement = elementQueue.remove();
+        if (queueSize == 0) {
+            throw new NoSuchElementException();
+        }
+
+        currentEvent = eventQueue[queueHead];
+        currentElement = elementQueue[queueHead];
+        elementQueue[queueHead] = null;
+        queueHead = (queueHead + 1) % eventQueue.length;
+        queueSize--;
     }
 
     private void enqueueEvent(EDIStreamEvent ediEvent) throws XMLStreamException {
         LOGGER.finer(() -> "Enqueue EDI event: " + ediEvent);
         final QName name;
-        cdataBuilder.setLength(0);
-        cdata = null;
         String readerText = null;
 
         switch (ediEvent) {
         case ELEMENT_DATA:
-            name = buildName(parentName(), EDINamespaces.ELEMENTS);
+            name = buildName(parentName(), elementNames);
             enqueueEvent(START_ELEMENT, name, false);
             enqueueEvent(CHARACTERS, DUMMY_QNAME, false);
             enqueueEvent(END_ELEMENT, name, false);
@@ -187,14 +282,16 @@ final class StaEDIXMLStreamReader implements XMLStreamReader {
 
         case ELEMENT_DATA_BINARY:
             /*
-             * This section will read the binary data and Base64 the stream
-             * into an XML CDATA section.
+             * The binary data is read and Base64 encoded one chunk at a time
+             * as each CDATA event is reached. The END_ELEMENT is enqueued
+             * following the final chunk.
              * */
-            name = buildName(parentName(), EDINamespaces.ELEMENTS);
+            name = buildName(parentName(), elementNames);
             enqueueEvent(START_ELEMENT, name, false);
             enqueueEvent(CDATA, DUMMY_QNAME, false);
-            copyBinaryDataToCDataBuilder();
-            enqueueEvent(END_ELEMENT, name, false);
+            // This only will work if using a validation filter!
+            binaryEncoder.setSource(ediReader.getBinaryData());
+            binaryElement = name;
             break;
 
         case START_INTERCHANGE:
@@ -206,27 +303,27 @@ final class StaEDIXMLStreamReader implements XMLStreamReader {
         case START_SEGMENT:
             readerText = ediReader.getText();
             performTransactionWrapping(readerText);
-            QName standardName = buildName(parentName(), EDINamespaces.SEGMENTS, readerText);
-            name = useSegmentImplementationCodes ? buildName(parentName(), EDINamespaces.SEGMENTS, ediReader.getReferenceCode()) : standardName;
+            QName standardName = buildName(parentName(), segmentNames, readerText);
+            name = useSegmentImplementationCodes ? buildName(parentName(), segmentNames, ediReader.getReferenceCode()) : standardName;
             enqueueEvent(START_ELEMENT, name, standardName, true);
             break;
 
         case START_TRANSACTION:
             withinTransaction = true;
-            name = buildName(parentName(), EDINamespaces.LOOPS, ediReader.getReferenceCode());
+            name = buildName(parentName(), loopNames, ediReader.getReferenceCode());
             enqueueEvent(START_ELEMENT, name, true);
             determineTransactionSegments();
             break;
 
         case START_GROUP:
         case START_LOOP:
-            name = buildName(parentName(), EDINamespaces.LOOPS, ediReader.getReferenceCode());
+            name = buildName(parentName(), loopNames, ediReader.getReferenceCode());
             enqueueEvent(START_ELEMENT, name, true);
             break;
 
         case START_COMPOSITE:
             compositeCode = ediReader.getReferenceCode();
-            name = buildName(parentName(), EDINamespaces.COMPOSITES);
+            name = buildName(parentName(), compositeNames);
             enqueueEvent(START_ELEMENT, name, true);
             break;
 
@@ -290,7 +387,7 @@ final class StaEDIXMLStreamReader implements XMLStreamReader {
             } else {
                 if (!readerText.equals(this.transactionStartSegment)) {
                     String local = ediReader.getStandard() + '-' + ediReader.getTransactionType() + '-' + ediReader.getTransactionVersionString();
-                    QName wrapper = new QName(EDINamespaces.LOOPS, local, prefixOf(EDINamespaces.LOOPS));
+                    QName wrapper = loopNames.get(local);
                     enqueueEvent(START_ELEMENT, wrapper, true);
                     transactionWrapperEnqueued = true;
                 }
@@ -298,20 +395,21 @@ final class StaEDIXMLStreamReader implements XMLStreamReader {
         }
     }
 
-    private void copyBinaryDataToCDataBuilder() throws XMLStreamException {
-        // This only will work if using a validation filter!
-        InputStream input = ediReader.getBinaryData();
+    private void encodeBinaryChunk() throws XMLStreamException {
+        try {
+            binaryEncoder.encodeNext();
+        } catch (IOException e) {
+            throw new XMLStreamException(e);
+        }
 
-        ThrowingRunnable.run(() -> {
-            byte[] buffer = new byte[4096];
-            int amount;
+        cdataAvailable = true;
 
-            try (OutputStream output = Base64.getEncoder().wrap(cdataStream)) {
-                while ((amount = input.read(buffer)) > -1) {
-                    output.write(buffer, 0, amount);
-                }
-            }
-        }, XMLStreamException::new);
+        if (binaryEncoder.isComplete()) {
+            enqueueEvent(END_ELEMENT, binaryElement, false);
+            binaryElement = null;
+        } else {
+            enqueueEvent(CDATA, DUMMY_QNAME, false);
+        }
     }
 
     private void requireCharacters() {
@@ -322,7 +420,7 @@ final class StaEDIXMLStreamReader implements XMLStreamReader {
 
     @Override
     public int next() throws XMLStreamException {
-        if (eventQueue.isEmpty()) {
+        if (queueSize == 0) {
             LOGGER.finer(() -> "eventQueue is empty, calling ediReader.next()");
             try {
                 enqueueEvent(ediReader.next());
@@ -334,6 +432,12 @@ final class StaEDIXMLStreamReader implements XMLStreamReader {
         }
 
         advanceEvent();
+        cdataAvailable = false;
+        cdata = null;
+
+        if (currentEvent == CDATA && binaryElement != null) {
+            encodeBinaryChunk();
+        }
 
         return getEventType();
     }
@@ -412,7 +516,7 @@ final class StaEDIXMLStreamReader implements XMLStreamReader {
     @Override
     public boolean hasNext() throws XMLStreamException {
         try {
-            return !eventQueue.isEmpty() || ediReader.hasNext();
+            return queueSize > 0 || ediReader.hasNext();
         } catch (Exception e) {
             throw new XMLStreamException(e);
         }
@@ -420,8 +524,7 @@ final class StaEDIXMLStreamReader implements XMLStreamReader {
 
     @Override
     public void close() throws XMLStreamException {
-        eventQueue.clear();
-        elementQueue.clear();
+        clearQueue();
         elementStack.clear();
         standardNameStack.clear();
         ThrowingRunnable.run(ediReader::close, XMLStreamException::new);
@@ -447,7 +550,7 @@ final class StaEDIXMLStreamReader implements XMLStreamReader {
 
     @Override
     public boolean isCharacters() {
-        return isEvent(CHARACTERS, CDATA);
+        return isEvent(CHARACTERS) || isEvent(CDATA);
     }
 
     @Override
@@ -539,13 +642,8 @@ final class StaEDIXMLStreamReader implements XMLStreamReader {
     public String getText() {
         requireCharacters();
 
-        if (cdataBuilder.length() > 0) {
-            if (cdata == null) {
-                cdata = new char[cdataBuilder.length()];
-                cdataBuilder.getChars(0, cdataBuilder.length(), cdata, 0);
-            }
-
-            return new String(cdata);
+        if (cdataAvailable) {
+            return new String(binaryEncoder.getChars(), 0, binaryEncoder.getLength());
         }
         return ediReader.getText();
     }
@@ -554,10 +652,12 @@ final class StaEDIXMLStreamReader implements XMLStreamReader {
     public char[] getTextCharacters() {
         requireCharacters();
 
-        if (cdataBuilder.length() > 0) {
+        if (cdataAvailable) {
             if (cdata == null) {
-                cdata = new char[cdataBuilder.length()];
-                cdataBuilder.getChars(0, cdataBuilder.length(), cdata, 0);
+                // Only the final chunk of the data is expected to be shorter than the buffer
+                char[] chars = binaryEncoder.getChars();
+                int length = binaryEncoder.getLength();
+                cdata = length == chars.length ? chars : Arrays.copyOf(chars, length);
             }
 
             return cdata;
@@ -573,12 +673,7 @@ final class StaEDIXMLStreamReader implements XMLStreamReader {
 
         requireCharacters();
 
-        if (cdataBuilder.length() > 0) {
-            if (cdata == null) {
-                cdata = new char[cdataBuilder.length()];
-                cdataBuilder.getChars(0, cdataBuilder.length(), cdata, 0);
-            }
-
+        if (cdataAvailable) {
             if (targetStart < 0) {
                 throw new IndexOutOfBoundsException("targetStart < 0");
             }
@@ -592,7 +687,7 @@ final class StaEDIXMLStreamReader implements XMLStreamReader {
                 throw new IndexOutOfBoundsException("targetStart + length > target.length");
             }
 
-            System.arraycopy(cdata, sourceStart, target, targetStart, length);
+            System.arraycopy(binaryEncoder.getChars(), sourceStart, target, targetStart, length);
             return length;
         }
         return ediReader.getTextCharacters(sourceStart, target, targetStart, length);
@@ -602,7 +697,7 @@ final class StaEDIXMLStreamReader implements XMLStreamReader {
     public int getTextStart() {
         requireCharacters();
 
-        if (cdataBuilder.length() > 0) {
+        if (cdataAvailable) {
             return 0;
         }
         return ediReader.getTextStart();
@@ -612,8 +707,8 @@ final class StaEDIXMLStreamReader implements XMLStreamReader {
     public int getTextLength() {
         requireCharacters();
 
-        if (cdataBuilder.length() > 0) {
-            return cdataBuilder.length();
+        if (cdataAvailable) {
+            return binaryEncoder.getLength();
         }
         return ediReader.getTextLength();
     }
@@ -33,17 +33,50 @@ final class StaEDIXMLStreamWriter implements XMLStreamWriter {
     int lastComponentPosition;
 
     private NamespaceContext namespaceContext;
-    private final Deque<Map<String, String>> namespaceStack = new ArrayDeque<>();
+
+    /*
+     * Namespace scopes, allocated only for elements where a prefix is set. The
+     * root scope (depth 0) is always present.
+     */
+    static class NamespaceScope {
+        final int depth;
+        final Map<String, String> prefixes = new HashMap<>(4);
+
+        NamespaceScope(int depth) {
+            this.depth = depth;
+        }
+    }
+
+    private final Deque<NamespaceScope> namespaceStack = new ArrayDeque<>();
+    private int depth = 0;
+
+    // Names and positions are resolved once for each distinct element name
+    private final Map<String, Map<String, QName>> names = new HashMap<>();
+    private final Map<String, String[]> qualifiedNames = new HashMap<>();
+    private final Map<QName, Integer> elementPositions = new HashMap<>();
+    private final Map<QName, Integer> componentPositions = new HashMap<>();
 
     StaEDIXMLStreamWriter(EDIStreamWriter ediWriter) {
         this.ediWriter = ediWriter;
-        namespaceStack.push(new HashMap<>()); // Root namespace scope
+        namespaceStack.push(new NamespaceScope(0)); // Root namespace scope
     }
 
     void execute(ThrowingRunnable<Exception> task) throws XMLStreamException {
         ThrowingRunnable.run(task, XMLStreamException::new);
     }
 
+    QName getName(String namespaceURI, String localName, String prefix) {
+        Map<String, QName> namespaceNames = names.computeIfAbsent(namespaceURI, k -> new HashMap<>());
+        QName name = namespaceNames.get(localName);
+
+        if (name == null) {
+            name = new QName(namespaceURI, localName, prefix);
+            namespaceNames.put(localName, name);
+        }
+
+        return name;
+    }
+
     boolean repeatedElement(QName name, QName previousElement) {
         if (previousElement == null) {
             return false;
@@ -57,6 +90,18 @@ final class StaEDIXMLStreamWriter implements XMLStreamWriter {
     }
 
     int getPosition(QName name, boolean component) throws XMLStreamException {
+        Map<QName, Integer> positions = component ? componentPositions : elementPositions;
+        Integer position = positions.get(name);
+
+        if (position == null) {
+            position = parsePosition(name, component);
+            positions.put(name, position);
+        }
+
+        return position;
+    }
+
+    static int parsePosition(QName name, boolean component) throws XMLStreamException {
         int position;
         String localPart = name.getLocalPart();
 
@@ -84,8 +129,41 @@ final class StaEDIXMLStreamWriter implements XMLStreamWriter {
     }
 
     void writeStart(QName name) throws XMLStreamException {
-        namespaceStack.push(new HashMap<>());
+        depth++;
+        writeEvent(name, true);
+    }
 
+    void writeEnd() throws XMLStreamException {
+        QName name = elementStack.remove();
+
+        if (namespaceStack.element().depth == depth) {
+            namespaceStack.remove();
+        }
+
+        depth--;
+        writeEvent(name, false);
+    }
+
+    /**
+     * Write the start or end of the named element to the EDI writer. Any
+     * exception thrown by the EDI writer is wrapped in an
+     * {@link XMLStreamException}.
+     */
+    void writeEvent(QName name, boolean start) throws XMLStreamException {
+        try {
+            if (start) {
+                writeStartEvent(name);
+            } else {
+                writeEndEvent(name);
+            }
+        } catch (XMLStreamException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new XMLStreamException(e);
+        }
+    }
+
+    void writeStartEvent(QName name) throws Exception {
         switch (name.getNamespaceURI()) {
         case EDINamespaces.COMPOSITES:
             lastComponentPosition = 0;
@@ -105,7 +183,7 @@ final class StaEDIXMLStreamWriter implements XMLStreamWriter {
         case EDINamespaces.SEGMENTS:
             lastElementPosition = 0;
             lastComponentPosition = 0;
-            execute(() -> ediWriter.writeStartSegment(name.getLocalPart()));
+            ediWriter.writeStartSegment(name.getLocalPart());
             elementStack.push(name);
             break;
         default:
@@ -113,51 +191,48 @@ final class StaEDIXMLStreamWriter implements XMLStreamWriter {
         }
     }
 
-    void writeComponentStart(QName name) throws XMLStreamException {
+    void writeComponentStart(QName name) throws Exception {
         int position = getPosition(name, true);
 
         while (position > lastComponentPosition + 1) {
             lastComponentPosition++;
-            execute(ediWriter::writeEmptyComponent);
+            ediWriter.writeEmptyComponent();
         }
 
-        execute(ediWriter::startComponent);
+        ediWriter.startComponent();
         lastComponentPosition++;
         elementStack.push(name);
     }
 
-    void writeElementStart(QName name) throws XMLStreamException {
+    void writeElementStart(QName name) throws Exception {
         int position = getPosition(name, false);
 
         while (position > lastElementPosition + 1) {
             lastElementPosition++;
-            execute(ediWriter::writeEmptyElement);
+            ediWriter.writeEmptyElement();
         }
 
         if (repeatedElement(name, previousElement)) {
-            execute(ediWriter::writeRepeatElement);
+            ediWriter.writeRepeatElement();
         } else {
-            execute(ediWriter::writeStartElement);
+            ediWriter.writeStartElement();
         }
 
         lastElementPosition++;
         elementStack.push(name);
     }
 
-    void writeEnd() throws XMLStreamException {
-        QName name = elementStack.remove();
-        namespaceStack.remove();
-
+    void writeEndEvent(QName name) throws Exception {
         switch (name.getNamespaceURI()) {
         case EDINamespaces.COMPOSITES:
-            execute(ediWriter::endElement);
+            ediWriter.endElement();
             previousElement = name;
             break;
         case EDINamespaces.ELEMENTS:
             if (EDINamespaces.COMPOSITES.equals(elementStack.element().getNamespaceURI())) {
-                execute(ediWriter::endComponent);
+                ediWriter.endComponent();
             } else {
-                execute(ediWriter::endElement);
+                ediWriter.endElement();
                 previousElement = name;
             }
             break;
@@ -166,7 +241,7 @@ final class StaEDIXMLStreamWriter implements XMLStreamWriter {
             break;
         case EDINamespaces.SEGMENTS:
             previousElement = null;
-            execute(ediWriter::writeEndSegment);
+            ediWriter.writeEndSegment();
             break;
         default:
             break;
@@ -175,20 +250,10 @@ final class StaEDIXMLStreamWriter implements XMLStreamWriter {
 
     @Override
     public void writeStartElement(String localName) throws XMLStreamException {
-        String uri;
-        String local;
-        String prefix;
-        int idx = localName.indexOf(':');
-
-        if (idx >= 0) {
-            prefix = localName.substring(0, idx);
-            local = localName.substring(idx + 1);
-            uri = getNamespaceURI(prefix);
-        } else {
-            prefix = "";
-            local = localName;
-            uri = getNamespaceURI(XMLConstants.DEFAULT_NS_PREFIX);
-        }
+        String[] qualifiedName = qualifiedNames.computeIfAbsent(localName, StaEDIXMLStreamWriter::splitQualifiedName);
+        String prefix = qualifiedName[0];
+        String local = qualifiedName[1];
+        String uri = getNamespaceURI(prefix);
 
         if (INTERCHANGE.getLocalPart().equals(local)) {
             writeStart(INTERCHANGE);
@@ -197,18 +262,28 @@ final class StaEDIXMLStreamWriter implements XMLStreamWriter {
                 throw new XMLStreamException("Element " + localName + " has an undefined namespace");
             }
 
-            writeStart(new QName(uri, local, prefix));
+            writeStart(getName(uri, local, prefix));
         }
     }
 
+    static String[] splitQualifiedName(String qualifiedName) {
+        int idx = qualifiedName.indexOf(':');
+
+        if (idx >= 0) {
+            return new String[] { qualifiedName.substring(0, idx), qualifiedName.substring(idx + 1) };
+        }
+
+        return new String[] { XMLConstants.DEFAULT_NS_PREFIX, qualifiedName };
+    }
+
     @Override
     public void writeStartElement(String namespaceURI, String localName) throws XMLStreamException {
-        writeStart(new QName(namespaceURI, localName));
+        writeStart(getName(namespaceURI, localName, XMLConstants.DEFAULT_NS_PREFIX));
     }
 
     @Override
     public void writeStartElement(String prefix, String localName, String namespaceURI) throws XMLStreamException {
-        writeStart(new QName(namespaceURI, localName, prefix));
+        writeStart(getName(namespaceURI, localName, prefix));
     }
 
     @Override
@@ -325,48 +400,64 @@ final class StaEDIXMLStreamWriter implements XMLStreamWriter {
 
     @Override
     public void writeCharacters(String text) throws XMLStreamException {
-        if (EDINamespaces.ELEMENTS.equals(elementStack.element().getNamespaceURI())) {
-            execute(() -> ediWriter.writeElementData(text));
-        } else {
-            for (int i = 0, m = text.length(); i < m; i++) {
-                if (!Character.isWhitespace(text.charAt(i))) {
-                    throw new XMLStreamException(MSG_ILLEGAL_NONWHITESPACE);
-                }
-            }
-        }
-
+        writeCharacters(text, null, 0, text.length());
     }
 
     @Override
     public void writeCharacters(char[] text, int start, int len) throws XMLStreamException {
-        if (EDINamespaces.ELEMENTS.equals(elementStack.element().getNamespaceURI())) {
-            execute(() -> ediWriter.writeElementData(text, start, start + len));
-        } else {
+        writeCharacters(null, text, start, len);
+    }
+
+    /**
+     * Write the characters given either as a String or as a range of a
+     * character array. Characters outside of a simple element must be
+     * whitespace.
+     */
+    void writeCharacters(String text, char[] chars, int start, int len) throws XMLStreamException {
+        if (!EDINamespaces.ELEMENTS.equals(elementStack.element().getNamespaceURI())) {
             for (int i = start, m = start + len; i < m; i++) {
-                if (!Character.isWhitespace(text[i])) {
+                if (!Character.isWhitespace(text != null ? text.charAt(i) : chars[i])) {
                     throw new XMLStreamException(MSG_ILLEGAL_NONWHITESPACE);
                 }
             }
+            return;
+        }
+
+        try {
+            if (text != null) {
+                ediWriter.writeElementData(text);
+            } else {
+                // Passed through without a copy, the writer consumes the characters immediately
+                ediWriter.writeElementData(chars, start, start + len);
+            }
+        } catch (Exception e) {
+            throw new XMLStreamException(e);
         }
     }
 
     @Override
     public String getPrefix(String uri) throws XMLStreamException {
-        return namespaceStack.stream()
-                             .filter(m -> m.containsValue(uri))
-                             .flatMap(m -> m.entrySet().stream())
-                             .filter(e -> e.getValue().equals(uri))
-                             .map(Map.Entry::getKey)
-                             .findFirst()
-                             .orElseGet(() -> getContextPrefix(uri));
+        for (NamespaceScope scope : namespaceStack) {
+            for (Map.Entry<String, String> entry : scope.prefixes.entrySet()) {
+                if (entry.getValue().equals(uri)) {
+                    return entry.getKey();
+                }
+            }
+        }
+
+        return getContextPrefix(uri);
     }
 
     String getNamespaceURI(String prefix) {
-        return namespaceStack.stream()
-                             .filter(m -> m.containsKey(prefix))
-                             .map(m -> m.get(prefix))
-                             .findFirst()
-                             .orElseGet(() -> getContextNamespaceURI(prefix));
+        for (NamespaceScope scope : namespaceStack) {
+            String uri = scope.prefixes.get(prefix);
+
+            if (uri != null) {
+                return uri;
+            }
+        }
+
+        return getContextNamespaceURI(prefix);
     }
 
     String getContextNamespaceURI(String prefix) {
@@ -387,12 +478,33 @@ final class StaEDIXMLStreamWriter implements XMLStreamWriter {
     public void setPrefix(String prefix, String uri) throws XMLStreamException {
         Objects.requireNonNull(prefix);
         if (uri != null) {
-            namespaceStack.element().put(prefix, uri);
-        } else {
-            namespaceStack.element().remove(prefix);
+            currentScope().prefixes.put(prefix, uri);
+        } else if (namespaceStack.element().depth == depth) {
+            namespaceStack.element().prefixes.remove(prefix);
         }
     }
 
+    /**
+     * Bind the prefix to the URI in the scope of the next element started,
+     * e.g. for a namespace declaration that precedes the start of its element
+     * in a SAX stream.
+     */
+    void setNextElementPrefix(String prefix, String uri) {
+        if (namespaceStack.element().depth != depth + 1) {
+            namespaceStack.push(new NamespaceScope(depth + 1));
+        }
+
+        namespaceStack.element().prefixes.put(prefix, uri);
+    }
+
+    NamespaceScope currentScope() {
+        if (namespaceStack.element().depth != depth) {
+            namespaceStack.push(new NamespaceScope(depth));
+        }
+
+        return namespaceStack.element();
+    }
+
     @Override
     public void setDefaultNamespace(String uri) throws XMLStreamException {
         setPrefix(XMLConstants.DEFAULT_NS_PREFIX, uri);
@@ -411,7 +523,7 @@ final class StaEDIXMLStreamWriter implements XMLStreamWriter {
         this.namespaceContext = Objects.requireNonNull(context);
 
         // Clear the root contexts (per setNamespaceContext JavaDoc)
-        namespaceStack.getLast().clear();
+        namespaceStack.getLast().prefixes.clear();
     }
 
     @Override
@@ -0,0 +1,286 @@
+/*******************************************************************************
+ * Copyright 2023 xlate.io LLC, http://www.xlate.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package io.xlate.edi.internal.stream;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.CharBuffer;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+
+import io.xlate.edi.internal.stream.tokenization.Dialect;
+import io.xlate.edi.schema.EDISimpleType;
+import io.xlate.edi.schema.EDISimpleType.Base;
+
+/**
+ * Parses numeric, date, and time values directly from the character buffer of
+ * an element, the counterpart of {@link ValueRenderer}. The characters accepted
+ * match those accepted by the NUMERIC, DECIMAL, DATE, and TIME element
+ * validators. No intermediate strings are created except for DECIMAL values
+ * with more significant digits than fit in a long.
+ */
+final class ValueParser {
+
+    private static final long MAX_SIGNIFICAND = Long.MAX_VALUE / 10;
+    private static final int NANOS_DIGITS = 9;
+
+    private ValueParser() {
+    }
+
+    static long parseLong(CharBuffer value) {
+        final char[] text = value.array();
+        final int start = value.arrayOffset() + value.position();
+        final int end = start + value.remaining();
+
+        if (start == end) {
+            throw invalidNumber(value);
+        }
+
+        final boolean negative = text[start] == '-';
+        int i = negative ? start + 1 : start;
+
+        if (i == end) {
+            throw invalidNumber(value);
+        }
+
+        // Accumulate as a negative value to include Long.MIN_VALUE
+        long result = 0;
+
+        for (; i < end; i++) {
+            int digit = digit(text[i]);
+
+            if (digit < 0 || result < (Long.MIN_VALUE + digit) / 10) {
+                throw invalidNumber(value);
+            }
+
+            result = result * 10 - digit;
+        }
+
+        if (!negative) {
+            if (result == Long.MIN_VALUE) {
+                throw invalidNumber(value);
+            }
+            result = -result;
+        }
+
+        return result;
+    }
+
+    static int parseInt(CharBuffer value) {
+        long result = parseLong(value);
+
+        if (result < Integer.MIN_VALUE || result > Integer.MAX_VALUE) {
+            throw invalidNumber(value);
+        }
+
+        return (int) result;
+    }
+
+    /**
+     * Parse a decimal value. When the type's base is NUMERIC, the type's scale
+     * gives the number of implied decimal digits. Otherwise, the value may
+     * contain a decimal mark accepted by the dialect and an exponent.
+     */
+    static BigDecimal parseDecimal(CharBuffer value, EDISimpleType type, Dialect dialect) {
+        if (type != null && type.getBase() == Base.NUMERIC) {
+            final Integer scale = type.getScale();
+            final int implied = scale != null ? scale : 0;
+
+            try {
+                return BigDecimal.valueOf(parseLong(value), implied);
+            } catch (NumberFormatException e) {
+                // Too large for a long
+                return new BigDecimal(new BigInteger(value.toString()), implied);
+            }
+        }
+
+        return parseExplicitDecimal(value, dialect);
+    }
+
+    static BigDecimal parseExplicitDecimal(CharBuffer value, Dialect dialect) {
+        final char[] text = value.array();
+        final int start = value.arrayOffset() + value.position();
+        final int end = start + value.remaining();
+
+        boolean negative = false;
+        boolean digits = false;
+        boolean decimal = false;
+        boolean overflow = false;
+        long significand = 0;
+        int scale = 0;
+        int i = start;
+
+        if (i < end && text[i] == '-') {
+            negative = true;
+            i++;
+        }
+
+        for (; i < end; i++) {
+            final char c = text[i];
+            final int digit = digit(c);
+
+            if (digit >= 0) {
+                digits = true;
+
+                if (significand > MAX_SIGNIFICAND - 1) {
+                    overflow = true;
+                } else {
+                    significand = significand * 10 + digit;
+                }
+
+                if (decimal) {
+                    scale++;
+                }
+            } else if (!decimal && isDecimalMark(dialect, c)) {
+                decimal = true;
+            } else if (c == 'E' && digits) {
+                break;
+            } else {
+                throw invalidNumber(value);
+            }
+        }
+
+        if (!digits) {
+            throw invalidNumber(value);
+        }
+
+        if (overflow) {
+            return new BigDecimal(normalize(value, dialect));
+        }
+
+        if (i < end) {
+            // Exponent
+            CharBuffer exponent = CharBuffer.wrap(text, i + 1, end - i - 1);
+            long adjustment = parseLong(exponent);
+
+            if (adjustment > Integer.MAX_VALUE || adjustment < Integer.MIN_VALUE) {
+                throw invalidNumber(value);
+            }
+
+            scale -= (int) adjustment;
+        }
+
+        return BigDecimal.valueOf(negative ? -significand : significand, scale);
+    }
+
+    static boolean isDecimalMark(Dialect dialect, char value) {
+        return dialect != null ? dialect.isDecimalMark(value) : value == '.';
+    }
+
+    static String normalize(CharBuffer value, Dialect dialect) {
+        StringBuilder result = new StringBuilder(value.remaining());
+
+        for (int i = value.position(), m = value.limit(); i < m; i++) {
+            char c = value.get(i);
+            result.append(isDecimalMark(dialect, c) ? '.' : c);
+        }
+
+        return result.toString();
+    }
+
+    /**
+     * Parse a date in the form CCYYMMDD or YYMMDD. Consistent with date
+     * validation, a date without a century is assumed to be in the current
+     * year or in the past.
+     */
+    static LocalDate parseDate(CharBuffer value) {
+        final int length = value.remaining();
+
+        if (length != 6 && length != 8) {
+            throw new DateTimeParseException("Invalid date length", value, 0);
+        }
+
+        int dateValue = digits(value, 0, length);
+
+        int day = dateValue % 100;
+        dateValue /= 100;
+        int month = dateValue % 100;
+        int year = dateValue / 100;
+
+        if (length == 6) {
+            int currentYear = LocalDate.now().getYear();
+            int century = currentYear / 100;
+
+            if (year > (currentYear % 100)) {
+                year = (century - 1) * 100 + year;
+            } else {
+                year = century * 100 + year;
+            }
+        }
+
+        return LocalDate.of(year, month, day);
+    }
+
+    /**
+     * Parse a time in the form HHMM, HHMMSS, or HHMMSSd..d where d..d are
+     * decimal seconds (up to nanoseconds).
+     */
+    static LocalTime parseTime(CharBuffer value) {
+        final int length = value.remaining();
+
+        if (length < 4 || length == 5) {
+            throw new DateTimeParseException("Invalid time length", value, 0);
+        }
+
+        int hour = digits(value, 0, 2);
+        int minute = digits(value, 2, 2);
+        int second = length > 4 ? digits(value, 4, 2) : 0;
+        int nanos = 0;
+
+        if (length > 6) {
+            final int fraction = Math.min(length - 6, NANOS_DIGITS);
+            nanos = digits(value, 6, fraction);
+
+            for (int i = 6 + fraction; i < length; i++) {
+                // Precision beyond nanoseconds is validated but discarded
+                digits(value, i, 1);
+            }
+
+            for (int i = fraction; i < NANOS_DIGITS; i++) {
+                nanos *= 10;
+            }
+        }
+
+        return LocalTime.of(hour, minute, second, nanos);
+    }
+
+    static int digits(CharBuffer value, int offset, int count) {
+        final char[] text = value.array();
+        final int start = value.arrayOffset() + value.position() + offset;
+        int result = 0;
+
+        for (int i = start, m = start + count; i < m; i++) {
+            int digit = digit(text[i]);
+
+            if (digit < 0) {
+                throw new DateTimeParseException("Invalid character", value, i - start + offset);
+            }
+
+            result = result * 10 + digit;
+        }
+
+        return result;
+    }
+
+    static int digit(char c) {
+        return (c >= '0' && c <= '9') ? c - '0' : -1;
+    }
+
+    static NumberFormatException invalidNumber(CharBuffer value) {
+        return new NumberFormatException("For input string: \"" + value + "\"");
+    }
+}
@@ -0,0 +1,273 @@
+/*******************************************************************************
+ * Copyright 2023 xlate.io LLC, http://www.xlate.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package io.xlate.edi.internal.stream;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+
+import io.xlate.edi.schema.EDISimpleType;
+import io.xlate.edi.schema.EDISimpleType.Base;
+
+/**
+ * Renders numeric and date values directly to a reusable character buffer
+ * according to the rules of the (optional) simple type of the target element.
+ *
+ * <ul>
+ * <li>NUMERIC (N) - the value is written with the type's scale as implied
+ * decimal digits, rounding half-up when the value has more fractional digits
+ * than the scale.
+ * <li>DECIMAL (R) - the value is written with an explicit decimal mark.
+ * Fractional digits are rounded half-up when the value would otherwise exceed
+ * the type's maximum length.
+ * <li>DATE (DT) - the value is written as CCYYMMDD, or YYMMDD when the type's
+ * maximum length is 6.
+ * </ul>
+ *
+ * When padding is enabled (i.e. the writer formats elements), NUMERIC and
+ * DECIMAL values are padded with leading zeros to the type's minimum length.
+ * The minus sign and decimal mark are not counted in the length. Values for
+ * other types (or no type) are written in their plain form.
+ */
+class ValueRenderer {
+
+    private static final BigInteger LONG_MIN = BigInteger.valueOf(Long.MIN_VALUE);
+    private static final BigInteger LONG_MAX = BigInteger.valueOf(Long.MAX_VALUE);
+
+    private final boolean padding;
+    private char[] buffer = new char[40];
+    private int length;
+    private boolean formatted;
+
+    ValueRenderer(boolean padding) {
+        this.padding = padding;
+    }
+
+    char[] buffer() {
+        return buffer;
+    }
+
+    int length() {
+        return length;
+    }
+
+    /**
+     * Indicates whether the last value rendered is already in the form that
+     * the writer's element formatting would produce, i.e. padding is enabled
+     * and the value was rendered for a NUMERIC, DECIMAL, or DATE type.
+     *
+     * @return true when the rendered value requires no further formatting
+     */
+    boolean formatted() {
+        return formatted;
+    }
+
+    void render(long value, EDISimpleType type) {
+        length = 0;
+        Base base = base(type);
+        formatted = padding && isNumeric(base);
+        int scale = base == Base.NUMERIC ? scale(type) : 0;
+        boolean negative = value < 0;
+
+        if (negative) {
+            append('-');
+        }
+
+        int digits = digitCount(value) + scale;
+        padZeros(base, type, digits);
+        appendDigits(value);
+
+        for (int i = 0; i < scale; i++) {
+            append('0');
+        }
+    }
+
+    void render(BigDecimal value, EDISimpleType type, char decimalMark) {
+        Base base = base(type);
+
+        if (base == Base.NUMERIC) {
+            // Implied decimal - all digits of the value at the type's scale
+            renderUnscaled(value.setScale(scale(type), RoundingMode.HALF_UP).unscaledValue(), 0, type, decimalMark);
+        } else {
+            if (value.scale() < 0) {
+                value = value.setScale(0);
+            }
+
+            if (base == Base.DECIMAL) {
+                value = fitMaxLength(value, type.getMaxLength());
+            }
+
+            renderUnscaled(value.unscaledValue(), value.scale(), type, decimalMark);
+        }
+    }
+
+    void render(LocalDate value, EDISimpleType type) {
+        length = 0;
+        int year = value.getYear();
+        Base base = base(type);
+        formatted = padding && base == Base.DATE;
+
+        if (base == Base.DATE && type.getMaxLength() == 6) {
+            appendTwoDigits(year % 100);
+        } else {
+            appendTwoDigits(year / 100);
+            appendTwoDigits(year % 100);
+        }
+
+        appendTwoDigits(value.getMonthValue());
+        appendTwoDigits(value.getDayOfMonth());
+    }
+
+    static BigDecimal fitMaxLength(BigDecimal value, long maxLength) {
+        BigDecimal result = value;
+
+        // Rounding may carry into a new integer digit, requiring a second pass
+        for (int pass = 0; pass < 2 && result.scale() > 0; pass++) {
+            long excess = decimalLength(result) - maxLength;
+
+            if (excess <= 0) {
+                break;
+            }
+
+            result = result.setScale((int) Math.max(0, result.scale() - excess), RoundingMode.HALF_UP);
+        }
+
+        return result;
+    }
+
+    static int decimalLength(BigDecimal value) {
+        // The digits written, including a leading zero when there is no integer part
+        return Math.max(value.precision(), value.scale() + 1);
+    }
+
+    void renderUnscaled(BigInteger unscaled, int scale, EDISimpleType type, char decimalMark) {
+        length = 0;
+        Base base = base(type);
+        formatted = padding && isNumeric(base);
+
+        if (unscaled.signum() < 0) {
+            append('-');
+            unscaled = unscaled.negate();
+        }
+
+        int start = length;
+
+        if (unscaled.compareTo(LONG_MIN) >= 0 && unscaled.compareTo(LONG_MAX) <= 0) {
+            appendDigits(unscaled.longValue());
+        } else {
+            String digits = unscaled.toString();
+            for (int i = 0, m = digits.length(); i < m; i++) {
+                append(digits.charAt(i));
+            }
+        }
+
+        if (scale > 0) {
+            // Zeros between the decimal mark and the significant digits, plus a leading zero
+            int minimum = scale + 1;
+            int digitCount = length - start;
+
+            if (digitCount < minimum) {
+                insert(start, '0', minimum - digitCount);
+            }
+
+            insert(length - scale, decimalMark != '\0' ? decimalMark : '.', 1);
+        }
+
+        int digitCount = length - start - (scale > 0 ? 1 : 0);
+
+        if (padding && isNumeric(base) && digitCount < type.getMinLength()) {
+            insert(start, '0', (int) (type.getMinLength() - digitCount));
+        }
+    }
+
+    static Base base(EDISimpleType type) {
+        return type != null ? type.getBase() : null;
+    }
+
+    static int scale(EDISimpleType type) {
+        Integer scale = type.getScale();
+        return scale != null ? scale : 0;
+    }
+
+    static boolean isNumeric(Base base) {
+        return base == Base.NUMERIC || base == Base.DECIMAL;
+    }
+
+    static int digitCount(long value) {
+        int count = 1;
+
+        while (value <= -10 || value >= 10) {
+            value /= 10;
+            count++;
+        }
+
+        return count;
+    }
+
+    void padZeros(Base base, EDISimpleType type, int digits) {
+        if (padding && isNumeric(base)) {
+            for (long i = digits, min = type.getMinLength(); i < min; i++) {
+                append('0');
+            }
+        }
+    }
+
+    void appendDigits(long value) {
+        int count = digitCount(value);
+        ensureCapacity(length + count);
+        int end = length + count;
+
+        // Digits are produced from negative values to handle Long.MIN_VALUE
+        long remaining = value > 0 ? -value : value;
+
+        for (int i = end - 1; i >= length; i--) {
+            buffer[i] = (char) ('0' - (remaining % 10));
+            remaining /= 10;
+        }
+
+        length = end;
+    }
+
+    void appendTwoDigits(int value) {
+        append((char) ('0' + (value / 10) % 10));
+        append((char) ('0' + value % 10));
+    }
+
+    void append(char c) {
+        ensureCapacity(length + 1);
+        buffer[length++] = c;
+    }
+
+    void insert(int index, char c, int count) {
+        ensureCapacity(length + count);
+        System.arraycopy(buffer, index, buffer, index + count, length - index);
+
+        for (int i = index; i < index + count; i++) {
+            buffer[i] = c;
+        }
+
+        length += count;
+    }
+
+    void ensureCapacity(int capacity) {
+        if (capacity > buffer.length) {
+            char[] expanded = new char[Math.max(capacity, buffer.length * 2)];
+            System.arraycopy(buffer, 0, expanded, 0, length);
+            buffer = expanded;
+        }
+    }
+}
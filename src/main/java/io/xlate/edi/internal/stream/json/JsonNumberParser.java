@@ -0,0 +1,289 @@
+/*******************************************************************************
+ * Copyright 2023 xlate.io LLC, http://www.xlate.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package io.xlate.edi.internal.stream.json;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import io.xlate.edi.schema.EDISimpleType;
+import io.xlate.edi.schema.EDISimpleType.Base;
+import io.xlate.edi.stream.EDIStreamConstants.Delimiters;
+import io.xlate.edi.stream.EDIStreamReader;
+
+/**
+ * Parses the text of numeric (implied decimal) and decimal elements for the
+ * JSON parsers and writers directly from the reader's character buffer.
+ * Values with up to 18 significant digits are held as an unscaled long and a
+ * scale, a {@link BigDecimal} is only created when requested or when the value
+ * is too large. Instances are not thread-safe.
+ */
+final class JsonNumberParser {
+
+    private static final long MAX_SIGNIFICAND = Long.MAX_VALUE / 10;
+    private static final char UNRESOLVED = '\uFFFF';
+
+    private final EDIStreamReader reader;
+    private char decimalMark = UNRESOLVED;
+
+    private boolean compact;
+    private long unscaled;
+    private int scale;
+    private BigDecimal value;
+
+    JsonNumberParser(EDIStreamReader reader) {
+        this.reader = reader;
+    }
+
+    static boolean isNumber(EDISimpleType elementType) {
+        return elementType.getBase() == Base.DECIMAL || elementType.getBase() == Base.NUMERIC;
+    }
+
+    /**
+     * Reset for a new interchange, the decimal mark of the interchange's
+     * dialect is determined when the first decimal value is parsed.
+     */
+    void reset() {
+        decimalMark = UNRESOLVED;
+        value = null;
+    }
+
+    /**
+     * Parse the text of the current element of the reader.
+     *
+     * @return true if the text is a valid number for the element type,
+     *         otherwise false
+     */
+    boolean parse(EDISimpleType elementType) {
+        final char[] text = reader.getTextCharacters();
+        final int start = reader.getTextStart();
+        final int end = start + reader.getTextLength();
+
+        value = null;
+
+        if (elementType.getBase() == Base.NUMERIC) {
+            final Integer impliedScale = elementType.getScale();
+            return parseNumeric(text, start, end, impliedScale != null ? impliedScale : 0);
+        }
+
+        return parseDecimal(text, start, end);
+    }
+
+    boolean parseNumeric(char[] text, int start, int end, int impliedScale) {
+        boolean negative = start < end && text[start] == '-';
+        // An explicit positive sign is accepted, consistent with Long.parseLong
+        boolean signed = negative || (start < end && text[start] == '+');
+        int i = signed ? start + 1 : start;
+
+        if (i == end) {
+            return false;
+        }
+
+        // Accumulate as a negative value to include Long.MIN_VALUE
+        long result = 0;
+        boolean overflow = false;
+
+        for (; i < end; i++) {
+            final int digit = digit(text[i]);
+
+            if (digit < 0) {
+                return false;
+            }
+
+            if (overflow || result < (Long.MIN_VALUE + digit) / 10) {
+                overflow = true;
+            } else {
+                result = result * 10 - digit;
+            }
+        }
+
+        if (overflow || (!negative && result == Long.MIN_VALUE)) {
+            setValue(new BigDecimal(new BigInteger(new String(text, start, end - start)), impliedScale));
+        } else {
+            setCompact(negative ? result : -result, impliedScale);
+        }
+
+        return true;
+    }
+
+    boolean parseDecimal(char[] text, int start, int end) {
+        boolean negative = false;
+        boolean digits = false;
+        boolean decimal = false;
+        boolean overflow = false;
+        long significand = 0;
+        int fractionDigits = 0;
+        int i = start;
+
+        if (i < end && text[i] == '-') {
+            negative = true;
+            i++;
+        }
+
+        for (; i < end; i++) {
+            final char c = text[i];
+            final int digit = digit(c);
+
+            if (digit >= 0) {
+                digits = true;
+
+                if (overflow || significand >= MAX_SIGNIFICAND) {
+                    overflow = true;
+                } else {
+                    significand = significand * 10 + digit;
+                }
+
+                if (decimal) {
+                    fractionDigits++;
+                }
+            } else if (!decimal && isDecimalMark(c)) {
+                decimal = true;
+            } else if (c == 'E' && digits) {
+                break;
+            } else {
+                return false;
+            }
+        }
+
+        if (!digits) {
+            return false;
+        }
+
+        int exponent = 0;
+
+        if (i < end) {
+            // Skip the 'E'
+            if (++i == end) {
+                return false;
+            }
+
+            boolean negativeExponent = text[i] == '-';
+
+            if (negativeExponent && ++i == end) {
+                return false;
+            }
+
+            for (; i < end; i++) {
+                final int digit = digit(text[i]);
+
+                if (digit < 0 || exponent > 99_999_999) {
+                    return false;
+                }
+
+                exponent = exponent * 10 + digit;
+            }
+
+            if (negativeExponent) {
+                exponent = -exponent;
+            }
+        }
+
+        if (overflow) {
+            setValue(new BigDecimal(normalize(text, start, end)));
+            return true;
+        }
+
+        final long signedSignificand = negative ? -significand : significand;
+        int resultScale = fractionDigits - exponent;
+        long result = signedSignificand;
+
+        // Positive exponents give integral values where the result fits
+        while (resultScale < 0 && Math.abs(result) <= MAX_SIGNIFICAND) {
+            result *= 10;
+            resultScale++;
+        }
+
+        if (resultScale < 0) {
+            setValue(BigDecimal.valueOf(signedSignificand, fractionDigits - exponent));
+        } else {
+            setCompact(result, resultScale);
+        }
+
+        return true;
+    }
+
+    boolean isDecimalMark(char c) {
+        if (decimalMark == UNRESOLVED) {
+            Character mark = reader.getDelimiters().get(Delimiters.DECIMAL);
+            decimalMark = mark != null ? mark : '.';
+        }
+
+        // Period is always accepted, consistent with JSON number syntax
+        return c == decimalMark || c == '.';
+    }
+
+    String normalize(char[] text, int start, int end) {
+        StringBuilder result = new StringBuilder(end - start);
+
+        for (int i = start; i < end; i++) {
+            result.append(isDecimalMark(text[i]) ? '.' : text[i]);
+        }
+
+        return result.toString();
+    }
+
+    static int digit(char c) {
+        return c >= '0' && c <= '9' ? c - '0' : -1;
+    }
+
+    void setCompact(long unscaled, int scale) {
+        this.compact = true;
+        this.unscaled = unscaled;
+        this.scale = scale;
+    }
+
+    void setValue(BigDecimal value) {
+        this.compact = false;
+        this.value = value;
+    }
+
+    /**
+     * @return true when the value is held as an unscaled long and a scale
+     */
+    boolean isCompact() {
+        return compact;
+    }
+
+    /**
+     * @return true when the value is an integer that fits in a long
+     */
+    boolean isLong() {
+        return compact && scale == 0;
+    }
+
+    long getUnscaled() {
+        return unscaled;
+    }
+
+    int getScale() {
+        return compact ? scale : value.scale();
+    }
+
+    boolean isIntegral() {
+        return getScale() == 0;
+    }
+
+    long getLong() {
+        return isLong() ? unscaled : getBigDecimal().longValue();
+    }
+
+    BigDecimal getBigDecimal() {
+        if (value == null) {
+            value = BigDecimal.valueOf(unscaled, scale);
+        }
+
+        return value;
+    }
+}
@@ -0,0 +1,45 @@
+/*******************************************************************************
+ * Copyright 2023 xlate.io LLC, http://www.xlate.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package io.xlate.edi.internal.stream.json;
+
+import io.xlate.edi.stream.EDIStreamException;
+import io.xlate.edi.stream.EDIStreamWriter;
+
+public final class JsonReaderFactory {
+
+    private JsonReaderFactory() {
+    }
+
+    public static <P> void readJson(Class<P> type, P parser, EDIStreamWriter writer) throws EDIStreamException {
+        final StaEDIJsonReader reader;
+
+        switch (type.getName()) {
+        case "jakarta.json.stream.JsonParser":
+            reader = new StaEDIJakartaJsonReader(writer, (jakarta.json.stream.JsonParser) parser);
+            break;
+        case "javax.json.stream.JsonParser":
+            reader = new StaEDIJavaxJsonReader(writer, (javax.json.stream.JsonParser) parser);
+            break;
+        case "com.fasterxml.jackson.core.JsonParser":
+            reader = new StaEDIJacksonJsonReader(writer, (com.fasterxml.jackson.core.JsonParser) parser);
+            break;
+        default:
+            throw new IllegalArgumentException("Unsupported JSON parser type: " + type);
+        }
+
+        reader.read();
+    }
+}
@@ -0,0 +1,52 @@
+/*******************************************************************************
+ * Copyright 2023 xlate.io LLC, http://www.xlate.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package io.xlate.edi.internal.stream.json;
+
+import java.io.OutputStream;
+import java.util.Map;
+
+import io.xlate.edi.stream.EDIStreamException;
+import io.xlate.edi.stream.EDIStreamReader;
+
+public final class JsonWriterFactory {
+
+    private JsonWriterFactory() {
+    }
+
+    public static <G> void writeJson(EDIStreamReader reader, Class<G> type, G generator, Map<String, Object> properties) throws EDIStreamException {
+        final StaEDIJsonWriter writer;
+
+        switch (type.getName()) {
+        case "jakarta.json.stream.JsonGenerator":
+            writer = new StaEDIJakartaJsonWriter(reader, properties, (jakarta.json.stream.JsonGenerator) generator);
+            break;
+        case "javax.json.stream.JsonGenerator":
+            writer = new StaEDIJavaxJsonWriter(reader, properties, (javax.json.stream.JsonGenerator) generator);
+            break;
+        case "com.fasterxml.jackson.core.JsonGenerator":
+            writer = new StaEDIJacksonJsonWriter(reader, properties, (com.fasterxml.jackson.core.JsonGenerator) generator);
+            break;
+        default:
+            throw new IllegalArgumentException("Unsupported JSON generator type: " + type);
+        }
+
+        writer.write();
+    }
+
+    public static void writeJson(EDIStreamReader reader, OutputStream stream, Map<String, Object> properties) throws EDIStreamException {
+        new StaEDIJsonUtf8Writer(reader, properties, stream).write();
+    }
+}
@@ -2,6 +2,8 @@ package io.xlate.edi.internal.stream.json;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.ArrayDeque;
@@ -20,6 +22,7 @@ import com.fasterxml.jackson.core.Version;
 import com.fasterxml.jackson.core.base.ParserMinimalBase;
 import com.fasterxml.jackson.core.io.ContentReference;
 
+import io.xlate.edi.internal.stream.Base64ChunkEncoder;
 import io.xlate.edi.internal.stream.json.StaEDIJsonParser.Event;
 import io.xlate.edi.stream.EDIStreamReader;
 
@@ -217,9 +220,45 @@ public class StaEDIJacksonJsonParser extends ParserMinimalBase {
         }
     }
 
+    @Override
+    public int getText(Writer writer) throws IOException {
+        InputStream binaryStream = parser.binaryEventCurrent && parser.currentBinaryValue == null ? parser.takeBinaryStream() : null;
+
+        if (binaryStream == null) {
+            return super.getText(writer);
+        }
+
+        Base64ChunkEncoder encoder = new Base64ChunkEncoder();
+        encoder.setSource(binaryStream);
+        return encoder.encodeTo(writer);
+    }
+
     @Override
     public byte[] getBinaryValue(Base64Variant b64variant) throws IOException {
-        return parser.currentBinaryValue.toByteArray();
+        byte[] binaryValue = parser.getBinaryValue();
+        return binaryValue != null ? binaryValue : new byte[0];
+    }
+
+    @Override
+    public int readBinaryValue(Base64Variant b64variant, OutputStream out) throws IOException {
+        InputStream binaryStream = parser.binaryEventCurrent && parser.currentBinaryValue == null ? parser.takeBinaryStream() : null;
+
+        if (binaryStream == null) {
+            byte[] binaryValue = getBinaryValue(b64variant);
+            out.write(binaryValue);
+            return binaryValue.length;
+        }
+
+        byte[] buffer = new byte[4096];
+        int total = 0;
+        int amount;
+
+        while ((amount = binaryStream.read(buffer)) > -1) {
+            out.write(buffer, 0, amount);
+            total += amount;
+        }
+
+        return total;
     }
 
     @Override
@@ -237,10 +276,22 @@ public class StaEDIJacksonJsonParser extends ParserMinimalBase {
             throw new JsonParseException(this, "Current token is not a number");
         }
 
+        NumberType type = getNumberType();
+
+        if (parser.numberParser.isLong()) {
+            long value = parser.getLong();
+
+            if (type == NumberType.INT) {
+                return (int) value;
+            }
+
+            return value;
+        }
+
         BigDecimal value = parser.getBigDecimal();
         Number result;
 
-        switch (getNumberType()) {
+        switch (type) {
         case BIG_INTEGER:
             result = value.toBigInteger();
             break;
@@ -270,6 +321,12 @@ public class StaEDIJacksonJsonParser extends ParserMinimalBase {
             return null;
         }
 
+        if (parser.numberParser.isLong()) {
+            // Integral values held as a long, no BigDecimal comparisons needed
+            long value = parser.getLong();
+            return value == (int) value ? NumberType.INT : NumberType.LONG;
+        }
+
         BigDecimal value = parser.getBigDecimal();
         NumberType type;
 
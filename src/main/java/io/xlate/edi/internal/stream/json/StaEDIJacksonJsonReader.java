@@ -0,0 +1,102 @@
+/*******************************************************************************
+ * Copyright 2023 xlate.io LLC, http://www.xlate.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package io.xlate.edi.internal.stream.json;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonParser.NumberType;
+import com.fasterxml.jackson.core.JsonToken;
+
+import io.xlate.edi.internal.stream.CharArraySequence;
+import io.xlate.edi.stream.EDIStreamWriter;
+
+final class StaEDIJacksonJsonReader extends StaEDIJsonReader {
+
+    private final JsonParser parser;
+    // Text is passed to the EDI writer from the parser's buffer, without a String
+    private final CharArraySequence text = new CharArraySequence();
+
+    StaEDIJacksonJsonReader(EDIStreamWriter ediWriter, JsonParser parser) {
+        super(ediWriter);
+        this.parser = parser;
+    }
+
+    @Override
+    Token firstToken() throws IOException {
+        if (parser.currentToken() != null) {
+            return token(parser.currentToken());
+        }
+        return nextToken();
+    }
+
+    @Override
+    Token nextToken() throws IOException {
+        JsonToken token = parser.nextToken();
+        return token != null ? token(token) : null;
+    }
+
+    static Token token(JsonToken token) {
+        switch (token) {
+        case START_OBJECT:
+            return Token.START_OBJECT;
+        case END_OBJECT:
+            return Token.END_OBJECT;
+        case START_ARRAY:
+            return Token.START_ARRAY;
+        case END_ARRAY:
+            return Token.END_ARRAY;
+        case FIELD_NAME:
+            return Token.KEY;
+        case VALUE_STRING:
+            return Token.STRING;
+        case VALUE_NUMBER_INT:
+        case VALUE_NUMBER_FLOAT:
+            return Token.NUMBER;
+        case VALUE_TRUE:
+            return Token.TRUE;
+        case VALUE_FALSE:
+            return Token.FALSE;
+        case VALUE_NULL:
+            return Token.NULL;
+        default:
+            throw new IllegalStateException("Unsupported JSON token: " + token);
+        }
+    }
+
+    @Override
+    CharSequence getText() throws IOException {
+        text.set(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+        return text;
+    }
+
+    @Override
+    boolean isLongNumber() throws IOException {
+        NumberType type = parser.getNumberType();
+        return type == NumberType.INT || type == NumberType.LONG;
+    }
+
+    @Override
+    long getLong() throws IOException {
+        return parser.getLongValue();
+    }
+
+    @Override
+    BigDecimal getBigDecimal() throws IOException {
+        return parser.getDecimalValue();
+    }
+}
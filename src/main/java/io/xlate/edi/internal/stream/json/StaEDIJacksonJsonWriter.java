@@ -0,0 +1,115 @@
+/*******************************************************************************
+ * Copyright 2023 xlate.io LLC, http://www.xlate.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package io.xlate.edi.internal.stream.json;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+
+import io.xlate.edi.stream.EDIStreamReader;
+
+final class StaEDIJacksonJsonWriter extends StaEDIJsonWriter {
+
+    static final SerializableString NAME = new SerializedString(KEY_NAME);
+    static final SerializableString TYPE = new SerializedString(KEY_TYPE);
+    static final SerializableString DATA = new SerializedString(KEY_DATA);
+    static final SerializableString ELEMENT = new SerializedString(TYPE_ELEMENT);
+    static final Map<Structure, SerializableString> STRUCTURE_TYPES = new EnumMap<>(Structure.class);
+
+    static {
+        for (Structure structure : Structure.values()) {
+            STRUCTURE_TYPES.put(structure, new SerializedString(structure.type));
+        }
+    }
+
+    private final JsonGenerator generator;
+
+    StaEDIJacksonJsonWriter(EDIStreamReader ediReader, Map<String, Object> properties, JsonGenerator generator) {
+        super(ediReader, properties);
+        this.generator = generator;
+    }
+
+    @Override
+    void writeStructureStart(Structure structure, String name) throws IOException {
+        generator.writeStartObject();
+        generator.writeFieldName(NAME);
+        generator.writeString(name);
+        generator.writeFieldName(TYPE);
+        generator.writeString(STRUCTURE_TYPES.get(structure));
+        generator.writeFieldName(DATA);
+        generator.writeStartArray();
+    }
+
+    @Override
+    void writeStructureEnd() throws IOException {
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+
+    @Override
+    void writeElementStart() throws IOException {
+        generator.writeStartObject();
+        generator.writeFieldName(TYPE);
+        generator.writeString(ELEMENT);
+        generator.writeFieldName(DATA);
+    }
+
+    @Override
+    void writeElementEnd() throws IOException {
+        generator.writeEndObject();
+    }
+
+    @Override
+    void writeString(String value) throws IOException {
+        generator.writeString(value);
+    }
+
+    @Override
+    void writeNumber(BigDecimal value) throws IOException {
+        generator.writeNumber(value);
+    }
+
+    @Override
+    void writeNumber(long unscaled, int scale) throws IOException {
+        if (scale == 0) {
+            generator.writeNumber(unscaled);
+        } else {
+            super.writeNumber(unscaled, scale);
+        }
+    }
+
+    @Override
+    void writeNull() throws IOException {
+        generator.writeNull();
+    }
+
+    @Override
+    void writeBinary(InputStream value) throws IOException {
+        // Length is unknown, the generator encodes the stream with bounded buffers
+        generator.writeBinary(value, -1);
+    }
+
+    @Override
+    void flush() throws IOException {
+        generator.flush();
+    }
+}
@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * Copyright 2023 xlate.io LLC, http://www.xlate.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package io.xlate.edi.internal.stream.json;
+
+import java.math.BigDecimal;
+
+import javax.json.stream.JsonParser;
+import javax.json.stream.JsonParser.Event;
+import io.xlate.edi.stream.EDIStreamWriter;
+
+final class StaEDIJavaxJsonReader extends StaEDIJsonReader {
+
+    private final JsonParser parser;
+
+    StaEDIJavaxJsonReader(EDIStreamWriter ediWriter, JsonParser parser) {
+        super(ediWriter);
+        this.parser = parser;
+    }
+
+    @Override
+    Token firstToken() {
+        // The current event of a JSON-P parser is not available, the document is read from the start
+        return nextToken();
+    }
+
+    @Override
+    Token nextToken() {
+        return parser.hasNext() ? token(parser.next()) : null;
+    }
+
+    static Token token(Event event) {
+        switch (event) {
+        case START_OBJECT:
+            return Token.START_OBJECT;
+        case END_OBJECT:
+            return Token.END_OBJECT;
+        case START_ARRAY:
+            return Token.START_ARRAY;
+        case END_ARRAY:
+            return Token.END_ARRAY;
+        case KEY_NAME:
+            return Token.KEY;
+        case VALUE_STRING:
+            return Token.STRING;
+        case VALUE_NUMBER:
+            return Token.NUMBER;
+        case VALUE_TRUE:
+            return Token.TRUE;
+        case VALUE_FALSE:
+            return Token.FALSE;
+        default:
+            return Token.NULL;
+        }
+    }
+
+    @Override
+    CharSequence getText() {
+        return parser.getString();
+    }
+
+    @Override
+    boolean isLongNumber() {
+        if (!parser.isIntegralNumber()) {
+            return false;
+        }
+
+        // Integral values larger than a long are written as a BigDecimal
+        BigDecimal value = parser.getBigDecimal();
+        return value.unscaledValue().bitLength() < 64;
+    }
+
+    @Override
+    long getLong() {
+        return parser.getLong();
+    }
+
+    @Override
+    BigDecimal getBigDecimal() {
+        return parser.getBigDecimal();
+    }
+}
@@ -0,0 +1,104 @@
+/*******************************************************************************
+ * Copyright 2023 xlate.io LLC, http://www.xlate.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package io.xlate.edi.internal.stream.json;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.Base64;
+import java.util.Map;
+
+import io.xlate.edi.stream.EDIStreamReader;
+
+final class StaEDIJavaxJsonWriter extends StaEDIJsonWriter {
+
+    private final javax.json.stream.JsonGenerator generator;
+
+    StaEDIJavaxJsonWriter(EDIStreamReader ediReader, Map<String, Object> properties, javax.json.stream.JsonGenerator generator) {
+        super(ediReader, properties);
+        this.generator = generator;
+    }
+
+    @Override
+    void writeStructureStart(Structure structure, String name) {
+        generator.writeStartObject();
+        generator.write(KEY_NAME, name);
+        generator.write(KEY_TYPE, structure.type);
+        generator.writeStartArray(KEY_DATA);
+    }
+
+    @Override
+    void writeStructureEnd() {
+        generator.writeEnd();
+        generator.writeEnd();
+    }
+
+    @Override
+    void writeElementStart() {
+        generator.writeStartObject();
+        generator.write(KEY_TYPE, TYPE_ELEMENT);
+        generator.writeKey(KEY_DATA);
+    }
+
+    @Override
+    void writeElementEnd() {
+        generator.writeEnd();
+    }
+
+    @Override
+    void writeString(String value) {
+        generator.write(value);
+    }
+
+    @Override
+    void writeNumber(BigDecimal value) {
+        generator.write(value);
+    }
+
+    @Override
+    void writeNumber(long unscaled, int scale) throws IOException {
+        if (scale == 0) {
+            generator.write(unscaled);
+        } else {
+            super.writeNumber(unscaled, scale);
+        }
+    }
+
+    @Override
+    void writeNull() {
+        generator.writeNull();
+    }
+
+    @Override
+    void writeBinary(InputStream value) throws IOException {
+        // JSON-P generators only accept complete string values
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        byte[] chunk = new byte[4096];
+        int amount;
+
+        while ((amount = value.read(chunk)) > -1) {
+            buffer.write(chunk, 0, amount);
+        }
+
+        generator.write(Base64.getEncoder().encodeToString(buffer.toByteArray()));
+    }
+
+    @Override
+    void flush() {
+        generator.flush();
+    }
+}
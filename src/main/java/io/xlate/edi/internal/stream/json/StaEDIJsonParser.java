@@ -20,9 +20,6 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.Array;
 import java.math.BigDecimal;
-import java.math.BigInteger;
-import java.text.DecimalFormat;
-import java.text.ParsePosition;
 import java.util.ArrayDeque;
 import java.util.Base64;
 import java.util.Map;
@@ -37,7 +34,6 @@ import java.util.stream.Stream;
 import io.xlate.edi.internal.stream.Configurable;
 import io.xlate.edi.schema.EDIReference;
 import io.xlate.edi.schema.EDISimpleType;
-import io.xlate.edi.schema.EDISimpleType.Base;
 import io.xlate.edi.stream.EDIInputFactory;
 import io.xlate.edi.stream.EDIStreamEvent;
 import io.xlate.edi.stream.EDIStreamReader;
@@ -49,6 +45,7 @@ abstract class StaEDIJsonParser<E extends Exception> implements Configurable {
 
     static final String MSG_EXCEPTION = "Exception reading the EDI stream as JSON";
     static final String MSG_UNEXPECTED = "Unexpected event reached parsing JSON: ";
+    static final String MSG_BINARY_STREAMED = "Binary value has already been streamed and may not be read again";
 
     static final String KEY_TYPE = "type";
     static final String KEY_NAME = "name";
@@ -63,13 +60,18 @@ abstract class StaEDIJsonParser<E extends Exception> implements Configurable {
     final Queue<Event> eventQueue = new ArrayDeque<>();
     final Queue<String> valueQueue = new ArrayDeque<>();
 
-    final DecimalFormat decimalParser = new DecimalFormat();
-    final ParsePosition decimalPosition = new ParsePosition(0);
+    final JsonNumberParser numberParser;
 
     Event currentEvent;
     String currentValue;
-    ByteArrayOutputStream currentBinaryValue = new ByteArrayOutputStream();
-    BigDecimal currentNumber;
+    /*
+     * Binary element data is not read until requested for the current event,
+     * either in full or streamed in bulk by the parser implementation.
+     */
+    InputStream currentBinaryStream;
+    byte[] currentBinaryValue;
+    int binaryEventIndex = -1;
+    boolean binaryEventCurrent = false;
     boolean closed = false;
 
     enum Event {
@@ -111,6 +113,7 @@ abstract class StaEDIJsonParser<E extends Exception> implements Configurable {
         super();
         this.ediReader = ediReader;
         this.properties = properties;
+        this.numberParser = new JsonNumberParser(ediReader);
         this.emptyElementsNull = getProperty(EDIInputFactory.JSON_NULL_EMPTY_ELEMENTS, Boolean::parseBoolean, false);
         this.elementsAsObject = getProperty(EDIInputFactory.JSON_OBJECT_ELEMENTS, Boolean::parseBoolean, false);
     }
@@ -151,24 +154,10 @@ abstract class StaEDIJsonParser<E extends Exception> implements Configurable {
     void advanceEvent() {
         currentEvent = eventQueue.remove();
         currentValue = valueQueue.remove();
-    }
-
-    void parseNumber(EDISimpleType elementType, String text) {
-        if (elementType.getBase() == Base.NUMERIC) {
-            final Integer scale = elementType.getScale();
-
-            try {
-                final long unscaled = Long.parseLong(text);
-                this.currentNumber = BigDecimal.valueOf(unscaled, scale);
-            } catch (NumberFormatException e) {
-                final BigInteger unscaled = new BigInteger(text);
-                this.currentNumber = new BigDecimal(unscaled, scale);
-            }
-        } else {
-            decimalPosition.setIndex(0);
-            decimalParser.setParseBigDecimal(true);
+        binaryEventCurrent = binaryEventIndex == 0;
 
-            this.currentNumber = (BigDecimal) decimalParser.parse(text, decimalPosition);
+        if (binaryEventIndex > -1) {
+            binaryEventIndex--;
         }
     }
 
@@ -190,21 +179,56 @@ abstract class StaEDIJsonParser<E extends Exception> implements Configurable {
         enqueue(Event.START_ARRAY, null);
     }
 
-    void readBinaryValue() throws E {
-        try (InputStream binaryStream = ediReader.getBinaryData()) {
-            byte[] buffer = new byte[4096];
-            int bytesRead = -1;
+    /**
+     * Take the binary data stream of the current event for streaming. The
+     * data may only be read once, after which the value is no longer
+     * available and any further access to the value fails.
+     */
+    InputStream takeBinaryStream() throws E {
+        if (!binaryEventCurrent) {
+            return null;
+        }
+        if (currentBinaryStream == null) {
+            throw newJsonParsingException(MSG_BINARY_STREAMED, null);
+        }
 
-            while ((bytesRead = binaryStream.read(buffer)) > -1) {
-                currentBinaryValue.write(buffer, 0, bytesRead);
+        InputStream binaryStream = currentBinaryStream;
+        currentBinaryStream = null;
+        return binaryStream;
+    }
+
+    /**
+     * Read the complete binary value of the current event, retained for
+     * subsequent calls.
+     */
+    byte[] getBinaryValue() throws E {
+        if (!binaryEventCurrent) {
+            return null;
+        }
+
+        if (currentBinaryValue == null) {
+            InputStream binaryStream = takeBinaryStream();
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+            try {
+                byte[] chunk = new byte[4096];
+                int bytesRead = -1;
+
+                while ((bytesRead = binaryStream.read(chunk)) > -1) {
+                    buffer.write(chunk, 0, bytesRead);
+                }
+            } catch (IOException e) {
+                throw newJsonException(MSG_EXCEPTION, e);
             }
-        } catch (IOException e) {
-            throw newJsonException(MSG_EXCEPTION, e);
+
+            currentBinaryValue = buffer.toByteArray();
         }
+
+        return currentBinaryValue;
     }
 
     boolean isNumber(EDISimpleType elementType) {
-        return elementType.getBase() == Base.DECIMAL || elementType.getBase() == Base.NUMERIC;
+        return JsonNumberParser.isNumber(elementType);
     }
 
     void enqueueDataElement(boolean binaryData) throws E {
@@ -228,21 +252,14 @@ abstract class StaEDIJsonParser<E extends Exception> implements Configurable {
         if (elementType == null) {
             dataEvent = Event.VALUE_STRING;
         } else if (binaryData) {
-            readBinaryValue();
+            // Position of the data event, the queue is empty when an EDI event is enqueued
+            binaryEventIndex = eventQueue.size();
+            currentBinaryStream = ediReader.getBinaryData();
             dataEvent = Event.VALUE_STRING;
         } else if (dataText.isEmpty()) {
             dataEvent = this.emptyElementsNull ? Event.VALUE_NULL : Event.VALUE_STRING;
         } else if (isNumber(elementType)) {
-            Event numberEvent;
-
-            try {
-                parseNumber(elementType, dataText);
-                numberEvent = Event.VALUE_NUMBER;
-            } catch (Exception e) {
-                numberEvent = Event.VALUE_STRING;
-            }
-
-            dataEvent = numberEvent;
+            dataEvent = numberParser.parse(elementType) ? Event.VALUE_NUMBER : Event.VALUE_STRING;
         } else {
             dataEvent = Event.VALUE_STRING;
         }
@@ -256,9 +273,10 @@ abstract class StaEDIJsonParser<E extends Exception> implements Configurable {
 
     void enqueueEvent(EDIStreamEvent ediEvent) throws E {
         LOGGER.finer(() -> "Enqueue EDI event: " + ediEvent);
-        currentNumber = null;
         currentValue = null;
-        currentBinaryValue.reset();
+        currentBinaryStream = null;
+        currentBinaryValue = null;
+        binaryEventIndex = -1;
 
         switch (ediEvent) {
         case ELEMENT_DATA:
@@ -268,6 +286,7 @@ abstract class StaEDIJsonParser<E extends Exception> implements Configurable {
             enqueueDataElement(true);
             break;
         case START_INTERCHANGE:
+            numberParser.reset();
             enqueueStructureBegin("loop", "INTERCHANGE");
             break;
         case START_GROUP:
@@ -389,7 +408,7 @@ abstract class StaEDIJsonParser<E extends Exception> implements Configurable {
      */
     public BigDecimal getBigDecimal() {
         assertEventValueNumber();
-        return currentNumber;
+        return numberParser.getBigDecimal();
     }
 
     /**
@@ -404,16 +423,16 @@ abstract class StaEDIJsonParser<E extends Exception> implements Configurable {
      */
     public long getLong() {
         assertEventValueNumber();
-        return currentNumber.longValue();
+        return numberParser.getLong();
     }
 
     /**
      * @see jakarta.json.stream.JsonParser#getString()
      */
-    public String getString() {
+    public String getString() throws E {
         assertEventValueString();
-        if (currentBinaryValue.size() > 0) {
-            return Base64.getEncoder().encodeToString(currentBinaryValue.toByteArray());
+        if (binaryEventCurrent) {
+            return Base64.getEncoder().encodeToString(getBinaryValue());
         }
         return this.currentValue;
     }
@@ -423,7 +442,7 @@ abstract class StaEDIJsonParser<E extends Exception> implements Configurable {
      */
     public boolean isIntegralNumber() {
         assertEventValueNumber();
-        return currentNumber.scale() == 0;
+        return numberParser.isIntegral();
     }
 
 }
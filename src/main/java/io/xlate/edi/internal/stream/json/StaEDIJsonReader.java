@@ -0,0 +1,364 @@
+/*******************************************************************************
+ * Copyright 2023 xlate.io LLC, http://www.xlate.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package io.xlate.edi.internal.stream.json;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import io.xlate.edi.internal.stream.json.StaEDIJsonWriter.Structure;
+import io.xlate.edi.stream.EDIStreamException;
+import io.xlate.edi.stream.EDIStreamWriter;
+
+/**
+ * Reverse of {@link StaEDIJsonWriter}. The events of a JSON parser, in the
+ * layout produced by the JSON parsers, drive an {@link EDIStreamWriter}
+ * directly. Only the stack of open structures is held in memory; the keys
+ * <code>name</code> and <code>type</code> of a structure must precede its
+ * <code>data</code>.
+ */
+abstract class StaEDIJsonReader {
+
+    static final String MSG_EXCEPTION = "Exception writing the JSON input as EDI";
+    static final String MSG_UNEXPECTED = "Unexpected JSON %s %s";
+
+    enum Token {
+        START_OBJECT,
+        END_OBJECT,
+        START_ARRAY,
+        END_ARRAY,
+        KEY,
+        STRING,
+        NUMBER,
+        TRUE,
+        FALSE,
+        NULL
+    }
+
+    protected final EDIStreamWriter ediWriter;
+
+    // Structures currently open, the interchange is the outermost loop
+    private final Deque<Structure> structures = new ArrayDeque<>();
+
+    StaEDIJsonReader(EDIStreamWriter ediWriter) {
+        this.ediWriter = ediWriter;
+    }
+
+    /**
+     * Retrieve the first token of the document, which may be the current
+     * token of the parser.
+     */
+    abstract Token firstToken() throws IOException;
+
+    /**
+     * @return the next token from the parser, or null at the end of the input
+     */
+    abstract Token nextToken() throws IOException;
+
+    /**
+     * @return the text of the current key or string value
+     */
+    abstract CharSequence getText() throws IOException;
+
+    abstract boolean isLongNumber() throws IOException;
+
+    abstract long getLong() throws IOException;
+
+    abstract BigDecimal getBigDecimal() throws IOException;
+
+    /**
+     * Read the parser's JSON document (a single interchange) and write it to
+     * the EDI writer.
+     */
+    void read() throws EDIStreamException {
+        try {
+            expect(firstToken(), Token.START_OBJECT);
+            readObject();
+
+            while (!structures.isEmpty()) {
+                Token token = next();
+
+                switch (token) {
+                case START_OBJECT:
+                    readObject();
+                    break;
+                case END_ARRAY:
+                    endStructure(structures.pop());
+                    finishObject();
+                    break;
+                case STRING:
+                case NUMBER:
+                case TRUE:
+                case FALSE:
+                case NULL:
+                    writeValue(token);
+                    break;
+                default:
+                    throw unexpected(token);
+                }
+            }
+
+            ediWriter.flush();
+        } catch (IOException | RuntimeException e) {
+            throw new EDIStreamException(MSG_EXCEPTION, ediWriter.getLocation(), e);
+        }
+    }
+
+    Token next() throws IOException, EDIStreamException {
+        Token token = nextToken();
+
+        if (token == null) {
+            throw new EDIStreamException("Unexpected end of JSON input", ediWriter.getLocation());
+        }
+
+        return token;
+    }
+
+    void expect(Token token, Token expected) throws EDIStreamException {
+        if (token != expected) {
+            throw unexpected(token);
+        }
+    }
+
+    EDIStreamException unexpected(Token token) {
+        String value = "";
+
+        if (token == Token.KEY || token == Token.STRING) {
+            try {
+                value = '"' + getText().toString() + '"';
+            } catch (IOException e) {
+                // Text is only included in the message when available
+            }
+        }
+
+        return new EDIStreamException(String.format(MSG_UNEXPECTED, token, value).trim(), ediWriter.getLocation());
+    }
+
+    /**
+     * Read the keys of an object up to and including its data. A structure's
+     * data array is left open, an element object is read completely.
+     */
+    void readObject() throws IOException, EDIStreamException {
+        String name = null;
+        String type = null;
+        Token token;
+
+        while ((token = next()) == Token.KEY) {
+            String key = getText().toString();
+            Token value = next();
+
+            switch (key) {
+            case StaEDIJsonParser.KEY_NAME:
+                name = getString(value);
+                break;
+            case StaEDIJsonParser.KEY_TYPE:
+                type = getString(value);
+                break;
+            case StaEDIJsonParser.KEY_DATA:
+                if (value == Token.START_ARRAY) {
+                    startStructure(structure(type), name);
+                } else {
+                    writeValue(value);
+                    finishObject();
+                }
+                return;
+            default:
+                skip(value);
+                break;
+            }
+        }
+
+        throw unexpected(token);
+    }
+
+    /**
+     * @return the string value of the token, or null for a null value (e.g.
+     *         the name of a composite without a schema)
+     */
+    String getString(Token token) throws IOException, EDIStreamException {
+        if (token == Token.NULL) {
+            return null;
+        }
+
+        expect(token, Token.STRING);
+        return getText().toString();
+    }
+
+    /**
+     * Skip the keys of the current object that follow its data.
+     */
+    void finishObject() throws IOException, EDIStreamException {
+        Token token;
+
+        while ((token = next()) == Token.KEY) {
+            skip(next());
+        }
+
+        expect(token, Token.END_OBJECT);
+    }
+
+    void skip(Token token) throws IOException, EDIStreamException {
+        int depth = depth(token);
+
+        while (depth > 0) {
+            depth += depth(next());
+        }
+    }
+
+    static int depth(Token token) {
+        switch (token) {
+        case START_OBJECT:
+        case START_ARRAY:
+            return 1;
+        case END_OBJECT:
+        case END_ARRAY:
+            return -1;
+        default:
+            return 0;
+        }
+    }
+
+    Structure structure(String type) throws EDIStreamException {
+        if (type != null) {
+            for (Structure structure : Structure.values()) {
+                if (structure.type.equals(type)) {
+                    return structure;
+                }
+            }
+        }
+
+        throw new EDIStreamException("Invalid structure type: " + type, ediWriter.getLocation());
+    }
+
+    void startStructure(Structure structure, String name) throws EDIStreamException {
+        final Structure parent = structures.peek();
+
+        switch (structure) {
+        case LOOP:
+            if (parent == null) {
+                ediWriter.startInterchange();
+            } else if (parent != Structure.LOOP) {
+                throw new EDIStreamException("Loop " + name + " not permitted in a " + parent.type, ediWriter.getLocation());
+            }
+            // Groups, transactions, and loops are derived from the segments
+            break;
+        case SEGMENT:
+            if (parent != Structure.LOOP) {
+                throw new EDIStreamException("Segment " + name + " must be within a loop", ediWriter.getLocation());
+            }
+            ediWriter.writeStartSegment(name);
+            break;
+        default:
+            if (parent != Structure.SEGMENT) {
+                throw new EDIStreamException("Composite " + name + " must be within a segment", ediWriter.getLocation());
+            }
+            ediWriter.writeStartElement();
+            break;
+        }
+
+        structures.push(structure);
+    }
+
+    void endStructure(Structure structure) throws EDIStreamException {
+        switch (structure) {
+        case LOOP:
+            if (structures.isEmpty()) {
+                ediWriter.endInterchange();
+            }
+            break;
+        case SEGMENT:
+            ediWriter.writeEndSegment();
+            break;
+        default:
+            ediWriter.endElement();
+            break;
+        }
+    }
+
+    /**
+     * Write a scalar value as a simple element of the current segment or as
+     * a component of the current composite.
+     */
+    void writeValue(Token token) throws IOException, EDIStreamException {
+        final Structure parent = structures.peek();
+        final boolean component;
+
+        if (parent == Structure.SEGMENT) {
+            component = false;
+        } else if (parent == Structure.COMPOSITE) {
+            component = true;
+        } else {
+            throw unexpected(token);
+        }
+
+        switch (token) {
+        case NULL:
+            writeEmpty(component);
+            break;
+        case STRING:
+            writeText(getText(), component);
+            break;
+        case TRUE:
+        case FALSE:
+            writeText(token == Token.TRUE ? "true" : "false", component);
+            break;
+        case NUMBER:
+            writeNumber(component);
+            break;
+        default:
+            throw unexpected(token);
+        }
+    }
+
+    void writeEmpty(boolean component) throws EDIStreamException {
+        if (component) {
+            ediWriter.writeEmptyComponent();
+        } else {
+            ediWriter.writeEmptyElement();
+        }
+    }
+
+    void writeText(CharSequence text, boolean component) throws EDIStreamException {
+        if (text.length() == 0) {
+            writeEmpty(component);
+        } else if (component) {
+            ediWriter.writeComponent(text);
+        } else {
+            ediWriter.writeElement(text);
+        }
+    }
+
+    void writeNumber(boolean component) throws IOException, EDIStreamException {
+        if (isLongNumber()) {
+            final long value = getLong();
+
+            if (component) {
+                ediWriter.writeComponent(value);
+            } else {
+                ediWriter.writeElement(value);
+            }
+        } else {
+            final BigDecimal value = getBigDecimal();
+
+            if (component) {
+                ediWriter.writeComponent(value);
+            } else {
+                ediWriter.writeElement(value);
+            }
+        }
+    }
+}
@@ -0,0 +1,284 @@
+/*******************************************************************************
+ * Copyright 2023 xlate.io LLC, http://www.xlate.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package io.xlate.edi.internal.stream.json;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+
+import io.xlate.edi.internal.stream.Base64ChunkEncoder;
+import io.xlate.edi.stream.EDIStreamReader;
+
+/**
+ * Writes the JSON directly to an output stream as UTF-8 (compact, without
+ * whitespace). The fixed keys and type values of each structure are encoded
+ * once as byte tokens.
+ */
+final class StaEDIJsonUtf8Writer extends StaEDIJsonWriter {
+
+    private static final byte[] HEX = bytes("0123456789abcdef");
+    private static final byte[] STRUCTURE_START = bytes("{\"" + KEY_NAME + "\":");
+    private static final byte[] STRUCTURE_END = bytes("]}");
+    private static final byte[] ELEMENT_START = bytes("{\"" + KEY_TYPE + "\":\"" + TYPE_ELEMENT + "\",\"" + KEY_DATA + "\":");
+    private static final byte[] NULL = bytes("null");
+    private static final Map<Structure, byte[]> STRUCTURE_TYPES = new EnumMap<>(Structure.class);
+
+    static {
+        for (Structure structure : Structure.values()) {
+            STRUCTURE_TYPES.put(structure, bytes(",\"" + KEY_TYPE + "\":\"" + structure.type + "\",\"" + KEY_DATA + "\":["));
+        }
+    }
+
+    private final OutputStream stream;
+    private final byte[] buffer = new byte[8192];
+    private int position = 0;
+
+    // The next value in the current array must be preceded by a comma
+    private boolean separatorRequired = false;
+    private Base64ChunkEncoder binaryEncoder;
+    private final byte[] numberDigits = new byte[20];
+
+    StaEDIJsonUtf8Writer(EDIStreamReader ediReader, Map<String, Object> properties, OutputStream stream) {
+        super(ediReader, properties);
+        this.stream = stream;
+    }
+
+    static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    void writeStructureStart(Structure structure, String name) throws IOException {
+        writeSeparator();
+        write(STRUCTURE_START);
+        writeQuoted(name);
+        write(STRUCTURE_TYPES.get(structure));
+        separatorRequired = false;
+    }
+
+    @Override
+    void writeStructureEnd() throws IOException {
+        write(STRUCTURE_END);
+        separatorRequired = true;
+    }
+
+    @Override
+    void writeElementStart() throws IOException {
+        writeSeparator();
+        write(ELEMENT_START);
+        separatorRequired = false;
+    }
+
+    @Override
+    void writeElementEnd() throws IOException {
+        write('}');
+        separatorRequired = true;
+    }
+
+    @Override
+    void writeString(String value) throws IOException {
+        writeSeparator();
+        writeQuoted(value);
+        separatorRequired = true;
+    }
+
+    @Override
+    void writeNumber(BigDecimal value) throws IOException {
+        writeSeparator();
+        String text = value.toString();
+
+        for (int i = 0, m = text.length(); i < m; i++) {
+            write(text.charAt(i));
+        }
+
+        separatorRequired = true;
+    }
+
+    @Override
+    void writeNumber(long unscaled, int scale) throws IOException {
+        writeSeparator();
+
+        // Digits of the unscaled value in reverse order
+        final byte[] digits = numberDigits;
+        int count = 0;
+        long remaining = unscaled;
+
+        do {
+            digits[count++] = (byte) ('0' + Math.abs(remaining % 10));
+            remaining /= 10;
+        } while (remaining != 0);
+
+        if (unscaled < 0) {
+            write('-');
+        }
+
+        final int integerDigits = count - scale;
+
+        if (integerDigits <= 0) {
+            write('0');
+            write('.');
+
+            for (int i = integerDigits; i < 0; i++) {
+                write('0');
+            }
+        }
+
+        for (int i = count - 1; i >= 0; i--) {
+            if (i == scale - 1 && integerDigits > 0) {
+                write('.');
+            }
+            write(digits[i]);
+        }
+
+        separatorRequired = true;
+    }
+
+    @Override
+    void writeNull() throws IOException {
+        writeSeparator();
+        write(NULL);
+        separatorRequired = true;
+    }
+
+    @Override
+    void writeBinary(InputStream value) throws IOException {
+        if (binaryEncoder == null) {
+            binaryEncoder = new Base64ChunkEncoder();
+        }
+
+        writeSeparator();
+        write('"');
+        binaryEncoder.setSource(value);
+
+        while (!binaryEncoder.isComplete()) {
+            final char[] chars = binaryEncoder.getChars();
+
+            for (int i = 0, m = binaryEncoder.encodeNext(); i < m; i++) {
+                write(chars[i]);
+            }
+        }
+
+        write('"');
+        separatorRequired = true;
+    }
+
+    @Override
+    void flush() throws IOException {
+        stream.write(buffer, 0, position);
+        position = 0;
+        stream.flush();
+    }
+
+    void writeSeparator() throws IOException {
+        if (separatorRequired) {
+            write(',');
+        }
+    }
+
+    /**
+     * Write the value as a JSON string, escaped and encoded as UTF-8.
+     */
+    void writeQuoted(String value) throws IOException {
+        if (value == null) {
+            write(NULL);
+            return;
+        }
+
+        write('"');
+
+        for (int i = 0, m = value.length(); i < m; i++) {
+            final char c = value.charAt(i);
+
+            if (c < 0x80) {
+                if (c < 0x20) {
+                    writeControl(c);
+                } else {
+                    if (c == '"' || c == '\\') {
+                        write('\\');
+                    }
+                    write(c);
+                }
+            } else if (c < 0x800) {
+                write(0xC0 | (c >> 6));
+                write(0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < m && Character.isLowSurrogate(value.charAt(i + 1))) {
+                final int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                write(0xF0 | (codePoint >> 18));
+                write(0x80 | ((codePoint >> 12) & 0x3F));
+                write(0x80 | ((codePoint >> 6) & 0x3F));
+                write(0x80 | (codePoint & 0x3F));
+            } else {
+                write(0xE0 | (c >> 12));
+                write(0x80 | ((c >> 6) & 0x3F));
+                write(0x80 | (c & 0x3F));
+            }
+        }
+
+        write('"');
+    }
+
+    void writeControl(char c) throws IOException {
+        write('\\');
+
+        switch (c) {
+        case '\b':
+            write('b');
+            break;
+        case '\f':
+            write('f');
+            break;
+        case '\n':
+            write('n');
+            break;
+        case '\r':
+            write('r');
+            break;
+        case '\t':
+            write('t');
+            break;
+        default:
+            write('u');
+            write('0');
+            write('0');
+            write(HEX[c >> 4]);
+            write(HEX[c & 0xF]);
+            break;
+        }
+    }
+
+    void write(int b) throws IOException {
+        if (position == buffer.length) {
+            stream.write(buffer, 0, position);
+            position = 0;
+        }
+
+        buffer[position++] = (byte) b;
+    }
+
+    void write(byte[] bytes) throws IOException {
+        if (bytes.length > buffer.length - position) {
+            stream.write(buffer, 0, position);
+            position = 0;
+        }
+
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+}
@@ -0,0 +1,239 @@
+/*******************************************************************************
+ * Copyright 2023 xlate.io LLC, http://www.xlate.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package io.xlate.edi.internal.stream.json;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.Map;
+
+import io.xlate.edi.internal.stream.Configurable;
+import io.xlate.edi.schema.EDIReference;
+import io.xlate.edi.schema.EDISimpleType;
+import io.xlate.edi.stream.EDIInputFactory;
+import io.xlate.edi.stream.EDIStreamEvent;
+import io.xlate.edi.stream.EDIStreamException;
+import io.xlate.edi.stream.EDIStreamReader;
+import io.xlate.edi.stream.EDIValidationException;
+
+/**
+ * Push-style counterpart of {@link StaEDIJsonParser}. The events of the EDI
+ * reader are written directly to a JSON generator (or UTF-8 output) in the
+ * same layout produced by the JSON parsers, without queuing intermediate
+ * events and values.
+ */
+abstract class StaEDIJsonWriter implements Configurable {
+
+    static final String MSG_EXCEPTION = "Exception writing the EDI stream as JSON";
+
+    static final String KEY_TYPE = StaEDIJsonParser.KEY_TYPE;
+    static final String KEY_NAME = StaEDIJsonParser.KEY_NAME;
+    static final String KEY_DATA = StaEDIJsonParser.KEY_DATA;
+    static final String TYPE_ELEMENT = "element";
+
+    enum Structure {
+        LOOP("loop"),
+        SEGMENT("segment"),
+        COMPOSITE("composite");
+
+        final String type;
+
+        Structure(String type) {
+            this.type = type;
+        }
+    }
+
+    protected final EDIStreamReader ediReader;
+    protected final Map<String, Object> properties;
+    protected final boolean emptyElementsNull;
+    protected final boolean elementsAsObject;
+
+    final JsonNumberParser numberParser;
+
+    StaEDIJsonWriter(EDIStreamReader ediReader, Map<String, Object> properties) {
+        this.ediReader = ediReader;
+        this.properties = properties;
+        this.numberParser = new JsonNumberParser(ediReader);
+        this.emptyElementsNull = getProperty(EDIInputFactory.JSON_NULL_EMPTY_ELEMENTS, Boolean::parseBoolean, false);
+        this.elementsAsObject = getProperty(EDIInputFactory.JSON_OBJECT_ELEMENTS, Boolean::parseBoolean, false);
+    }
+
+    @Override
+    public Object getProperty(String name) {
+        return properties.get(name);
+    }
+
+    /**
+     * Begin an object with the name, type, and (opened) data array of a loop,
+     * segment, or composite.
+     */
+    abstract void writeStructureStart(Structure structure, String name) throws IOException;
+
+    /**
+     * Close the data array and object of a loop, segment, or composite.
+     */
+    abstract void writeStructureEnd() throws IOException;
+
+    /**
+     * Begin an element object with its type and the key of its data, used
+     * only when elements are written as objects.
+     */
+    abstract void writeElementStart() throws IOException;
+
+    abstract void writeElementEnd() throws IOException;
+
+    abstract void writeString(String value) throws IOException;
+
+    abstract void writeNumber(BigDecimal value) throws IOException;
+
+    /**
+     * Write a number held as an unscaled long value and a (non-negative)
+     * scale. Implementations may override to avoid creating a
+     * {@link BigDecimal}.
+     */
+    void writeNumber(long unscaled, int scale) throws IOException {
+        writeNumber(BigDecimal.valueOf(unscaled, scale));
+    }
+
+    abstract void writeNull() throws IOException;
+
+    /**
+     * Write the binary data as a Base64 encoded string.
+     */
+    abstract void writeBinary(InputStream value) throws IOException;
+
+    abstract void flush() throws IOException;
+
+    /**
+     * Write the events of the reader until the end of the interchange. The
+     * reader should be positioned before the start of an interchange or at the
+     * start of an interchange.
+     */
+    void write() throws EDIStreamException {
+        try {
+            EDIStreamEvent event;
+
+            if (ediReader.getEventType() == EDIStreamEvent.START_INTERCHANGE) {
+                event = EDIStreamEvent.START_INTERCHANGE;
+            } else {
+                event = ediReader.next();
+            }
+
+            while (true) {
+                writeEvent(event);
+
+                if (event == EDIStreamEvent.END_INTERCHANGE || !ediReader.hasNext()) {
+                    break;
+                }
+
+                event = ediReader.next();
+            }
+
+            flush();
+        } catch (IOException | RuntimeException e) {
+            throw new EDIStreamException(MSG_EXCEPTION, ediReader.getLocation(), e);
+        }
+    }
+
+    void writeEvent(EDIStreamEvent ediEvent) throws IOException, EDIStreamException {
+        switch (ediEvent) {
+        case ELEMENT_DATA:
+            writeDataElement(false);
+            break;
+        case ELEMENT_DATA_BINARY:
+            writeDataElement(true);
+            break;
+        case START_INTERCHANGE:
+            numberParser.reset();
+            writeStructureStart(Structure.LOOP, "INTERCHANGE");
+            break;
+        case START_GROUP:
+        case START_TRANSACTION:
+        case START_LOOP:
+            writeStructureStart(Structure.LOOP, ediReader.getReferenceCode());
+            break;
+        case START_SEGMENT:
+            writeStructureStart(Structure.SEGMENT, ediReader.getText());
+            break;
+        case START_COMPOSITE:
+            writeStructureStart(Structure.COMPOSITE, ediReader.getReferenceCode());
+            break;
+
+        case END_INTERCHANGE:
+        case END_GROUP:
+        case END_TRANSACTION:
+        case END_LOOP:
+        case END_SEGMENT:
+        case END_COMPOSITE:
+            writeStructureEnd();
+            break;
+
+        case SEGMENT_ERROR:
+        case ELEMENT_OCCURRENCE_ERROR:
+        case ELEMENT_DATA_ERROR:
+            Throwable cause = new EDIValidationException(ediEvent, ediReader.getErrorType(), ediReader.getLocation(), ediReader.getText());
+            throw new EDIStreamException("Unhandled EDI validation error", ediReader.getLocation(), cause);
+
+        default:
+            throw new IllegalStateException("Unknown state: " + ediEvent);
+        }
+    }
+
+    void writeDataElement(boolean binaryData) throws IOException {
+        EDIReference referencedType = ediReader.getSchemaTypeReference();
+        EDISimpleType elementType = null;
+
+        if (referencedType != null) {
+            elementType = (EDISimpleType) referencedType.getReferencedType();
+        }
+
+        if (elementsAsObject) {
+            writeElementStart();
+        }
+
+        if (elementType != null && binaryData) {
+            writeBinary(ediReader.getBinaryData());
+        } else {
+            writeElementText(elementType, ediReader.hasText() ? ediReader.getText() : "");
+        }
+
+        if (elementsAsObject) {
+            writeElementEnd();
+        }
+    }
+
+    void writeElementText(EDISimpleType elementType, String dataText) throws IOException {
+        if (elementType == null) {
+            writeString(dataText);
+        } else if (dataText.isEmpty()) {
+            if (this.emptyElementsNull) {
+                writeNull();
+            } else {
+                writeString(dataText);
+            }
+        } else if (JsonNumberParser.isNumber(elementType)) {
+            if (!numberParser.parse(elementType)) {
+                writeString(dataText);
+            } else if (numberParser.isCompact()) {
+                writeNumber(numberParser.getUnscaled(), numberParser.getScale());
+            } else {
+                writeNumber(numberParser.getBigDecimal());
+            }
+        } else {
+            writeString(dataText);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*******************************************************************************
+ * Copyright 2023 xlate.io LLC, http://www.xlate.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package io.xlate.edi.internal.stream.tokenization;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import io.xlate.edi.stream.EDIStreamFilterSpec;
+
+/**
+ * The content of interest of an {@link EDIStreamFilterSpec}, copied when the
+ * specification is applied to a reader. Element and component positions are
+ * held as bit sets for the checks made for each element read.
+ */
+final class ContentFilter {
+
+    private final Set<String> segments;
+    private final Set<String> transactionTypes;
+    private final Map<String, BitSet> elements = new HashMap<>();
+    private final Map<String, Map<Integer, BitSet>> components = new HashMap<>();
+
+    ContentFilter(EDIStreamFilterSpec spec) {
+        segments = new HashSet<>(spec.getSegments());
+        transactionTypes = new HashSet<>(spec.getTransactionTypes());
+
+        spec.getElements().forEach((tag, positions) -> {
+            elements.put(tag, toBitSet(positions));
+
+            Map<Integer, BitSet> segmentComponents = new HashMap<>();
+            spec.getComponents(tag).forEach((element, componentPositions) -> segmentComponents.put(element, toBitSet(componentPositions)));
+
+            if (!segmentComponents.isEmpty()) {
+                components.put(tag, segmentComponents);
+            }
+        });
+    }
+
+    static BitSet toBitSet(Set<Integer> positions) {
+        BitSet result = new BitSet();
+        positions.forEach(result::set);
+        return result;
+    }
+
+    /**
+     * @param tag
+     *            segment tag
+     * @return true if segments with the tag are of interest
+     */
+    boolean acceptsSegment(String tag) {
+        return segments.isEmpty() || segments.contains(tag);
+    }
+
+    /**
+     * @return true if only some transaction types are of interest
+     */
+    boolean isTransactionTypeFiltered() {
+        return !transactionTypes.isEmpty();
+    }
+
+    /**
+     * @param type
+     *            transaction type
+     * @return true if transactions of the type are of interest
+     */
+    boolean acceptsTransaction(String type) {
+        return transactionTypes.isEmpty() || transactionTypes.contains(type);
+    }
+
+    /**
+     * @param tag
+     *            segment tag
+     * @return true if only some elements of segments with the tag are of
+     *         interest
+     */
+    boolean isElementFiltered(String tag) {
+        return elements.containsKey(tag);
+    }
+
+    /**
+     * @param tag
+     *            segment tag
+     * @param position
+     *            1-based element position
+     * @return true if the element at the position is of interest
+     */
+    boolean acceptsElement(String tag, int position) {
+        BitSet accepted = elements.get(tag);
+        return accepted == null || accepted.get(position) || getComponents(tag, position) != null;
+    }
+
+    /**
+     * @param tag
+     *            segment tag
+     * @param element
+     *            1-based element position
+     * @param position
+     *            1-based component position
+     * @return true if the component at the position of the element is of
+     *         interest
+     */
+    boolean acceptsComponent(String tag, int element, int position) {
+        BitSet accepted = elements.get(tag);
+
+        if (accepted == null || accepted.get(element)) {
+            return true;
+        }
+
+        BitSet acceptedComponents = getComponents(tag, element);
+        return acceptedComponents != null && acceptedComponents.get(position);
+    }
+
+    BitSet getComponents(String tag, int element) {
+        Map<Integer, BitSet> segmentComponents = components.get(tag);
+        return segmentComponents != null ? segmentComponents.get(element) : null;
+    }
+}
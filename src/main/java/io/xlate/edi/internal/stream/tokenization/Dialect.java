@@ -139,6 +139,20 @@ public abstract class Dialect {
         updateTransactionVersionString(transactionVersion);
     }
 
+    /**
+     * Copy the current transaction type and version from another dialect
+     * instance of the same standard. Used when a transaction is written on a
+     * separate writer from the one that wrote the enclosing envelope.
+     *
+     * @param source
+     *            the dialect from which to copy the transaction context
+     */
+    public void copyTransactionContext(Dialect source) {
+        transactionType = source.transactionType;
+        System.arraycopy(source.transactionVersion, 0, transactionVersion, 0, transactionVersion.length);
+        updateTransactionVersionString(source.getTransactionVersion());
+    }
+
     /**
      * Notify the dialect that a transaction is complete.
      */
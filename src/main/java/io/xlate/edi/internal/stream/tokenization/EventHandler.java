@@ -29,4 +29,15 @@ public interface EventHandler extends ElementDataHandler, ValidationEventHandler
 
     boolean compositeEnd(boolean isNil);
 
+    /**
+     * Indicates whether the content of the segment most recently begun may be
+     * scanned for the segment terminator without producing element or
+     * composite notifications, e.g. within a skipped transaction.
+     *
+     * @return true if the remainder of the current segment is not needed
+     */
+    default boolean isSegmentScanned() {
+        return false;
+    }
+
 }
@@ -58,18 +58,25 @@ public class Lexer {
     private final Deque<Integer> startQueue = new ArrayDeque<>(20);
     private final Deque<Integer> lengthQueue = new ArrayDeque<>(20);
 
-    private final InputStream stream;
+    private InputStream stream;
     private CharsetDecoder decoder;
     private char[] readChar = new char[1];
     private CharBuffer readCharBuf = CharBuffer.wrap(readChar);
     private ByteBuffer readByteBuf = ByteBuffer.allocate(4);
     private CharArraySequence elementHolder = new CharArraySequence();
 
+    private final EventHandler handler;
     private final StaEDIStreamLocation location;
+    private final boolean offsetTracked;
+    private final boolean linesRecorded;
     private final CharacterSet characters;
     private CharBuffer buffer = CharBuffer.allocate(4096);
     private Dialect dialect;
 
+    private StringBuilder rawSegment;
+    private boolean rawSegmentComplete;
+    private boolean rawSegmentPartial;
+
     private long binaryRemain = -1;
     private InputStream binaryStream = null;
 
@@ -82,16 +89,32 @@ public class Lexer {
     private Notifier en;
     private Notifier bn;
 
-    public Lexer(InputStream stream, Charset charset, EventHandler handler, StaEDIStreamLocation location, boolean extraneousIgnored) {
-        if (stream.markSupported()) {
-            this.stream = stream;
-        } else {
-            this.stream = new BufferedInputStream(stream);
+    /**
+     * Buffered stream that may be given a new source, allowing the buffer to
+     * be reused when the lexer is reset.
+     */
+    static class ReusableBufferedInputStream extends BufferedInputStream {
+        ReusableBufferedInputStream(InputStream source) {
+            super(source);
         }
 
+        void setSource(InputStream source) {
+            this.in = source;
+            this.pos = 0;
+            this.count = 0;
+            this.markpos = -1;
+            this.marklimit = 0;
+        }
+    }
+
+    public Lexer(InputStream stream, Charset charset, EventHandler handler, StaEDIStreamLocation location, boolean extraneousIgnored) {
+        setStream(stream);
         this.decoder = charset.newDecoder();
 
+        this.handler = handler;
         this.location = location;
+        this.offsetTracked = location.isOffsetTracked();
+        this.linesRecorded = location.getTracking() == StaEDIStreamLocation.Tracking.OFFSET;
         this.characters = new CharacterSet(extraneousIgnored);
 
         isn = (notifyState, start, length) -> {
@@ -123,10 +146,102 @@ public class Lexer {
 
     }
 
+    private void setStream(InputStream stream) {
+        if (stream.markSupported()) {
+            this.stream = stream;
+        } else if (this.stream instanceof ReusableBufferedInputStream) {
+            ((ReusableBufferedInputStream) this.stream).setSource(stream);
+        } else {
+            this.stream = new ReusableBufferedInputStream(stream);
+        }
+    }
+
+    /**
+     * Prepare to read a new input from the beginning, retaining the lexer's
+     * buffers.
+     *
+     * @param stream the new input
+     * @param charset character set of the new input
+     */
+    public void reset(InputStream stream, Charset charset) {
+        setStream(stream);
+
+        if (decoder.charset().equals(charset)) {
+            decoder.reset();
+        } else {
+            decoder = charset.newDecoder();
+        }
+
+        modes.clear();
+        input = 0;
+        state = State.INITIAL;
+        previous = null;
+        clearQueues();
+        buffer.clear();
+        dialect = null;
+        characters.reset();
+
+        if (rawSegment != null) {
+            rawSegment.setLength(0);
+        }
+
+        rawSegmentComplete = false;
+        rawSegmentPartial = false;
+        binaryRemain = -1;
+        binaryStream = null;
+    }
+
+    /**
+     * Release the current input (and the stream of any binary element) while
+     * retaining the lexer's buffers. The lexer must be reset before it is
+     * used again.
+     */
+    public void detach() {
+        if (stream instanceof ReusableBufferedInputStream) {
+            ((ReusableBufferedInputStream) stream).setSource(null);
+        } else {
+            stream = null;
+        }
+
+        binaryStream = null;
+    }
+
     public Dialect getDialect() {
         return dialect;
     }
 
+    /**
+     * Enable or disable capture of the raw text of each segment, as read from
+     * the input with delimiters and release characters intact.
+     *
+     * @param enabled true to capture the raw text of segments
+     */
+    public void setRawSegmentCapture(boolean enabled) {
+        if (enabled) {
+            if (rawSegment == null) {
+                rawSegment = new StringBuilder(256);
+            }
+            // Start of a segment already read will not be captured
+            rawSegmentPartial = modes.peek() == Mode.SEGMENT || modes.peek() == Mode.COMPOSITE;
+            rawSegment.setLength(0);
+        } else {
+            rawSegment = null;
+        }
+        rawSegmentComplete = false;
+    }
+
+    /**
+     * Retrieve the raw text of the most recently completed segment, including
+     * the segment terminator. The text is available until the lexer reads the
+     * next character of input.
+     *
+     * @return the raw text of the segment, or null when capture is not
+     *         enabled or the current segment is not yet complete
+     */
+    public CharSequence getRawSegment() {
+        return rawSegmentComplete && !rawSegmentPartial ? rawSegment : null;
+    }
+
     public void invalidate() {
         if (state != State.INVALID) {
             previous = state;
@@ -144,16 +259,43 @@ public class Lexer {
 
                 if (binaryRemain-- < 1 || (binaryInput = stream.read()) < 0) {
                     state = State.ELEMENT_END_BINARY;
-                } else {
+                } else if (offsetTracked) {
                     location.incrementOffset(binaryInput);
                 }
 
                 return binaryInput;
             }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                if (len == 0) {
+                    return 0;
+                }
+
+                int amount = -1;
+
+                if (binaryRemain < 1 || (amount = stream.read(b, off, (int) Math.min(len, binaryRemain))) < 0) {
+                    binaryRemain--;
+                    state = State.ELEMENT_END_BINARY;
+                    return -1;
+                }
+
+                binaryRemain -= amount;
+
+                if (offsetTracked) {
+                    for (int i = off, m = off + amount; i < m; i++) {
+                        location.incrementOffset(b[i] & 0xFF);
+                    }
+                }
+
+                return amount;
+            }
         };
 
         enqueue(bn, 0);
         state = State.ELEMENT_DATA_BINARY;
+        // Binary data is not read as characters and can not be captured
+        rawSegmentPartial = true;
     }
 
     public boolean hasRemaining() throws IOException {
@@ -190,17 +332,24 @@ public class Lexer {
         boolean eventsReady = false;
 
         while (!eventsReady && (input = inputSource.getAsInt()) > -1) {
-            location.incrementOffset(input);
+            if (offsetTracked) {
+                location.incrementOffset(input);
+            }
 
             CharacterClass clazz = characters.getClass(input);
             previous = state;
             state = State.transition(state, dialect, clazz);
             LOGGER.finer(() -> String.format("%s + (%s, '%s', %s) -> %s", previous, Dialect.getStandard(dialect), (char) input, clazz, state));
 
+            if (rawSegment != null) {
+                captureRaw(input);
+            }
+
             switch (state) {
             case INITIAL:
             case TAG_SEARCH:
             case HEADER_EDIFACT_UNB_SEARCH:
+                segmentBoundary(input);
                 break;
             case HEADER_X12_I:
             case HEADER_X12_S:
@@ -247,6 +396,7 @@ public class Lexer {
                 break;
             case HEADER_DATA:
             case HEADER_INVALID_DATA:
+                segmentBoundary(input);
                 handleStateHeaderData(input);
                 eventsReady = dialectConfirmed(State.TAG_SEARCH);
                 break;
@@ -269,12 +419,18 @@ public class Lexer {
             case TRAILER_BEGIN:
                 openSegment();
                 eventsReady = nextEvent();
+
+                if (!eventsReady && rawSegment == null && handler.isSegmentScanned()) {
+                    eventsReady = scanSegment(inputSource);
+                }
                 break;
             case SEGMENT_END:
+                segmentBoundary(input);
                 closeSegment();
                 eventsReady = nextEvent();
                 break;
             case SEGMENT_EMPTY:
+                segmentBoundary(input);
                 emptySegment();
                 eventsReady = nextEvent();
                 break;
@@ -289,11 +445,13 @@ public class Lexer {
                 eventsReady = nextEvent();
                 break;
             case INTERCHANGE_END:
+                segmentBoundary(input);
                 closeInterchange();
                 eventsReady = nextEvent();
                 break;
             default:
                 if (characters.isIgnored(input)) {
+                    segmentBoundary(input);
                     state = previous;
                 } else if (clazz != CharacterClass.INVALID) {
                     throw invalidStateError();
@@ -308,6 +466,73 @@ public class Lexer {
         }
     }
 
+    /**
+     * Read the remainder of a segment that will not produce any element
+     * events, only looking for the (unreleased) segment terminator.
+     */
+    boolean scanSegment(IntSupplier inputSource) throws EDIException {
+        boolean released = false;
+
+        while ((input = inputSource.getAsInt()) > -1) {
+            if (offsetTracked) {
+                location.incrementOffset(input);
+            }
+
+            if (released) {
+                released = false;
+                continue;
+            }
+
+            switch (characters.getClass(input)) {
+            case RELEASE_CHARACTER:
+                released = true;
+                break;
+            case SEGMENT_DELIMITER:
+                segmentBoundary(input);
+                previous = state;
+                state = State.SEGMENT_END;
+                popMode(Mode.SEGMENT);
+                enqueue(sen, 0);
+                return nextEvent();
+            default:
+                break;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Record a line break found between segments or as a segment terminator
+     * when only the character offset is tracked for each character.
+     */
+    void segmentBoundary(int input) {
+        if (linesRecorded && input == '\n') {
+            location.incrementLine();
+        }
+    }
+
+    void captureRaw(int input) {
+        if (rawSegmentComplete) {
+            rawSegment.setLength(0);
+            rawSegmentComplete = false;
+            rawSegmentPartial = false;
+        }
+
+        switch (state) {
+        case INITIAL:
+        case TAG_SEARCH:
+        case HEADER_EDIFACT_UNB_SEARCH:
+            // Whitespace between segments is not part of the segment
+            break;
+        default:
+            if (!characters.isIgnored(input)) {
+                rawSegment.append((char) input);
+            }
+            break;
+        }
+    }
+
     int readCharacterUnchecked() {
         try {
             return readCharacter();
@@ -467,11 +692,11 @@ public class Lexer {
     }
 
     private boolean nextEvent() {
-        Notifier event = events.peek();
         boolean eventsReady = false;
 
-        if (event != null) {
-            events.remove();
+        // Notifiers not producing events (e.g. skipped segments) must not accumulate
+        while (!eventsReady && !events.isEmpty()) {
+            Notifier event = events.remove();
             State nextState = stateQueue.remove();
             int start = startQueue.remove();
             int length = lengthQueue.remove();
@@ -530,12 +755,14 @@ public class Lexer {
         handleElement();
         popMode(Mode.SEGMENT);
         enqueue(sen, 0);
+        rawSegmentComplete = rawSegment != null;
     }
 
     private void emptySegment() throws EDIException {
         openSegment();
         popMode(Mode.SEGMENT);
         enqueue(sen, 0);
+        rawSegmentComplete = rawSegment != null;
     }
 
     private void handleElement() throws EDIException {
@@ -28,12 +28,15 @@ import java.util.function.Function;
 import io.xlate.edi.internal.stream.StaEDIStreamLocation;
 import io.xlate.edi.internal.stream.validation.UsageError;
 import io.xlate.edi.internal.stream.validation.Validator;
+import io.xlate.edi.schema.EDIComplexType;
 import io.xlate.edi.schema.EDIElementPosition;
 import io.xlate.edi.schema.EDILoopType;
 import io.xlate.edi.schema.EDIReference;
+import io.xlate.edi.schema.EDISimpleType;
 import io.xlate.edi.schema.EDIType;
 import io.xlate.edi.schema.Schema;
 import io.xlate.edi.stream.EDIStreamEvent;
+import io.xlate.edi.stream.EDIStreamFilterSpec;
 import io.xlate.edi.stream.EDIStreamValidationError;
 import io.xlate.edi.stream.Location;
 
@@ -47,15 +50,61 @@ public class ProxyEventHandler implements EventHandler {
 
     private Schema controlSchema;
     private Validator controlValidator;
+    private boolean controlCodeValuesValidated;
 
     private Schema transactionSchema;
     private Validator transactionValidator;
 
+    /*
+     * Validators retained by `reset` for use with the next input when it is
+     * read using the same schemas.
+     */
+    private Schema recycledControlSchema;
+    private Validator recycledControlValidator;
+    private boolean recycledControlCodeValuesValidated;
+    private Schema recycledTransactionSchema;
+    private Schema recycledTransactionContainer;
+    private Validator recycledTransactionValidator;
+
     private boolean transactionSchemaAllowed = false;
     private boolean transaction = false;
 
     private InputStream binary;
     private String segmentTag;
+    private EDIReference segmentReference;
+    private boolean segmentOpen;
+
+    /*
+     * Skipped content: the elements of a skipped segment are not validated and
+     * no events are generated for them. Segments of a skipped loop are still
+     * validated to find the end of the loop, but no events are generated for
+     * them or for nested loops - the END_LOOP of the skipped loop is the only
+     * event. Events of a segment pending implementation discrimination within
+     * a skipped loop are discarded from the queue position kept when the
+     * segment began. Segments of a skipped transaction are only counted until
+     * the transaction trailer is found.
+     */
+    private boolean segmentSkipped;
+    private int skippedLoopDepth;
+    private int skippedSegmentIndex;
+    private boolean transactionSkipped;
+    private boolean envelopeOnly;
+
+    /*
+     * Filtered content: events are not generated for segments, elements, and
+     * transactions rejected by the filter specification. The queue position of
+     * a filtered segment is kept for the placement of hierarchical levels
+     * completed by the segment. The events of a transaction are held until its
+     * type is known at the end of the header segment.
+     */
+    private ContentFilter filter;
+    private boolean segmentFiltered;
+    private int filteredSegmentIndex;
+    private boolean compositeFiltered;
+    private boolean transactionPending;
+    private int transactionStart;
+    private boolean transactionFiltered;
+    private final StreamEvent filteredEvent = new StreamEvent();
 
     private final Queue<StreamEvent> eventPool = new LinkedList<>();
     // Use implementation to access as both Deque & List
@@ -100,13 +149,137 @@ public class ProxyEventHandler implements EventHandler {
         }
 
         this.controlSchema = controlSchema;
-        controlValidator = Validator.forSchema(controlSchema, null, validateCodeValues, false);
+        this.controlCodeValuesValidated = validateCodeValues;
+
+        if (controlSchema != null
+                && controlSchema == recycledControlSchema
+                && validateCodeValues == recycledControlCodeValuesValidated) {
+            controlValidator = recycledControlValidator;
+            controlValidator.reset();
+        } else {
+            controlValidator = Validator.forSchema(controlSchema, null, validateCodeValues, false);
+        }
+    }
+
+    /**
+     * Return the handler to its initial state to receive the events of a new
+     * input. The filter specification is retained. The current validators are
+     * kept for re-use when the schemas given for the new input are unchanged.
+     */
+    public void reset() {
+        resetEvents();
+
+        if (controlValidator != null) {
+            recycledControlSchema = controlSchema;
+            recycledControlValidator = controlValidator;
+            recycledControlCodeValuesValidated = controlCodeValuesValidated;
+        }
+
+        if (transactionValidator != null) {
+            recycledTransactionSchema = transactionSchema;
+            recycledTransactionContainer = controlSchema;
+            recycledTransactionValidator = transactionValidator;
+        }
+
+        controlSchema = null;
+        controlValidator = null;
+        transactionSchema = null;
+        transactionValidator = null;
+
+        transactionSchemaAllowed = false;
+        transaction = false;
+        binary = null;
+        segmentTag = null;
+        segmentReference = null;
+        segmentOpen = false;
+
+        segmentSkipped = false;
+        skippedLoopDepth = 0;
+        skippedSegmentIndex = 0;
+        transactionSkipped = false;
+
+        segmentFiltered = false;
+        filteredSegmentIndex = 0;
+        compositeFiltered = false;
+        transactionPending = false;
+        transactionStart = 0;
+        transactionFiltered = false;
+
+        openLevels.clear();
+        levelCheckPending = false;
+        currentSegmentBegin = null;
+        startedLevel = null;
+        levelIdPosition = null;
+        startedLevelId = null;
+        parentIdPosition = null;
+        startedLevelParentId = null;
+
+        dialect = null;
     }
 
     public boolean isTransactionSchemaAllowed() {
         return transactionSchemaAllowed;
     }
 
+    /**
+     * Skip the remaining elements of the open segment, if any.
+     */
+    public void skipSegment() {
+        segmentSkipped = segmentOpen && isSkippable(segmentReference);
+    }
+
+    /**
+     * Skip the remaining content of the most recently started loop. The loop's
+     * first segment is the open segment, if any.
+     */
+    public void skipLoop() {
+        skipSegment();
+        skippedLoopDepth = 1;
+        skippedSegmentIndex = eventQueue.size();
+    }
+
+    /**
+     * Skip the segments following the header of the current transaction until
+     * the transaction trailer.
+     */
+    public void skipTransaction() {
+        transactionSkipped = true;
+    }
+
+    /**
+     * Skip the segments following the header of every transaction until the
+     * transaction trailer.
+     *
+     * @see #skipTransaction()
+     */
+    public void setEnvelopeOnly(boolean envelopeOnly) {
+        this.envelopeOnly = envelopeOnly;
+    }
+
+    @Override
+    public boolean isSegmentScanned() {
+        return segmentSkipped && transactionSkipped;
+    }
+
+    public void setFilterSpec(EDIStreamFilterSpec filterSpec) {
+        this.filter = filterSpec != null ? new ContentFilter(filterSpec) : null;
+    }
+
+    static boolean isSkippable(EDIReference segmentReference) {
+        if (segmentReference != null && segmentReference.getReferencedType() instanceof EDIComplexType) {
+            for (EDIReference reference : ((EDIComplexType) segmentReference.getReferencedType()).getReferences()) {
+                EDIType type = reference.getReferencedType();
+
+                if (type instanceof EDISimpleType && ((EDISimpleType) type).getBase() == EDISimpleType.Base.BINARY) {
+                    // Binary elements require the preceding length element be processed
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
     public Schema getTransactionSchema() {
         return this.transactionSchema;
     }
@@ -114,7 +287,15 @@ public class ProxyEventHandler implements EventHandler {
     public void setTransactionSchema(Schema transactionSchema) {
         if (!Objects.equals(this.transactionSchema, transactionSchema)) {
             this.transactionSchema = transactionSchema;
-            transactionValidator = Validator.forSchema(transactionSchema, controlSchema, true, false);
+
+            if (transactionSchema != null
+                    && transactionSchema == recycledTransactionSchema
+                    && controlSchema == recycledTransactionContainer) {
+                transactionValidator = recycledTransactionValidator;
+                transactionValidator.reset();
+            } else {
+                transactionValidator = Validator.forSchema(transactionSchema, controlSchema, true, false);
+            }
         }
     }
 
@@ -209,12 +390,26 @@ public class ProxyEventHandler implements EventHandler {
         if (LOOP_CODE_TRANSACTION.equals(loopCode)) {
             transaction = true;
             transactionSchemaAllowed = true;
+
+            if (filter != null && filter.isTransactionTypeFiltered()) {
+                transactionPending = true;
+                transactionStart = eventQueue.size();
+            }
+
             enqueueEvent(EDIStreamEvent.START_TRANSACTION, EDIStreamValidationError.NONE, null, typeReference, location);
             if (transactionValidator != null) {
                 transactionValidator.reset();
             }
+
+            if (envelopeOnly) {
+                // Header segment has begun, skipping starts with the next segment
+                transactionSkipped = true;
+            }
         } else if (LOOP_CODE_GROUP.equals(loopCode)) {
             enqueueEvent(EDIStreamEvent.START_GROUP, EDIStreamValidationError.NONE, null, typeReference, location);
+        } else if (skippedLoopDepth > 0) {
+            // Nested within a skipped loop, no events and never treated as a hierarchical level
+            skippedLoopDepth++;
         } else {
             enqueueEvent(EDIStreamEvent.START_LOOP, EDIStreamValidationError.NONE, null, typeReference, location);
 
@@ -232,6 +427,20 @@ public class ProxyEventHandler implements EventHandler {
     public void loopEnd(EDIReference typeReference) {
         final String loopCode = typeReference.getReferencedType().getCode();
 
+        if (skippedLoopDepth > 0 && !LOOP_CODE_TRANSACTION.equals(loopCode) && !LOOP_CODE_GROUP.equals(loopCode)) {
+            // Loop syntax is not validated for skipped loops, only the end of the skipped loop is reported
+            if (--skippedLoopDepth > 0) {
+                return;
+            }
+
+            if (nestHierarchicalLoops && isHierarchicalLoop(typeReference.getReferencedType())) {
+                levelCheckPending = true;
+            } else {
+                enqueueEvent(EDIStreamEvent.END_LOOP, EDIStreamValidationError.NONE, null, typeReference, location);
+            }
+            return;
+        }
+
         // Validator can not be null when a loopEnd event has been signaled.
         validator().validateLoopSyntax(this);
 
@@ -239,6 +448,7 @@ public class ProxyEventHandler implements EventHandler {
             transaction = false;
             dialect.transactionEnd();
             enqueueEvent(EDIStreamEvent.END_TRANSACTION, EDIStreamValidationError.NONE, null, typeReference, location);
+            transactionFiltered = false;
         } else if (LOOP_CODE_GROUP.equals(loopCode)) {
             dialect.groupEnd();
             enqueueEvent(EDIStreamEvent.END_GROUP, EDIStreamValidationError.NONE, null, typeReference, location);
@@ -253,13 +463,27 @@ public class ProxyEventHandler implements EventHandler {
     public boolean segmentBegin(String segmentTag) {
         location.incrementSegmentPosition(segmentTag);
         this.segmentTag = segmentTag;
+        this.segmentOpen = true;
+        this.segmentSkipped = false;
+        this.segmentFiltered = false;
 
         /*
          * If this is the start of a transaction, loopStart will be called from the validator and
          * transactionSchemaAllowed will be `true` for the duration of the start-transaction segment.
          */
         transactionSchemaAllowed = false;
-        Validator validator = validator();
+
+        if (transactionSkipped && !exitTransaction(segmentTag)) {
+            // Only the segment count is maintained within a skipped transaction
+            controlValidator.countSegment(segmentTag);
+            segmentReference = null;
+            segmentSkipped = true;
+            return false;
+        }
+
+        // The transaction validator has not seen the skipped segments and is not used for the trailer
+        Validator validator = transactionSkipped ? null : validator();
+        transactionSkipped = false;
         boolean eventsReady = true;
         EDIReference typeReference = null;
         clearLevelCheck();
@@ -288,9 +512,34 @@ public class ProxyEventHandler implements EventHandler {
             controlValidator.countSegment(segmentTag);
         }
 
-        enqueueEvent(EDIStreamEvent.START_SEGMENT, EDIStreamValidationError.NONE, segmentTag, typeReference, location);
-        currentSegmentBegin = eventQueue.getLast();
-        return !levelCheckPending && eventsReady;
+        segmentReference = typeReference;
+        // Segments pending implementation discrimination require their elements be validated
+        segmentSkipped = skippedLoopDepth > 0 && eventsReady && isSkippable(typeReference);
+
+        if (skippedLoopDepth > 0) {
+            skippedSegmentIndex = eventQueue.size();
+        } else if (filter != null && eventsReady && !filter.acceptsSegment(segmentTag) && isSkippable(typeReference)) {
+            segmentFiltered = true;
+            filteredSegmentIndex = eventQueue.size();
+        } else {
+            currentSegmentBegin = enqueueEvent(EDIStreamEvent.START_SEGMENT, EDIStreamValidationError.NONE, segmentTag, typeReference);
+            currentSegmentBegin.setLocation(location);
+        }
+
+        return eventsReady(eventsReady);
+    }
+
+    /**
+     * Events are released to the reader only when the complete set of events
+     * for the current position are known (hierarchical level, transaction type
+     * and filtered segment) and at least one event is available.
+     */
+    boolean eventsReady(boolean eventsReady) {
+        return eventsReady
+                && !levelCheckPending
+                && !transactionPending
+                && !segmentFiltered
+                && !eventQueue.isEmpty();
     }
 
     boolean exitTransaction(CharSequence tag) {
@@ -302,6 +551,12 @@ public class ProxyEventHandler implements EventHandler {
 
     @Override
     public boolean segmentEnd() {
+        segmentOpen = false;
+
+        if (segmentSkipped) {
+            return skippedSegmentEnd();
+        }
+
         Validator validator = validator();
         EDIReference typeReference = null;
 
@@ -317,8 +572,77 @@ public class ProxyEventHandler implements EventHandler {
         }
 
         location.clearSegmentLocations();
-        enqueueEvent(EDIStreamEvent.END_SEGMENT, EDIStreamValidationError.NONE, segmentTag, typeReference, location);
-        return true;
+        enqueueSegmentEnd(typeReference);
+        return eventsReady(true);
+    }
+
+    boolean skippedSegmentEnd() {
+        segmentSkipped = false;
+
+        if (transactionSkipped) {
+            location.clearSegmentLocations();
+            return false;
+        }
+
+        Validator validator = validator();
+
+        if (validator != null) {
+            validator.clearImplementationCandidates(this);
+        }
+
+        if (levelCheckPending) {
+            performLevelCheck();
+        }
+
+        location.clearSegmentLocations();
+        enqueueSegmentEnd(segmentReference);
+        return eventsReady(true);
+    }
+
+    void enqueueSegmentEnd(EDIReference typeReference) {
+        if (skippedLoopDepth > 0) {
+            discardEvents(skippedSegmentIndex);
+        } else if (segmentFiltered) {
+            segmentFiltered = false;
+        } else {
+            enqueueEvent(EDIStreamEvent.END_SEGMENT, EDIStreamValidationError.NONE, segmentTag, typeReference, location);
+        }
+
+        if (transactionPending && transactionSchemaAllowed) {
+            // End of the transaction header, the transaction type is known
+            transactionPending = false;
+
+            if (!filter.acceptsTransaction(dialect.getTransactionType())) {
+                discardEvents(transactionStart);
+                transactionSkipped = true;
+                transactionFiltered = true;
+            }
+        }
+    }
+
+    void discardEvents(int start) {
+        while (eventQueue.size() > start) {
+            eventPool.add(eventQueue.removeLast());
+        }
+    }
+
+    boolean isElementFiltered() {
+        if (segmentFiltered) {
+            return true;
+        }
+
+        if (filter == null || !filter.isElementFiltered(segmentTag)) {
+            return false;
+        }
+
+        final int element = location.getElementPosition();
+        final int component = location.getComponentPosition();
+
+        if (component > 0) {
+            return !filter.acceptsComponent(segmentTag, element, component);
+        }
+
+        return !filter.acceptsElement(segmentTag, element);
     }
 
     @Override
@@ -328,6 +652,12 @@ public class ProxyEventHandler implements EventHandler {
         }
         location.setComposite(true);
 
+        if (segmentSkipped) {
+            return false;
+        }
+
+        compositeFiltered = isElementFiltered();
+
         EDIReference typeReference = null;
         boolean eventsReady = true;
         Validator validator = validator();
@@ -345,14 +675,24 @@ public class ProxyEventHandler implements EventHandler {
             }
 
             eventsReady = !validator.isPendingDiscrimination();
+            // Implementation discrimination requires the element events
+            compositeFiltered &= eventsReady;
+        }
+
+        if (!compositeFiltered) {
+            enqueueEvent(EDIStreamEvent.START_COMPOSITE, EDIStreamValidationError.NONE, "", typeReference, location);
         }
 
-        enqueueEvent(EDIStreamEvent.START_COMPOSITE, EDIStreamValidationError.NONE, "", typeReference, location);
-        return !levelCheckPending && eventsReady;
+        return eventsReady(eventsReady);
     }
 
     @Override
     public boolean compositeEnd(boolean isNil) {
+        if (segmentSkipped) {
+            location.clearComponentPosition();
+            return false;
+        }
+
         boolean eventsReady = true;
 
         if (validator() != null && !isNil) {
@@ -361,8 +701,14 @@ public class ProxyEventHandler implements EventHandler {
         }
 
         location.clearComponentPosition();
-        enqueueEvent(EDIStreamEvent.END_COMPOSITE, EDIStreamValidationError.NONE, "", null, location);
-        return !levelCheckPending && eventsReady;
+
+        if (compositeFiltered) {
+            compositeFiltered = false;
+        } else {
+            enqueueEvent(EDIStreamEvent.END_COMPOSITE, EDIStreamValidationError.NONE, "", null, location);
+        }
+
+        return eventsReady(eventsReady);
     }
 
     @Override
@@ -374,13 +720,18 @@ public class ProxyEventHandler implements EventHandler {
         final boolean compositeFromStream = location.getComponentPosition() > -1;
 
         dialect.elementData(text, location);
-        Validator validator = validator();
-        boolean valid;
 
         if (levelCheckPending && startedLevel != null) {
             setLevelIdentifiers(text);
         }
 
+        if (segmentSkipped) {
+            return false;
+        }
+
+        Validator validator = validator();
+        boolean valid;
+
         /*
          * The first component of a composite was the only element received
          * for the composite. It was found to be a composite via the schema
@@ -411,7 +762,8 @@ public class ProxyEventHandler implements EventHandler {
 
         boolean eventsReady = true;
 
-        if (fromStream && (!derivedComposite || text.length() > 0) /* Not an inferred element */) {
+        if (fromStream && (!derivedComposite || text.length() > 0) /* Not an inferred element */
+                && !isElementDataFiltered(validator)) {
             enqueueEvent(EDIStreamEvent.ELEMENT_DATA,
                          EDIStreamValidationError.NONE,
                          text,
@@ -426,7 +778,15 @@ public class ProxyEventHandler implements EventHandler {
             location.clearComponentPosition();
         }
 
-        return !levelCheckPending && eventsReady;
+        return eventsReady(eventsReady);
+    }
+
+    boolean isElementDataFiltered(Validator validator) {
+        if (location.getComponentPosition() > 0 && compositeFiltered) {
+            return true;
+        }
+        // Implementation discrimination requires the element events
+        return isElementFiltered() && (validator == null || !validator.isPendingDiscrimination());
     }
 
     boolean selectImplementationIfPending(Validator validator, boolean eventsReadyDefault) {
@@ -475,7 +835,7 @@ public class ProxyEventHandler implements EventHandler {
             openLevel.errorType = startedLevel.errorType;
             openLevel.setData(startedLevel.data);
             openLevel.setTypeReference(startedLevel.typeReference);
-            openLevel.setLocation(startedLevel.location);
+            openLevel.setLocation(startedLevel);
 
             /*
              * startedLevelId will not be null due to Validator#validateSyntax.
@@ -491,12 +851,24 @@ public class ProxyEventHandler implements EventHandler {
     }
 
     void completeLevel(StreamEvent successor, String parentId) {
+        int index;
+
+        if (successor != null) {
+            index = eventQueue.indexOf(successor);
+        } else {
+            // A filtered segment has no START_SEGMENT event
+            index = segmentFiltered ? filteredSegmentIndex : -1;
+        }
+
         while (!openLevels.isEmpty() && !openLevels.getLast().isParentOf(parentId)) {
             HierarchicalLevel completed = openLevels.removeLast();
-            completed.event.location.set(location);
-            completed.event.location.clearSegmentLocations();
+            completed.event.setLocation(location, -1, -1, -1);
 
-            eventQueue.add(eventQueue.indexOf(successor), completed.event);
+            if (index < 0) {
+                eventQueue.add(completed.event);
+            } else {
+                eventQueue.add(index++, completed.event);
+            }
         }
     }
 
@@ -563,6 +935,10 @@ public class ProxyEventHandler implements EventHandler {
 
     @Override
     public void segmentError(CharSequence token, EDIReference typeReference, EDIStreamValidationError error) {
+        if (skippedLoopDepth > 0) {
+            // Errors within a skipped loop are not reported
+            return;
+        }
         enqueueEvent(EDIStreamEvent.SEGMENT_ERROR, error, token, typeReference, location);
     }
 
@@ -575,12 +951,12 @@ public class ProxyEventHandler implements EventHandler {
                              final int component,
                              final int repetition) {
 
-        StaEDIStreamLocation copy = location.copy();
-        copy.setElementPosition(element);
-        copy.setElementOccurrence(repetition);
-        copy.setComponentPosition(component);
+        if (segmentSkipped || skippedLoopDepth > 0) {
+            return;
+        }
 
-        enqueueEvent(event, error, data, typeReference, copy);
+        StreamEvent target = enqueueEvent(event, error, data, typeReference);
+        target.setLocation(location, element, component, repetition);
     }
 
     private Validator validator() {
@@ -594,15 +970,29 @@ public class ProxyEventHandler implements EventHandler {
                               EDIReference typeReference,
                               Location location) {
 
-        StreamEvent target = getPooledEvent();
+        enqueueEvent(event, error, data, typeReference).setLocation(location);
+    }
+
+    private StreamEvent enqueueEvent(EDIStreamEvent event,
+                                     EDIStreamValidationError error,
+                                     CharSequence data,
+                                     EDIReference typeReference) {
+
+        StreamEvent target;
+
+        if (transactionFiltered) {
+            // Not queued, the event is discarded
+            target = filteredEvent;
+        } else {
+            target = getPooledEvent();
+            eventQueue.add(target);
+        }
 
         target.type = event;
         target.errorType = error;
         target.setData(data);
         target.setTypeReference(typeReference);
-        target.setLocation(location);
-
-        eventQueue.add(target);
+        return target;
     }
 
 }
@@ -22,11 +22,26 @@ public class StreamEvent {
 
     EDIReference typeReference;
 
+    /*
+     * Location of the event, held as primitive fields. The Location object is
+     * only (re)built when requested by the client, most events being consumed
+     * without their location ever being read.
+     */
+    int lineNumber;
+    int columnNumber;
+    int characterOffset;
+    int segmentPosition;
+    String segmentTag;
+    int elementPosition;
+    int componentPosition;
+    int elementOccurrence;
+
     StaEDIStreamLocation location;
+    boolean locationCurrent;
 
     @Override
     public String toString() {
-        return String.format(TOSTRING_FORMAT, type, errorType, data, typeReference, location);
+        return String.format(TOSTRING_FORMAT, type, errorType, data, typeReference, getLocation());
     }
 
     public EDIStreamEvent getType() {
@@ -71,15 +86,59 @@ public class StreamEvent {
     }
 
     public Location getLocation() {
+        if (!locationCurrent) {
+            if (location == null) {
+                location = new StaEDIStreamLocation();
+            }
+
+            location.set(lineNumber,
+                         columnNumber,
+                         characterOffset,
+                         segmentPosition,
+                         segmentTag,
+                         elementPosition,
+                         componentPosition,
+                         elementOccurrence);
+
+            locationCurrent = true;
+        }
+
         return location;
     }
 
     public void setLocation(Location location) {
-        if (this.location == null) {
-            this.location = new StaEDIStreamLocation(location);
-        }
+        setLocation(location,
+                    location.getElementPosition(),
+                    location.getComponentPosition(),
+                    location.getElementOccurrence());
+    }
+
+    /**
+     * Set the location of the event to the segment-level fields of the given
+     * location together with the given element-level positions.
+     */
+    public void setLocation(Location location, int elementPosition, int componentPosition, int elementOccurrence) {
+        this.lineNumber = location.getLineNumber();
+        this.columnNumber = location.getColumnNumber();
+        this.characterOffset = location.getCharacterOffset();
+        this.segmentPosition = location.getSegmentPosition();
+        this.segmentTag = location.getSegmentTag();
+        this.elementPosition = elementPosition;
+        this.componentPosition = componentPosition;
+        this.elementOccurrence = elementOccurrence;
+        this.locationCurrent = false;
+    }
 
-        this.location.set(location);
+    public void setLocation(StreamEvent source) {
+        this.lineNumber = source.lineNumber;
+        this.columnNumber = source.columnNumber;
+        this.characterOffset = source.characterOffset;
+        this.segmentPosition = source.segmentPosition;
+        this.segmentTag = source.segmentTag;
+        this.elementPosition = source.elementPosition;
+        this.componentPosition = source.componentPosition;
+        this.elementOccurrence = source.elementOccurrence;
+        this.locationCurrent = false;
     }
 
     static CharBuffer put(CharBuffer buffer, CharSequence text) {
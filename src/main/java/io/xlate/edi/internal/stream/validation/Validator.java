@@ -216,6 +216,7 @@ public class Validator {
 
         cursor.reset(root, implRoot);
         depth = 1;
+        loopStack.clear();
 
         segmentExpected = false;
         implSegmentSelected = false;
@@ -1127,6 +1128,39 @@ public class Validator {
         return false;
     }
 
+    /**
+     * Find the simple type of the element or component at the given position
+     * within the current segment, without validating or recording usage.
+     *
+     * @param dialect the dialect of the interchange
+     * @param position the location of the element or component
+     * @return the simple type, or null when the segment or element is not
+     *         defined in the schema
+     */
+    public EDISimpleType getElementType(Dialect dialect, StaEDIStreamLocation position) {
+        if (!segmentExpected || segment == null) {
+            return null;
+        }
+
+        final String version = dialect.getTransactionVersionString();
+        int elementIndex = position.getElementPosition() - 1;
+        int componentIndex = position.getComponentPosition() - 1;
+
+        if (elementIndex < 0) {
+            return null;
+        }
+
+        UsageNode node = segment.getChild(version, elementIndex);
+
+        if (node != null && node.isNodeType(EDIType.Type.COMPOSITE)) {
+            node = node.getChild(version, Math.max(componentIndex, 0));
+        } else if (componentIndex > 0) {
+            return null;
+        }
+
+        return node != null ? node.getSimpleType() : null;
+    }
+
     public boolean validateElement(Dialect dialect, StaEDIStreamLocation position, CharSequence value, StringBuilder formattedValue) {
         if (!segmentExpected) {
             return true;
@@ -1273,9 +1307,12 @@ public class Validator {
     void validateElementValue(Dialect dialect, StaEDIStreamLocation position, UsageNode element, UsageNode implElement, CharSequence value, StringBuilder formattedValue) {
         List<EDIStreamValidationError> errors = new ArrayList<>();
         if (this.formatElements) {
-            formattedValue.setLength(0);
-            element.format(dialect, value, formattedValue);
-            value = formattedValue;
+            // A null formattedValue is given for values that are already formatted
+            if (formattedValue != null) {
+                formattedValue.setLength(0);
+                element.format(dialect, value, formattedValue);
+                value = formattedValue;
+            }
         } else {
             element.validate(dialect, value, errors);
             validateControlValue(segment.getParent(), position, value, errors);
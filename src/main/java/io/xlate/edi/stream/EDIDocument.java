@@ -0,0 +1,210 @@
+/*******************************************************************************
+ * Copyright 2023 xlate.io LLC, http://www.xlate.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package io.xlate.edi.stream;
+
+import io.xlate.edi.schema.EDIReference;
+
+/**
+ * A compact, read-only model of an interchange, group, transaction, or loop
+ * read completely into memory by
+ * {@link EDIInputFactory#readDocument(EDIStreamReader)}, for random access to
+ * its segments and elements.
+ *
+ * <p>
+ * The structures (nodes) of the document are identified by integer handles
+ * assigned in document order, beginning with the root node at zero. The text
+ * of all nodes is held in a single shared buffer and a {@link String} is only
+ * created when {@link #getText(int)} is called. Validation errors and the
+ * content of binary elements are not included in the document.
+ *
+ * <p>
+ * Element, repetition, and component positions are 1-based, consistent with
+ * {@link Location}.
+ *
+ * @since 1.24
+ */
+public interface EDIDocument {
+
+    /**
+     * Handle returned when a requested node does not exist.
+     */
+    int NONE = -1;
+
+    /**
+     * The type of a node of the document.
+     */
+    enum NodeType {
+        /**
+         * An interchange, group, transaction, or loop. The text of the node is
+         * the reference code reported by the reader.
+         */
+        LOOP,
+        /**
+         * A segment, the text of the node is the segment tag.
+         */
+        SEGMENT,
+        /**
+         * A composite element, the children of the node are its components.
+         * A composite node has no text.
+         */
+        COMPOSITE,
+        /**
+         * A simple element or a component of a composite, the text of the node
+         * is the element's value.
+         */
+        ELEMENT
+    }
+
+    /**
+     * @return the number of nodes in the document
+     */
+    int getNodeCount();
+
+    /**
+     * @return the root node (an interchange, group, transaction, or loop), or
+     *         {@link #NONE} when the document is empty
+     */
+    int getRoot();
+
+    /**
+     * @param node
+     *            handle of a node of the document
+     * @return the type of the node
+     */
+    NodeType getNodeType(int node);
+
+    /**
+     * @param node
+     *            handle of a node of the document
+     * @return the node's parent, or {@link #NONE} for the root node
+     */
+    int getParent(int node);
+
+    /**
+     * @param node
+     *            handle of a node of the document
+     * @return the node's first child, or {@link #NONE} when the node has no
+     *         children
+     */
+    int getFirstChild(int node);
+
+    /**
+     * @param node
+     *            handle of a node of the document
+     * @return the node following this node with the same parent, or
+     *         {@link #NONE} when this is the parent's last child
+     */
+    int getNextSibling(int node);
+
+    /**
+     * Returns the position of the node within its parent: the segment's
+     * position as reported by the reader, the position of an element within
+     * its segment, or the position of a component within its composite. Loops
+     * do not have a position.
+     *
+     * @param node
+     *            handle of a node of the document
+     * @return the position of the node, or -1 for a loop
+     */
+    int getPosition(int node);
+
+    /**
+     * @param node
+     *            handle of a node of the document
+     * @return the occurrence (repetition) of an element within its segment, or
+     *         -1 for a loop, segment, or component
+     */
+    int getOccurrence(int node);
+
+    /**
+     * @param node
+     *            handle of a node of the document
+     * @return the schema reference of the node, or null when not available
+     */
+    EDIReference getSchemaTypeReference(int node);
+
+    /**
+     * Returns the length of the node's text without creating a {@link String}.
+     *
+     * @param node
+     *            handle of a node of the document
+     * @return the length of the node's text, or -1 when the node has no text
+     */
+    int getTextLength(int node);
+
+    /**
+     * Returns the text of the node, created from the document's buffer.
+     *
+     * @param node
+     *            handle of a node of the document
+     * @return the text of the node, or null when the node has no text
+     * @see NodeType
+     */
+    String getText(int node);
+
+    /**
+     * Find a loop that is a direct child of the given node.
+     *
+     * @param parent
+     *            handle of the parent loop
+     * @param code
+     *            reference code of the loop
+     * @param occurrence
+     *            the occurrence of the loop among the parent's children with
+     *            the same code, 1-based
+     * @return the loop, or {@link #NONE} if not found
+     */
+    int getLoop(int parent, String code, int occurrence);
+
+    /**
+     * Find a segment that is a direct child of the given node.
+     *
+     * @param parent
+     *            handle of the parent loop
+     * @param tag
+     *            tag of the segment
+     * @param occurrence
+     *            the occurrence of the segment among the parent's children with
+     *            the same tag, 1-based
+     * @return the segment, or {@link #NONE} if not found
+     */
+    int getSegment(int parent, String tag, int occurrence);
+
+    /**
+     * Find the occurrence of the (simple or composite) element at the given
+     * position of a segment.
+     *
+     * @param segment
+     *            handle of the segment
+     * @param position
+     *            position of the element
+     * @param occurrence
+     *            occurrence (repetition) of the element
+     * @return the element, or {@link #NONE} if not present
+     */
+    int getElement(int segment, int position, int occurrence);
+
+    /**
+     * Find the component at the given position of a composite element.
+     *
+     * @param composite
+     *            handle of the composite element
+     * @param position
+     *            position of the component
+     * @return the component, or {@link #NONE} if not present
+     */
+    int getComponent(int composite, int position);
+}
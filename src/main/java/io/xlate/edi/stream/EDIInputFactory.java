@@ -15,7 +15,10 @@
  ******************************************************************************/
 package io.xlate.edi.stream;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
 
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
@@ -103,6 +106,75 @@ public abstract class EDIInputFactory extends PropertySupport {
     @Deprecated
     public static final String EDI_ENABLE_LOOP_TEXT = "io.xlate.edi.stream.EDI_ENABLE_LOOP_TEXT"; //NOSONAR
 
+    /**
+     * The level of detail maintained by the reader for the position of the
+     * current {@link Location} within the input. One of:
+     * <ul>
+     * <li><code>FULL</code> - line number, column number, and character offset
+     * are updated for each character read
+     * <li><code>OFFSET</code> - only the character offset is updated for each
+     * character read. Line breaks are recorded at segment boundaries and the
+     * line and column numbers are derived from the offset when a location is
+     * inspected, e.g. for an error report. Line breaks within element data are
+     * not counted
+     * <li><code>SEGMENT</code> - only the segment, element, and component
+     * positions are tracked. Line number, column number, and character offset
+     * are not available and will be reported as -1
+     * </ul>
+     *
+     * Default value: FULL
+     *
+     * @since 1.24
+     */
+    public static final String EDI_LOCATION_TRACKING = "io.xlate.edi.stream.EDI_LOCATION_TRACKING";
+
+    /**
+     * Element projection: the elements and components for which the reader
+     * will produce ELEMENT_DATA events, given as a comma- or space-separated
+     * list of element reference designators, e.g.
+     * <code>BEG03, REF02, N104, CLM05-1</code>. Segments with no element
+     * listed produce events for all elements. Elements not projected are still
+     * parsed, validated, and counted in locations, but are not copied or
+     * reported as events.
+     *
+     * Default value: null (all elements)
+     *
+     * @see EDIStreamFilterSpec#addElementReferences(String...)
+     * @since 1.24
+     */
+    public static final String EDI_ELEMENT_PROJECTION = "io.xlate.edi.stream.EDI_ELEMENT_PROJECTION";
+
+    /**
+     * When set to true, readers created by this factory are returned to a
+     * pool belonging to the factory when closed and are re-used (see
+     * {@link EDIStreamReader#reset(InputStream, String)}) by later calls to
+     * <code>createEDIStreamReader</code> on any thread with the same schema,
+     * properties, and error reporter. Pooled readers are released with the
+     * factory. A reader must not be used after it has been closed when this
+     * property is enabled.
+     *
+     * Default value: false
+     *
+     * @since 1.24
+     */
+    public static final String EDI_READER_POOLING = "io.xlate.edi.stream.EDI_READER_POOLING";
+
+    /**
+     * When set to true, the reader produces events only for the envelope
+     * segments: the interchange, group, and transaction header and trailer
+     * segments. The segments between a transaction's header and trailer are
+     * only scanned for their segment terminators and counted, as if
+     * {@link EDIStreamReader#skipTransaction()} were called for every
+     * transaction. The control counts and references of the trailers are
+     * validated using the control schema, so this property has no effect
+     * when {@link #EDI_VALIDATE_CONTROL_STRUCTURE} is false.
+     *
+     * Default value: false
+     *
+     * @since 1.24
+     */
+    public static final String EDI_ENVELOPE_ONLY = "io.xlate.edi.stream.EDI_ENVELOPE_ONLY";
+
     /**
      * When set to true, simple data elements not containing data will be
      * represented via the JSON parsers as a <i>null</i> value.
@@ -209,6 +281,174 @@ public abstract class EDIInputFactory extends PropertySupport {
                                                           Schema schema)
             throws EDIStreamException;
 
+    /**
+     * Creates a new {@link EDIStreamReader} for the interchange, group, or
+     * transaction of the index entry, reading directly from its position in
+     * the channel. The reader is given a complete interchange: for a group or
+     * transaction, the interchange (and group) header segments are read from
+     * the channel and trailer segments enclosing only the entry are generated,
+     * so that the delimiters and control structure of the original envelope
+     * apply. Segment positions reported by the reader's locations are relative
+     * to this generated interchange.
+     *
+     * The channel's position is not used or modified and closing the reader
+     * does not close the channel.
+     *
+     * @param channel
+     *            channel of the indexed input
+     * @param entry
+     *            entry of an index created by this factory
+     * @return a new {@link EDIStreamReader} which reads the entry
+     * @throws EDIStreamException
+     *             when the encoding of the index is not supported
+     * @throws IllegalArgumentException
+     *             if the entry is not from an index created by this factory
+     *
+     * @since 1.24
+     */
+    public abstract EDIStreamReader createEDIStreamReader(FileChannel channel, EDIStreamIndex.Entry entry)
+            throws EDIStreamException;
+
+    /**
+     * Creates a new {@link EDIStreamIndex} of the interchanges, groups, and
+     * transactions read from the given {@link InputStream} (with default
+     * encoding). The stream is read to its end but not closed.
+     *
+     * @param stream
+     *            {@link InputStream} from which the EDI data will be read
+     * @return the index of the input
+     * @throws EDIStreamException
+     *             when the input can not be read or is not a complete X12 or
+     *             EDIFACT input
+     *
+     * @since 1.24
+     */
+    public abstract EDIStreamIndex createEDIStreamIndex(InputStream stream) throws EDIStreamException;
+
+    /**
+     * Creates a new {@link EDIStreamIndex} of the interchanges, groups, and
+     * transactions read from the given {@link InputStream} and encoding. The
+     * encoding must be UTF-8 or a single-byte encoding, such that byte offsets
+     * can be determined for the characters read. The stream is read to its end
+     * but not closed.
+     *
+     * @param stream
+     *            {@link InputStream} from which the EDI data will be read
+     * @param encoding
+     *            character encoding of the stream
+     * @return the index of the input
+     * @throws EDIStreamException
+     *             when encoding is not supported or the input can not be read
+     *             or is not a complete X12 or EDIFACT input
+     *
+     * @since 1.24
+     */
+    public abstract EDIStreamIndex createEDIStreamIndex(InputStream stream, String encoding) throws EDIStreamException;
+
+    /**
+     * Reads an {@link EDIStreamIndex} previously written with
+     * {@link EDIStreamIndex#write(OutputStream)}. The stream is not closed.
+     *
+     * @param stream
+     *            the stream containing the index
+     * @return the index
+     * @throws IOException
+     *             when the stream can not be read or does not contain an index
+     *
+     * @since 1.24
+     */
+    public abstract EDIStreamIndex readEDIStreamIndex(InputStream stream) throws IOException;
+
+    /**
+     * Records the events of the reader to the output stream as a compact
+     * binary event log. The events are recorded as reported by the reader,
+     * including their text, reference codes, schema type references,
+     * locations, and validation errors. Segment tags, reference codes, and
+     * schema types are written only once and referred to by index thereafter.
+     * The standard, versions, delimiters, and transaction type of the reader
+     * are recorded at the start and end of each interchange, group, and
+     * transaction and at the end of their header segments.
+     *
+     * <p>
+     * Recording begins with the reader's current event, if any, and continues
+     * until the end of the reader's input. The stream is flushed, but not
+     * closed. The log may be replayed any number of times using
+     * {@link #createEventLogReader(InputStream)}.
+     *
+     * @param reader
+     *            the reader providing the EDI events
+     * @param stream
+     *            the stream to which the event log will be written
+     * @throws EDIStreamException
+     *             when the reader encounters an error in the EDI data or the
+     *             stream can not be written
+     *
+     * @since 1.24
+     */
+    public abstract void writeEventLog(EDIStreamReader reader, OutputStream stream) throws EDIStreamException;
+
+    /**
+     * Creates a new {@link EDIStreamReader} that replays an event log written
+     * by {@link #writeEventLog(EDIStreamReader, OutputStream)}. The input is
+     * not lexed or validated again: the events, text, locations, and errors
+     * are those of the recorded reader, and the error reporter of this factory
+     * is applied to the replayed errors.
+     *
+     * <p>
+     * The schema types available from
+     * {@link EDIStreamReader#getSchemaTypeReference()} provide the
+     * identifiers, codes, occurrences, and simple type attributes of the
+     * recorded types. Enumerated values and the child references and syntax
+     * rules of complex types are not available. Schemas set on the reader do
+     * not affect the events replayed.
+     *
+     * @param stream
+     *            {@link InputStream} from which the event log will be read
+     * @return a new {@link EDIStreamReader} which replays the event log
+     * @throws EDIStreamException
+     *             when the stream does not begin with a supported event log
+     *
+     * @since 1.24
+     */
+    public abstract EDIStreamReader createEventLogReader(InputStream stream) throws EDIStreamException;
+
+    /**
+     * Reads an interchange, group, transaction, or loop from the reader into a
+     * compact in-memory {@link EDIDocument}, for random access to its segments
+     * and elements. The document is read beginning with the reader's current
+     * event when it is the start of an interchange, group, transaction, or
+     * loop, otherwise beginning with the reader's next event. Upon return, the
+     * reader is positioned at the end event of the structure read.
+     *
+     * <p>
+     * Validation errors reported by the reader are not included in the
+     * document and should be handled using an {@link EDIInputErrorReporter}
+     * when necessary.
+     *
+     * @param reader
+     *            the reader providing the EDI content
+     * @return the document read
+     * @throws IllegalStateException
+     *             if neither the current nor the next event of the reader is
+     *             the start of an interchange, group, transaction, or loop
+     * @throws EDIStreamException
+     *             when the reader encounters an error in the EDI data
+     *
+     * @since 1.24
+     */
+    public abstract EDIDocument readDocument(EDIStreamReader reader) throws EDIStreamException;
+
+    /**
+     * Creates a new, empty {@link SegmentView} to be filled by
+     * {@link EDIStreamReader#nextSegment(SegmentView)}. A view may be reused
+     * for any number of segments and with any reader.
+     *
+     * @return a new segment view
+     *
+     * @since 1.24
+     */
+    public abstract SegmentView createSegmentView();
+
     /**
      * Creates a new {@link EDIStreamReader} by wrapping the given reader with
      * the {@link EDIStreamFilter} filter.
@@ -221,6 +461,29 @@ public abstract class EDIInputFactory extends PropertySupport {
      */
     public abstract EDIStreamReader createFilteredReader(EDIStreamReader reader, EDIStreamFilter filter);
 
+    /**
+     * Applies the filter specification to the given reader. Unlike
+     * {@link #createFilteredReader(EDIStreamReader, EDIStreamFilter)}, no new
+     * reader is created: the given reader is modified and returned. The
+     * specification is evaluated by the reader as input is parsed, so that
+     * segments and elements not of interest are never turned into events. It
+     * applies to content not yet parsed at the time of the call and replaces
+     * any specification previously applied, including an
+     * {@link #EDI_ELEMENT_PROJECTION}. The specification is copied, later
+     * changes to it do not affect the reader.
+     *
+     * @param reader
+     *            the reader to filter, created by this factory
+     * @param spec
+     *            the content of interest
+     * @return the reader, filtered according to spec
+     * @throws IllegalArgumentException
+     *             if the reader was not created by this factory
+     *
+     * @since 1.24
+     */
+    public abstract EDIStreamReader createFilteredReader(EDIStreamReader reader, EDIStreamFilterSpec spec);
+
     /**
      * Creates a new {@link XMLStreamReader} that uses the given reader as its
      * data source. The reader should be positioned before the start of an
@@ -294,11 +557,45 @@ public abstract class EDIInputFactory extends PropertySupport {
      */
     public abstract XMLStreamReader createXMLStreamReader(EDIStreamReader reader) throws XMLStreamException;
 
+    /**
+     * Writes the content read by the given reader to the stream as UTF-8
+     * encoded XML. The structure and names of the XML elements, and the
+     * effect of the XML properties of this factory, are the same as for an
+     * {@link XMLStreamReader} created by
+     * {@link #createXMLStreamReader(EDIStreamReader)}, but the XML is written
+     * directly, without the use of a {@link javax.xml.transform.Transformer
+     * Transformer} or {@link javax.xml.stream.XMLStreamWriter XMLStreamWriter}.
+     *
+     * <p>
+     * The reader should be positioned before the start of an interchange or
+     * at the start of an interchange. Content is written until the end of the
+     * interchange. The stream is flushed, but not closed.
+     *
+     * @param reader
+     *            the reader providing the EDI content
+     * @param stream
+     *            the stream to which the XML will be written
+     * @throws XMLStreamException
+     *             when the reader encounters an error in the EDI data or the
+     *             stream can not be written
+     *
+     * @see #createXMLStreamReader(EDIStreamReader)
+     * @since 1.24
+     */
+    public abstract void writeXML(EDIStreamReader reader, OutputStream stream) throws XMLStreamException;
+
     /**
      * Creates a new JSON parser of type <code>J</code> that uses the given
      * reader as its data source. The reader should be positioned before the
      * start of an interchange or at the start of an interchange.
      *
+     * <p>
+     * Binary element values streamed from a Jackson parser using
+     * <code>getText(Writer)</code> or
+     * <code>readBinaryValue(Base64Variant, OutputStream)</code> are not
+     * retained and may only be read once. Any further access to the same value
+     * results in a <code>JsonParseException</code>.
+     *
      * @param <J>
      *            the type of the parser being created
      * @param reader
@@ -314,6 +611,62 @@ public abstract class EDIInputFactory extends PropertySupport {
      */
     public abstract <J> J createJsonParser(EDIStreamReader reader, Class<J> type);
 
+    /**
+     * Writes the content of the reader as JSON to the generator of type
+     * <code>G</code>, in the same layout produced by the parsers created with
+     * {@link #createJsonParser(EDIStreamReader, Class)}. Events are written to
+     * the generator as they are read, without an intermediate parser.
+     *
+     * <p>
+     * The reader should be positioned before the start of an interchange or
+     * at the start of an interchange. Content is written until the end of the
+     * interchange. The generator is flushed, but not closed.
+     *
+     * @param <G>
+     *            the type of the generator
+     * @param reader
+     *            the reader providing the EDI content
+     * @param type
+     *            the type of the generator, one of
+     *            <code>jakarta.json.stream.JsonGenerator</code>,
+     *            <code>javax.json.stream.JsonGenerator</code>, or
+     *            <code>com.fasterxml.jackson.core.JsonGenerator</code>
+     * @param generator
+     *            the generator to which the JSON will be written
+     * @throws EDIStreamException
+     *             when the reader encounters an error in the EDI data or the
+     *             generator fails
+     *
+     * @throws IllegalArgumentException
+     *             when type is an unsupported generator type
+     *
+     * @since 1.24
+     */
+    public abstract <G> void writeJSON(EDIStreamReader reader, Class<G> type, G generator) throws EDIStreamException;
+
+    /**
+     * Writes the content of the reader to the output stream as UTF-8 encoded
+     * JSON, in the same layout produced by the parsers created with
+     * {@link #createJsonParser(EDIStreamReader, Class)}. No JSON library is
+     * required.
+     *
+     * <p>
+     * The reader should be positioned before the start of an interchange or
+     * at the start of an interchange. Content is written until the end of the
+     * interchange. The stream is flushed, but not closed.
+     *
+     * @param reader
+     *            the reader providing the EDI content
+     * @param stream
+     *            the stream to which the JSON will be written
+     * @throws EDIStreamException
+     *             when the reader encounters an error in the EDI data or the
+     *             stream can not be written
+     *
+     * @since 1.24
+     */
+    public abstract void writeJSON(EDIStreamReader reader, OutputStream stream) throws EDIStreamException;
+
     /**
      * Retrieves the reporter that will be set on any EDIStreamReader created by
      * this factory instance.
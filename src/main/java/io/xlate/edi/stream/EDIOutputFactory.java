@@ -16,9 +16,13 @@
 package io.xlate.edi.stream;
 
 import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.concurrent.Executor;
 
 import javax.xml.stream.XMLStreamWriter;
 
+import org.xml.sax.ContentHandler;
+
 public abstract class EDIOutputFactory extends PropertySupport {
 
     /**
@@ -54,6 +58,38 @@ public abstract class EDIOutputFactory extends PropertySupport {
      */
     public static final String FORMAT_ELEMENTS = "io.xlate.edi.stream.FORMAT_ELEMENTS";
 
+    /**
+     * <p>
+     * When set to a positive {@link Integer}, encoded output is written to one
+     * of two buffers of this size (in bytes) while the other is written to the
+     * {@link OutputStream} by a background task. When the writer fills a buffer
+     * before the background write of the other completes, the writer waits.
+     * Exceptions thrown by the {@link OutputStream} are reported by the next
+     * write, flush, or close of the EDIStreamWriter. Closing the
+     * EDIStreamWriter waits for all output to be written and flushed.
+     *
+     * <p>
+     * Default value is null - output is written on the caller's thread.
+     *
+     * @since 1.24
+     */
+    public static final String ASYNC_OUTPUT_BUFFER_SIZE = "io.xlate.edi.stream.ASYNC_OUTPUT_BUFFER_SIZE";
+
+    /**
+     * <p>
+     * An {@link java.util.concurrent.Executor Executor} used to write buffered
+     * output in the background when {@link #ASYNC_OUTPUT_BUFFER_SIZE} is set,
+     * for example an executor creating virtual threads. The executor is not
+     * shut down by the writer.
+     *
+     * <p>
+     * Default value is null - each writer uses its own background thread,
+     * stopped when the writer is closed.
+     *
+     * @since 1.24
+     */
+    public static final String ASYNC_OUTPUT_EXECUTOR = "io.xlate.edi.stream.ASYNC_OUTPUT_EXECUTOR";
+
     /**
      * Create a new instance of the factory. This static method creates a new
      * factory instance.
@@ -107,6 +143,143 @@ public abstract class EDIOutputFactory extends PropertySupport {
      */
     public abstract XMLStreamWriter createXMLStreamWriter(EDIStreamWriter writer);
 
+    /**
+     * Creates a new SAX {@link ContentHandler} that uses the given writer as
+     * its output. The handler follows the same rules as the
+     * {@link XMLStreamWriter} created by
+     * {@link #createXMLStreamWriter(EDIStreamWriter)}: elements must use the
+     * namespaces declared by the constants in {@link EDINamespaces} and their
+     * sequence must align with the structure of the intended EDI output.
+     * Attributes other than namespace declarations are not supported.
+     *
+     * <p>
+     * The handler may be used as the result of a transformation (e.g. with a
+     * {@link javax.xml.transform.sax.SAXResult SAXResult}) to write EDI
+     * without building an intermediate document. The writer is flushed at the
+     * end of the document, but not closed.
+     *
+     * @param writer
+     *            the writer used to generate EDI output using the handler
+     * @return a new {@link ContentHandler}
+     *
+     * @since 1.24
+     */
+    public abstract ContentHandler createContentHandler(EDIStreamWriter writer);
+
+    /**
+     * Creates a new {@link EDITransactionAssembler} that splices transactions
+     * written concurrently using the given executor into the given writer. The
+     * writer must have completed writing the interchange header segment so
+     * that the delimiters in use are confirmed.
+     *
+     * @param writer
+     *            the writer to which assembled transactions will be written
+     * @param executor
+     *            the executor used to write the body of each transaction
+     * @return a new {@link EDITransactionAssembler}
+     * @throws IllegalStateException
+     *             when the writer has not completed the interchange header
+     *
+     * @since 1.24
+     */
+    public abstract EDITransactionAssembler createTransactionAssembler(EDIStreamWriter writer, Executor executor);
+
+    /**
+     * Creates a new {@link EDIStreamPipe} that copies segments read by the
+     * given reader to the given writer, in raw form where possible.
+     *
+     * @param reader
+     *            the reader from which segments will be copied
+     * @param writer
+     *            the writer to which segments will be copied
+     * @return a new {@link EDIStreamPipe}
+     *
+     * @since 1.24
+     */
+    public abstract EDIStreamPipe createEDIStreamPipe(EDIStreamReader reader, EDIStreamWriter writer);
+
+    /**
+     * Creates a new {@link EDIStreamTranscoder} that writes UTF-8 output to the
+     * given stream using the delimiters configured on this factory.
+     *
+     * @param stream
+     *            {@link OutputStream} to which the EDI data will be written
+     * @return a new {@link EDIStreamTranscoder}
+     *
+     * @since 1.24
+     */
+    public abstract EDIStreamTranscoder createEDIStreamTranscoder(OutputStream stream);
+
+    /**
+     * Creates a new {@link EDIStreamTranscoder} that writes output to the given
+     * stream using the given encoding and the delimiters configured on this
+     * factory. When the encoding differs from that of the input, the syntax
+     * identifier of an EDIFACT interchange header (UNB01) is replaced with one
+     * matching the output encoding. Transcoding an EDIFACT interchange fails
+     * when no syntax identifier matches the output encoding.
+     *
+     * @param stream
+     *            {@link OutputStream} to which the EDI data will be written
+     * @param encoding
+     *            character encoding of the stream, must be a valid
+     *            {@link java.nio.charset.Charset Charset}.
+     * @return a new {@link EDIStreamTranscoder}
+     * @throws EDIStreamException
+     *             when encoding is not supported
+     *
+     * @since 1.24
+     */
+    public abstract EDIStreamTranscoder createEDIStreamTranscoder(OutputStream stream,
+                                                                  String encoding)
+            throws EDIStreamException;
+
+    /**
+     * Reads a JSON document from the parser of type <code>P</code> and writes
+     * it to the given EDI writer. The JSON must use the layout produced by the
+     * parsers created with
+     * {@link EDIInputFactory#createJsonParser(EDIStreamReader, Class)}: the
+     * interchange is a loop object, and each loop, segment, and composite is
+     * an object with a <code>name</code>, a <code>type</code>, and a
+     * <code>data</code> array (following the name and type). Elements are
+     * either values or objects of type <code>element</code> with a
+     * <code>data</code> value.
+     *
+     * <p>
+     * Events of the parser are written as they are read, so memory use does
+     * not depend on the size of the document. Groups, transactions, and loops
+     * are not written explicitly, they are derived by the writer from the
+     * segments. Elements are written in the order of their data array;
+     * repeated elements and binary elements are not supported. Numbers are
+     * written with {@link EDIStreamWriter#writeElement(BigDecimal)} (or the
+     * <code>long</code> variant), so the writer's control and transaction
+     * schemas should be set to restore implied decimals, and
+     * {@link #FORMAT_ELEMENTS} enabled to restore leading zeros. A
+     * Jackson parser may be positioned at the start of the interchange object,
+     * other parsers must be positioned before it. Content is read until the end of
+     * the interchange and the writer is flushed, but not closed.
+     *
+     * @param <P>
+     *            the type of the parser
+     * @param type
+     *            the type of the parser, one of
+     *            <code>jakarta.json.stream.JsonParser</code>,
+     *            <code>javax.json.stream.JsonParser</code>, or
+     *            <code>com.fasterxml.jackson.core.JsonParser</code>
+     * @param parser
+     *            the parser providing the JSON content
+     * @param writer
+     *            the writer to which the EDI will be written
+     * @throws EDIStreamException
+     *             when the JSON does not follow the expected layout, the
+     *             parser fails, or the writer encounters an error
+     *
+     * @throws IllegalArgumentException
+     *             when type is an unsupported parser type
+     *
+     * @since 1.24
+     */
+    public abstract <P> void readJSON(Class<P> type, P parser, EDIStreamWriter writer) throws EDIStreamException;
+
     /**
      * Retrieves the reporter that will be set on any EDIStreamWriter created by
      * this factory instance.
@@ -0,0 +1,217 @@
+/*******************************************************************************
+ * Copyright 2023 xlate.io LLC, http://www.xlate.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package io.xlate.edi.stream;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A declarative description of the content of interest in an EDI stream.
+ * Unlike an {@link EDIStreamFilter}, which is given each event after it has
+ * been produced, a filter specification is applied by the reader itself so
+ * that content not of interest is never turned into events.
+ *
+ * <ul>
+ * <li>Segment tags: only segments with the given tags produce
+ * START_SEGMENT/END_SEGMENT and element events. Structural events (e.g.
+ * START_LOOP, START_TRANSACTION) and validation errors are still reported.
+ * <li>Transaction types: transactions of other types (e.g. X12 ST01, EDIFACT
+ * UNH02-1) produce no events at all, including START_TRANSACTION and
+ * END_TRANSACTION. Their segments are only counted for the control structure
+ * validation of the transaction trailer.
+ * <li>Element positions: only the elements at the given positions of a segment
+ * produce element events. Segments without positions given produce events for
+ * all of their elements.
+ * <li>Component positions: only the given components of a composite element
+ * produce element events. START_COMPOSITE/END_COMPOSITE are produced for the
+ * composite. Elements not given are filtered as for element positions.
+ * </ul>
+ *
+ * When a category has nothing added, all content of that category is of
+ * interest. Segments containing binary data elements are never filtered. The
+ * specification is copied by the reader when it is applied; later changes do
+ * not affect readers to which it was previously applied.
+ *
+ * @see EDIInputFactory#createFilteredReader(EDIStreamReader,
+ *      EDIStreamFilterSpec)
+ * @since 1.24
+ */
+public final class EDIStreamFilterSpec {
+
+    private static final Pattern ELEMENT_REFERENCE = Pattern.compile("([A-Z0-9]{2,3}?)(\\d{2})(?:-(\\d{1,2}))?");
+
+    private final Set<String> segments = new HashSet<>();
+    private final Set<String> transactionTypes = new HashSet<>();
+    private final Map<String, Set<Integer>> elements = new HashMap<>();
+    private final Map<String, Map<Integer, Set<Integer>>> components = new HashMap<>();
+
+    /**
+     * Add segment tags of interest.
+     *
+     * @param tags
+     *            segment tags
+     * @return this specification
+     */
+    public EDIStreamFilterSpec addSegments(String... tags) {
+        Collections.addAll(segments, tags);
+        return this;
+    }
+
+    /**
+     * Add transaction types of interest.
+     *
+     * @param types
+     *            transaction types, e.g. <code>856</code> or <code>INVOIC</code>
+     * @return this specification
+     */
+    public EDIStreamFilterSpec addTransactionTypes(String... types) {
+        Collections.addAll(transactionTypes, types);
+        return this;
+    }
+
+    /**
+     * Add element positions of interest for a segment.
+     *
+     * @param tag
+     *            segment tag
+     * @param positions
+     *            1-based element positions
+     * @return this specification
+     */
+    public EDIStreamFilterSpec addElements(String tag, int... positions) {
+        Set<Integer> accepted = elements.computeIfAbsent(tag, k -> new HashSet<>());
+
+        for (int position : positions) {
+            accepted.add(position);
+        }
+
+        return this;
+    }
+
+    /**
+     * Add component positions of interest for a composite element of a
+     * segment.
+     *
+     * @param tag
+     *            segment tag
+     * @param element
+     *            1-based element position of the composite
+     * @param positions
+     *            1-based component positions
+     * @return this specification
+     */
+    public EDIStreamFilterSpec addComponents(String tag, int element, int... positions) {
+        elements.computeIfAbsent(tag, k -> new HashSet<>());
+        Set<Integer> accepted = components.computeIfAbsent(tag, k -> new HashMap<>())
+                                          .computeIfAbsent(element, k -> new HashSet<>());
+
+        for (int position : positions) {
+            accepted.add(position);
+        }
+
+        return this;
+    }
+
+    /**
+     * Add elements and components of interest using element reference
+     * designators, e.g. <code>BEG03</code>, <code>N104</code>, or
+     * <code>CLM05-1</code>. The element position is given by the two digits
+     * following the segment tag and the component position, if any, follows a
+     * hyphen.
+     *
+     * @param references
+     *            element reference designators
+     * @return this specification
+     * @throws IllegalArgumentException
+     *             if a reference is not a valid designator
+     */
+    public EDIStreamFilterSpec addElementReferences(String... references) {
+        for (String reference : references) {
+            Matcher matcher = ELEMENT_REFERENCE.matcher(reference.trim());
+
+            if (!matcher.matches()) {
+                throw new IllegalArgumentException("Invalid element reference: " + reference);
+            }
+
+            String tag = matcher.group(1);
+            int element = Integer.parseInt(matcher.group(2));
+
+            if (matcher.group(3) != null) {
+                addComponents(tag, element, Integer.parseInt(matcher.group(3)));
+            } else {
+                addElements(tag, element);
+            }
+        }
+
+        return this;
+    }
+
+    /**
+     * Returns the segment tags of interest, empty when all segments are of
+     * interest.
+     *
+     * @return an unmodifiable view of the segment tags
+     */
+    public Set<String> getSegments() {
+        return Collections.unmodifiableSet(segments);
+    }
+
+    /**
+     * Returns the transaction types of interest, empty when all transactions
+     * are of interest.
+     *
+     * @return an unmodifiable view of the transaction types
+     */
+    public Set<String> getTransactionTypes() {
+        return Collections.unmodifiableSet(transactionTypes);
+    }
+
+    /**
+     * Returns the element positions of interest, keyed by segment tag. Segments
+     * not present in the map produce events for all of their elements. A
+     * segment with only component positions of interest is present with no
+     * element positions.
+     *
+     * @return a copy of the element positions of interest
+     */
+    public Map<String, Set<Integer>> getElements() {
+        Map<String, Set<Integer>> result = new HashMap<>(elements.size());
+        elements.forEach((tag, positions) -> result.put(tag, Collections.unmodifiableSet(new TreeSet<>(positions))));
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * Returns the component positions of interest for the composite elements
+     * of a segment, keyed by element position.
+     *
+     * @param tag
+     *            segment tag
+     * @return a copy of the component positions of interest, empty when none
+     *         were added for the segment
+     */
+    public Map<Integer, Set<Integer>> getComponents(String tag) {
+        Map<Integer, Set<Integer>> segmentComponents = components.getOrDefault(tag, Collections.emptyMap());
+        Map<Integer, Set<Integer>> result = new HashMap<>(segmentComponents.size());
+        segmentComponents.forEach((element, positions) -> result.put(element, Collections.unmodifiableSet(new TreeSet<>(positions))));
+        return Collections.unmodifiableMap(result);
+    }
+}
@@ -0,0 +1,134 @@
+/*******************************************************************************
+ * Copyright 2023 xlate.io LLC, http://www.xlate.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package io.xlate.edi.stream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * An index of the interchanges, functional groups, and transactions (messages)
+ * of an X12 or EDIFACT input, giving the byte offset and length of each along
+ * with its control number. An index is created by
+ * {@link EDIInputFactory#createEDIStreamIndex(InputStream, String)} and may
+ * be stored alongside the input (e.g. as a sidecar file) using
+ * {@link #write(OutputStream)} and later restored with
+ * {@link EDIInputFactory#readEDIStreamIndex(InputStream)}.
+ *
+ * <p>
+ * Readers positioned at an entry of the index are created by
+ * {@link EDIInputFactory#createEDIStreamReader(java.nio.channels.FileChannel, Entry)}.
+ *
+ * @since 1.24
+ */
+public interface EDIStreamIndex {
+
+    /**
+     * The type of an index entry.
+     */
+    enum Type {
+        /**
+         * An interchange, ISA/IEA (X12) or UNB/UNZ (EDIFACT). The offset of an
+         * EDIFACT interchange includes the UNA service string advice, if
+         * present.
+         */
+        INTERCHANGE,
+        /**
+         * A functional group, GS/GE (X12) or UNG/UNE (EDIFACT)
+         */
+        GROUP,
+        /**
+         * A transaction set or message, ST/SE (X12) or UNH/UNT (EDIFACT)
+         */
+        TRANSACTION
+    }
+
+    /**
+     * An entry of the index.
+     */
+    interface Entry {
+        /**
+         * @return the type of the entry
+         */
+        Type getType();
+
+        /**
+         * @return the enclosing entry (group or interchange), or null for an
+         *         interchange
+         */
+        Entry getParent();
+
+        /**
+         * @return byte offset of the entry's first segment in the input
+         */
+        long getOffset();
+
+        /**
+         * @return number of bytes from the start of the entry's first segment
+         *         through the terminator of its trailer segment
+         */
+        long getLength();
+
+        /**
+         * Returns the control number of the entry: ISA13, GS06, or ST02 for
+         * X12 and UNB05, UNG05, or UNH01 for EDIFACT.
+         *
+         * @return the control number of the entry
+         */
+        String getControlNumber();
+
+        /**
+         * Returns the type of a transaction entry: ST01 for X12 and UNH02-1
+         * for EDIFACT.
+         *
+         * @return the transaction type, or null for an interchange or group
+         */
+        String getTransactionType();
+    }
+
+    /**
+     * @return the character encoding of the indexed input
+     */
+    String getEncoding();
+
+    /**
+     * @return all entries of the index, in input order
+     */
+    List<Entry> getEntries();
+
+    /**
+     * Find the first entry of the given type with the given control number.
+     *
+     * @param type
+     *            type of the entry
+     * @param controlNumber
+     *            control number of the entry
+     * @return the first matching entry, or null if not found
+     */
+    Entry find(Type type, String controlNumber);
+
+    /**
+     * Write the index to the stream in a compact binary form. The stream is
+     * not closed.
+     *
+     * @param stream
+     *            the stream to write to
+     * @throws IOException
+     *             when thrown by the stream
+     */
+    void write(OutputStream stream) throws IOException;
+}
@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Copyright 2023 xlate.io LLC, http://www.xlate.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package io.xlate.edi.stream;
+
+/**
+ * Copies segments from an {@link EDIStreamReader} to an
+ * {@link EDIStreamWriter}.
+ *
+ * <p>
+ * Segments within a transaction are copied in their raw form, as read from
+ * the input. Delimiters and release characters are rewritten only where the
+ * delimiters of the writer differ from those of the input. Raw segments are
+ * counted by the writer's control structure validation, but are not otherwise
+ * validated. Segments of the control structure (interchange, group and
+ * transaction headers/trailers), and any segments containing binary data, are
+ * always copied element by element so that the writer's state follows the
+ * structure of the interchange.
+ *
+ * <p>
+ * When validation is enabled via {@link #setValidationEnabled(boolean)}, all
+ * segments are copied element by element and are validated by the writer
+ * using any schemas it has been given.
+ *
+ * @since 1.24
+ */
+public interface EDIStreamPipe {
+
+    /**
+     * Enable or disable validation of copied segments by the writer. Disabled
+     * by default.
+     *
+     * @param enabled
+     *            true to copy all segments element by element, validated by
+     *            the writer
+     * @return this pipe
+     */
+    EDIStreamPipe setValidationEnabled(boolean enabled);
+
+    /**
+     * Copy the segment at which the reader is currently positioned. The
+     * reader must be positioned at a {@link EDIStreamEvent#START_SEGMENT
+     * START_SEGMENT} event and will be positioned at the segment's
+     * {@link EDIStreamEvent#END_SEGMENT END_SEGMENT} event when this method
+     * returns. The writer must be positioned between segments.
+     *
+     * @return true if the segment was copied in raw form, false if copied
+     *         element by element
+     * @throws EDIStreamException
+     *             when the segment can not be read or written
+     * @throws IllegalStateException
+     *             when the reader is not positioned at the start of a segment
+     */
+    boolean copySegment() throws EDIStreamException;
+
+    /**
+     * Copy all remaining interchanges from the reader to the writer. Error
+     * events reported by the reader are not copied.
+     *
+     * @return the number of segments copied
+     * @throws EDIStreamException
+     *             when the input can not be read or the output can not be
+     *             written
+     */
+    long copy() throws EDIStreamException;
+}
@@ -18,6 +18,9 @@ package io.xlate.edi.stream;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.Map;
 import java.util.NoSuchElementException;
 
@@ -73,6 +76,135 @@ public interface EDIStreamReader extends Closeable, EDIStreamConstants {
      */
     EDIStreamEvent nextTag() throws EDIStreamException;
 
+    /**
+     * Read the next segment and all of its elements into the given view. Any
+     * events preceding the start of the segment (e.g. the start or end of a
+     * loop or transaction) are skipped. When this method returns true, the
+     * reader is positioned at the {@link EDIStreamEvent#END_SEGMENT
+     * END_SEGMENT} event of the segment.
+     *
+     * <p>
+     * The view is reused: its content is replaced each time it is filled, and
+     * no objects are allocated once the view's internal buffers are large
+     * enough for the segments read.
+     *
+     * @param view
+     *            the view to fill, created with
+     *            {@link EDIInputFactory#createSegmentView()}
+     * @return true if a segment was read, false when the end of the input was
+     *         reached
+     * @throws EDIStreamException
+     *             if there is an error processing the underlying EDI source
+     * @throws IllegalArgumentException
+     *             if the view was not created by
+     *             {@link EDIInputFactory#createSegmentView()}
+     *
+     * @since 1.24
+     */
+    boolean nextSegment(SegmentView view) throws EDIStreamException;
+
+    /**
+     * Skips the remainder of the current segment. The remaining elements of
+     * the segment are neither validated nor reported. Upon return, the reader
+     * is positioned at the segment's {@link EDIStreamEvent#END_SEGMENT
+     * END_SEGMENT} event.
+     *
+     * @return the event type of the reader's position - END_SEGMENT
+     * @throws IllegalStateException
+     *             if the current event is not START_SEGMENT or an event
+     *             within a segment
+     * @throws EDIStreamException
+     *             if there is an error processing the underlying EDI source
+     *
+     * @since 1.24
+     */
+    EDIStreamEvent skipSegment() throws EDIStreamException;
+
+    /**
+     * Skips the loop started by the current {@link EDIStreamEvent#START_LOOP
+     * START_LOOP} event. Segments in the loop are matched against the schema
+     * to find the end of the loop, but their elements are neither validated
+     * nor reported, and no events or errors are reported for the skipped
+     * range. Upon return, the reader is positioned at the loop's
+     * {@link EDIStreamEvent#END_LOOP END_LOOP} event.
+     *
+     * @return the event type of the reader's position - END_LOOP
+     * @throws IllegalStateException
+     *             if the current event is not START_LOOP
+     * @throws EDIStreamException
+     *             if there is an error processing the underlying EDI source
+     *
+     * @since 1.24
+     */
+    EDIStreamEvent skipLoop() throws EDIStreamException;
+
+    /**
+     * Skips the body of the current transaction. This method may only be
+     * called while the transaction's header segment (e.g. ST or UNH) is read,
+     * i.e. when {@link #setTransactionSchema(Schema)} is permitted. The
+     * remaining events of the header segment are skipped and the segments
+     * following the header are only scanned for the transaction trailer
+     * (e.g. SE or UNT): they are counted for the control structure
+     * validation of the trailer, but are not validated against the
+     * transaction schema and no events are reported for them.
+     *
+     * <p>
+     * Upon return, the reader is positioned at the
+     * {@link EDIStreamEvent#END_SEGMENT END_SEGMENT} event of the header
+     * segment and the next event will be the START_SEGMENT of the trailer.
+     * Binary data elements are not supported within the skipped segments.
+     *
+     * @return the event type of the reader's position - END_SEGMENT
+     * @throws IllegalStateException
+     *             if the reader is not positioned within the header segment of
+     *             a transaction
+     * @throws EDIStreamException
+     *             if there is an error processing the underlying EDI source
+     *
+     * @since 1.24
+     */
+    EDIStreamEvent skipTransaction() throws EDIStreamException;
+
+    /**
+     * Prepare the reader to read a new UTF-8 encoded input from the
+     * beginning. Equivalent to calling {@link #reset(InputStream, String)
+     * reset(stream, "UTF-8")}.
+     *
+     * @param stream
+     *            the new input to read
+     * @throws EDIStreamException
+     *             if the reader can not be reset
+     *
+     * @see #reset(InputStream, String)
+     * @since 1.24
+     */
+    void reset(InputStream stream) throws EDIStreamException;
+
+    /**
+     * Prepare the reader to read a new input from the beginning, re-using the
+     * reader's internal buffers, event objects, and validators. This avoids
+     * the cost of creating a new reader for each of many small inputs read
+     * with the same configuration.
+     *
+     * <p>
+     * After reset, the reader is open and in the same state as a reader newly
+     * created by the {@link EDIInputFactory} for the new input. The reader's
+     * properties, the control schema given when the reader was created (if
+     * any), and the filter specification (if any) are retained. A control
+     * schema set using {@link #setControlSchema(Schema)} and the transaction
+     * schema are cleared. The previous input stream is not closed.
+     *
+     * @param stream
+     *            the new input to read
+     * @param encoding
+     *            the character encoding of the new input
+     * @throws EDIStreamException
+     *             if the encoding is not supported
+     *
+     * @since 1.24
+     */
+    void reset(InputStream stream, String encoding) throws EDIStreamException;
+
     /**
      * Returns true if there are more parsing events and false if there are no
      * more events. This method will return false if the current state of the
@@ -417,6 +549,84 @@ public interface EDIStreamReader extends Closeable, EDIStreamConstants {
      */
     int getTextLength();
 
+    /**
+     * Returns the value of the current {@link EDIStreamEvent#ELEMENT_DATA
+     * ELEMENT_DATA} event as a long, parsed directly from the reader's buffer.
+     * Any implied decimal scale of the element's type is ignored.
+     *
+     * @return the value of the element as a long
+     * @throws IllegalStateException
+     *             when the current event is not ELEMENT_DATA
+     * @throws NumberFormatException
+     *             when the element is not an integer or does not fit in a
+     *             long
+     *
+     * @since 1.24
+     */
+    long getLongValue();
+
+    /**
+     * Returns the value of the current {@link EDIStreamEvent#ELEMENT_DATA
+     * ELEMENT_DATA} event as an int, parsed directly from the reader's buffer.
+     * Any implied decimal scale of the element's type is ignored.
+     *
+     * @return the value of the element as an int
+     * @throws IllegalStateException
+     *             when the current event is not ELEMENT_DATA
+     * @throws NumberFormatException
+     *             when the element is not an integer or does not fit in an int
+     *
+     * @since 1.24
+     */
+    int getIntValue();
+
+    /**
+     * Returns the value of the current {@link EDIStreamEvent#ELEMENT_DATA
+     * ELEMENT_DATA} event as a BigDecimal. When the element's type is NUMERIC
+     * (N), the type's scale gives the number of implied decimal digits.
+     * Otherwise, the value may contain the decimal mark of the interchange and
+     * an exponent.
+     *
+     * @return the value of the element as a BigDecimal
+     * @throws IllegalStateException
+     *             when the current event is not ELEMENT_DATA
+     * @throws NumberFormatException
+     *             when the element is not a valid number
+     *
+     * @since 1.24
+     */
+    BigDecimal getDecimalValue();
+
+    /**
+     * Returns the value of the current {@link EDIStreamEvent#ELEMENT_DATA
+     * ELEMENT_DATA} event as a date, in the form CCYYMMDD or YYMMDD. Dates
+     * without a century are assumed to be in the current year or in the past.
+     *
+     * @return the value of the element as a LocalDate
+     * @throws IllegalStateException
+     *             when the current event is not ELEMENT_DATA
+     * @throws java.time.DateTimeException
+     *             when the element is not a valid date
+     *
+     * @since 1.24
+     */
+    LocalDate getDateValue();
+
+    /**
+     * Returns the value of the current {@link EDIStreamEvent#ELEMENT_DATA
+     * ELEMENT_DATA} event as a time, in the form HHMM, HHMMSS, or HHMMSSd..d
+     * where d..d are decimal seconds.
+     *
+     * @return the value of the element as a LocalTime
+     * @throws IllegalStateException
+     *             when the current event is not ELEMENT_DATA
+     * @throws java.time.DateTimeException
+     *             when the element is not a valid time
+     *
+     * @since 1.24
+     */
+    LocalTime getTimeValue();
+
     /**
      * Return the current location of the processor. If the Location is unknown
      * the processor should return an implementation of Location that returns -1
@@ -0,0 +1,72 @@
+/*******************************************************************************
+ * Copyright 2023 xlate.io LLC, http://www.xlate.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package io.xlate.edi.stream;
+
+import java.io.InputStream;
+
+/**
+ * Rewrites EDI input using different delimiters and/or a different character
+ * encoding without parsing the input into {@link EDIStreamEvent}s.
+ *
+ * <p>
+ * The delimiters of each interchange are detected from its header segment
+ * (ISA, UNA, UNB, or STX). The header is rewritten to declare the delimiters
+ * configured on the {@link EDIOutputFactory} via the properties in
+ * {@link EDIStreamConstants.Delimiters}, and data in the remainder of the
+ * interchange is escaped or unescaped using the release character as needed.
+ * Delimiters not configured on the factory are retained from the input.
+ * TRADACOMS delimiters are fixed and are never changed. Numeric values are not
+ * rewritten and so the decimal mark of the input is always retained.
+ *
+ * <p>
+ * Input is processed in a single pass using a fixed amount of memory,
+ * regardless of the size of the interchanges.
+ *
+ * @since 1.24
+ */
+public interface EDIStreamTranscoder {
+
+    /**
+     * Transcode all interchanges in the given UTF-8 input stream to the output
+     * of this transcoder. The output is flushed, but not closed, on completion.
+     *
+     * @param stream
+     *            UTF-8 encoded EDI input
+     * @return the number of segments written
+     * @throws EDIStreamException
+     *             when the input is not valid EDI, contains data that can not
+     *             be represented using the output delimiters or encoding, or
+     *             when an I/O error occurs
+     */
+    long transcode(InputStream stream) throws EDIStreamException;
+
+    /**
+     * Transcode all interchanges in the given input stream to the output of
+     * this transcoder. The output is flushed, but not closed, on completion.
+     *
+     * @param stream
+     *            EDI input
+     * @param encoding
+     *            character encoding of the stream, must be a valid
+     *            {@link java.nio.charset.Charset Charset}.
+     * @return the number of segments written
+     * @throws EDIStreamException
+     *             when the encoding is not supported, the input is not valid
+     *             EDI, contains data that can not be represented using the
+     *             output delimiters or encoding, or when an I/O error occurs
+     */
+    long transcode(InputStream stream, String encoding) throws EDIStreamException;
+}
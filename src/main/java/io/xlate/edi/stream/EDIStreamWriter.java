@@ -16,7 +16,9 @@
 package io.xlate.edi.stream;
 
 import java.io.InputStream;
+import java.math.BigDecimal;
 import java.nio.ByteBuffer;
+import java.time.LocalDate;
 import java.util.Map;
 
 import io.xlate.edi.schema.Schema;
@@ -181,12 +183,112 @@ public interface EDIStreamWriter extends AutoCloseable {
 
     EDIStreamWriter writeElement(char[] text, int start, int end) throws EDIStreamException;
 
+    /**
+     * Write a simple element with the given integer value. When a schema is
+     * in use and the element is defined as a numeric (N) type, the value is
+     * written with the type's scale as implied decimal digits, e.g. the value
+     * 5 is written as <code>500</code> to an N2 element. When
+     * {@link EDIOutputFactory#FORMAT_ELEMENTS} is enabled, numeric (N) and
+     * decimal (R) values are padded with leading zeros to the minimum length
+     * of the element.
+     *
+     * @param value
+     *            the element value
+     * @return this EDI stream writer
+     * @throws EDIStreamException
+     *             when the value can not be written to the output
+     *
+     * @since 1.24
+     */
+    EDIStreamWriter writeElement(long value) throws EDIStreamException;
+
+    /**
+     * Write a simple element with the given decimal value. When a schema is in
+     * use:
+     * <ul>
+     * <li>a numeric (N) element is written with the type's scale as implied
+     * decimal digits, rounding half-up
+     * <li>a decimal (R) element is written using the decimal mark of the
+     * interchange ({@link EDIStreamConstants.Delimiters#DECIMAL}), rounding
+     * the fraction half-up to fit the maximum length of the element
+     * </ul>
+     * When {@link EDIOutputFactory#FORMAT_ELEMENTS} is enabled, numeric (N)
+     * and decimal (R) values are padded with leading zeros to the minimum
+     * length of the element.
+     *
+     * @param value
+     *            the element value
+     * @return this EDI stream writer
+     * @throws EDIStreamException
+     *             when the value can not be written to the output
+     *
+     * @since 1.24
+     */
+    EDIStreamWriter writeElement(BigDecimal value) throws EDIStreamException;
+
+    /**
+     * Write a simple element with the given date value, formatted as CCYYMMDD.
+     * When a schema is in use and the element is defined as a date (DT) type
+     * with a maximum length of 6, the value is formatted as YYMMDD.
+     *
+     * @param value
+     *            the element value
+     * @return this EDI stream writer
+     * @throws EDIStreamException
+     *             when the value can not be written to the output
+     *
+     * @since 1.24
+     */
+    EDIStreamWriter writeElement(LocalDate value) throws EDIStreamException;
+
     EDIStreamWriter writeEmptyComponent() throws EDIStreamException;
 
     EDIStreamWriter writeComponent(CharSequence text) throws EDIStreamException;
 
     EDIStreamWriter writeComponent(char[] text, int start, int end) throws EDIStreamException;
 
+    /**
+     * Write a component element with the given integer value, formatted as
+     * described by {@link #writeElement(long)}.
+     *
+     * @param value
+     *            the component value
+     * @return this EDI stream writer
+     * @throws EDIStreamException
+     *             when the value can not be written to the output
+     *
+     * @since 1.24
+     */
+    EDIStreamWriter writeComponent(long value) throws EDIStreamException;
+
+    /**
+     * Write a component element with the given decimal value, formatted as
+     * described by {@link #writeElement(BigDecimal)}.
+     *
+     * @param value
+     *            the component value
+     * @return this EDI stream writer
+     * @throws EDIStreamException
+     *             when the value can not be written to the output
+     *
+     * @since 1.24
+     */
+    EDIStreamWriter writeComponent(BigDecimal value) throws EDIStreamException;
+
+    /**
+     * Write a component element with the given date value, formatted as
+     * described by {@link #writeElement(LocalDate)}.
+     *
+     * @param value
+     *            the component value
+     * @return this EDI stream writer
+     * @throws EDIStreamException
+     *             when the value can not be written to the output
+     *
+     * @since 1.24
+     */
+    EDIStreamWriter writeComponent(LocalDate value) throws EDIStreamException;
+
     EDIStreamWriter writeElementData(CharSequence text) throws EDIStreamException;
 
     EDIStreamWriter writeElementData(char[] text, int start, int end) throws EDIStreamException;
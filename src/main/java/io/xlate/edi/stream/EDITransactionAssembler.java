@@ -0,0 +1,180 @@
+/*******************************************************************************
+ * Copyright 2023 xlate.io LLC, http://www.xlate.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package io.xlate.edi.stream;
+
+/**
+ * Assembles transactions written concurrently into a single interchange.
+ *
+ * <p>
+ * The body of each submitted transaction is written by a
+ * {@link ContentWriter} to a separate fragment {@link EDIStreamWriter}, on a
+ * thread provided by the assembler's executor. Fragments are encoded using the
+ * delimiters confirmed by the interchange header already written to the
+ * assembler's target writer. Completed fragments are spliced into the target
+ * writer in the order they were submitted, surrounded by the transaction header
+ * and trailer segments. The assembler assigns the transaction and group
+ * control numbers and computes the segment and transaction counts of the
+ * trailer segments.
+ *
+ * <p>
+ * Header elements given to {@link #startGroup(Object...)} and
+ * {@link #submit(ContentWriter, Object...)} are either a String for a simple
+ * element or a String array for a composite element. The control number
+ * element must be omitted - it is inserted by the assembler at the position
+ * used by the standard (GS06, ST02, UNG05, UNH01, or MHD01).
+ *
+ * <p>
+ * Fragment writers are positioned within a transaction. When a transaction
+ * schema is set on the target writer, each fragment writer validates the body
+ * of its transaction against that schema, including the mandatory segments
+ * expected before the trailer. The {@link ContentWriter} may instead set a
+ * different transaction schema on the fragment writer. Spliced fragments are
+ * not validated again by the target writer.
+ *
+ * @since 1.24
+ */
+public interface EDITransactionAssembler extends AutoCloseable {
+
+    /**
+     * Writes the segments of a transaction's body, excluding the transaction
+     * header and trailer segments.
+     */
+    @FunctionalInterface
+    interface ContentWriter {
+        /**
+         * Write the body of a transaction to the fragment writer.
+         *
+         * @param writer
+         *            the fragment writer, exclusive to this transaction
+         * @throws EDIStreamException
+         *             when the content can not be written
+         */
+        void write(EDIStreamWriter writer) throws EDIStreamException;
+    }
+
+    /**
+     * Set the control number to be used for the next functional group started
+     * with this assembler. The default is 1.
+     *
+     * @param controlNumber
+     *            the next group control number
+     * @return this assembler
+     */
+    EDITransactionAssembler setGroupControlNumber(long controlNumber);
+
+    /**
+     * Set the control number to be used for the next transaction submitted to
+     * this assembler. The default is 1.
+     *
+     * @param controlNumber
+     *            the next transaction control number
+     * @return this assembler
+     */
+    EDITransactionAssembler setTransactionControlNumber(long controlNumber);
+
+    /**
+     * Set the maximum number of submitted transactions that may be pending
+     * (written or buffered, but not yet spliced into the target writer). When
+     * the limit is reached, {@link #submit(ContentWriter, Object...)} waits
+     * for the oldest pending transaction to complete and splices it before
+     * submitting another. The default is twice the parallelism of the
+     * assembler's executor, when known, otherwise twice the number of
+     * available processors.
+     *
+     * @param maxPending
+     *            the maximum number of pending transactions, at least 1
+     * @return this assembler
+     * @throws IllegalArgumentException
+     *             when the maximum is less than 1
+     */
+    EDITransactionAssembler setMaxPendingTransactions(int maxPending);
+
+    /**
+     * Write a functional group header segment to the target writer. Any
+     * transactions pending from earlier submissions are spliced first.
+     *
+     * @param headerElements
+     *            the elements of the group header, excluding the control
+     *            number
+     * @return this assembler
+     * @throws EDIStreamException
+     *             when the header can not be written
+     * @throws IllegalStateException
+     *             when a group is already started or the standard does not
+     *             support functional groups
+     */
+    EDITransactionAssembler startGroup(Object... headerElements) throws EDIStreamException;
+
+    /**
+     * Submit a transaction to be written. The body is written asynchronously;
+     * the transaction is spliced into the target writer once it and all
+     * previously-submitted transactions are complete. Any transactions already
+     * complete at the front of the queue are spliced before this method
+     * returns. When the maximum number of pending transactions is reached,
+     * this method first waits for the oldest pending transaction.
+     *
+     * @param content
+     *            the writer of the transaction's body
+     * @param headerElements
+     *            the elements of the transaction header, excluding the control
+     *            number
+     * @return this assembler
+     * @throws EDIStreamException
+     *             when a previously-submitted transaction failed or could not
+     *             be spliced
+     */
+    EDITransactionAssembler submit(ContentWriter content, Object... headerElements) throws EDIStreamException;
+
+    /**
+     * Wait for all submitted transactions to complete, splice them into the
+     * target writer, and write the functional group trailer segment.
+     *
+     * @return this assembler
+     * @throws EDIStreamException
+     *             when a transaction failed or the trailer could not be
+     *             written
+     * @throws IllegalStateException
+     *             when no group has been started
+     */
+    EDITransactionAssembler endGroup() throws EDIStreamException;
+
+    /**
+     * Wait for all submitted transactions to complete and splice them into
+     * the target writer.
+     *
+     * @return this assembler
+     * @throws EDIStreamException
+     *             when a transaction failed or could not be spliced
+     */
+    EDITransactionAssembler flush() throws EDIStreamException;
+
+    /**
+     * The number of transactions spliced into the target writer.
+     *
+     * @return count of transactions written
+     */
+    int getTransactionCount();
+
+    /**
+     * Splice any remaining transactions into the target writer. The target
+     * writer is not closed and the executor is not shut down.
+     *
+     * @throws EDIStreamException
+     *             when a transaction failed or could not be spliced
+     */
+    @Override
+    void close() throws EDIStreamException;
+}
@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * Copyright 2023 xlate.io LLC, http://www.xlate.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package io.xlate.edi.stream;
+
+import io.xlate.edi.schema.EDIReference;
+
+/**
+ * A reusable view of a complete segment, created by
+ * {@link EDIInputFactory#createSegmentView()} and filled by
+ * {@link EDIStreamReader#nextSegment(SegmentView)}. The text returned by the
+ * view's methods is backed by a buffer shared by all elements of the segment
+ * and is only valid until the view is next filled. Callers that need to retain
+ * a value must copy it, e.g. using {@link CharSequence#toString()}.
+ *
+ * <p>
+ * Element positions, repetitions, and component positions are 1-based,
+ * consistent with {@link Location}.
+ *
+ * @since 1.24
+ */
+public interface SegmentView {
+
+    /**
+     * Returns the tag of the segment, or null when the view is empty.
+     *
+     * @return the tag of the segment
+     */
+    CharSequence getTag();
+
+    /**
+     * Returns the schema reference of the segment, or null when the segment
+     * is not known to any schema in use by the reader.
+     *
+     * @return the schema reference of the segment
+     */
+    EDIReference getSchemaTypeReference();
+
+    /**
+     * Returns the position of the last element present in the segment. Empty
+     * trailing elements omitted from the input are not counted.
+     *
+     * @return the number of elements in the segment
+     */
+    int getElementCount();
+
+    /**
+     * Returns the schema reference of the element (simple or composite) at the
+     * given position, or null when not available.
+     *
+     * @param element
+     *            position of the element
+     * @return the schema reference of the element
+     */
+    EDIReference getElementReference(int element);
+
+    /**
+     * Returns the number of occurrences of the element at the given position,
+     * or zero if the element is not present.
+     *
+     * @param element
+     *            position of the element
+     * @return the number of occurrences of the element
+     */
+    int getRepetitionCount(int element);
+
+    /**
+     * Returns the number of components present in the given occurrence of the
+     * composite element at the given position, or zero when the element is a
+     * simple element or is not present.
+     *
+     * @param element
+     *            position of the element
+     * @param repetition
+     *            occurrence of the element
+     * @return the number of components in the element
+     */
+    int getComponentCount(int element, int repetition);
+
+    /**
+     * Returns the value of the first occurrence of the simple element at the
+     * given position. Equivalent to <code>getElement(element, 1)</code>.
+     *
+     * @param element
+     *            position of the element
+     * @return the element value, or null when the element is not present or
+     *         is a composite
+     */
+    CharSequence getElement(int element);
+
+    /**
+     * Returns the value of the given occurrence of the simple element at the
+     * given position.
+     *
+     * @param element
+     *            position of the element
+     * @param repetition
+     *            occurrence of the element
+     * @return the element value, or null when the element is not present or
+     *         is a composite
+     */
+    CharSequence getElement(int element, int repetition);
+
+    /**
+     * Returns the value of a component of the given occurrence of the
+     * composite element at the given position.
+     *
+     * @param element
+     *            position of the element
+     * @param repetition
+     *            occurrence of the element
+     * @param component
+     *            position of the component
+     * @return the component value, or null when the component is not present
+     */
+    CharSequence getComponent(int element, int repetition, int component);
+
+    /**
+     * Returns the number of validation errors reported by the reader for the
+     * segment, including errors reported after the previous segment but before
+     * this segment (e.g. unexpected or missing segments). Errors are only
+     * available when the reader does not have an {@link EDIInputErrorReporter}.
+     *
+     * @return the number of errors
+     */
+    int getErrorCount();
+
+    /**
+     * Returns the type of the validation error at the given index.
+     *
+     * @param index
+     *            index of the error, less than {@link #getErrorCount()}
+     * @return the type of the error
+     */
+    EDIStreamValidationError getErrorType(int index);
+
+    /**
+     * Returns the location of the validation error at the given index.
+     *
+     * @param index
+     *            index of the error, less than {@link #getErrorCount()}
+     * @return the location of the error
+     */
+    Location getErrorLocation(int index);
+}
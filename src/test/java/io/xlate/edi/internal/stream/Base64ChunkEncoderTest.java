@@ -0,0 +1,91 @@
+/*******************************************************************************
+ * Copyright 2023 xlate.io LLC, http://www.xlate.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package io.xlate.edi.internal.stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringWriter;
+import java.util.Base64;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class Base64ChunkEncoderTest {
+
+    static byte[] data(int length) {
+        byte[] data = new byte[length];
+        new Random(length).nextBytes(data);
+        return data;
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "0, 3",
+        "1, 3",
+        "2, 3",
+        "3, 3",
+        "4, 3",
+        "5, 7",
+        "6, 6",
+        "7, 6",
+        "1000, 10",
+        "3072, 3072",
+        "3073, 3072",
+        "10000, 3072",
+    })
+    void testChunksMatchEncoder(int length, int chunkSize) throws Exception {
+        byte[] data = data(length);
+        Base64ChunkEncoder encoder = new Base64ChunkEncoder(chunkSize);
+        encoder.setSource(new ByteArrayInputStream(data));
+        StringBuilder result = new StringBuilder();
+        int chunks = 0;
+
+        do {
+            int count = encoder.encodeNext();
+            assertTrue(count <= encoder.getChars().length);
+            result.append(encoder.getChars(), 0, encoder.getLength());
+            chunks++;
+        } while (!encoder.isComplete());
+
+        assertEquals(Base64.getEncoder().encodeToString(data), result.toString());
+        // Exact multiples of the chunk size do not produce a trailing empty chunk
+        int expectedChunks = Math.max(1, (length + (chunkSize - chunkSize % 3) - 1) / (chunkSize - chunkSize % 3));
+        assertEquals(expectedChunks, chunks);
+        assertThrows(IllegalStateException.class, encoder::encodeNext);
+    }
+
+    @Test
+    void testEncodeToWriter() throws Exception {
+        byte[] data = data(20000);
+        Base64ChunkEncoder encoder = new Base64ChunkEncoder();
+        StringWriter writer = new StringWriter();
+
+        encoder.setSource(new ByteArrayInputStream(data));
+        assertEquals(Base64.getEncoder().encodeToString(data).length(), encoder.encodeTo(writer));
+        assertEquals(Base64.getEncoder().encodeToString(data), writer.toString());
+
+        // Re-used for another source
+        writer.getBuffer().setLength(0);
+        encoder.setSource(new ByteArrayInputStream(new byte[0]));
+        assertEquals(0, encoder.encodeTo(writer));
+        assertEquals("", writer.toString());
+    }
+}
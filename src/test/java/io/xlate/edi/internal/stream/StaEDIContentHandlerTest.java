@@ -0,0 +1,180 @@
+/*******************************************************************************
+ * Copyright 2023 xlate.io LLC, http://www.xlate.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package io.xlate.edi.internal.stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+
+import javax.xml.parsers.SAXParserFactory;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.sax.SAXResult;
+import javax.xml.transform.sax.SAXTransformerFactory;
+import javax.xml.transform.sax.TransformerHandler;
+import javax.xml.transform.stax.StAXSource;
+import javax.xml.transform.stream.StreamSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+import org.xml.sax.XMLReader;
+
+import io.xlate.edi.stream.EDIInputFactory;
+import io.xlate.edi.stream.EDIOutputFactory;
+import io.xlate.edi.stream.EDIStreamReader;
+import io.xlate.edi.stream.EDIStreamWriter;
+
+class StaEDIContentHandlerTest {
+
+    static final String NAMESPACES = "xmlns:l=\"urn:xlate.io:staedi:names:loops\" xmlns:s=\"urn:xlate.io:staedi:names:segments\" xmlns:c=\"urn:xlate.io:staedi:names:composites\" xmlns:e=\"urn:xlate.io:staedi:names:elements\"";
+
+    static final String UNB = "<l:INTERCHANGE " + NAMESPACES + ">\n"
+            + "  <s:UNB>\n"
+            + "    <c:UNB01><e:UNB01-01>UNOA</e:UNB01-01><e:UNB01-02>3</e:UNB01-02></c:UNB01>\n"
+            + "    <c:UNB04><e:UNB04-01>200914</e:UNB04-01><e:UNB04-02>1945</e:UNB04-02></c:UNB04>\n"
+            + "    <e:UNB05>1</e:UNB05>\n"
+            + "  </s:UNB>\n"
+            + "  <s:UNZ><e:UNZ01>0</e:UNZ01><e:UNZ02>1</e:UNZ02></s:UNZ>\n"
+            + "</l:INTERCHANGE>";
+
+    ByteArrayOutputStream stream;
+    EDIOutputFactory ediOutFactory;
+    EDIStreamWriter ediWriter;
+    ContentHandler it;
+
+    @BeforeEach
+    void setUp() {
+        ediOutFactory = EDIOutputFactory.newFactory();
+        stream = new ByteArrayOutputStream();
+        ediWriter = ediOutFactory.createEDIStreamWriter(stream);
+        it = ediOutFactory.createContentHandler(ediWriter);
+    }
+
+    String edi() {
+        return new String(stream.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    void parse(String xml) throws Exception {
+        parse(xml, true);
+    }
+
+    void parse(String xml, boolean namespaceAware) throws Exception {
+        SAXParserFactory factory = SAXParserFactory.newInstance();
+        factory.setNamespaceAware(namespaceAware);
+        XMLReader reader = factory.newSAXParser().getXMLReader();
+        reader.setContentHandler(it);
+        reader.parse(new InputSource(new StringReader(xml)));
+    }
+
+    @Test
+    void testSAXParserWritesEDI() throws Exception {
+        parse(UNB);
+        assertEquals("UNB+UNOA:3+++200914:1945+1'UNZ+0+1'", edi());
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = { true, false })
+    void testPrefixesDeclaredPerElement(boolean namespaceAware) throws Exception {
+        // The element namespace is declared separately on each segment
+        String xml = "<l:INTERCHANGE xmlns:l=\"urn:xlate.io:staedi:names:loops\" xmlns:s=\"urn:xlate.io:staedi:names:segments\">"
+                + "<s:UNB xmlns:c=\"urn:xlate.io:staedi:names:composites\" xmlns:e=\"urn:xlate.io:staedi:names:elements\">"
+                + "<c:UNB01><e:UNB01-01>UNOA</e:UNB01-01><e:UNB01-02>3</e:UNB01-02></c:UNB01><e:UNB05>1</e:UNB05>"
+                + "</s:UNB>"
+                + "<s:UNZ xmlns:x=\"urn:xlate.io:staedi:names:elements\"><x:UNZ01>0</x:UNZ01><x:UNZ02>1</x:UNZ02></s:UNZ>"
+                + "</l:INTERCHANGE>";
+
+        parse(xml, namespaceAware);
+        assertEquals("UNB+UNOA:3++++1'UNZ+0+1'", edi());
+    }
+
+    @Test
+    void testPrefixOutOfScopeFails() {
+        String xml = "<l:INTERCHANGE xmlns:l=\"urn:xlate.io:staedi:names:loops\" xmlns:s=\"urn:xlate.io:staedi:names:segments\">"
+                + "<s:UNB xmlns:c=\"urn:xlate.io:staedi:names:composites\" xmlns:e=\"urn:xlate.io:staedi:names:elements\">"
+                + "<c:UNB01><e:UNB01-01>UNOA</e:UNB01-01><e:UNB01-02>3</e:UNB01-02></c:UNB01>"
+                + "</s:UNB>"
+                + "<s:UNZ><e:UNZ01>0</e:UNZ01></s:UNZ>"
+                + "</l:INTERCHANGE>";
+
+        SAXException thrown = assertThrows(SAXException.class, () -> parse(xml, false));
+        assertEquals("Element e:UNZ01 has an undefined namespace", thrown.getMessage());
+    }
+
+    @Test
+    void testTransformerHandlerWritesEDI() throws Exception {
+        // Rename a segment using XSLT, output streamed directly to the EDI writer
+        String xslt = "<xsl:stylesheet version=\"1.0\" xmlns:xsl=\"http://www.w3.org/1999/XSL/Transform\" " + NAMESPACES + ">"
+                + "<xsl:template match=\"@*|node()\"><xsl:copy><xsl:apply-templates select=\"@*|node()\"/></xsl:copy></xsl:template>"
+                + "<xsl:template match=\"e:UNB05/text()\">42</xsl:template>"
+                + "</xsl:stylesheet>";
+        SAXTransformerFactory factory = (SAXTransformerFactory) TransformerFactory.newInstance();
+        TransformerHandler handler = factory.newTransformerHandler(new StreamSource(new StringReader(xslt)));
+        handler.setResult(new SAXResult(it));
+
+        SAXParserFactory parserFactory = SAXParserFactory.newInstance();
+        parserFactory.setNamespaceAware(true);
+        XMLReader reader = parserFactory.newSAXParser().getXMLReader();
+        reader.setContentHandler(handler);
+        reader.parse(new InputSource(new StringReader(UNB)));
+
+        assertEquals("UNB+UNOA:3+++200914:1945+42'UNZ+0+1'", edi());
+    }
+
+    @Test
+    void testRoundTripFromXMLStreamReader() throws Exception {
+        EDIInputFactory inputFactory = EDIInputFactory.newFactory();
+        EDIStreamReader ediReader = inputFactory.createEDIStreamReader(getClass().getResourceAsStream("/x12/simple997.edi"));
+        XMLStreamReader xmlReader = inputFactory.createXMLStreamReader(ediReader);
+        xmlReader.next(); // Per StAXSource JavaDoc, put in START_DOCUMENT state
+
+        TransformerFactory.newInstance().newTransformer().transform(new StAXSource(xmlReader), new SAXResult(it));
+
+        EDIStreamReader expected = inputFactory.createEDIStreamReader(getClass().getResourceAsStream("/x12/simple997.edi"));
+        EDIStreamReader actual = inputFactory.createEDIStreamReader(new ByteArrayInputStream(stream.toByteArray()));
+
+        while (expected.hasNext()) {
+            assertEquals(expected.next(), actual.next());
+            assertEquals(expected.hasText() ? expected.getText() : null, actual.hasText() ? actual.getText() : null);
+        }
+    }
+
+    @Test
+    void testAttributesUnsupported() {
+        String xml = "<l:INTERCHANGE " + NAMESPACES + "><s:UNB id=\"1\"/></l:INTERCHANGE>";
+        SAXException thrown = assertThrows(SAXException.class, () -> parse(xml));
+        assertEquals(String.format(StaEDIContentHandler.MSG_ATTRIBUTES_UNSUPPORTED, "id"), thrown.getMessage());
+    }
+
+    @Test
+    void testIllegalCharactersReportedWithLocation() {
+        String xml = "<l:INTERCHANGE " + NAMESPACES + ">\n<s:UNB>junk</s:UNB></l:INTERCHANGE>";
+        SAXException thrown = assertThrows(SAXException.class, () -> parse(xml));
+        SAXParseException parseException = assertInstanceOf(SAXParseException.class, thrown);
+        assertEquals(StaEDIXMLStreamWriter.MSG_ILLEGAL_NONWHITESPACE, thrown.getMessage());
+        assertEquals(2, parseException.getLineNumber());
+    }
+}
@@ -0,0 +1,194 @@
+/*******************************************************************************
+ * Copyright 2023 xlate.io LLC, http://www.xlate.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package io.xlate.edi.internal.stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import io.xlate.edi.stream.EDIDocument;
+import io.xlate.edi.stream.EDIDocument.NodeType;
+import io.xlate.edi.stream.EDIStreamEvent;
+import io.xlate.edi.stream.EDIStreamReader;
+import io.xlate.edi.stream.Location;
+import io.xlate.edi.test.StaEDIReaderTestBase;
+
+class StaEDIDocumentTest extends StaEDIReaderTestBase {
+
+    static final String X12_COMPOSITES = ""
+            + "ISA*00*          *00*          *ZZ*ReceiverID     *ZZ*Sender         *050812*1953*^*00501*508121953*0*P*:~"
+            + "GS*HC*SENDER*RECEIVER*20230101*1200*1*X*005010~"
+            + "ST*837*0001~"
+            + "CLM*945405*5332.54***12:B:1*Y~"
+            + "HI*BK:2533^BF:4019~"
+            + "SE*4*0001~"
+            + "GE*1*1~"
+            + "IEA*1*508121953~";
+
+    static String describeElement(EDIStreamReader reader) {
+        Location location = reader.getLocation();
+        return location.getElementPosition() + "." + Math.max(1, location.getElementOccurrence()) + "."
+                + location.getComponentPosition() + '=' + reader.getText();
+    }
+
+    static void describe(EDIDocument document, int node, List<String> result) {
+        switch (document.getNodeType(node)) {
+        case LOOP:
+            result.add("LOOP " + document.getText(node));
+            break;
+        case SEGMENT:
+            result.add("SEGMENT " + document.getText(node));
+            break;
+        case ELEMENT:
+            int parent = document.getParent(node);
+
+            if (document.getNodeType(parent) == NodeType.COMPOSITE) {
+                result.add(document.getPosition(parent) + "." + document.getOccurrence(parent) + "."
+                        + document.getPosition(node) + '=' + document.getText(node));
+            } else {
+                result.add(document.getPosition(node) + "." + document.getOccurrence(node) + ".-1=" + document.getText(node));
+            }
+            break;
+        default:
+            break;
+        }
+
+        for (int child = document.getFirstChild(node); child != EDIDocument.NONE; child = document.getNextSibling(child)) {
+            describe(document, child, result);
+        }
+    }
+
+    @Test
+    void testTransactionDocumentMatchesEvents() throws Exception {
+        setupReader("/x12/sample837-original.edi", "/x12/005010/837.xml");
+        List<String> expected = new ArrayList<>();
+        boolean transaction = false;
+
+        while (ediReader.hasNext()) {
+            EDIStreamEvent event = ediReader.next();
+
+            if (event == EDIStreamEvent.START_TRANSACTION) {
+                transaction = true;
+            }
+
+            if (transaction) {
+                switch (event) {
+                case START_TRANSACTION:
+                case START_LOOP:
+                    expected.add("LOOP " + ediReader.getReferenceCode());
+                    break;
+                case START_SEGMENT:
+                    expected.add("SEGMENT " + ediReader.getText());
+                    break;
+                case ELEMENT_DATA:
+                    expected.add(describeElement(ediReader));
+                    break;
+                case END_TRANSACTION:
+                    transaction = false;
+                    break;
+                default:
+                    break;
+                }
+            }
+        }
+
+        setupReader("/x12/sample837-original.edi", "/x12/005010/837.xml");
+
+        while (ediReader.next() != EDIStreamEvent.START_TRANSACTION) {
+            // Advance to the transaction
+        }
+
+        EDIDocument document = ediInputFactory.readDocument(ediReader);
+        assertEquals(EDIStreamEvent.END_TRANSACTION, ediReader.getEventType());
+
+        List<String> actual = new ArrayList<>();
+        describe(document, document.getRoot(), actual);
+        assertEquals(expected, actual);
+
+        int root = document.getRoot();
+        int patient = document.getLoop(root, "L0002", 3);
+        assertEquals("3", document.getText(document.getElement(document.getSegment(patient, "HL", 1), 1, 1)));
+        int claimLoop = document.getLoop(patient, "L0004", 1);
+        int claim = document.getSegment(claimLoop, "CLM", 1);
+        assertEquals("CLM", document.getText(claim));
+        assertEquals("5332.54", document.getText(document.getElement(claim, 2, 1)));
+        assertEquals("L0004", document.getSchemaTypeReference(claimLoop).getReferencedType().getCode());
+        assertEquals("CLM", document.getSchemaTypeReference(claim).getReferencedType().getCode());
+        assertEquals(EDIDocument.NONE, document.getLoop(root, "L0002", 100));
+    }
+
+    @Test
+    void testInterchangeDocumentNavigation() throws Exception {
+        setupReader(X12_COMPOSITES.getBytes(StandardCharsets.UTF_8), null);
+        EDIDocument document = ediInputFactory.readDocument(ediReader);
+        assertEquals(EDIStreamEvent.END_INTERCHANGE, ediReader.getEventType());
+
+        int interchange = document.getRoot();
+        assertEquals(0, interchange);
+        assertEquals(NodeType.LOOP, document.getNodeType(interchange));
+        assertEquals(EDIDocument.NONE, document.getParent(interchange));
+
+        int isa = document.getSegment(interchange, "ISA", 1);
+        assertEquals(NodeType.SEGMENT, document.getNodeType(isa));
+        assertEquals("508121953", document.getText(document.getElement(isa, 13, 1)));
+
+        int group = document.getNextSibling(isa);
+        assertEquals(NodeType.LOOP, document.getNodeType(group));
+        int transaction = document.getNextSibling(document.getSegment(group, "GS", 1));
+        assertEquals(group, document.getParent(transaction));
+        assertEquals(document.getSegment(interchange, "IEA", 1), document.getNextSibling(group));
+
+        int clm = document.getSegment(transaction, "CLM", 1);
+        assertEquals(4, document.getPosition(clm));
+        assertEquals("", document.getText(document.getElement(clm, 3, 1)));
+        assertEquals(0, document.getTextLength(document.getElement(clm, 4, 1)));
+
+        int facility = document.getElement(clm, 5, 1);
+        assertEquals(NodeType.COMPOSITE, document.getNodeType(facility));
+        assertNull(document.getText(facility));
+        assertEquals(-1, document.getTextLength(facility));
+        assertEquals("B", document.getText(document.getComponent(facility, 2)));
+        assertEquals(-1, document.getOccurrence(document.getComponent(facility, 2)));
+        assertEquals(EDIDocument.NONE, document.getComponent(facility, 4));
+
+        int hi = document.getSegment(transaction, "HI", 1);
+        int diagnosis = document.getElement(hi, 1, 2);
+        assertEquals(2, document.getOccurrence(diagnosis));
+        assertEquals("4019", document.getText(document.getComponent(diagnosis, 2)));
+        assertEquals(EDIDocument.NONE, document.getElement(hi, 1, 3));
+        assertEquals(EDIDocument.NONE, document.getFirstChild(document.getComponent(diagnosis, 1)));
+        assertEquals(EDIDocument.NONE, document.getSegment(transaction, "HI", 2));
+
+        assertThrows(IndexOutOfBoundsException.class, () -> document.getText(EDIDocument.NONE));
+        assertThrows(IndexOutOfBoundsException.class, () -> document.getNodeType(document.getNodeCount()));
+    }
+
+    @Test
+    void testDocumentInvalidStart() throws Exception {
+        setupReader(X12_COMPOSITES.getBytes(StandardCharsets.UTF_8), null);
+        ediReader.next();
+        assertEquals(EDIStreamEvent.START_SEGMENT, ediReader.next());
+
+        IllegalStateException thrown = assertThrows(IllegalStateException.class, () -> ediInputFactory.readDocument(ediReader));
+        assertEquals("not a valid document start [ELEMENT_DATA]", thrown.getMessage());
+    }
+}
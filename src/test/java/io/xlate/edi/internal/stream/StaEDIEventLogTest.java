@@ -0,0 +1,255 @@
+/*******************************************************************************
+ * Copyright 2023 xlate.io LLC, http://www.xlate.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package io.xlate.edi.internal.stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import io.xlate.edi.schema.EDIReference;
+import io.xlate.edi.schema.EDISimpleType;
+import io.xlate.edi.schema.EDIType;
+import io.xlate.edi.stream.EDIInputFactory;
+import io.xlate.edi.stream.EDIStreamEvent;
+import io.xlate.edi.stream.EDIStreamException;
+import io.xlate.edi.stream.EDIStreamReader;
+import io.xlate.edi.stream.EDIStreamValidationError;
+import io.xlate.edi.stream.Location;
+import io.xlate.edi.test.StaEDIReaderTestBase;
+
+class StaEDIEventLogTest extends StaEDIReaderTestBase {
+
+    static final String X12_INVALID_COUNT = ""
+            + "ISA*00*          *00*          *ZZ*ReceiverID     *ZZ*Sender         *050812*1953*^*00501*508121953*0*P*:~"
+            + "GS*IN*SENDER*RECEIVER*20230101*1200*1*X*005010~"
+            + "ST*810*0001~"
+            + "BIG*20230101*INV1~"
+            + "SE*5*0001~"
+            + "GE*1*1~"
+            + "IEA*1*508121953~";
+
+    static String describe(EDIStreamReader reader, EDIStreamEvent event) throws Exception {
+        StringBuilder result = new StringBuilder(event.toString());
+        Location location = reader.getLocation();
+
+        result.append(" @ ").append(location).append(" [").append(location.getLineNumber()).append(':')
+              .append(location.getColumnNumber()).append(':').append(location.getCharacterOffset()).append(']');
+
+        if (reader.hasText()) {
+            result.append(" text=").append(reader.getText());
+        }
+
+        result.append(" code=").append(reader.getReferenceCode());
+
+        if (event.isError()) {
+            result.append(" error=").append(reader.getErrorType());
+        }
+
+        EDIReference reference = reader.getSchemaTypeReference();
+
+        if (reference != null) {
+            EDIType type = reference.getReferencedType();
+            result.append(" ref=").append(type.getId()).append('/').append(type.getType())
+                  .append('[').append(reference.getMinOccurs()).append(',').append(reference.getMaxOccurs()).append(']');
+
+            if (type instanceof EDISimpleType) {
+                EDISimpleType simpleType = (EDISimpleType) type;
+                result.append(' ').append(simpleType.getBase()).append(simpleType.getNumber())
+                      .append('(').append(simpleType.getMinLength()).append(',').append(simpleType.getMaxLength()).append(')');
+
+                if (event == EDIStreamEvent.ELEMENT_DATA && simpleType.getBase() == EDISimpleType.Base.DECIMAL
+                        && reader.getTextLength() > 0) {
+                    result.append(" value=").append(reader.getDecimalValue());
+                }
+            }
+        }
+
+        if (event == EDIStreamEvent.ELEMENT_DATA_BINARY) {
+            ByteArrayOutputStream binary = new ByteArrayOutputStream();
+            InputStream data = reader.getBinaryData();
+            byte[] buffer = new byte[100];
+            int count;
+
+            while ((count = data.read(buffer)) > -1) {
+                binary.write(buffer, 0, count);
+            }
+
+            result.append(" binary=").append(Base64.getEncoder().encodeToString(binary.toByteArray()));
+        }
+
+        return result.toString();
+    }
+
+    static List<String> describeAll(EDIStreamReader reader) throws Exception {
+        List<String> events = new ArrayList<>();
+
+        while (reader.hasNext()) {
+            EDIStreamEvent event = reader.next();
+            events.add(describe(reader, event));
+        }
+
+        return events;
+    }
+
+    static EDIStreamEvent nextEvent(EDIStreamReader reader, EDIStreamEvent type) throws Exception {
+        EDIStreamEvent event;
+
+        do {
+            event = reader.next();
+        } while (event != type);
+
+        return event;
+    }
+
+    byte[] record(String ediResource, String schemaResource) throws Exception {
+        ByteArrayOutputStream log = new ByteArrayOutputStream();
+        setupReader(ediResource, schemaResource);
+        ediInputFactory.writeEventLog(ediReader, log);
+        return log.toByteArray();
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "/x12/sample837-original.edi, /x12/005010/837.xml",
+        "/x12/simple_with_binary_segment.edi, /x12/EDISchemaBinarySegment.xml",
+        "/EDIFACT/invoic_d93a_una.edi, ",
+        "/x12/invalid999.edi, ",
+    })
+    void testReplayedEventsMatchReader(String ediResource, String schemaResource) throws Exception {
+        byte[] log = record(ediResource, schemaResource);
+
+        setupReader(ediResource, schemaResource);
+        List<String> expected = describeAll(ediReader);
+        List<String> actual = describeAll(ediInputFactory.createEventLogReader(new ByteArrayInputStream(log)));
+
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void testReplayedJsonMatchesReader() throws Exception {
+        byte[] log = record("/x12/sample837-original.edi", "/x12/005010/837.xml");
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+
+        setupReader("/x12/sample837-original.edi", "/x12/005010/837.xml");
+        ediInputFactory.writeJSON(ediReader, expected);
+        ediInputFactory.writeJSON(ediInputFactory.createEventLogReader(new ByteArrayInputStream(log)), actual);
+
+        assertEquals(expected.toString("UTF-8"), actual.toString("UTF-8"));
+    }
+
+    @Test
+    void testReplayedXmlWrapsTransactionContents() throws Exception {
+        ediInputFactory.setProperty(EDIInputFactory.XML_WRAP_TRANSACTION_CONTENTS, true);
+        byte[] log = record("/x12/sample837-original.edi", "/x12/005010/837.xml");
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+
+        setupReader("/x12/sample837-original.edi", "/x12/005010/837.xml");
+        ediInputFactory.writeXML(ediReader, expected);
+        ediInputFactory.writeXML(ediInputFactory.createEventLogReader(new ByteArrayInputStream(log)), actual);
+
+        assertTrue(expected.toString("UTF-8").contains("<l:X12-837-X.005010X222>"), expected.toString("UTF-8"));
+        assertEquals(expected.toString("UTF-8"), actual.toString("UTF-8"));
+    }
+
+    @Test
+    void testReplayedStateAndTextAccess() throws Exception {
+        byte[] log = record("/EDIFACT/invoic_d93a_una.edi", null);
+        EDIStreamReader reader = ediInputFactory.createEventLogReader(new ByteArrayInputStream(log));
+
+        assertThrows(IllegalStateException.class, reader::getStandard);
+        assertThrows(IllegalStateException.class, reader::getDelimiters);
+        assertEquals(EDIStreamEvent.START_INTERCHANGE, reader.next());
+        assertEquals("EDIFACT", reader.getStandard());
+        assertEquals(Character.valueOf(','), reader.getDelimiters().get(EDIStreamReader.Delimiters.DECIMAL));
+
+        assertEquals(EDIStreamEvent.START_SEGMENT, reader.nextTag());
+        assertEquals("UNA", reader.getText());
+        assertEquals(EDIStreamEvent.START_TRANSACTION, nextEvent(reader, EDIStreamEvent.START_TRANSACTION));
+        assertEquals(EDIStreamEvent.START_SEGMENT, reader.nextTag());
+        assertEquals("UNH", reader.getText());
+
+        char[] target = new char[2];
+        assertEquals(2, reader.getTextCharacters(1, target, 0, 2));
+        assertEquals("NH", new String(target));
+        assertEquals(EDIStreamEvent.END_SEGMENT, reader.skipSegment());
+        assertEquals("INVOIC", reader.getTransactionType());
+
+        assertEquals(EDIStreamEvent.START_SEGMENT, reader.nextTag());
+        assertEquals("BGM", reader.getText());
+        assertEquals("BGM", new String(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength()));
+        assertEquals(EDIStreamEvent.ELEMENT_DATA, reader.next());
+        assertEquals(380, reader.getIntValue());
+        assertEquals(380L, reader.getLongValue());
+
+        reader.close();
+        assertThrows(IllegalStateException.class, reader::getEventType);
+    }
+
+    @Test
+    void testReplayedTransactionSkipped() throws Exception {
+        byte[] log = record("/x12/sample837-original.edi", "/x12/005010/837.xml");
+        EDIStreamReader reader = ediInputFactory.createEventLogReader(new ByteArrayInputStream(log));
+
+        assertEquals(EDIStreamEvent.START_TRANSACTION, nextEvent(reader, EDIStreamEvent.START_TRANSACTION));
+        assertEquals(EDIStreamEvent.START_SEGMENT, reader.next());
+        assertEquals("ST", reader.getText());
+        assertEquals(EDIStreamEvent.END_SEGMENT, reader.skipTransaction());
+        assertEquals(EDIStreamEvent.START_SEGMENT, reader.next());
+        assertEquals("SE", reader.getText());
+        assertThrows(IllegalStateException.class, reader::skipTransaction);
+        assertEquals(EDIStreamEvent.END_SEGMENT, reader.skipSegment());
+        assertEquals(EDIStreamEvent.END_TRANSACTION, reader.next());
+    }
+
+    @Test
+    void testReplayedErrorsReported() throws Exception {
+        ByteArrayOutputStream log = new ByteArrayOutputStream();
+        setupReader(X12_INVALID_COUNT.getBytes(StandardCharsets.UTF_8), null);
+        ediInputFactory.writeEventLog(ediReader, log);
+
+        List<EDIStreamValidationError> errors = new ArrayList<>();
+        ediInputFactory.setErrorReporter((errorType, reader) -> errors.add(errorType));
+        EDIStreamReader reader = ediInputFactory.createEventLogReader(new ByteArrayInputStream(log.toByteArray()));
+        List<String> events = describeAll(reader);
+
+        assertEquals(1, errors.size());
+        assertEquals(EDIStreamValidationError.CONTROL_COUNT_DOES_NOT_MATCH_ACTUAL_COUNT, errors.get(0));
+        assertTrue(events.stream().noneMatch(event -> event.contains("ERROR")));
+    }
+
+    @Test
+    void testInvalidEventLog() {
+        ByteArrayInputStream stream = new ByteArrayInputStream("ISA*00".getBytes(StandardCharsets.UTF_8));
+        EDIStreamException thrown = assertThrows(EDIStreamException.class, () -> ediInputFactory.createEventLogReader(stream));
+        assertEquals("Invalid event log", thrown.getMessage());
+    }
+}
@@ -0,0 +1,313 @@
+/*******************************************************************************
+ * Copyright 2023 xlate.io LLC, http://www.xlate.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package io.xlate.edi.internal.stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import io.xlate.edi.stream.EDIInputFactory;
+import io.xlate.edi.stream.EDIStreamEvent;
+import io.xlate.edi.stream.EDIStreamException;
+import io.xlate.edi.stream.EDIStreamIndex;
+import io.xlate.edi.stream.EDIStreamIndex.Entry;
+import io.xlate.edi.stream.EDIStreamIndex.Type;
+import io.xlate.edi.stream.EDIStreamReader;
+
+class StaEDIStreamIndexTest {
+
+    @TempDir
+    Path directory;
+
+    EDIInputFactory factory = EDIInputFactory.newFactory();
+
+    Path copyResource(String resource) throws IOException {
+        Path file = directory.resolve("input.edi");
+        Files.write(file, StaEDIStreamTranscoderTest.readResource(resource));
+        return file;
+    }
+
+    EDIStreamIndex index(Path file) throws IOException, EDIStreamException {
+        try (InputStream stream = Files.newInputStream(file)) {
+            return factory.createEDIStreamIndex(stream);
+        }
+    }
+
+    static String text(byte[] input, Entry entry) {
+        return new String(input, (int) entry.getOffset(), (int) entry.getLength(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Segment tags and errors read from the entry
+     */
+    List<String> read(FileChannel channel, Entry entry) throws EDIStreamException, IOException {
+        List<String> events = new ArrayList<>();
+
+        try (EDIStreamReader reader = factory.createEDIStreamReader(channel, entry)) {
+            while (reader.hasNext()) {
+                EDIStreamEvent event = reader.next();
+
+                if (event == EDIStreamEvent.START_SEGMENT) {
+                    events.add(reader.getText());
+                } else if (event.name().endsWith("_ERROR")) {
+                    events.add(event + " " + reader.getErrorType() + " " + reader.getLocation());
+                }
+            }
+        }
+
+        return events;
+    }
+
+    @Test
+    void testX12Index() throws Exception {
+        Path file = copyResource("/x12/invoice810_po850_dual.edi");
+        byte[] input = Files.readAllBytes(file);
+        EDIStreamIndex index = index(file);
+
+        List<String> types = index.getEntries().stream().map(e -> e.getType() + ":" + e.getControlNumber()).collect(Collectors.toList());
+        assertEquals("INTERCHANGE:000000020", types.get(0));
+        assertEquals("GROUP:1", types.get(1));
+        assertEquals("TRANSACTION:000000001", types.get(2));
+        assertEquals("TRANSACTION:000000002", types.get(3));
+
+        Entry interchange = index.getEntries().get(0);
+        assertEquals(0, interchange.getOffset());
+        assertNull(interchange.getParent());
+        assertTrue(text(input, interchange).startsWith("ISA*"));
+        assertTrue(text(input, interchange).endsWith("~"));
+
+        for (Entry entry : index.getEntries()) {
+            String text = text(input, entry);
+
+            switch (entry.getType()) {
+            case GROUP:
+                assertTrue(text.startsWith("GS*"), text);
+                assertTrue(text.matches("(?s).*GE\\*\\d+\\*" + entry.getControlNumber() + "~"), text);
+                assertEquals(interchange, entry.getParent());
+                break;
+            case TRANSACTION:
+                assertTrue(text.startsWith("ST*" + entry.getTransactionType() + "*" + entry.getControlNumber() + "~"), text);
+                assertTrue(text.endsWith("*" + entry.getControlNumber() + "~"), text);
+                assertEquals(Type.GROUP, entry.getParent().getType());
+                break;
+            default:
+                break;
+            }
+        }
+    }
+
+    @Test
+    void testX12TransactionRead() throws Exception {
+        Path file = copyResource("/x12/invoice810_po850_dual.edi");
+        EDIStreamIndex index = index(file);
+        Entry transaction = index.getEntries()
+                                 .stream()
+                                 .filter(e -> "850".equals(e.getTransactionType()))
+                                 .findFirst()
+                                 .orElse(null);
+        assertNotNull(transaction);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            List<String> segments = read(channel, transaction);
+
+            assertEquals("ISA", segments.get(0));
+            assertEquals("GS", segments.get(1));
+            assertEquals("ST", segments.get(2));
+            assertEquals("BEG", segments.get(3));
+            assertEquals("SE", segments.get(segments.size() - 3));
+            assertEquals("GE", segments.get(segments.size() - 2));
+            assertEquals("IEA", segments.get(segments.size() - 1));
+            assertEquals(1, segments.stream().filter("ST"::equals).count());
+            // Generated trailers have correct counts and control numbers
+            assertTrue(segments.stream().noneMatch(s -> s.contains("_ERROR")), segments.toString());
+            assertEquals(0, channel.position());
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "/EDIFACT/invoic_d97b.edi", "/EDIFACT/invoic_d97b_una.edi", "/EDIFACT/orders-with-group.edi" })
+    void testEDIFACTIndexRead(String resource) throws Exception {
+        Path file = copyResource(resource);
+        byte[] input = Files.readAllBytes(file);
+        EDIStreamIndex index = index(file);
+        Entry interchange = index.getEntries().get(0);
+
+        assertEquals(Type.INTERCHANGE, interchange.getType());
+        assertEquals(0, interchange.getOffset());
+        assertEquals(input.length, interchange.getOffset() + interchange.getLength() + trailingWhitespace(input));
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            for (Entry entry : index.getEntries()) {
+                if (entry.getType() == Type.TRANSACTION) {
+                    // Offsets account for multi-byte characters (e.g. NAD in invoic_d97b.edi)
+                    String text = text(input, entry);
+                    assertTrue(text.startsWith("UNH"), text);
+                    assertTrue(text.contains(entry.getControlNumber() + text.charAt(3) + entry.getTransactionType()), text);
+                    assertTrue(text.matches("(?s).*UNT.\\d+." + entry.getControlNumber() + "\\W"), text);
+
+                    List<String> segments = read(channel, entry);
+                    // Errors of the original input are unchanged, none are due to the generated trailers
+                    assertEquals(errors(read(channel, interchange)), errors(segments));
+                    assertEquals(1, segments.stream().filter("UNH"::equals).count());
+                    assertEquals("UNZ", segments.get(segments.size() - 1));
+                }
+            }
+        }
+    }
+
+    static List<String> errors(List<String> segments) {
+        return segments.stream().filter(s -> s.contains("_ERROR")).collect(Collectors.toList());
+    }
+
+    static int trailingWhitespace(byte[] input) {
+        int count = 0;
+
+        for (int i = input.length - 1; i >= 0 && Character.isWhitespace(input[i]); i--) {
+            count++;
+        }
+
+        return count;
+    }
+
+    @Test
+    void testGroupRead() throws Exception {
+        Path file = copyResource("/x12/invoice810_po850_dual.edi");
+        EDIStreamIndex index = index(file);
+        Entry group = index.find(Type.GROUP, "1");
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            List<String> segments = read(channel, group);
+            assertEquals(2, segments.stream().filter("ST"::equals).count());
+            assertEquals(1, segments.stream().filter("GS"::equals).count());
+            assertTrue(segments.stream().noneMatch(s -> s.contains("_ERROR")), segments.toString());
+        }
+    }
+
+    @Test
+    void testIndexWriteRead() throws Exception {
+        Path file = copyResource("/x12/invoice810_po850_dual.edi");
+        EDIStreamIndex index = index(file);
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        index.write(buffer);
+
+        EDIStreamIndex result = factory.readEDIStreamIndex(new ByteArrayInputStream(buffer.toByteArray()));
+
+        assertEquals(index.getEncoding(), result.getEncoding());
+        assertEquals(index.getEntries().size(), result.getEntries().size());
+
+        for (int i = 0; i < index.getEntries().size(); i++) {
+            assertEquals(index.getEntries().get(i).toString(), result.getEntries().get(i).toString());
+            assertEquals(index.getEntries().get(i).getTransactionType(), result.getEntries().get(i).getTransactionType());
+        }
+
+        Entry transaction = result.find(Type.TRANSACTION, "000000002");
+        assertEquals(index.find(Type.TRANSACTION, "000000002").toString(), transaction.toString());
+        assertEquals(Type.GROUP, transaction.getParent().getType());
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            assertEquals("ST", read(channel, transaction).get(2));
+        }
+    }
+
+    @Test
+    void testInvalidIndex() {
+        ByteArrayInputStream stream = new ByteArrayInputStream(new byte[] { 1, 2, 3, 4, 0, 1 });
+        assertThrows(IOException.class, () -> factory.readEDIStreamIndex(stream));
+    }
+
+    @Test
+    void testUnsupportedEncoding() {
+        ByteArrayInputStream stream = new ByteArrayInputStream(new byte[0]);
+        assertThrows(EDIStreamException.class, () -> factory.createEDIStreamIndex(stream, "UTF-16"));
+        assertThrows(EDIStreamException.class, () -> factory.createEDIStreamIndex(stream, "NOT-A-CHARSET"));
+    }
+
+    @Test
+    void testDecodeOnlyEncodingUnsupported() {
+        // ISO-2022-CN may only be decoded, byte lengths of its characters are not known
+        ByteArrayInputStream stream = new ByteArrayInputStream(new byte[0]);
+        EDIStreamException thrown = assertThrows(EDIStreamException.class, () -> factory.createEDIStreamIndex(stream, "ISO-2022-CN"));
+        assertEquals("Unsupported encoding for indexing: ISO-2022-CN", thrown.getMessage());
+    }
+
+    @Test
+    void testByteOrderMarkSkipped() throws Exception {
+        byte[] edi = StaEDIStreamTranscoderTest.readResource("/x12/invoice810_po850_dual.edi");
+        byte[] input = new byte[edi.length + 3];
+        input[0] = (byte) 0xEF;
+        input[1] = (byte) 0xBB;
+        input[2] = (byte) 0xBF;
+        System.arraycopy(edi, 0, input, 3, edi.length);
+        Path file = directory.resolve("input.edi");
+        Files.write(file, input);
+
+        EDIStreamIndex index = index(file);
+        Entry interchange = index.getEntries().get(0);
+        assertEquals(3, interchange.getOffset());
+        assertTrue(text(input, interchange).startsWith("ISA*"));
+
+        Entry transaction = index.find(Type.TRANSACTION, "000000002");
+        assertTrue(text(input, transaction).startsWith("ST*810*000000002~"), text(input, transaction));
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            List<String> segments = read(channel, transaction);
+            assertEquals("ST", segments.get(2));
+            assertTrue(segments.stream().noneMatch(s -> s.contains("_ERROR")), segments.toString());
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "UNB+UNOA:3+005435656:1+006415160:1+060515:1434+00000000000778'UNH+1+INV",
+        "ISA*00*          *00*          *ZZ*ReceiverID     *ZZ*Sender         *050812*1953*^*00501*508121953*0*P*:~",
+        "STX=ANA:1+5000000000000:SOME STORES LTD+5010000000000:SUPPLIER UK LTD+070315:130410+REF001'"
+    })
+    void testIncompleteOrUnsupportedInput(String input) {
+        ByteArrayInputStream stream = new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8));
+        assertThrows(EDIStreamException.class, () -> factory.createEDIStreamIndex(stream));
+    }
+
+    @Test
+    void testUnsupportedEntry() throws Exception {
+        Path file = copyResource("/x12/invoice810_po850_dual.edi");
+        Entry entry = mock(Entry.class);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            assertThrows(IllegalArgumentException.class, () -> factory.createEDIStreamReader(channel, entry));
+        }
+    }
+}
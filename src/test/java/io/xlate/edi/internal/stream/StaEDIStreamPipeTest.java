@@ -0,0 +1,278 @@
+/*******************************************************************************
+ * Copyright 2023 xlate.io LLC, http://www.xlate.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package io.xlate.edi.internal.stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+
+import org.junit.jupiter.api.Test;
+
+import io.xlate.edi.internal.schema.SchemaUtils;
+import io.xlate.edi.schema.SchemaFactory;
+import io.xlate.edi.stream.EDIInputFactory;
+import io.xlate.edi.stream.EDIOutputFactory;
+import io.xlate.edi.stream.EDIStreamConstants.Delimiters;
+import io.xlate.edi.stream.EDIStreamEvent;
+import io.xlate.edi.stream.EDIStreamException;
+import io.xlate.edi.stream.EDIStreamPipe;
+import io.xlate.edi.stream.EDIStreamReader;
+import io.xlate.edi.stream.EDIStreamValidationError;
+import io.xlate.edi.stream.EDIStreamWriter;
+import io.xlate.edi.stream.EDIValidationException;
+
+class StaEDIStreamPipeTest {
+
+    static String readResource(String name) {
+        try (InputStream stream = StaEDIStreamPipeTest.class.getResourceAsStream(name);
+                Scanner scanner = new Scanner(stream, "UTF-8")) {
+            return scanner.useDelimiter("\\A").next();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    static List<String> events(byte[] input) throws EDIStreamException {
+        List<String> events = new ArrayList<>();
+        EDIStreamReader reader = EDIInputFactory.newFactory().createEDIStreamReader(new ByteArrayInputStream(input));
+
+        while (reader.hasNext()) {
+            EDIStreamEvent event = reader.next();
+
+            switch (event) {
+            case START_SEGMENT:
+            case ELEMENT_DATA:
+                events.add(event + " " + reader.getText());
+                break;
+            default:
+                events.add(event.toString());
+                break;
+            }
+        }
+
+        return events;
+    }
+
+    @Test
+    void testCopyWithSameDelimitersIsUnchanged() throws Exception {
+        String input = readResource("/x12/invoice810_po850_dual.edi");
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+
+        EDIOutputFactory outputFactory = EDIOutputFactory.newFactory();
+        outputFactory.setProperty(Delimiters.COMPONENT_ELEMENT, '>');
+        EDIStreamReader reader = EDIInputFactory.newFactory()
+                                                .createEDIStreamReader(new ByteArrayInputStream(input.getBytes()));
+        EDIStreamWriter writer = outputFactory.createEDIStreamWriter(result);
+        writer.setControlSchema(SchemaUtils.getControlSchema("X12", new String[] { "00401" }));
+
+        EDIStreamPipe pipe = outputFactory.createEDIStreamPipe(reader, writer);
+        long count = pipe.copy();
+        writer.close();
+
+        assertEquals(input.replaceAll("\\R", ""), new String(result.toByteArray()));
+        assertEquals(input.chars().filter(c -> c == '~').count(), count);
+        assertEquals(count, writer.getLocation().getSegmentPosition());
+    }
+
+    @Test
+    void testCopyWithDifferentDelimiters() throws Exception {
+        byte[] input = readResource("/EDIFACT/invoic_d97b_una.edi").getBytes();
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+
+        EDIOutputFactory outputFactory = EDIOutputFactory.newFactory();
+        outputFactory.setProperty(Delimiters.SEGMENT, '\'');
+        outputFactory.setProperty(Delimiters.DATA_ELEMENT, '+');
+        outputFactory.setProperty(Delimiters.COMPONENT_ELEMENT, ':');
+        outputFactory.setProperty(Delimiters.RELEASE, '?');
+        EDIStreamReader reader = EDIInputFactory.newFactory().createEDIStreamReader(new ByteArrayInputStream(input));
+        EDIStreamWriter writer = outputFactory.createEDIStreamWriter(result);
+
+        outputFactory.createEDIStreamPipe(reader, writer).copy();
+        writer.close();
+
+        String output = new String(result.toByteArray());
+        assertTrue(output.contains("'NAD+BY+792820524::16++CUMMINS MID-RANGE ENGINE PLANT'"), output);
+        assertTrue(output.contains("'IMD+F++:::WIDGET'"), output);
+        assertEquals(events(input), events(result.toByteArray()));
+    }
+
+    @Test
+    void testCopyEscapesTargetDelimiters() throws Exception {
+        byte[] input = ("UNB+UNOA:3+005435656:1+006415160:1+060515:1434+00000000000778'"
+                + "UNH+1+INVOIC:D:97B:UN'"
+                + "FTX+AAI+++A?+B*C:D'"
+                + "UNT+3+1'"
+                + "UNZ+1+00000000000778'").getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+
+        EDIOutputFactory outputFactory = EDIOutputFactory.newFactory();
+        outputFactory.setProperty(Delimiters.SEGMENT, '~');
+        outputFactory.setProperty(Delimiters.DATA_ELEMENT, '*');
+        outputFactory.setProperty(Delimiters.COMPONENT_ELEMENT, '^');
+        outputFactory.setProperty(Delimiters.RELEASE, '\\');
+        EDIStreamReader reader = EDIInputFactory.newFactory().createEDIStreamReader(new ByteArrayInputStream(input));
+        EDIStreamWriter writer = outputFactory.createEDIStreamWriter(result);
+        EDIStreamPipe pipe = outputFactory.createEDIStreamPipe(reader, writer);
+        List<Boolean> raw = new ArrayList<>();
+
+        while (reader.hasNext()) {
+            switch (reader.next()) {
+            case START_INTERCHANGE:
+                writer.startInterchange();
+                break;
+            case END_INTERCHANGE:
+                writer.endInterchange();
+                break;
+            case START_SEGMENT:
+                raw.add(pipe.copySegment());
+                assertEquals(EDIStreamEvent.END_SEGMENT, reader.getEventType());
+                break;
+            default:
+                break;
+            }
+        }
+
+        writer.close();
+
+        String output = new String(result.toByteArray());
+        assertTrue(output.contains("~FTX*AAI***A+B\\*C^D~"), output);
+        assertEquals(5, raw.size());
+        assertEquals(1, raw.stream().filter(Boolean::booleanValue).count());
+    }
+
+    @Test
+    void testCopyWithoutReleaseCharacterFails() throws Exception {
+        byte[] input = ("ISA*00*          *00*          *ZZ*ReceiverID     *ZZ*Sender         *050812*1953*^*00501*508121953*0*P*:~"
+                + "GS*IN*SENDER*RECEIVER*20230101*1200*1*X*005010~"
+                + "ST*810*0001~"
+                + "REF*ZZ*A+B~"
+                + "SE*3*0001~"
+                + "GE*1*1~"
+                + "IEA*1*508121953~").getBytes(StandardCharsets.UTF_8);
+
+        EDIOutputFactory outputFactory = EDIOutputFactory.newFactory();
+        outputFactory.setProperty(Delimiters.DATA_ELEMENT, '+');
+        EDIStreamReader reader = EDIInputFactory.newFactory().createEDIStreamReader(new ByteArrayInputStream(input));
+        EDIStreamWriter writer = outputFactory.createEDIStreamWriter(new ByteArrayOutputStream());
+        EDIStreamPipe pipe = outputFactory.createEDIStreamPipe(reader, writer);
+
+        EDIStreamException thrown = assertThrows(EDIStreamException.class, pipe::copy);
+        assertTrue(thrown.getMessage().startsWith("Segment data contains delimiter: 0x002B"), thrown.getMessage());
+    }
+
+    @Test
+    void testCopyWithValidationUsesElements() throws Exception {
+        byte[] input = readResource("/x12/invoice810_po850_dual.edi").getBytes();
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+
+        EDIOutputFactory outputFactory = EDIOutputFactory.newFactory();
+        outputFactory.setProperty(Delimiters.COMPONENT_ELEMENT, '>');
+        EDIStreamReader reader = EDIInputFactory.newFactory().createEDIStreamReader(new ByteArrayInputStream(input));
+        EDIStreamWriter writer = outputFactory.createEDIStreamWriter(result);
+        EDIStreamPipe pipe = outputFactory.createEDIStreamPipe(reader, writer).setValidationEnabled(true);
+
+        while (reader.hasNext()) {
+            switch (reader.next()) {
+            case START_INTERCHANGE:
+                writer.startInterchange();
+                break;
+            case END_INTERCHANGE:
+                writer.endInterchange();
+                break;
+            case START_SEGMENT:
+                assertFalse(pipe.copySegment());
+                break;
+            default:
+                break;
+            }
+        }
+
+        writer.close();
+        assertEquals(events(input), events(result.toByteArray()));
+    }
+
+    static byte[] invoice(String... body) {
+        StringBuilder input = new StringBuilder();
+        input.append("ISA*00*          *00*          *ZZ*ReceiverID     *ZZ*Sender         *050812*1953*U*00401*508121953*0*P*>~");
+        input.append("GS*IN*SENDER*RECEIVER*20230101*1200*1*X*004010~");
+        input.append("ST*810*0001~");
+
+        for (String segment : body) {
+            input.append(segment).append('~');
+        }
+
+        input.append("SE*").append(body.length + 2).append("*0001~");
+        input.append("GE*1*1~");
+        input.append("IEA*1*508121953~");
+        return input.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    static EDIStreamWriter transactionWriter(EDIOutputFactory outputFactory, ByteArrayOutputStream result) throws Exception {
+        EDIStreamWriter writer = outputFactory.createEDIStreamWriter(result);
+        writer.setControlSchema(SchemaUtils.getControlSchema("X12", new String[] { "00401" }));
+        writer.setTransactionSchema(SchemaFactory.newFactory()
+                                                 .createSchema(StaEDIStreamPipeTest.class.getResource("/x12/EDISchema810.xml")));
+        return writer;
+    }
+
+    @Test
+    void testRawCopyWithTransactionSchema() throws Exception {
+        byte[] input = invoice("BIG*20230101*1", "N1*ST*BUYER", "FOB*PP", "TDS*100", "CTT*1");
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+
+        EDIOutputFactory outputFactory = EDIOutputFactory.newFactory();
+        EDIStreamReader reader = EDIInputFactory.newFactory().createEDIStreamReader(new ByteArrayInputStream(input));
+        EDIStreamWriter writer = transactionWriter(outputFactory, result);
+
+        assertEquals(11, outputFactory.createEDIStreamPipe(reader, writer).copy());
+        writer.close();
+
+        assertEquals(new String(input), new String(result.toByteArray()));
+    }
+
+    @Test
+    void testRawCopyValidatesSegmentsAgainstTransactionSchema() throws Exception {
+        byte[] input = invoice("BIG*20230101*1", "FOB*PP", "FOB*CC", "TDS*100", "CTT*1");
+
+        EDIOutputFactory outputFactory = EDIOutputFactory.newFactory();
+        EDIStreamReader reader = EDIInputFactory.newFactory().createEDIStreamReader(new ByteArrayInputStream(input));
+        EDIStreamWriter writer = transactionWriter(outputFactory, new ByteArrayOutputStream());
+        EDIStreamPipe pipe = outputFactory.createEDIStreamPipe(reader, writer);
+
+        EDIValidationException thrown = assertThrows(EDIValidationException.class, pipe::copy);
+        assertEquals(EDIStreamValidationError.SEGMENT_EXCEEDS_MAXIMUM_USE, thrown.getError());
+        assertEquals("FOB", thrown.getData().toString());
+    }
+
+    @Test
+    void testCopySegmentRequiresStartSegment() throws Exception {
+        EDIStreamReader reader = EDIInputFactory.newFactory()
+                                                .createEDIStreamReader(new ByteArrayInputStream(readResource("/x12/invoice810_po850_dual.edi").getBytes()));
+        EDIOutputFactory outputFactory = EDIOutputFactory.newFactory();
+        EDIStreamPipe pipe = outputFactory.createEDIStreamPipe(reader, outputFactory.createEDIStreamWriter(new ByteArrayOutputStream()));
+        reader.next();
+        assertThrows(IllegalStateException.class, pipe::copySegment);
+    }
+}
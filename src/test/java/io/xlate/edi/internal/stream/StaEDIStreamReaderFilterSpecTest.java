@@ -0,0 +1,377 @@
+/*******************************************************************************
+ * Copyright 2023 xlate.io LLC, http://www.xlate.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package io.xlate.edi.internal.stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import io.xlate.edi.stream.EDIInputFactory;
+import io.xlate.edi.stream.EDIStreamEvent;
+import io.xlate.edi.stream.EDIStreamFilterSpec;
+import io.xlate.edi.stream.EDIStreamReader;
+import io.xlate.edi.stream.Location;
+
+class StaEDIStreamReaderFilterSpecTest {
+
+    /**
+     * Events described as <code>TYPE|segment tag|element position|text</code>,
+     * where the segment tag is only given for events within a segment.
+     */
+    List<String> read(String resource, boolean nestHL, EDIStreamFilterSpec spec) throws Exception {
+        EDIInputFactory factory = EDIInputFactory.newFactory();
+        factory.setProperty(EDIInputFactory.EDI_NEST_HIERARCHICAL_LOOPS, nestHL);
+        EDIStreamReader reader = factory.createEDIStreamReader(getClass().getResourceAsStream(resource));
+
+        if (spec != null) {
+            assertSame(reader, factory.createFilteredReader(reader, spec));
+        }
+
+        List<String> events = new ArrayList<>();
+        String tag = "";
+
+        while (reader.hasNext()) {
+            EDIStreamEvent event = reader.next();
+            String text = "";
+            int element = 0;
+
+            switch (event) {
+            case START_SEGMENT:
+                tag = reader.getText();
+                break;
+            case ELEMENT_DATA:
+                text = reader.getText();
+                //$FALL-THROUGH$
+            case START_COMPOSITE:
+            case END_COMPOSITE:
+                element = reader.getLocation().getElementPosition();
+                break;
+            case START_LOOP:
+            case END_LOOP:
+                text = reader.getReferenceCode();
+                break;
+            case SEGMENT_ERROR:
+            case ELEMENT_DATA_ERROR:
+            case ELEMENT_OCCURRENCE_ERROR:
+                text = String.valueOf(reader.getErrorType());
+                break;
+            default:
+                break;
+            }
+
+            events.add(event + "|" + tag + "|" + element + "|" + text);
+
+            if (event == EDIStreamEvent.END_SEGMENT) {
+                tag = "";
+            }
+        }
+
+        return events;
+    }
+
+    static String type(String event) {
+        return event.split("\\|")[0];
+    }
+
+    static String tag(String event) {
+        return event.split("\\|")[1];
+    }
+
+    static int element(String event) {
+        return Integer.parseInt(event.split("\\|")[2]);
+    }
+
+    static List<String> filter(List<String> events, Predicate<String> accepted) {
+        return events.stream().filter(accepted).collect(Collectors.toList());
+    }
+
+    static boolean isError(String event) {
+        return type(event).endsWith("_ERROR");
+    }
+
+    /**
+     * Remove the events of each transaction where an element of the header
+     * segment is the given type.
+     */
+    static List<String> removeTransactions(List<String> events, String type) {
+        List<String> result = new ArrayList<>();
+        List<String> transaction = null;
+
+        for (String event : events) {
+            if (event.startsWith("START_TRANSACTION")) {
+                transaction = new ArrayList<>();
+            }
+
+            if (transaction != null) {
+                transaction.add(event);
+
+                if (event.startsWith("END_TRANSACTION")) {
+                    int headerEnd = 0;
+
+                    while (!transaction.get(headerEnd).startsWith("END_SEGMENT")) {
+                        headerEnd++;
+                    }
+
+                    boolean rejected = transaction.subList(0, headerEnd)
+                                                  .stream()
+                                                  .anyMatch(e -> e.startsWith("ELEMENT_DATA") && e.endsWith("|" + type));
+
+                    if (!rejected) {
+                        result.addAll(transaction);
+                    }
+
+                    transaction = null;
+                }
+            } else {
+                result.add(event);
+            }
+        }
+
+        return result;
+    }
+
+    @Test
+    void testEmptySpecUnfiltered() throws Exception {
+        String resource = "/x12/invoice810_po850_dual.edi";
+        assertEquals(read(resource, false, null), read(resource, false, new EDIStreamFilterSpec()));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "/x12/invoice810_po850_dual.edi, false, N1 IT1",
+        "/x12/invoice810_po850_dual.edi, false, ST SE",
+        "/x12/sample837-original.edi, true, HL",
+        "/x12/sample837-original.edi, true, NM1 SV1",
+        "/x12/sample837-original.edi, false, CLM",
+        "/EDIFACT/invoic_d97b.edi, false, LIN QTY",
+        "/EDIFACT/invoic_d97b.edi, false, UNB UNH",
+    })
+    void testSegmentsFiltered(String resource, boolean nestHL, String segments) throws Exception {
+        List<String> tags = Arrays.asList(segments.split(" "));
+        List<String> expected = filter(read(resource, nestHL, null), e -> isError(e) || tag(e).isEmpty() || tags.contains(tag(e)));
+
+        List<String> actual = read(resource, nestHL, new EDIStreamFilterSpec().addSegments(segments.split(" ")));
+
+        assertEquals(expected, actual);
+        assertTrue(actual.stream().anyMatch(e -> e.startsWith("START_SEGMENT|" + tags.get(0))));
+    }
+
+    @Test
+    void testElementsFiltered() throws Exception {
+        String resource = "/x12/invoice810_po850_dual.edi";
+        EDIStreamFilterSpec spec = new EDIStreamFilterSpec()
+                .addElements("N1", 1, 4)
+                .addElements("IT1", 6);
+
+        List<String> expected = filter(read(resource, false, null), e -> {
+            if (!"N1".equals(tag(e)) && !"IT1".equals(tag(e)) || element(e) == 0) {
+                return true;
+            }
+            return "N1".equals(tag(e)) ? element(e) == 1 || element(e) == 4 : element(e) == 6;
+        });
+
+        List<String> actual = read(resource, false, spec);
+
+        assertEquals(expected, actual);
+        assertTrue(actual.contains("ELEMENT_DATA|N1|4|1223334445"));
+        assertFalse(actual.contains("ELEMENT_DATA|N1|2|BUYSNACKS PORT"));
+    }
+
+    @Test
+    void testCompositeElementsFiltered() throws Exception {
+        String resource = "/EDIFACT/invoic_d97b.edi";
+        EDIStreamFilterSpec spec = new EDIStreamFilterSpec()
+                .addSegments("UNH", "QTY", "MOA")
+                .addElements("QTY", 2);
+
+        List<String> expected = filter(read(resource, false, null),
+                                       e -> isError(e) || tag(e).isEmpty() || Arrays.asList("UNH", "MOA").contains(tag(e))
+                                               || ("QTY".equals(tag(e)) && element(e) != 1));
+
+        List<String> actual = read(resource, false, spec);
+
+        assertEquals(expected, actual);
+        assertTrue(actual.contains("START_SEGMENT|QTY|0|"));
+        assertFalse(actual.contains("START_COMPOSITE|QTY|1|"));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "/x12/invoice810_po850_dual.edi, 850, 810",
+        "/x12/invoice810_po850_dual.edi, 810, 850",
+        "/x12/invoice810_po850_dual.edi, 810 850, ''",
+        "/EDIFACT/invoic_d97b.edi, ORDERS, INVOIC",
+        "/EDIFACT/invoic_d97b.edi, INVOIC, ''",
+    })
+    void testTransactionTypesFiltered(String resource, String accepted, String rejected) throws Exception {
+        List<String> expected = read(resource, false, null);
+
+        if (!rejected.isEmpty()) {
+            expected = removeTransactions(expected, rejected);
+        }
+
+        List<String> actual = read(resource, false, new EDIStreamFilterSpec().addTransactionTypes(accepted.split(" ")));
+
+        assertEquals(expected, actual);
+        assertTrue(actual.get(actual.size() - 1).startsWith("END_INTERCHANGE"));
+    }
+
+    @Test
+    void testTransactionTypesAndSegmentsFiltered() throws Exception {
+        String resource = "/x12/invoice810_po850_dual.edi";
+        EDIStreamFilterSpec spec = new EDIStreamFilterSpec()
+                .addTransactionTypes("850")
+                .addSegments("ST", "PO1");
+
+        List<String> expected = filter(removeTransactions(read(resource, false, null), "810"),
+                                       e -> isError(e) || tag(e).isEmpty() || "ST".equals(tag(e)) || "PO1".equals(tag(e)));
+
+        List<String> actual = read(resource, false, spec);
+
+        assertEquals(expected, actual);
+        assertEquals(1, actual.stream().filter(e -> e.startsWith("START_TRANSACTION")).count());
+        assertTrue(actual.contains("START_SEGMENT|PO1|0|"));
+    }
+
+    @Test
+    void testFilteredTransactionCountsValidated() throws Exception {
+        String input = StaEDIStreamReaderSkipTest.X12_HEADER
+                + "ST*810*0001~"
+                + "BIG*20230101*1~"
+                + "SE*2*0001~"
+                + "ST*850*0002~"
+                + "BEG*00*SA*1**20230101~"
+                + "SE*4*0002~"
+                + "GE*2*1~"
+                + "IEA*1*508121953~";
+
+        EDIInputFactory factory = EDIInputFactory.newFactory();
+        EDIStreamReader reader = factory.createFilteredReader(factory.createEDIStreamReader(new ByteArrayInputStream(input.getBytes())),
+                                                              new EDIStreamFilterSpec().addTransactionTypes("850"));
+        List<String> events = new ArrayList<>();
+
+        while (reader.hasNext()) {
+            EDIStreamEvent event = reader.next();
+            events.add(event == EDIStreamEvent.START_SEGMENT ? reader.getText() : event.name());
+        }
+
+        // The 810's incorrect segment count is not reported, the 850's is
+        assertEquals(1, events.stream().filter("START_TRANSACTION"::equals).count());
+        assertFalse(events.contains("BIG"));
+        assertEquals(Arrays.asList("ELEMENT_DATA_ERROR"), events.stream().filter(e -> e.endsWith("_ERROR")).collect(Collectors.toList()));
+    }
+
+    List<String> readProjected(String resource, String projection) throws Exception {
+        EDIInputFactory factory = EDIInputFactory.newFactory();
+        factory.setProperty(EDIInputFactory.EDI_ELEMENT_PROJECTION, projection);
+        EDIStreamReader reader = factory.createEDIStreamReader(getClass().getResourceAsStream(resource));
+        List<String> events = new ArrayList<>();
+
+        while (reader.hasNext()) {
+            EDIStreamEvent event = reader.next();
+
+            if (event == EDIStreamEvent.ELEMENT_DATA) {
+                Location location = reader.getLocation();
+                events.add(location.getSegmentTag() + location.getElementPosition() + "-" + location.getComponentPosition() + "=" + reader.getText());
+            } else if (event.name().endsWith("_ERROR")) {
+                events.add(event + " " + reader.getErrorType());
+            }
+        }
+
+        return events;
+    }
+
+    @Test
+    void testElementProjection() throws Exception {
+        List<String> events = readProjected("/EDIFACT/invoic_d97b.edi", "BGM02, QTY01-2 MOA01-2,NAD04");
+
+        assertTrue(events.contains("BGM2--1=342459"));
+        assertFalse(events.contains("BGM1--1=380"));
+        assertTrue(events.contains("QTY1-2=1020"));
+        assertFalse(events.contains("QTY1-1=47"));
+        assertFalse(events.contains("QTY1-3=EA"));
+        assertTrue(events.contains("MOA1-2=2137.58"));
+        assertTrue(events.contains("NAD4--1=CUMMINS MID-RANGE ENGINE PLANT"));
+        assertFalse(events.stream().anyMatch(e -> e.startsWith("NAD1") || e.startsWith("NAD2")));
+        // Not projected, all elements
+        assertTrue(events.contains("LIN1--1=1"));
+        assertFalse(events.stream().anyMatch(e -> e.contains("_ERROR")));
+    }
+
+    @Test
+    void testElementProjectionValidated() throws Exception {
+        String input = "UNB+UNOA:3+005435656:1+006415160:1+060515:1434+00000000000778'"
+                + "UNH+1+INVOIC:D:97B:UN'"
+                + "BGM+380+342459+9'"
+                + "QTY+47:1020:EA'"
+                + "UNT+5+1'"
+                + "UNZ+1+00000000000778'";
+        EDIInputFactory factory = EDIInputFactory.newFactory();
+        factory.setProperty(EDIInputFactory.EDI_ELEMENT_PROJECTION, "QTY01-2 UNT02");
+        EDIStreamReader reader = factory.createEDIStreamReader(new ByteArrayInputStream(input.getBytes()));
+        List<String> errors = new ArrayList<>();
+        List<String> values = new ArrayList<>();
+
+        while (reader.hasNext()) {
+            switch (reader.next()) {
+            case ELEMENT_DATA:
+                values.add(reader.getText());
+                break;
+            case ELEMENT_DATA_ERROR:
+            case SEGMENT_ERROR:
+                errors.add(reader.getLocation().getSegmentTag() + " " + reader.getErrorType());
+                break;
+            default:
+                break;
+            }
+        }
+
+        assertTrue(values.contains("1020"));
+        assertFalse(values.contains("47"));
+        assertFalse(values.contains("5"));
+        // The control count of the unprojected element is still validated
+        assertEquals(Arrays.asList("UNT CONTROL_COUNT_DOES_NOT_MATCH_ACTUAL_COUNT"), errors);
+    }
+
+    @ParameterizedTest
+    @CsvSource({ "N1", "BEG3", "N104-", "N104-1-2", "n104" })
+    void testElementReferencesInvalid(String reference) {
+        EDIStreamFilterSpec spec = new EDIStreamFilterSpec();
+        assertThrows(IllegalArgumentException.class, () -> spec.addElementReferences(reference));
+    }
+
+    @Test
+    void testUnsupportedReader() {
+        EDIInputFactory factory = EDIInputFactory.newFactory();
+        EDIStreamReader reader = mock(EDIStreamReader.class);
+        EDIStreamFilterSpec spec = new EDIStreamFilterSpec();
+        assertThrows(IllegalArgumentException.class, () -> factory.createFilteredReader(reader, spec));
+    }
+}
@@ -0,0 +1,244 @@
+/*******************************************************************************
+ * Copyright 2023 xlate.io LLC, http://www.xlate.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package io.xlate.edi.internal.stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import io.xlate.edi.schema.Schema;
+import io.xlate.edi.schema.SchemaFactory;
+import io.xlate.edi.stream.EDIInputFactory;
+import io.xlate.edi.stream.EDIStreamEvent;
+import io.xlate.edi.stream.EDIStreamException;
+import io.xlate.edi.stream.EDIStreamFilterSpec;
+import io.xlate.edi.stream.EDIStreamReader;
+
+class StaEDIStreamReaderResetTest {
+
+    EDIInputFactory factory = EDIInputFactory.newFactory();
+
+    InputStream resource(String name) {
+        return getClass().getResourceAsStream(name);
+    }
+
+    static List<String> events(EDIStreamReader reader, Schema transactionSchema) throws EDIStreamException {
+        List<String> events = new ArrayList<>();
+
+        while (reader.hasNext()) {
+            EDIStreamEvent event = reader.next();
+
+            if (event == EDIStreamEvent.START_TRANSACTION && transactionSchema != null) {
+                reader.setTransactionSchema(transactionSchema);
+            }
+
+            StringBuilder buffer = new StringBuilder(event.toString());
+            buffer.append(' ').append(reader.getReferenceCode());
+            buffer.append(' ').append(reader.getLocation());
+
+            if (event == EDIStreamEvent.ELEMENT_DATA || event == EDIStreamEvent.START_SEGMENT) {
+                buffer.append(' ').append(reader.getText());
+            } else if (event.name().endsWith("_ERROR")) {
+                buffer.append(' ').append(reader.getErrorType());
+            }
+
+            events.add(buffer.toString());
+        }
+
+        return events;
+    }
+
+    @Test
+    void testResetMatchesNewReader() throws Exception {
+        Schema schema = SchemaFactory.newFactory().createSchema(getClass().getResource("/x12/EDISchema850.xml"));
+        List<String> expectedX12 = events(factory.createEDIStreamReader(resource("/x12/invoice810_po850_dual.edi")), schema);
+        List<String> expectedEdifact = events(factory.createEDIStreamReader(resource("/EDIFACT/invoic_d97b_una.edi")), null);
+
+        EDIStreamReader reader = factory.createEDIStreamReader(resource("/x12/invoice810_po850_dual.edi"));
+        // Stop part-way through the first input
+        for (int i = 0; i < 50; i++) {
+            reader.next();
+        }
+
+        reader.reset(resource("/x12/invoice810_po850_dual.edi"));
+        assertEquals(expectedX12, events(reader, schema));
+
+        // Validators are re-used for the same schemas
+        reader.reset(resource("/x12/invoice810_po850_dual.edi"));
+        assertEquals(expectedX12, events(reader, schema));
+
+        // Different standard and control schema
+        reader.reset(resource("/EDIFACT/invoic_d97b_una.edi"));
+        assertEquals(expectedEdifact, events(reader, null));
+        assertEquals(EDIStreamEvent.END_INTERCHANGE, reader.getEventType());
+
+        reader.reset(resource("/x12/invoice810_po850_dual.edi"));
+        assertEquals(expectedX12, events(reader, schema));
+    }
+
+    @Test
+    void testResetClosedReader() throws Exception {
+        EDIStreamReader reader = factory.createEDIStreamReader(resource("/x12/simple997.edi"));
+        List<String> expected = events(reader, null);
+        reader.close();
+        assertThrows(IllegalStateException.class, reader::hasNext);
+
+        reader.reset(resource("/x12/simple997.edi"));
+        assertEquals(expected, events(reader, null));
+    }
+
+    @Test
+    void testResetWithEncoding() throws Exception {
+        String input = "UNB+UNOC:3+SENDER+RECEIVER+200101:1000+1'"
+                + "UNH+1+INVOIC:D:97B:UN'NAD+BY++Müller GmbH'UNT+3+1'"
+                + "UNZ+1+1'";
+        byte[] latin = input.getBytes(StandardCharsets.ISO_8859_1);
+        byte[] utf8 = input.getBytes(StandardCharsets.UTF_8);
+
+        List<String> expected = events(factory.createEDIStreamReader(new ByteArrayInputStream(utf8)), null);
+        assertTrue(expected.stream().anyMatch(e -> e.endsWith("Müller GmbH")));
+
+        EDIStreamReader reader = factory.createEDIStreamReader(new ByteArrayInputStream(utf8));
+        reader.reset(new ByteArrayInputStream(latin), "ISO-8859-1");
+        assertEquals(expected, events(reader, null));
+        reader.reset(new ByteArrayInputStream(utf8));
+        assertEquals(expected, events(reader, null));
+
+        ByteArrayInputStream stream = new ByteArrayInputStream(utf8);
+        assertThrows(EDIStreamException.class, () -> reader.reset(stream, "NOT-A-CHARSET"));
+    }
+
+    @Test
+    void testResetFilteredReader() throws Exception {
+        EDIStreamReader reader = factory.createFilteredReader(factory.createEDIStreamReader(resource("/x12/simple997.edi")),
+                                                              r -> r.getEventType() == EDIStreamEvent.START_SEGMENT);
+        assertTrue(reader.hasNext());
+        reader.reset(resource("/x12/simple997.edi"));
+        assertEquals(EDIStreamEvent.START_SEGMENT, reader.next());
+        assertEquals("ISA", reader.getText());
+    }
+
+    @Test
+    void testResetRetainsProjection() throws Exception {
+        factory.setProperty(EDIInputFactory.EDI_ELEMENT_PROJECTION, "AK101");
+        List<String> expected = events(factory.createEDIStreamReader(resource("/x12/simple997.edi")), null);
+        EDIStreamReader reader = factory.createEDIStreamReader(resource("/x12/simple997.edi"));
+        events(reader, null);
+        reader.reset(resource("/x12/simple997.edi"));
+        assertEquals(expected, events(reader, null));
+        assertEquals(1, expected.stream().filter(e -> e.startsWith("ELEMENT_DATA") && e.contains("AK1")).count());
+    }
+
+    @Test
+    void testPooledReaderReused() throws Exception {
+        factory.setProperty(EDIInputFactory.EDI_READER_POOLING, true);
+        List<String> expected = events(factory.createEDIStreamReader(resource("/x12/simple997.edi")), null);
+
+        EDIStreamReader first = factory.createEDIStreamReader(resource("/x12/simple997.edi"));
+        EDIStreamReader second = factory.createEDIStreamReader(resource("/x12/simple997.edi"));
+        assertNotSame(first, second);
+        assertEquals(expected, events(first, null));
+        first.close();
+        first.close(); // Returned to the pool only once
+
+        EDIStreamReader third = factory.createEDIStreamReader(resource("/x12/simple997.edi"));
+        assertSame(first, third);
+        assertEquals(expected, events(third, null));
+        assertNotSame(third, factory.createEDIStreamReader(resource("/x12/simple997.edi")));
+    }
+
+    @Test
+    void testPooledReaderNotSharedByFactories() throws Exception {
+        factory.setProperty(EDIInputFactory.EDI_READER_POOLING, true);
+        EDIStreamReader first = factory.createEDIStreamReader(resource("/x12/simple997.edi"));
+        first.close();
+
+        EDIInputFactory other = EDIInputFactory.newFactory();
+        other.setProperty(EDIInputFactory.EDI_READER_POOLING, true);
+        assertNotSame(first, other.createEDIStreamReader(resource("/x12/simple997.edi")));
+        assertSame(first, factory.createEDIStreamReader(resource("/x12/simple997.edi")));
+    }
+
+    @Test
+    void testPooledReaderReusedAcrossThreads() throws Exception {
+        factory.setProperty(EDIInputFactory.EDI_READER_POOLING, true);
+        List<String> expected = events(factory.createEDIStreamReader(resource("/x12/simple997.edi")), null);
+        EDIStreamReader first = factory.createEDIStreamReader(resource("/x12/simple997.edi"));
+
+        Thread closer = new Thread(() -> {
+            try {
+                first.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        closer.start();
+        closer.join();
+
+        EDIStreamReader second = factory.createEDIStreamReader(resource("/x12/simple997.edi"));
+        assertSame(first, second);
+        assertEquals(expected, events(second, null));
+    }
+
+    @Test
+    void testPooledReaderConfigurationMismatch() throws Exception {
+        factory.setProperty(EDIInputFactory.EDI_READER_POOLING, true);
+        EDIStreamReader first = factory.createEDIStreamReader(resource("/x12/simple997.edi"));
+        first.close();
+
+        factory.setProperty(EDIInputFactory.EDI_VALIDATE_CONTROL_CODE_VALUES, false);
+        EDIStreamReader second = factory.createEDIStreamReader(resource("/x12/simple997.edi"));
+        assertNotSame(first, second);
+
+        second.close();
+        Schema schema = SchemaFactory.newFactory().createSchema(getClass().getResource("/x12/EDISchema997.xml"));
+        EDIStreamReader third = factory.createEDIStreamReader(resource("/x12/simple997.edi"), schema);
+        assertNotSame(first, third);
+        assertNotSame(second, third);
+    }
+
+    @Test
+    void testPooledReaderWithFilterSpecNotReused() throws Exception {
+        factory.setProperty(EDIInputFactory.EDI_READER_POOLING, true);
+        EDIStreamReader first = factory.createEDIStreamReader(resource("/x12/simple997.edi"));
+        factory.createFilteredReader(first, new EDIStreamFilterSpec().addSegments("AK1"));
+        first.close();
+
+        assertNotSame(first, factory.createEDIStreamReader(resource("/x12/simple997.edi")));
+    }
+
+    @Test
+    void testReaderNotPooledByDefault() throws IOException {
+        EDIStreamReader first = factory.createEDIStreamReader(resource("/x12/simple997.edi"));
+        first.close();
+        EDIStreamReader second = factory.createEDIStreamReader(resource("/x12/simple997.edi"));
+        assertNotSame(first, second);
+        assertNull(factory.getProperty(EDIInputFactory.EDI_READER_POOLING));
+    }
+}
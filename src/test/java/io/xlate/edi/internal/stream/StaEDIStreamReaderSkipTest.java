@@ -0,0 +1,369 @@
+/*******************************************************************************
+ * Copyright 2023 xlate.io LLC, http://www.xlate.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package io.xlate.edi.internal.stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import io.xlate.edi.schema.Schema;
+import io.xlate.edi.schema.SchemaFactory;
+import io.xlate.edi.stream.EDIInputFactory;
+import io.xlate.edi.stream.EDIStreamEvent;
+import io.xlate.edi.stream.EDIStreamReader;
+import io.xlate.edi.stream.EDIStreamValidationError;
+
+class StaEDIStreamReaderSkipTest {
+
+    static final String X12_HEADER = "ISA*00*          *00*          *ZZ*ReceiverID     *ZZ*Sender         *050812*1953*^*00501*508121953*0*P*:~"
+            + "GS*IN*SENDER*RECEIVER*20230101*1200*1*X*005010~";
+
+    interface Skipper {
+        EDIStreamEvent skip(EDIStreamReader reader) throws Exception;
+    }
+
+    static String describe(EDIStreamReader reader, EDIStreamEvent event) {
+        switch (event) {
+        case START_SEGMENT:
+        case ELEMENT_DATA:
+            return event + " " + reader.getText();
+        case START_LOOP:
+        case END_LOOP:
+            return event + " " + reader.getReferenceCode();
+        case SEGMENT_ERROR:
+        case ELEMENT_DATA_ERROR:
+        case ELEMENT_OCCURRENCE_ERROR:
+            return event + " " + reader.getErrorType();
+        default:
+            return event.toString();
+        }
+    }
+
+    List<String> read(InputStream stream, String schemaPath, boolean nestHL, Predicate<EDIStreamReader> skipWhen, Skipper skipper) throws Exception {
+        EDIInputFactory factory = EDIInputFactory.newFactory();
+        factory.setProperty(EDIInputFactory.EDI_NEST_HIERARCHICAL_LOOPS, nestHL);
+        EDIStreamReader reader = factory.createEDIStreamReader(stream);
+        Schema schema = schemaPath != null ? SchemaFactory.newFactory().createSchema(getClass().getResource(schemaPath)) : null;
+        List<String> events = new ArrayList<>();
+
+        while (reader.hasNext()) {
+            EDIStreamEvent event = reader.next();
+
+            if (event == EDIStreamEvent.START_TRANSACTION && schema != null) {
+                reader.setTransactionSchema(schema);
+            }
+
+            events.add(describe(reader, event));
+
+            if (skipWhen.test(reader)) {
+                EDIStreamEvent end = skipper.skip(reader);
+                assertEquals(end, reader.getEventType());
+                events.add(describe(reader, end));
+            }
+        }
+
+        return events;
+    }
+
+    List<String> read(String resource, String schemaPath, boolean nestHL, Predicate<EDIStreamReader> skipWhen, Skipper skipper) throws Exception {
+        return read(getClass().getResourceAsStream(resource), schemaPath, nestHL, skipWhen, skipper);
+    }
+
+    /**
+     * Remove the events between each event matching the start text and the
+     * matching end event.
+     */
+    static List<String> remove(List<String> events, Predicate<String> start, String startType, String endType) {
+        List<String> result = new ArrayList<>();
+        int depth = 0;
+
+        for (String event : events) {
+            if (depth > 0) {
+                if (event.startsWith(startType)) {
+                    depth++;
+                } else if (event.startsWith(endType) && --depth == 0) {
+                    result.add(event);
+                }
+            } else {
+                result.add(event);
+
+                if (start.test(event)) {
+                    depth = 1;
+                }
+            }
+        }
+
+        return result;
+    }
+
+    static boolean isElement(EDIStreamReader reader, String tag, int position, String value) {
+        return reader.getEventType() == EDIStreamEvent.ELEMENT_DATA
+                && tag.equals(reader.getLocation().getSegmentTag())
+                && reader.getLocation().getElementPosition() == position
+                && value.equals(reader.getText());
+    }
+
+    @Test
+    void testSkipSegment() throws Exception {
+        Predicate<EDIStreamReader> never = r -> false;
+        Predicate<EDIStreamReader> atN1 = r -> r.getEventType() == EDIStreamEvent.START_SEGMENT && "N1".equals(r.getText());
+
+        List<String> expected = remove(read("/x12/invoice810_po850_dual.edi", null, true, never, null),
+                                       "START_SEGMENT N1"::equals,
+                                       "START_SEGMENT",
+                                       "END_SEGMENT");
+        List<String> actual = read("/x12/invoice810_po850_dual.edi", null, true, atN1, EDIStreamReader::skipSegment);
+
+        assertTrue(expected.contains("START_SEGMENT N1"));
+        assertFalse(actual.contains("ELEMENT_DATA BT"));
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void testSkipSegmentFromElement() throws Exception {
+        Predicate<EDIStreamReader> never = r -> false;
+        Predicate<EDIStreamReader> atBIG01 = r -> isElement(r, "BIG", 1, "19971211");
+        List<String> full = read("/x12/invoice810_po850_dual.edi", "/x12/EDISchema810.xml", true, never, null);
+        List<String> actual = read("/x12/invoice810_po850_dual.edi", "/x12/EDISchema810.xml", true, atBIG01, EDIStreamReader::skipSegment);
+        int index = actual.indexOf("ELEMENT_DATA 19971211");
+
+        assertEquals(Arrays.asList("START_SEGMENT BIG", "ELEMENT_DATA 19971211", "END_SEGMENT", "START_LOOP L0001"),
+                     actual.subList(index - 1, index + 3));
+        assertEquals(errors(full), errors(actual));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "L0001, true",
+        "L0002, true",
+        "L0003, true",
+        "L0004, true",
+        "L0002, false",
+        "L0003, false",
+        "L0004, false",
+    })
+    void testSkipLoop(String loopCode, boolean nestHL) throws Exception {
+        Predicate<EDIStreamReader> never = r -> false;
+        Predicate<EDIStreamReader> atLoop = r -> r.getEventType() == EDIStreamEvent.START_LOOP && loopCode.equals(r.getReferenceCode());
+
+        List<String> full = read("/x12/sample837-original.edi", "/x12/005010/837.xml", nestHL, never, null);
+        List<String> expected = remove(full, ("START_LOOP " + loopCode)::equals, "START_LOOP", "END_LOOP");
+        List<String> actual = read("/x12/sample837-original.edi", "/x12/005010/837.xml", nestHL, atLoop, EDIStreamReader::skipLoop);
+
+        assertTrue(full.contains("START_LOOP " + loopCode));
+        assertTrue(expected.size() < full.size());
+        assertEquals(errors(full), errors(actual));
+        assertEquals(expected, actual);
+    }
+
+    static List<String> errors(List<String> events) {
+        List<String> errors = new ArrayList<>();
+
+        for (String event : events) {
+            if (event.contains("_ERROR ")) {
+                errors.add(event);
+            }
+        }
+
+        return errors;
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "810", "850" })
+    void testSkipTransaction(String transactionType) throws Exception {
+        Predicate<EDIStreamReader> never = r -> false;
+        Predicate<EDIStreamReader> atType = r -> isElement(r, "ST", 1, transactionType);
+
+        List<String> full = read("/x12/invoice810_po850_dual.edi", null, true, never, null);
+        List<String> actual = read("/x12/invoice810_po850_dual.edi", null, true, atType, EDIStreamReader::skipTransaction);
+
+        // Events of the header following ST01, and the body, are skipped
+        List<String> expected = new ArrayList<>();
+        boolean skipping = false;
+
+        for (String event : full) {
+            if (skipping) {
+                if (event.equals("START_SEGMENT SE")) {
+                    expected.add("END_SEGMENT");
+                    expected.add(event);
+                    skipping = false;
+                }
+            } else {
+                expected.add(event);
+                skipping = event.equals("ELEMENT_DATA " + transactionType)
+                        && expected.get(expected.size() - 2).equals("START_SEGMENT ST");
+            }
+        }
+
+        assertTrue(actual.size() < full.size());
+        assertEquals(Collections.emptyList(), errors(actual));
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void testSkipTransactionAtStart() throws Exception {
+        Predicate<EDIStreamReader> atStart = r -> r.getEventType() == EDIStreamEvent.START_TRANSACTION;
+        List<String> actual = read("/x12/invoice810_po850_dual.edi", "/x12/EDISchema810.xml", true, atStart, EDIStreamReader::skipTransaction);
+
+        assertEquals(Collections.emptyList(), errors(actual));
+        assertFalse(actual.contains("START_SEGMENT BIG"));
+        assertFalse(actual.contains("START_SEGMENT ST"));
+        assertTrue(actual.contains("START_SEGMENT SE"));
+        assertTrue(actual.contains("START_SEGMENT GE"));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "4, ",
+        "5, CONTROL_COUNT_DOES_NOT_MATCH_ACTUAL_COUNT",
+    })
+    void testSkipTransactionControlCount(String segmentCount, EDIStreamValidationError expectedError) throws Exception {
+        String input = X12_HEADER
+                + "ST*810*0001~"
+                + "BIG*20230101*1~"
+                + "REF*ZZ*A~"
+                + "SE*" + segmentCount + "*0001~"
+                + "GE*1*1~"
+                + "IEA*1*508121953~";
+        Predicate<EDIStreamReader> atEndST = r -> r.getEventType() == EDIStreamEvent.END_SEGMENT && "ST".equals(r.getLocation().getSegmentTag());
+
+        List<String> actual = read(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)),
+                                   null, true, atEndST, EDIStreamReader::skipTransaction);
+
+        assertFalse(actual.contains("START_SEGMENT BIG"));
+        List<String> errors = errors(actual);
+
+        if (expectedError == null) {
+            assertEquals(Collections.emptyList(), errors);
+        } else {
+            assertEquals(Arrays.asList("ELEMENT_DATA_ERROR " + expectedError), errors);
+        }
+    }
+
+    List<String> readEnvelope(InputStream stream, boolean envelopeOnly) throws Exception {
+        EDIInputFactory factory = EDIInputFactory.newFactory();
+        factory.setProperty(EDIInputFactory.EDI_ENVELOPE_ONLY, envelopeOnly);
+        EDIStreamReader reader = factory.createEDIStreamReader(stream);
+        List<String> events = new ArrayList<>();
+
+        while (reader.hasNext()) {
+            EDIStreamEvent event = reader.next();
+            String description = describe(reader, event);
+
+            if (event == EDIStreamEvent.START_SEGMENT || event == EDIStreamEvent.END_INTERCHANGE) {
+                description += " @" + reader.getLocation().getCharacterOffset();
+            }
+
+            events.add(description);
+        }
+
+        return events;
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "/x12/invoice810_po850_dual.edi", "/EDIFACT/invoic_d97b.edi", "/EDIFACT/invoic_d97b_una.edi" })
+    void testEnvelopeOnly(String resource) throws Exception {
+        List<String> full = readEnvelope(getClass().getResourceAsStream(resource), false);
+        List<String> actual = readEnvelope(getClass().getResourceAsStream(resource), true);
+
+        // Events following the transaction header segment are skipped until the trailer
+        List<String> expected = new ArrayList<>();
+        String segment = null;
+        boolean skipping = false;
+
+        for (String event : full) {
+            if (event.startsWith("START_SEGMENT")) {
+                segment = event.split(" ")[1];
+            }
+
+            if (skipping) {
+                skipping = !segment.equals("SE") && !segment.equals("UNT");
+            }
+
+            if (!skipping) {
+                expected.add(event);
+                skipping = event.equals("END_SEGMENT") && (segment.equals("ST") || segment.equals("UNH"));
+            }
+        }
+
+        assertTrue(actual.size() < full.size());
+        assertEquals(errors(full), errors(actual));
+        assertEquals(expected, actual);
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "3, ",
+        "4, CONTROL_COUNT_DOES_NOT_MATCH_ACTUAL_COUNT",
+    })
+    void testEnvelopeOnlyReleasedTerminator(String segmentCount, EDIStreamValidationError expectedError) throws Exception {
+        String input = "UNA:+.? 'UNB+UNOA:3+SENDER+RECEIVER+200101:1000+1'"
+                + "UNH+1+INVOIC:D:97B:UN'"
+                + "FTX+AAI+++It?'s a test?+ with?: delimiters'"
+                + "UNT+" + segmentCount + "+1'"
+                + "UNZ+1+1'";
+
+        List<String> full = readEnvelope(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), false);
+        List<String> actual = readEnvelope(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), true);
+
+        assertTrue(full.stream().anyMatch(e -> e.startsWith("START_SEGMENT FTX")));
+        assertFalse(actual.stream().anyMatch(e -> e.startsWith("START_SEGMENT FTX")));
+        // Locations following the scanned segment are unchanged
+        assertEquals(full.stream().filter(e -> e.startsWith("START_SEGMENT UNT")).findFirst(),
+                     actual.stream().filter(e -> e.startsWith("START_SEGMENT UNT")).findFirst());
+        assertTrue(actual.contains("ELEMENT_DATA " + segmentCount));
+        List<String> errors = errors(actual);
+
+        if (expectedError == null) {
+            assertEquals(Collections.emptyList(), errors);
+        } else {
+            assertEquals(Arrays.asList("ELEMENT_DATA_ERROR " + expectedError), errors);
+        }
+    }
+
+    @Test
+    void testSkipInvalidState() throws Exception {
+        EDIInputFactory factory = EDIInputFactory.newFactory();
+        EDIStreamReader reader = factory.createEDIStreamReader(getClass().getResourceAsStream("/x12/invoice810_po850_dual.edi"));
+
+        assertEquals(EDIStreamEvent.START_INTERCHANGE, reader.next());
+        assertThrows(IllegalStateException.class, reader::skipSegment);
+        assertThrows(IllegalStateException.class, reader::skipLoop);
+        assertThrows(IllegalStateException.class, reader::skipTransaction);
+
+        while (reader.next() != EDIStreamEvent.START_SEGMENT || !"BIG".equals(reader.getText())) {
+            // Advance into the transaction body
+        }
+
+        assertThrows(IllegalStateException.class, reader::skipTransaction);
+        assertEquals(EDIStreamEvent.END_SEGMENT, reader.skipSegment());
+    }
+}
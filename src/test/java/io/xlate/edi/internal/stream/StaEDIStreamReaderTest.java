@@ -19,6 +19,7 @@ import static io.xlate.edi.test.StaEDITestUtil.assertLocation;
 import static io.xlate.edi.test.StaEDITestUtil.assertTextLocation;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
@@ -34,6 +35,8 @@ import java.io.InputStreamReader;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.net.URL;
+import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -53,6 +56,8 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.Mockito;
 import org.w3c.dom.Document;
 import org.xml.sax.SAXException;
 
@@ -73,6 +78,7 @@ import io.xlate.edi.stream.EDIStreamException;
 import io.xlate.edi.stream.EDIStreamReader;
 import io.xlate.edi.stream.EDIStreamValidationError;
 import io.xlate.edi.stream.Location;
+import io.xlate.edi.stream.SegmentView;
 
 @SuppressWarnings({ "resource", "unused" })
 class StaEDIStreamReaderTest implements ConstantsTest {
@@ -2135,4 +2141,238 @@ class StaEDIStreamReaderTest implements ConstantsTest {
         assertEquals(2, interchangeStart);
         assertEquals(2, interchangeEnd);
     }
+
+    @Test
+    void testNextSegmentView() throws EDIStreamException, IOException {
+        final String input = ""
+                + "ISA*00*          *00*          *ZZ*ReceiverID     *ZZ*Sender         *050812*1953*^*00501*508121953*0*P*:~"
+                + "GS*FA*ReceiverDept*SenderDept*20050812*195335*000005*X*005010X230~"
+                + "ST*997*0001*005010X230~"
+                + "REF*ZZ*A^B*C1:C2^D1:D2:D3~"
+                + "SE*3*0001~"
+                + "GE*1*000005~"
+                + "IEA*1*508121953~";
+
+        EDIInputFactory factory = EDIInputFactory.newFactory();
+        EDIStreamReader reader = factory.createEDIStreamReader(new ByteArrayInputStream(input.getBytes()));
+        SegmentView view = factory.createSegmentView();
+        List<String> tags = new ArrayList<>();
+
+        while (reader.nextSegment(view)) {
+            assertEquals(EDIStreamEvent.END_SEGMENT, reader.getEventType());
+            assertEquals(0, view.getErrorCount(), () -> view.getTag() + " " + view.getErrorType(0));
+            tags.add(view.getTag().toString());
+
+            if ("ISA".contentEquals(view.getTag())) {
+                assertEquals(16, view.getElementCount());
+                assertEquals("ZZ", view.getElement(5).toString());
+                assertNotNull(view.getSchemaTypeReference());
+                assertEquals("I05", view.getElementReference(5).getReferencedType().getId());
+            } else if ("REF".contentEquals(view.getTag())) {
+                assertEquals(3, view.getElementCount());
+                assertEquals("ZZ", view.getElement(1).toString());
+                assertEquals(1, view.getRepetitionCount(1));
+                assertEquals(0, view.getComponentCount(1, 1));
+                assertEquals(2, view.getRepetitionCount(2));
+                assertEquals("A", view.getElement(2).toString());
+                assertEquals("B", view.getElement(2, 2).toString());
+                assertEquals(2, view.getRepetitionCount(3));
+                assertNull(view.getElement(3));
+                assertEquals(2, view.getComponentCount(3, 1));
+                assertEquals(3, view.getComponentCount(3, 2));
+                assertEquals("C2", view.getComponent(3, 1, 2).toString());
+                assertEquals("D3", view.getComponent(3, 2, 3).toString());
+                assertNull(view.getComponent(3, 2, 4));
+                assertNull(view.getElement(4));
+                assertEquals(0, view.getRepetitionCount(4));
+            }
+        }
+
+        assertFalse(reader.hasNext());
+        assertFalse(reader.nextSegment(view));
+        assertNull(view.getTag());
+        assertEquals(Arrays.asList("ISA", "GS", "ST", "REF", "SE", "GE", "IEA"), tags);
+    }
+
+    @Test
+    void testNextSegmentViewErrors() throws EDIStreamException, IOException {
+        final String input = ""
+                + "ISA*00*          *00*          *ZZ*ReceiverID     *ZZ*Sender         *050812*1953*^*00501*508121953*0*P*:~"
+                + "GS*FA*ReceiverDept*SenderDept*20050812*195335*000005*X*005010X230~"
+                + "ST*997*0001*005010X230~"
+                + "SE*3*0001~"
+                + "GE*1*000005~"
+                + "IEA*1*508121953~";
+
+        EDIInputFactory factory = EDIInputFactory.newFactory();
+        EDIStreamReader reader = factory.createFilteredReader(factory.createEDIStreamReader(new ByteArrayInputStream(input.getBytes())),
+                                                              r -> r.getEventType() != EDIStreamEvent.START_GROUP);
+        SegmentView view = factory.createSegmentView();
+        Map<String, List<EDIStreamValidationError>> errors = new HashMap<>();
+
+        while (reader.nextSegment(view)) {
+            List<EDIStreamValidationError> segmentErrors = new ArrayList<>();
+
+            for (int i = 0; i < view.getErrorCount(); i++) {
+                segmentErrors.add(view.getErrorType(i));
+                assertEquals(2, view.getErrorLocation(i).getSegmentPosition() - 2);
+            }
+
+            errors.put(view.getTag().toString(), segmentErrors);
+        }
+
+        assertEquals(Arrays.asList(EDIStreamValidationError.CONTROL_COUNT_DOES_NOT_MATCH_ACTUAL_COUNT), errors.get("SE"));
+        assertEquals(0, errors.get("GE").size());
+        assertThrows(IndexOutOfBoundsException.class, () -> view.getErrorType(0));
+    }
+
+    @Test
+    void testNextSegmentUnsupportedView() {
+        EDIInputFactory factory = EDIInputFactory.newFactory();
+        EDIStreamReader reader = factory.createEDIStreamReader(new ByteArrayInputStream(new byte[0]));
+        SegmentView view = Mockito.mock(SegmentView.class);
+        assertThrows(IllegalArgumentException.class, () -> reader.nextSegment(view));
+    }
+
+    @Test
+    void testTypedValues() throws Exception {
+        EDIInputFactory factory = EDIInputFactory.newFactory();
+        InputStream stream = new ByteArrayInputStream(("ISA*00*          *00*          *ZZ*ReceiverID     *ZZ*Sender         *050812*1953*^*00501*508121953*0*P*:~"
+                + "GS*IN*SENDER*RECEIVER*20230101*1200*1*X*005010~"
+                + "ST*000*0001~"
+                + "VAL*0500*-1.25E2*230228*20230228*-42*12345:0.5:19991231~"
+                + "SE*3*0001~"
+                + "GE*1*1~"
+                + "IEA*1*508121953~").getBytes());
+        EDIStreamReader reader = factory.createEDIStreamReader(stream);
+        Schema transaction = SchemaFactory.newFactory().createSchema(getClass().getResource("/x12/EDISchema000-value-types.xml"));
+        List<Object> values = new ArrayList<>();
+
+        while (reader.hasNext()) {
+            switch (reader.next()) {
+            case START_TRANSACTION:
+                reader.setTransactionSchema(transaction);
+                break;
+            case START_SEGMENT:
+                assertThrows(IllegalStateException.class, reader::getLongValue);
+                break;
+            case ELEMENT_DATA:
+                if ("GS".equals(reader.getLocation().getSegmentTag())) {
+                    switch (reader.getLocation().getElementPosition()) {
+                    case 4:
+                        values.add(reader.getDateValue());
+                        break;
+                    case 5:
+                        values.add(reader.getTimeValue());
+                        break;
+                    case 6:
+                        values.add(reader.getIntValue());
+                        break;
+                    default:
+                        break;
+                    }
+                } else if ("VAL".equals(reader.getLocation().getSegmentTag())) {
+                    switch (reader.getLocation().getElementPosition()) {
+                    case 3:
+                    case 4:
+                        values.add(reader.getDateValue());
+                        break;
+                    case 5:
+                        values.add(reader.getLongValue());
+                        break;
+                    case 6:
+                        values.add(reader.getLocation().getComponentPosition() == 3
+                            ? reader.getDateValue()
+                            : reader.getDecimalValue());
+                        break;
+                    default:
+                        values.add(reader.getDecimalValue());
+                        break;
+                    }
+                }
+                break;
+            default:
+                break;
+            }
+        }
+
+        assertEquals(Arrays.asList(LocalDate.of(2023, 1, 1), LocalTime.of(12, 0), 1,
+                                   new BigDecimal("5.00"), new BigDecimal("-125"),
+                                   LocalDate.of(2023, 2, 28), LocalDate.of(2023, 2, 28), -42L,
+                                   new BigDecimal("123.45"), new BigDecimal("0.5"), LocalDate.of(1999, 12, 31)),
+                     values);
+    }
+
+    List<Location> locations(String tracking) throws Exception {
+        return locations(tracking, "/x12/invoice810_po850_dual.edi");
+    }
+
+    List<Location> locations(String tracking, String resource) throws Exception {
+        EDIInputFactory factory = EDIInputFactory.newFactory();
+        if (tracking != null) {
+            factory.setProperty(EDIInputFactory.EDI_LOCATION_TRACKING, tracking);
+        }
+        InputStream stream = getClass().getResourceAsStream(resource);
+        EDIStreamReader reader = factory.createEDIStreamReader(stream);
+        List<Location> locations = new ArrayList<>();
+
+        while (reader.hasNext()) {
+            reader.next();
+            locations.add(reader.getLocation().copy());
+        }
+
+        return locations;
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "/x12/invoice810_po850_dual.edi",
+        // Newline segment terminator
+        "/x12/sample837-small.edi"
+    })
+    void testLocationTrackingOffset(String resource) throws Exception {
+        List<Location> expected = locations(null, resource);
+        List<Location> actual = locations("offset", resource);
+
+        assertEquals(expected.size(), actual.size());
+        assertTrue(expected.get(expected.size() - 1).getLineNumber() > 1);
+
+        for (int i = 0; i < expected.size(); i++) {
+            Location e = expected.get(i);
+            Location a = actual.get(i);
+            assertEquals(e.getLineNumber(), a.getLineNumber(), "line at event " + i);
+            assertEquals(e.getColumnNumber(), a.getColumnNumber(), "column at event " + i);
+            assertEquals(e.getCharacterOffset(), a.getCharacterOffset(), "offset at event " + i);
+            assertEquals(e.toString(), a.toString());
+        }
+    }
+
+    @Test
+    void testLocationTrackingSegment() throws Exception {
+        List<Location> expected = locations("FULL");
+        List<Location> actual = locations("SEGMENT");
+
+        assertEquals(expected.size(), actual.size());
+
+        for (int i = 0; i < expected.size(); i++) {
+            Location e = expected.get(i);
+            Location a = actual.get(i);
+            assertEquals(-1, a.getLineNumber());
+            assertEquals(-1, a.getColumnNumber());
+            assertEquals(-1, a.getCharacterOffset());
+            assertEquals(e.getSegmentPosition(), a.getSegmentPosition());
+            assertEquals(e.getSegmentTag(), a.getSegmentTag());
+            assertEquals(e.getElementPosition(), a.getElementPosition());
+            assertEquals(e.getElementOccurrence(), a.getElementOccurrence());
+            assertEquals(e.getComponentPosition(), a.getComponentPosition());
+        }
+    }
+
+    @Test
+    void testLocationTrackingInvalid() {
+        EDIInputFactory factory = EDIInputFactory.newFactory();
+        factory.setProperty(EDIInputFactory.EDI_LOCATION_TRACKING, "LINE");
+        InputStream stream = new ByteArrayInputStream(new byte[0]);
+        assertThrows(IllegalArgumentException.class, () -> factory.createEDIStreamReader(stream));
+    }
 }
@@ -0,0 +1,317 @@
+/*******************************************************************************
+ * Copyright 2023 xlate.io LLC, http://www.xlate.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package io.xlate.edi.internal.stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import io.xlate.edi.stream.EDIInputFactory;
+import io.xlate.edi.stream.EDIOutputFactory;
+import io.xlate.edi.stream.EDIStreamConstants.Delimiters;
+import io.xlate.edi.stream.EDIStreamEvent;
+import io.xlate.edi.stream.EDIStreamException;
+import io.xlate.edi.stream.EDIStreamReader;
+import io.xlate.edi.stream.EDIStreamTranscoder;
+
+class StaEDIStreamTranscoderTest {
+
+    static byte[] readResource(String name) throws IOException {
+        try (InputStream stream = StaEDIStreamTranscoderTest.class.getResourceAsStream(name)) {
+            ByteArrayOutputStream result = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1024];
+            int length;
+
+            while ((length = stream.read(buffer)) > -1) {
+                result.write(buffer, 0, length);
+            }
+
+            return result.toByteArray();
+        }
+    }
+
+    static List<String> events(byte[] input, String encoding) throws EDIStreamException {
+        List<String> events = new ArrayList<>();
+        EDIStreamReader reader = EDIInputFactory.newFactory().createEDIStreamReader(new ByteArrayInputStream(input), encoding);
+
+        while (reader.hasNext()) {
+            EDIStreamEvent event = reader.next();
+
+            switch (event) {
+            case START_SEGMENT:
+            case ELEMENT_DATA:
+                events.add(event + " " + reader.getText());
+                break;
+            case SEGMENT_ERROR:
+            case ELEMENT_DATA_ERROR:
+            case ELEMENT_OCCURRENCE_ERROR:
+                events.add(event + " " + reader.getErrorType());
+                break;
+            default:
+                events.add(event.toString());
+                break;
+            }
+        }
+
+        return events;
+    }
+
+    static List<String> events(byte[] input) throws EDIStreamException {
+        return events(input, "UTF-8");
+    }
+
+    @Test
+    void testX12DelimitersReplaced() throws Exception {
+        byte[] input = readResource("/x12/invoice810_po850_dual.edi");
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+
+        EDIOutputFactory factory = EDIOutputFactory.newFactory();
+        factory.setProperty(Delimiters.SEGMENT, '\n');
+        factory.setProperty(Delimiters.DATA_ELEMENT, '|');
+        factory.setProperty(Delimiters.COMPONENT_ELEMENT, '}');
+        factory.setProperty(Delimiters.REPETITION, '!');
+        EDIStreamTranscoder transcoder = factory.createEDIStreamTranscoder(result);
+
+        long count = transcoder.transcode(new ByteArrayInputStream(input));
+        String output = new String(result.toByteArray(), StandardCharsets.UTF_8);
+
+        assertTrue(output.startsWith("ISA|00|          |00|          |"), output);
+        assertTrue(output.contains("|}\nGS|"), output);
+        assertEquals(new String(input).chars().filter(c -> c == '~').count(), count);
+
+        // ISA16 is the component element separator
+        List<String> expected = events(input);
+        expected.set(expected.indexOf("ELEMENT_DATA >"), "ELEMENT_DATA }");
+        assertEquals(expected, events(result.toByteArray()));
+    }
+
+    @Test
+    void testDelimiterPropertyAsString() throws Exception {
+        byte[] input = readResource("/x12/invoice810_po850_dual.edi");
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+
+        EDIOutputFactory factory = EDIOutputFactory.newFactory();
+        factory.setProperty(Delimiters.DATA_ELEMENT, "|");
+        factory.createEDIStreamTranscoder(result).transcode(new ByteArrayInputStream(input));
+
+        String output = new String(result.toByteArray(), StandardCharsets.UTF_8);
+        assertTrue(output.startsWith("ISA|00|          |00|          |"), output);
+    }
+
+    @Test
+    void testInvalidDelimiterPropertyRejected() throws Exception {
+        byte[] input = readResource("/x12/invoice810_po850_dual.edi");
+
+        EDIOutputFactory factory = EDIOutputFactory.newFactory();
+        factory.setProperty(Delimiters.DATA_ELEMENT, "||");
+        EDIStreamTranscoder transcoder = factory.createEDIStreamTranscoder(new ByteArrayOutputStream());
+        ByteArrayInputStream stream = new ByteArrayInputStream(input);
+
+        IllegalArgumentException thrown = assertThrows(IllegalArgumentException.class, () -> transcoder.transcode(stream));
+        assertTrue(thrown.getMessage().contains(Delimiters.DATA_ELEMENT));
+    }
+
+    @Test
+    void testEDIFACTServiceStringAdviceReplaced() throws Exception {
+        byte[] input = readResource("/EDIFACT/invoic_d97b_una.edi");
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+
+        EDIOutputFactory factory = EDIOutputFactory.newFactory();
+        factory.setProperty(Delimiters.SEGMENT, '\'');
+        factory.setProperty(Delimiters.DATA_ELEMENT, '+');
+        factory.setProperty(Delimiters.COMPONENT_ELEMENT, ':');
+        factory.setProperty(Delimiters.RELEASE, '?');
+        factory.setProperty(EDIOutputFactory.PRETTY_PRINT, true);
+        factory.createEDIStreamTranscoder(result).transcode(new ByteArrayInputStream(input));
+
+        String output = new String(result.toByteArray(), StandardCharsets.UTF_8);
+        String lineSeparator = System.getProperty("line.separator");
+        assertTrue(output.startsWith("UNA:+.? '" + lineSeparator + "UNB+UNOA:3+"), output);
+        assertTrue(output.contains("'" + lineSeparator + "NAD+BY+792820524::16++CUMMINS MID-RANGE ENGINE PLANT'"), output);
+        assertEquals(events(input), events(result.toByteArray()));
+    }
+
+    @Test
+    void testEDIFACTServiceStringAdviceAdded() throws Exception {
+        byte[] input = readResource("/EDIFACT/invoic_d97b.edi");
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+
+        EDIOutputFactory factory = EDIOutputFactory.newFactory();
+        factory.setProperty(Delimiters.DATA_ELEMENT, '*');
+        factory.setProperty(Delimiters.COMPONENT_ELEMENT, '^');
+        factory.createEDIStreamTranscoder(result).transcode(new ByteArrayInputStream(input));
+
+        String output = new String(result.toByteArray(), StandardCharsets.UTF_8);
+        assertTrue(output.startsWith("UNA^*.? 'UNB*UNOA^3*"), output);
+
+        List<String> actual = events(result.toByteArray());
+        assertEquals(Arrays.asList("START_SEGMENT UNA", "ELEMENT_DATA  ", "END_SEGMENT"), actual.subList(1, 4));
+        actual.subList(1, 4).clear();
+        assertEquals(events(input), actual);
+    }
+
+    @Test
+    void testEDIFACTDataReleased() throws Exception {
+        byte[] input = ("UNA=*.? 'UNB*UNOA=3*005435656=1*006415160=1*060515=1434*00000000000778'"
+                + "UNH*1*INVOIC=D=97B=UN'"
+                + "FTX*AAI***A+B?*C:D?'E'"
+                + "UNT*3*1'"
+                + "UNZ*1*00000000000778'").getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+
+        EDIOutputFactory factory = EDIOutputFactory.newFactory();
+        factory.setProperty(Delimiters.DATA_ELEMENT, '+');
+        factory.setProperty(Delimiters.COMPONENT_ELEMENT, ':');
+        factory.createEDIStreamTranscoder(result).transcode(new ByteArrayInputStream(input));
+
+        String output = new String(result.toByteArray(), StandardCharsets.UTF_8);
+        assertTrue(output.startsWith("UNA:+.? 'UNB+UNOA:3+"), output);
+        assertTrue(output.contains("'FTX+AAI+++A?+B*C?:D?'E'"), output);
+        assertEquals(events(input), events(result.toByteArray()));
+    }
+
+    @Test
+    void testX12DataContainsDelimiter() throws Exception {
+        byte[] input = ("ISA*00*          *00*          *ZZ*ReceiverID     *ZZ*Sender         *050812*1953*^*00501*508121953*0*P*:~"
+                + "GS*IN*SENDER*RECEIVER*20230101*1200*1*X*005010~"
+                + "ST*810*0001~"
+                + "REF*ZZ*A+B~"
+                + "SE*3*0001~"
+                + "GE*1*1~"
+                + "IEA*1*508121953~").getBytes(StandardCharsets.UTF_8);
+
+        EDIOutputFactory factory = EDIOutputFactory.newFactory();
+        factory.setProperty(Delimiters.DATA_ELEMENT, '+');
+        EDIStreamTranscoder transcoder = factory.createEDIStreamTranscoder(new ByteArrayOutputStream());
+        ByteArrayInputStream stream = new ByteArrayInputStream(input);
+
+        EDIStreamException thrown = assertThrows(EDIStreamException.class, () -> transcoder.transcode(stream));
+        assertTrue(thrown.getMessage().startsWith("Segment data contains delimiter: 0x002B"), thrown.getMessage());
+    }
+
+    @Test
+    void testCharsetTranscoded() throws Exception {
+        byte[] input = readResource("/EDIFACT/invoic_d97b.edi");
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+
+        EDIOutputFactory factory = EDIOutputFactory.newFactory();
+        factory.setProperty(EDIOutputFactory.PRETTY_PRINT, true);
+        factory.createEDIStreamTranscoder(result, "ISO-8859-1").transcode(new ByteArrayInputStream(input), "UTF-8");
+
+        String expected = new String(input, StandardCharsets.UTF_8)
+                .replaceAll("\\R", System.getProperty("line.separator"))
+                .replace("UNB+UNOA:3+", "UNB+UNOC:3+");
+        assertEquals(expected, new String(result.toByteArray(), StandardCharsets.ISO_8859_1));
+        assertEquals(events(expected.getBytes(StandardCharsets.UTF_8)), events(result.toByteArray(), "ISO-8859-1"));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "UNOA, UTF-8,      US-ASCII,   UNOA",
+        "UNOC, UTF-8,      US-ASCII,   UNOB",
+        "UNOA, UTF-8,      ISO-8859-1, UNOC",
+        "UNOA, UTF-8,      ISO-8859-2, UNOD",
+        "UNOC, ISO-8859-1, UTF-8,      UNOW",
+        "UNOY, ISO-8859-1, UTF-8,      UNOY",
+        "UNOA, ISO-8859-1, ISO-8859-1, UNOA",
+    })
+    void testSyntaxIdentifierReplaced(String identifier, String inputEncoding, String outputEncoding, String expected) throws Exception {
+        String header = "UNA:+.? 'UNB+%s:4+005435656:1+006415160:1+060515:1434+00000000000778'";
+        byte[] input = (String.format(header, identifier) + "UNZ+0+00000000000778'").getBytes(StandardCharsets.US_ASCII);
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+
+        EDIOutputFactory.newFactory()
+                        .createEDIStreamTranscoder(result, outputEncoding)
+                        .transcode(new ByteArrayInputStream(input), inputEncoding);
+
+        assertEquals(String.format(header, expected) + "UNZ+0+00000000000778'",
+                     new String(result.toByteArray(), StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    void testSyntaxIdentifierUnavailable() throws Exception {
+        byte[] input = readResource("/EDIFACT/invoic_d97b.edi");
+        EDIStreamTranscoder transcoder = EDIOutputFactory.newFactory()
+                                                         .createEDIStreamTranscoder(new ByteArrayOutputStream(), "UTF-16");
+        ByteArrayInputStream stream = new ByteArrayInputStream(input);
+
+        EDIStreamException thrown = assertThrows(EDIStreamException.class, () -> transcoder.transcode(stream));
+        assertTrue(thrown.getMessage().startsWith("No EDIFACT syntax identifier for encoding: UTF-16"), thrown.getMessage());
+    }
+
+    @Test
+    void testUnmappableCharacter() throws Exception {
+        byte[] input = readResource("/EDIFACT/invoic_d97b.edi");
+        EDIStreamTranscoder transcoder = EDIOutputFactory.newFactory()
+                                                         .createEDIStreamTranscoder(new ByteArrayOutputStream(), "US-ASCII");
+        ByteArrayInputStream stream = new ByteArrayInputStream(input);
+
+        EDIStreamException thrown = assertThrows(EDIStreamException.class, () -> transcoder.transcode(stream));
+        assertTrue(thrown.getCause() instanceof IOException);
+    }
+
+    @Test
+    void testMultipleInterchanges() throws Exception {
+        String interchange = "UNB+UNOA:3+005435656:1+006415160:1+060515:1434+00000000000778'"
+                + "UNH+1+INVOIC:D:97B:UN'"
+                + "UNT+2+1'"
+                + "UNZ+1+00000000000778'";
+        byte[] input = ("UNA=*.? '" + interchange.replace('+', '*').replace(':', '=') + "\n" + interchange)
+                .getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+
+        long count = EDIOutputFactory.newFactory().createEDIStreamTranscoder(result).transcode(new ByteArrayInputStream(input));
+
+        assertEquals(9, count);
+        assertEquals("UNA=*.? '" + interchange.replace('+', '*').replace(':', '=') + interchange,
+                     new String(result.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testTradacomsUnchanged() throws Exception {
+        byte[] input = readResource("/TRADACOMS/order.edi");
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+
+        EDIOutputFactory factory = EDIOutputFactory.newFactory();
+        factory.setProperty(Delimiters.DATA_ELEMENT, '*');
+        factory.createEDIStreamTranscoder(result).transcode(new ByteArrayInputStream(input));
+
+        assertEquals(events(input), events(result.toByteArray()));
+    }
+
+    @Test
+    void testIncompleteInput() throws Exception {
+        byte[] input = "UNB+UNOA:3+005435656:1+006415160:1+060515:1434+00000000000778'UNH+1+INV".getBytes(StandardCharsets.UTF_8);
+        EDIStreamTranscoder transcoder = EDIOutputFactory.newFactory().createEDIStreamTranscoder(new ByteArrayOutputStream());
+        ByteArrayInputStream stream = new ByteArrayInputStream(input);
+
+        EDIStreamException thrown = assertThrows(EDIStreamException.class, () -> transcoder.transcode(stream));
+        assertTrue(thrown.getMessage().startsWith("Unexpected end of stream"), thrown.getMessage());
+    }
+}
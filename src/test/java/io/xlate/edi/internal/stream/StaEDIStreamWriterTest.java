@@ -31,7 +31,9 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.math.BigDecimal;
 import java.nio.ByteBuffer;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
@@ -39,6 +41,7 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 import java.util.stream.Stream;
 
 import org.junit.jupiter.api.Test;
@@ -107,6 +110,19 @@ class StaEDIStreamWriterTest {
         assertEquals(Character.valueOf('~'), segmentTerminator);
     }
 
+    @Test
+    void testDelimiterPropertyValues() {
+        assertEquals('~', StaEDIStreamWriter.delimiterValue(Delimiters.SEGMENT, '~'));
+        assertEquals('~', StaEDIStreamWriter.delimiterValue(Delimiters.SEGMENT, "~"));
+        assertEquals('~', StaEDIStreamWriter.delimiterValue(Delimiters.SEGMENT, new StringBuilder("~")));
+
+        for (Object value : new Object[] { "", "~\n", 126, null }) {
+            IllegalArgumentException thrown = assertThrows(IllegalArgumentException.class,
+                                                           () -> StaEDIStreamWriter.delimiterValue(Delimiters.SEGMENT, value));
+            assertTrue(thrown.getMessage().contains(Delimiters.SEGMENT));
+        }
+    }
+
     @Test
     void testGetNullProperty() {
         EDIOutputFactory factory = EDIOutputFactory.newFactory();
@@ -2251,4 +2267,195 @@ class StaEDIStreamWriterTest {
         assertEquals(2, thrown.getLocation().getElementPosition());
     }
 
+    @Test
+    void testAsyncOutputMatchesSynchronousOutput() throws Exception {
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        List<String> threads = new ArrayList<>();
+        OutputStream observed = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                actual.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                threads.add(Thread.currentThread().getName());
+                actual.write(b, off, len);
+            }
+        };
+
+        EDIOutputFactory factory = EDIOutputFactory.newFactory();
+
+        for (OutputStream stream : Arrays.asList(expected, observed)) {
+            if (stream == observed) {
+                factory.setProperty(EDIOutputFactory.ASYNC_OUTPUT_BUFFER_SIZE, 16);
+            }
+
+            EDIStreamWriter writer = factory.createEDIStreamWriter(stream);
+            writer.startInterchange();
+            writeHeader(writer);
+
+            for (int i = 0; i < 50; i++) {
+                write(writer, "REF", "ZZ", String.valueOf(i));
+            }
+
+            write(writer, "IEA", "1", "508121953");
+            writer.endInterchange();
+            writer.close();
+        }
+
+        assertEquals(expected.toString(), actual.toString());
+        assertTrue(threads.size() > 1);
+        assertTrue(threads.stream().allMatch("staedi-async-output"::equals), () -> threads.toString());
+    }
+
+    @Test
+    void testAsyncOutputExceptionReportedOnClose() throws Exception {
+        OutputStream failing = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("disk full");
+            }
+        };
+
+        EDIOutputFactory factory = EDIOutputFactory.newFactory();
+        factory.setProperty(EDIOutputFactory.ASYNC_OUTPUT_BUFFER_SIZE, 1024);
+        factory.setProperty(EDIOutputFactory.ASYNC_OUTPUT_EXECUTOR, (Executor) Runnable::run);
+        EDIStreamWriter writer = factory.createEDIStreamWriter(failing);
+        writer.startInterchange();
+        writeHeader(writer);
+
+        EDIStreamException thrown = assertThrows(EDIStreamException.class, writer::close);
+        assertEquals("disk full", thrown.getCause().getCause().getMessage());
+        // Subsequent writes fail fast
+        thrown = assertThrows(EDIStreamException.class, () -> write(writer, "IEA", "1", "508121953"));
+        assertEquals("disk full", thrown.getCause().getCause().getMessage());
+    }
+
+    @Test
+    void testAsyncOutputWaitsForSlowStream() throws Exception {
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        int[] inFlight = { 0 };
+        int[] maxInFlight = { 0 };
+        OutputStream slow = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                actual.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                synchronized (inFlight) {
+                    maxInFlight[0] = Math.max(maxInFlight[0], ++inFlight[0]);
+                }
+                try {
+                    Thread.sleep(2);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                actual.write(b, off, len);
+                synchronized (inFlight) {
+                    inFlight[0]--;
+                }
+            }
+        };
+
+        EDIOutputFactory factory = EDIOutputFactory.newFactory();
+        factory.setProperty(EDIOutputFactory.ASYNC_OUTPUT_BUFFER_SIZE, "32");
+        factory.setProperty(EDIOutputFactory.ASYNC_OUTPUT_EXECUTOR, (Executor) r -> new Thread(r).start());
+        EDIStreamWriter writer = factory.createEDIStreamWriter(slow);
+        writer.startInterchange();
+        writeHeader(writer);
+
+        for (int i = 0; i < 20; i++) {
+            write(writer, "REF", "ZZ", String.valueOf(i));
+        }
+
+        writer.close();
+
+        assertEquals(1, maxInFlight[0]);
+        assertTrue(actual.toString().startsWith(TEST_HEADER_X12 + "REF*ZZ*0~"));
+        assertTrue(actual.toString().endsWith("REF*ZZ*19~"));
+    }
+
+    @Test
+    void testWriteNumericAndDateValuesWithSchema() throws Exception {
+        EDIOutputFactory factory = EDIOutputFactory.newFactory();
+        factory.setProperty(EDIOutputFactory.FORMAT_ELEMENTS, true);
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        EDIStreamWriter writer = factory.createEDIStreamWriter(stream);
+        writer.setControlSchema(SchemaUtils.getControlSchema("X12", new String[] { "00501" }));
+        writer.startInterchange();
+        writeHeader(writer);
+        write(writer, "GS", "IN", "SENDER", "RECEIVER", "20230101", "1200", "1", "X", "005010");
+        write(writer, "ST", "000", "0001");
+        writer.setTransactionSchema(SchemaFactory.newFactory()
+                                                 .createSchema(getClass().getResource("/x12/EDISchema000-value-types.xml")));
+
+        writer.writeStartSegment("VAL")
+              .writeElement(5L)
+              .writeElement(new BigDecimal("1.234567"))
+              .writeElement(LocalDate.of(2023, 2, 28))
+              .writeElement(LocalDate.of(2023, 2, 28))
+              .writeElement(-42L)
+              .writeStartElement()
+              .writeComponent(new BigDecimal("-1.005"))
+              .writeComponent(new BigDecimal("0.5"))
+              .writeComponent(LocalDate.of(1999, 12, 31))
+              .endElement()
+              .writeEndSegment();
+
+        writer.writeStartSegment("VAL")
+              .writeElement(new BigDecimal("1234567.891"))
+              .writeElement(7L)
+              .writeEndSegment();
+        writer.flush();
+
+        assertEquals("VAL*0500*1.23457*230228*20230228*-42*-0101:00.5:19991231~"
+                + "VAL*123456789*007~",
+                     stream.toString().substring(stream.toString().indexOf("VAL")));
+    }
+
+    @Test
+    void testWriteNumericValueNotPaddedWithoutFormatting() throws Exception {
+        EDIOutputFactory factory = EDIOutputFactory.newFactory();
+        EDIStreamWriter writer = factory.createEDIStreamWriter(new ByteArrayOutputStream());
+        writer.setControlSchema(SchemaUtils.getControlSchema("X12", new String[] { "00501" }));
+        writer.startInterchange();
+        writeHeader(writer);
+        write(writer, "GS", "IN", "SENDER", "RECEIVER", "20230101", "1200", "1", "X", "005010");
+        write(writer, "ST", "000", "0001");
+        writer.setTransactionSchema(SchemaFactory.newFactory()
+                                                 .createSchema(getClass().getResource("/x12/EDISchema000-value-types.xml")));
+        writer.writeStartSegment("VAL");
+
+        // Same result as writing the unpadded text, "500"
+        EDIValidationException thrown = assertThrows(EDIValidationException.class, () -> writer.writeElement(5L));
+        assertEquals(EDIStreamValidationError.DATA_ELEMENT_TOO_SHORT, thrown.getError());
+        assertEquals("500", thrown.getData().toString());
+    }
+
+    @Test
+    void testWriteNumericAndDateValuesWithoutSchema() throws Exception {
+        EDIOutputFactory factory = EDIOutputFactory.newFactory();
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        factory.setProperty(Delimiters.DECIMAL, ',');
+        EDIStreamWriter writer = factory.createEDIStreamWriter(stream);
+        writer.startInterchange();
+        write(writer, "UNB", new String[] { "UNOA", "3" }, "005435656", "006415160", new String[] { "060515", "1434" }, "1");
+        writer.writeStartSegment("QTY")
+              .writeStartElement()
+              .writeComponent(Long.MIN_VALUE)
+              .writeComponent(new BigDecimal("-0.0025"))
+              .writeComponent(new BigDecimal("1E+3"))
+              .writeComponent(LocalDate.of(2023, 7, 4))
+              .endElement()
+              .writeEndSegment();
+        writer.flush();
+
+        String result = stream.toString();
+        assertEquals("QTY+-9223372036854775808:-0,0025:1000:20230704'", result.substring(result.indexOf("QTY")));
+    }
+
 }
@@ -0,0 +1,282 @@
+/*******************************************************************************
+ * Copyright 2023 xlate.io LLC, http://www.xlate.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package io.xlate.edi.internal.stream;
+
+import static io.xlate.edi.test.StaEDITestUtil.write;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.xlate.edi.internal.schema.SchemaUtils;
+import io.xlate.edi.schema.SchemaFactory;
+import io.xlate.edi.stream.EDIInputFactory;
+import io.xlate.edi.stream.EDIOutputFactory;
+import io.xlate.edi.stream.EDIStreamEvent;
+import io.xlate.edi.stream.EDIStreamException;
+import io.xlate.edi.stream.EDIStreamReader;
+import io.xlate.edi.stream.EDIStreamValidationError;
+import io.xlate.edi.stream.EDIStreamWriter;
+import io.xlate.edi.stream.EDITransactionAssembler;
+import io.xlate.edi.stream.EDIValidationException;
+
+class StaEDITransactionAssemblerTest {
+
+    ExecutorService executor;
+
+    @BeforeEach
+    void setup() {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    void teardown() {
+        executor.shutdownNow();
+    }
+
+    static void writeX12Header(EDIStreamWriter writer) throws EDIStreamException {
+        write(writer, "ISA", "00", "          ", "00", "          ", "ZZ", "ReceiverID     ",
+              "ZZ", "Sender         ", "050812", "1953", "^", "00501", "508121953", "0", "P", ":");
+    }
+
+    @Test
+    void testX12TransactionsSplicedInSubmissionOrder() throws Exception {
+        EDIOutputFactory factory = EDIOutputFactory.newFactory();
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        EDIStreamWriter writer = factory.createEDIStreamWriter(stream);
+        writer.setControlSchema(SchemaUtils.getControlSchema("X12", new String[] { "00501" }));
+        writer.startInterchange();
+        writeX12Header(writer);
+
+        try (EDITransactionAssembler assembler = factory.createTransactionAssembler(writer, executor)) {
+            assembler.setGroupControlNumber(7);
+            assembler.startGroup("IN", "SENDER", "RECEIVER", "20230101", "1200", "X", "005010");
+
+            for (int i = 0; i < 20; i++) {
+                final int segments = (i % 3) + 1;
+                final String reference = String.valueOf(i);
+
+                assembler.submit(fragment -> {
+                    for (int s = 0; s < segments; s++) {
+                        write(fragment, "REF", "ZZ", reference);
+                    }
+                }, "810");
+            }
+
+            assembler.endGroup();
+            assertEquals(20, assembler.getTransactionCount());
+        }
+
+        write(writer, "IEA", "1", "508121953");
+        writer.endInterchange();
+        writer.close();
+
+        String result = new String(stream.toByteArray());
+        assertEquals(0, result.indexOf("ISA*"));
+        assertTrue(result.contains("~GS*IN*SENDER*RECEIVER*20230101*1200*7*X*005010~"));
+        assertTrue(result.contains("~ST*810*0001~REF*ZZ*0~SE*3*0001~"));
+        assertTrue(result.contains("~ST*810*0002~REF*ZZ*1~REF*ZZ*1~SE*4*0002~"));
+        assertTrue(result.contains("~ST*810*0020~REF*ZZ*19~REF*ZZ*19~SE*4*0020~GE*20*7~IEA*1*508121953~"));
+
+        // Position of the trailer includes all spliced segments
+        assertEquals(2 + 20 * 2 + (7 * 1 + 7 * 2 + 6 * 3) + 2, writer.getLocation().getSegmentPosition());
+
+        List<String> errors = new ArrayList<>();
+        List<String> references = new ArrayList<>();
+        EDIStreamReader reader = EDIInputFactory.newFactory()
+                                                .createEDIStreamReader(new ByteArrayInputStream(stream.toByteArray()));
+
+        while (reader.hasNext()) {
+            EDIStreamEvent event = reader.next();
+
+            if (event.isError()) {
+                errors.add(reader.getErrorType() + " " + reader.getLocation());
+            } else if (event == EDIStreamEvent.ELEMENT_DATA && "REF".equals(reader.getLocation().getSegmentTag())
+                    && reader.getLocation().getElementPosition() == 2
+                    && !references.contains(reader.getText())) {
+                references.add(reader.getText());
+            }
+        }
+
+        assertEquals(0, errors.size(), () -> errors.toString());
+        assertEquals(20, references.size());
+
+        for (int i = 0; i < 20; i++) {
+            assertEquals(String.valueOf(i), references.get(i));
+        }
+    }
+
+    @Test
+    void testEdifactMessagesWithoutGroup() throws Exception {
+        EDIOutputFactory factory = EDIOutputFactory.newFactory();
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        EDIStreamWriter writer = factory.createEDIStreamWriter(stream);
+        writer.startInterchange();
+        write(writer, "UNB", new String[] { "UNOA", "3" }, new String[] { "005435656", "1" },
+              new String[] { "006415160", "1" }, new String[] { "060515", "1434" }, "00000000000778");
+
+        EDITransactionAssembler assembler = factory.createTransactionAssembler(writer, executor);
+        assembler.setTransactionControlNumber(41);
+
+        for (int i = 0; i < 3; i++) {
+            assembler.submit(fragment -> write(fragment, "BGM", "220", "X?Y"),
+                             (Object) new String[] { "ORDERS", "D", "96A", "UN" });
+        }
+
+        assembler.close();
+        write(writer, "UNZ", "3", "00000000000778");
+        writer.endInterchange();
+
+        assertEquals("UNB+UNOA:3+005435656:1+006415160:1+060515:1434+00000000000778'"
+                + "UNH+41+ORDERS:D:96A:UN'BGM+220+X??Y'UNT+3+41'"
+                + "UNH+42+ORDERS:D:96A:UN'BGM+220+X??Y'UNT+3+42'"
+                + "UNH+43+ORDERS:D:96A:UN'BGM+220+X??Y'UNT+3+43'"
+                + "UNZ+3+00000000000778'",
+                     new String(stream.toByteArray()));
+    }
+
+    @Test
+    void testFragmentFailureReportedOnSplice() throws Exception {
+        EDIOutputFactory factory = EDIOutputFactory.newFactory();
+        EDIStreamWriter writer = factory.createEDIStreamWriter(new ByteArrayOutputStream());
+        writer.startInterchange();
+        writeX12Header(writer);
+
+        EDITransactionAssembler assembler = factory.createTransactionAssembler(writer, executor);
+        assembler.startGroup("IN", "SENDER", "RECEIVER", "20230101", "1200", "X", "005010");
+        assembler.submit(fragment -> fragment.writeStartSegment("REF").writeEndSegment().writeEndSegment(), "810");
+
+        assertThrows(IllegalStateException.class, assembler::endGroup);
+    }
+
+    @Test
+    void testPendingTransactionsBounded() throws Exception {
+        EDIOutputFactory factory = EDIOutputFactory.newFactory();
+        EDIStreamWriter writer = factory.createEDIStreamWriter(new ByteArrayOutputStream());
+        writer.startInterchange();
+        writeX12Header(writer);
+
+        StaEDITransactionAssembler assembler = (StaEDITransactionAssembler) factory.createTransactionAssembler(writer, executor);
+        assertEquals(8, assembler.getMaxPendingTransactions());
+        assertThrows(IllegalArgumentException.class, () -> assembler.setMaxPendingTransactions(0));
+
+        assembler.setMaxPendingTransactions(2);
+        assembler.startGroup("IN", "SENDER", "RECEIVER", "20230101", "1200", "X", "005010");
+
+        CountDownLatch release = new CountDownLatch(1);
+        assembler.submit(fragment -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            write(fragment, "REF", "ZZ", "SLOW");
+        }, "810");
+        assembler.submit(fragment -> write(fragment, "REF", "ZZ", "1"), "810");
+        assertEquals(0, assembler.getTransactionCount());
+
+        // Waits for the held transaction at the head of the queue
+        ExecutorService producer = Executors.newSingleThreadExecutor();
+
+        try {
+            Future<Integer> third = producer.submit(() -> {
+                assembler.submit(fragment -> write(fragment, "REF", "ZZ", "2"), "810");
+                return assembler.getTransactionCount();
+            });
+
+            assertThrows(TimeoutException.class, () -> third.get(100, TimeUnit.MILLISECONDS));
+            release.countDown();
+            assertTrue(third.get() >= 1);
+        } finally {
+            producer.shutdownNow();
+        }
+
+        assembler.endGroup();
+        assertEquals(3, assembler.getTransactionCount());
+    }
+
+    static EDIStreamWriter transactionWriter(EDIOutputFactory factory, ByteArrayOutputStream stream) throws Exception {
+        EDIStreamWriter writer = factory.createEDIStreamWriter(stream);
+        writer.setControlSchema(SchemaUtils.getControlSchema("X12", new String[] { "00501" }));
+        writer.setTransactionSchema(SchemaFactory.newFactory()
+                                                 .createSchema(StaEDITransactionAssemblerTest.class.getResource("/x12/EDISchema810.xml")));
+        writer.startInterchange();
+        writeX12Header(writer);
+        return writer;
+    }
+
+    @Test
+    void testFragmentsValidatedWithTargetTransactionSchema() throws Exception {
+        EDIOutputFactory factory = EDIOutputFactory.newFactory();
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        EDIStreamWriter writer = transactionWriter(factory, stream);
+
+        EDITransactionAssembler assembler = factory.createTransactionAssembler(writer, executor);
+        assembler.startGroup("IN", "SENDER", "RECEIVER", "20230101", "1200", "X", "005010");
+        assembler.submit(fragment -> {
+            write(fragment, "BIG", "20230101", "1");
+            write(fragment, "TDS", "100");
+        }, "810");
+        assembler.endGroup();
+        write(writer, "IEA", "1", "508121953");
+        writer.endInterchange();
+        writer.close();
+
+        assertTrue(new String(stream.toByteArray()).contains("~ST*810*0001~BIG*20230101*1~TDS*100~SE*4*0001~GE*1*1~"));
+    }
+
+    @Test
+    void testFragmentValidationFailureReportedOnSplice() throws Exception {
+        EDIOutputFactory factory = EDIOutputFactory.newFactory();
+        EDIStreamWriter writer = transactionWriter(factory, new ByteArrayOutputStream());
+
+        EDITransactionAssembler assembler = factory.createTransactionAssembler(writer, executor);
+        assembler.startGroup("IN", "SENDER", "RECEIVER", "20230101", "1200", "X", "005010");
+        assembler.submit(fragment -> {
+            write(fragment, "BIG", "20230101", "1");
+            write(fragment, "FOB", "PP");
+            write(fragment, "FOB", "CC");
+            write(fragment, "TDS", "100");
+        }, "810");
+
+        EDIValidationException thrown = assertThrows(EDIValidationException.class, assembler::endGroup);
+        assertEquals(EDIStreamValidationError.SEGMENT_EXCEEDS_MAXIMUM_USE, thrown.getError());
+        assertEquals("FOB", thrown.getData().toString());
+    }
+
+    @Test
+    void testAssemblerRequiresConfirmedHeader() {
+        EDIOutputFactory factory = EDIOutputFactory.newFactory();
+        EDIStreamWriter writer = factory.createEDIStreamWriter(new ByteArrayOutputStream());
+        assertThrows(IllegalStateException.class, () -> factory.createTransactionAssembler(writer, executor));
+        assertFalse(executor.isShutdown());
+    }
+}
@@ -0,0 +1,178 @@
+/*******************************************************************************
+ * Copyright 2023 xlate.io LLC, http://www.xlate.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package io.xlate.edi.internal.stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.stax.StAXSource;
+import javax.xml.transform.stream.StreamResult;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.xmlunit.builder.DiffBuilder;
+import org.xmlunit.builder.Input;
+import org.xmlunit.diff.DefaultComparisonFormatter;
+import org.xmlunit.diff.Diff;
+
+import io.xlate.edi.stream.EDIInputFactory;
+import io.xlate.edi.stream.EDIStreamEvent;
+import io.xlate.edi.stream.EDIStreamReader;
+
+class StaEDIXMLSerializerTest {
+
+    static String transform(EDIInputFactory factory, InputStream stream) throws Exception {
+        XMLStreamReader xmlReader = factory.createXMLStreamReader(factory.createEDIStreamReader(stream));
+        xmlReader.next(); // Per StAXSource JavaDoc, put in START_DOCUMENT state
+        Transformer transformer = TransformerFactory.newInstance().newTransformer();
+        StringWriter result = new StringWriter();
+        transformer.transform(new StAXSource(xmlReader), new StreamResult(result));
+        return result.toString();
+    }
+
+    static String serialize(EDIInputFactory factory, InputStream stream) throws Exception {
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        factory.writeXML(factory.createEDIStreamReader(stream), result);
+        return new String(result.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    static void assertSameXml(String expected, String actual) {
+        Diff d = DiffBuilder.compare(Input.fromString(expected)).withTest(Input.fromString(actual)).build();
+        assertFalse(d.hasDifferences(), () -> "XML unexpectedly different:\n" + d.toString(new DefaultComparisonFormatter()));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "/x12/invoice810_po850_dual.edi, false, false",
+        "/x12/invoice810_po850_dual.edi, true, true",
+        "/x12/extraDelimiter997.edi, false, false",
+        "/x12/optionalInterchangeServices.edi, true, false",
+        "/EDIFACT/invoic_d97b.edi, false, true",
+        "/EDIFACT/invoic_d97b_una.edi, true, false",
+    })
+    void testSerializerMatchesStAX(String resource, boolean declareTransactionXmlns, boolean wrapTransactionContents) throws Exception {
+        EDIInputFactory factory = EDIInputFactory.newFactory();
+        factory.setProperty(EDIInputFactory.XML_DECLARE_TRANSACTION_XMLNS, declareTransactionXmlns);
+        factory.setProperty(EDIInputFactory.XML_WRAP_TRANSACTION_CONTENTS, wrapTransactionContents);
+
+        String expected = transform(factory, getClass().getResourceAsStream(resource));
+        String actual = serialize(factory, getClass().getResourceAsStream(resource));
+
+        assertTrue(actual.startsWith("<?xml version=\"1.0\" encoding=\"UTF-8\"?><l:INTERCHANGE xmlns:l="), actual);
+        assertSameXml(expected, actual);
+    }
+
+    @Test
+    void testSerializerEscapesText() throws Exception {
+        String input = "UNA:+.? 'UNB+UNOC:3+SENDER+RECEIVER+200101:1000+1'"
+                + "UNH+1+INVOIC:D:97B:UN'NAD+BY++A & B <Müller> ☃'UNT+3+1'"
+                + "UNZ+1+1'";
+        EDIInputFactory factory = EDIInputFactory.newFactory();
+
+        String expected = transform(factory, new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)));
+        String actual = serialize(factory, new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)));
+
+        assertTrue(actual.contains(">A &amp; B &lt;Müller&gt; ☃</e:"), actual);
+        assertSameXml(expected, actual);
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+        "QUJD+/w== | <![CDATA[QUJD+/w==]]>",
+        "A & B <Müller> ☃ | <![CDATA[A & B <Müller> ☃]]>",
+        "x]]>y]]]>z | <![CDATA[x]]]]><![CDATA[>y]]]]]><![CDATA[>z]]>",
+        "]]> | <![CDATA[]]]]><![CDATA[>]]>",
+    })
+    void testSerializerCData(String text, String expected) throws Exception {
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        StaEDIXMLSerializer serializer = new StaEDIXMLSerializer(null, result);
+        char[] chars = ("-" + text + "-").toCharArray();
+
+        serializer.writeCData(chars, 1, chars.length - 2);
+        serializer.flush();
+
+        assertEquals(expected, new String(result.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "'A\uD83D\uDE00B', 'A\uD83D\uDE00B'",
+        "'A\uD83DB', 'A?B'",
+        "'A\uDE00B', 'A?B'",
+        "'AB\uD83D', 'AB?'",
+    })
+    void testSerializerUnpairedSurrogates(String text, String expected) throws Exception {
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        StaEDIXMLSerializer serializer = new StaEDIXMLSerializer(null, result);
+        char[] chars = text.toCharArray();
+
+        serializer.writeEscaped(chars, 0, chars.length);
+        serializer.flush();
+
+        // Same result as the JDK's encoder
+        assertEquals(expected, new String(result.toByteArray(), StandardCharsets.UTF_8));
+        assertArrayEquals(text.getBytes(StandardCharsets.UTF_8), result.toByteArray());
+    }
+
+    @Test
+    void testSerializerEmptyElements() throws Exception {
+        EDIInputFactory factory = EDIInputFactory.newFactory();
+        String actual = serialize(factory, getClass().getResourceAsStream("/x12/invoice810_po850_dual.edi"));
+        // ISA02 is all spaces, text is retained
+        assertTrue(actual.contains("<e:ISA02>          </e:ISA02>"), actual);
+        assertFalse(actual.contains("></e:"), actual);
+    }
+
+    @Test
+    void testSerializerStartedReader() throws Exception {
+        EDIInputFactory factory = EDIInputFactory.newFactory();
+        EDIStreamReader reader = factory.createEDIStreamReader(getClass().getResourceAsStream("/x12/extraDelimiter997.edi"));
+        assertEquals(EDIStreamEvent.START_INTERCHANGE, reader.next());
+
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        factory.writeXML(reader, result);
+
+        assertSameXml(transform(factory, getClass().getResourceAsStream("/x12/extraDelimiter997.edi")),
+                      new String(result.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testSerializerInvalidInput() {
+        EDIInputFactory factory = EDIInputFactory.newFactory();
+        String input = "ISA*00*          *00*          *ZZ*ReceiverID     *ZZ*Sender         *050812*1953*^*00501*508121953*0*P*:~"
+                + "GS*IN*SENDER*RECEIVER*20230101*1200*1*X*005010~"
+                + "ST*810*0001~"
+                + "SE*3*0001~"
+                + "GE*1*1~"
+                + "IEA*1*508121953~";
+        InputStream stream = new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8));
+        assertThrows(XMLStreamException.class, () -> serialize(factory, stream));
+    }
+}
@@ -21,6 +21,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
@@ -39,6 +40,7 @@ import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Logger;
@@ -144,6 +146,62 @@ class StaEDIXMLStreamReaderTest {
         xmlReader.require(XMLStreamConstants.END_ELEMENT, null, tag);
     }
 
+    @Test
+    void testElementNamesReused() throws Exception {
+        byte[] input = ("ISA*00*          *00*          *ZZ*ReceiverID     *ZZ*Sender         *050812*1953*^*00501*508121953*0*P*:~"
+                + "S01*A*B*C*D*E*F*G*H*I*J*K:L~"
+                + "S01*1*2*3*4*5*6*7*8*9*10*11:12~"
+                + "IEA*1*508121953~").getBytes();
+        XMLStreamReader xmlReader = getXmlReader(input);
+        skipEvents(xmlReader, 2 + 3 * 16 + 1);
+
+        javax.xml.namespace.QName[][] names = new javax.xml.namespace.QName[2][];
+
+        for (int s = 0; s < 2; s++) {
+            assertEquals(XMLStreamConstants.START_ELEMENT, xmlReader.next());
+            assertEquals("S01", xmlReader.getLocalName());
+            names[s] = new javax.xml.namespace.QName[13];
+
+            for (int e = 0; e < 10; e++) {
+                assertEquals(XMLStreamConstants.START_ELEMENT, xmlReader.next());
+                names[s][e] = xmlReader.getName();
+                skipEvents(xmlReader, 2);
+            }
+
+            assertEquals(XMLStreamConstants.START_ELEMENT, xmlReader.next());
+            names[s][10] = xmlReader.getName();
+            skipEvents(xmlReader, 1);
+            names[s][11] = xmlReader.getName();
+            skipEvents(xmlReader, 3);
+            names[s][12] = xmlReader.getName();
+            skipEvents(xmlReader, 3);
+            assertEquals(XMLStreamConstants.END_ELEMENT, xmlReader.next());
+            assertEquals("S01", xmlReader.getLocalName());
+        }
+
+        assertEquals("S0101", names[0][0].getLocalPart());
+        assertEquals("S0110", names[0][9].getLocalPart());
+        assertEquals("S0111", names[0][10].getLocalPart());
+        assertEquals(EDINamespaces.COMPOSITES, names[0][10].getNamespaceURI());
+        assertEquals("S0111-01", names[0][11].getLocalPart());
+        assertEquals("S0111-02", names[0][12].getLocalPart());
+        assertEquals(EDINamespaces.ELEMENTS, names[0][12].getNamespaceURI());
+
+        for (int e = 0; e < 13; e++) {
+            assertSame(names[0][e], names[1][e]);
+        }
+    }
+
+    @Test
+    void testNameTablePositions() {
+        StaEDIXMLStreamReader.NameTable table = new StaEDIXMLStreamReader.NameTable(EDINamespaces.ELEMENTS, "-");
+        assertEquals("C001-01", table.get("C001", 1).getLocalPart());
+        assertEquals("C001-100", table.get("C001", 100).getLocalPart());
+        assertSame(table.get("C001", 1), table.get("C001", 1));
+        assertEquals("e", table.get("C001", 1).getPrefix());
+        assertSame(table.get("S01"), table.get("S01"));
+    }
+
     @Test
     void testSegmentSequence() throws Exception {
         XMLStreamReader xmlReader = getXmlReader(DUMMY_X12);
@@ -982,4 +1040,46 @@ class StaEDIXMLStreamReaderTest {
         assertTrue(!d.hasDifferences(), () -> "XML unexpectedly different:\n" + d.toString(new DefaultComparisonFormatter()));
     }
 
+
+    @Test
+    void testLargeBinaryStreamedInChunks() throws Exception {
+        byte[] binary = new byte[10_000];
+        new Random(1).nextBytes(binary);
+        ByteArrayOutputStream input = new ByteArrayOutputStream();
+        input.write(("ISA*00*          *00*          *ZZ*ReceiverID     *ZZ*Sender         *050812*1953*^*00501*508121953*0*P*:~"
+                + "GS*FA*ReceiverDept*SenderDept*20190922*155401*000001*X*005010~"
+                + "ST*000*0001~"
+                + "BIN*" + binary.length + "*").getBytes());
+        input.write(binary);
+        input.write("~SE*3*0001~GE*1*000001~IEA*1*508121953~".getBytes());
+
+        EDIInputFactory factory = EDIInputFactory.newFactory();
+        Schema schema = SchemaFactory.newFactory().createSchema(getClass().getResource("/x12/EDISchemaBinarySegment.xml"));
+        EDIStreamReader ediReader = factory.createFilteredReader(factory.createEDIStreamReader(new ByteArrayInputStream(input.toByteArray())),
+                                                                 r -> {
+                                                                     if (r.getEventType() == EDIStreamEvent.START_TRANSACTION) {
+                                                                         r.setTransactionSchema(schema);
+                                                                     }
+                                                                     return true;
+                                                                 });
+        XMLStreamReader xmlReader = new StaEDIXMLStreamReader(ediReader);
+        StringBuilder encoded = new StringBuilder();
+        int chunks = 0;
+
+        while (xmlReader.hasNext()) {
+            if (xmlReader.next() == XMLStreamConstants.START_ELEMENT && "BIN02".equals(xmlReader.getLocalName())) {
+                while (xmlReader.next() == XMLStreamConstants.CDATA) {
+                    assertTrue(xmlReader.getTextLength() <= 4096);
+                    encoded.append(xmlReader.getTextCharacters(), xmlReader.getTextStart(), xmlReader.getTextLength());
+                    chunks++;
+                }
+
+                assertEquals(XMLStreamConstants.END_ELEMENT, xmlReader.getEventType());
+                assertEquals("BIN02", xmlReader.getLocalName());
+            }
+        }
+
+        assertEquals(4, chunks);
+        assertArrayEquals(binary, Base64.getDecoder().decode(encoded.toString()));
+    }
 }
@@ -5,6 +5,7 @@ import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -578,4 +579,40 @@ class StaEDIXMLStreamWriterTest {
         Transformer tx = TransformerFactory.newInstance().newTransformer();
         assertDoesNotThrow(() -> tx.transform(source, result));
     }
+
+    @Test
+    void testPrefixScopedToElement() throws XMLStreamException {
+        it.setPrefix("l", EDINamespaces.LOOPS);
+        it.writeStartDocument();
+        it.writeStartElement("l:INTERCHANGE");
+        it.setPrefix("s", EDINamespaces.SEGMENTS);
+        it.setPrefix("", EDINamespaces.LOOPS);
+        it.setPrefix("l", NS_URI_TEST);
+        assertEquals("s", it.getPrefix(EDINamespaces.SEGMENTS));
+        assertEquals(NS_URI_TEST, it.getNamespaceURI("l"));
+        it.writeStartElement("GROUP");
+        assertEquals("s", it.getPrefix(EDINamespaces.SEGMENTS));
+        it.writeEndElement();
+        it.writeEndElement();
+        // Prefixes set within INTERCHANGE are out of scope
+        assertNull(it.getPrefix(EDINamespaces.SEGMENTS));
+        assertEquals(EDINamespaces.LOOPS, it.getNamespaceURI("l"));
+        assertEquals("l", it.getPrefix(EDINamespaces.LOOPS));
+    }
+
+    @Test
+    void testElementPositionsCached() throws XMLStreamException {
+        QName element = it.getName(EDINamespaces.ELEMENTS, "SG112", "e");
+        assertEquals(element, it.getName(EDINamespaces.ELEMENTS, "SG112", "x"));
+        assertSame(element, it.getName(EDINamespaces.ELEMENTS, "SG112", "e"));
+        assertEquals(12, it.getPosition(element, false));
+        assertEquals(12, it.getPosition(element, false));
+
+        QName component = it.getName(EDINamespaces.ELEMENTS, "SG101-10", "e");
+        assertEquals(10, it.getPosition(component, true));
+
+        QName invalid = it.getName(EDINamespaces.ELEMENTS, "SG1AB", "e");
+        assertThrows(XMLStreamException.class, () -> it.getPosition(invalid, false));
+        assertThrows(XMLStreamException.class, () -> it.getPosition(invalid, false));
+    }
 }
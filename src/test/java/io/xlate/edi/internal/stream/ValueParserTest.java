@@ -0,0 +1,152 @@
+/*******************************************************************************
+ * Copyright 2023 xlate.io LLC, http://www.xlate.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package io.xlate.edi.internal.stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.nio.CharBuffer;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import io.xlate.edi.internal.stream.tokenization.Dialect;
+import io.xlate.edi.schema.EDISimpleType;
+import io.xlate.edi.schema.EDISimpleType.Base;
+
+class ValueParserTest {
+
+    static CharBuffer buffer(String value) {
+        // Value surrounded by other data, as in the reader's buffer
+        char[] text = ("**" + value + "~").toCharArray();
+        CharBuffer buffer = CharBuffer.wrap(text);
+        buffer.position(2);
+        buffer.limit(2 + value.length());
+        return buffer.slice();
+    }
+
+    static EDISimpleType type(Base base, Integer scale) {
+        EDISimpleType type = mock(EDISimpleType.class);
+        when(type.getBase()).thenReturn(base);
+        when(type.getScale()).thenReturn(scale);
+        return type;
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "0, 0",
+        "007, 7",
+        "-42, -42",
+        "9223372036854775807, 9223372036854775807",
+        "-9223372036854775808, -9223372036854775808",
+    })
+    void testParseLong(String value, long expected) {
+        assertEquals(expected, ValueParser.parseLong(buffer(value)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "", "-", "1.0", "12A", "+1", "9223372036854775808", "-9223372036854775809" })
+    void testParseLongInvalid(String value) {
+        CharBuffer buffer = buffer(value);
+        assertThrows(NumberFormatException.class, () -> ValueParser.parseLong(buffer));
+    }
+
+    @Test
+    void testParseIntOverflow() {
+        assertEquals(Integer.MIN_VALUE, ValueParser.parseInt(buffer("-2147483648")));
+        CharBuffer buffer = buffer("2147483648");
+        assertThrows(NumberFormatException.class, () -> ValueParser.parseInt(buffer));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "NUMERIC, 2, 0500, 5.00",
+        "NUMERIC, , -12, -12",
+        "NUMERIC, 3, 123456789012345678901, 123456789012345678.901",
+        "DECIMAL, 2, 1.5, 1.5",
+        "DECIMAL, , -.25, -0.25",
+        "DECIMAL, , 12., 12",
+        "DECIMAL, , 1.5E3, 1.5E+3",
+        "DECIMAL, , 25E-2, 0.25",
+        "DECIMAL, , 12345678901234567890.5, 12345678901234567890.5",
+    })
+    void testParseDecimal(Base base, Integer scale, String value, BigDecimal expected) {
+        assertEquals(expected, ValueParser.parseDecimal(buffer(value), type(base, scale), null));
+    }
+
+    @Test
+    void testParseDecimalDialectMark() {
+        Dialect dialect = mock(Dialect.class);
+        when(dialect.isDecimalMark(',')).thenReturn(true);
+        when(dialect.isDecimalMark('.')).thenReturn(true);
+
+        assertEquals(new BigDecimal("3.14"), ValueParser.parseDecimal(buffer("3,14"), null, dialect));
+        assertEquals(new BigDecimal("3.14"), ValueParser.parseDecimal(buffer("3.14"), null, dialect));
+        assertEquals(new BigDecimal("12345678901234567890.5"),
+                     ValueParser.parseDecimal(buffer("12345678901234567890,5"), null, dialect));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "", "-", ".", "1.2.3", "1,5", "E5", "1E", "1e5", "1.5A" })
+    void testParseDecimalInvalid(String value) {
+        CharBuffer buffer = buffer(value);
+        assertThrows(NumberFormatException.class, () -> ValueParser.parseDecimal(buffer, null, null));
+    }
+
+    @Test
+    void testParseDate() {
+        assertEquals(LocalDate.of(2023, 2, 28), ValueParser.parseDate(buffer("20230228")));
+        assertEquals(LocalDate.of(1999, 12, 31), ValueParser.parseDate(buffer("19991231")));
+
+        int century = LocalDate.now().getYear() / 100;
+        assertEquals(LocalDate.of(century * 100, 1, 1), ValueParser.parseDate(buffer("000101")));
+        assertEquals(LocalDate.of((century - 1) * 100 + 99, 1, 1), ValueParser.parseDate(buffer("990101")));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "", "2023022", "202302289", "20230229", "2023AB28", "231301" })
+    void testParseDateInvalid(String value) {
+        CharBuffer buffer = buffer(value);
+        assertThrows(DateTimeException.class, () -> ValueParser.parseDate(buffer));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "1200, 12:00",
+        "235959, 23:59:59",
+        "0000015, 00:00:01.5",
+        "000001123456789, 00:00:01.123456789",
+        "00000112345678999, 00:00:01.123456789",
+    })
+    void testParseTime(String value, LocalTime expected) {
+        assertEquals(expected, ValueParser.parseTime(buffer(value)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "", "120", "12000", "2400", "1260", "12:0", "1200001X" })
+    void testParseTimeInvalid(String value) {
+        CharBuffer buffer = buffer(value);
+        assertThrows(DateTimeException.class, () -> ValueParser.parseTime(buffer));
+    }
+}
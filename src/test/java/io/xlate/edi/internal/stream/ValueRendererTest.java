@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Copyright 2023 xlate.io LLC, http://www.xlate.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package io.xlate.edi.internal.stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import io.xlate.edi.schema.EDISimpleType;
+import io.xlate.edi.schema.EDISimpleType.Base;
+
+class ValueRendererTest {
+
+    static EDISimpleType type(Base base, Integer scale, long minLength, long maxLength) {
+        EDISimpleType type = mock(EDISimpleType.class);
+        when(type.getBase()).thenReturn(base);
+        when(type.getScale()).thenReturn(scale);
+        when(type.getMinLength()).thenReturn(minLength);
+        when(type.getMaxLength()).thenReturn(maxLength);
+        return type;
+    }
+
+    static String rendered(ValueRenderer renderer) {
+        return new String(renderer.buffer(), 0, renderer.length());
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "0, 0, 1, 0",
+        "-7, 0, 3, -007",
+        "12, 2, 1, 1200",
+        "-12, 3, 6, -012000",
+        "9223372036854775807, 0, 1, 9223372036854775807",
+        "-9223372036854775808, 0, 1, -9223372036854775808",
+    })
+    void testRenderLongNumeric(long value, int scale, long minLength, String expected) {
+        ValueRenderer renderer = new ValueRenderer(true);
+        renderer.render(value, type(Base.NUMERIC, scale, minLength, 20));
+        assertEquals(expected, rendered(renderer));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "NUMERIC, 2, 1, 10, 1.005, 101",
+        "NUMERIC, 0, 1, 10, -2.5, -3",
+        "NUMERIC, 1, 4, 10, 3, 0030",
+        "DECIMAL, 0, 1, 4, 99.996, 100.0",
+        "DECIMAL, 0, 1, 3, 0.0004, 0.00",
+        "DECIMAL, 0, 1, 2, 999.9, 1000",
+        "DECIMAL, 0, 4, 10, -.25, -00.25",
+        "DECIMAL, 0, 1, 10, 1.5E+2, 150",
+        "STRING, 0, 5, 10, 12.5, 12.5",
+    })
+    void testRenderDecimal(Base base, int scale, long minLength, long maxLength, BigDecimal value, String expected) {
+        ValueRenderer renderer = new ValueRenderer(true);
+        renderer.render(value, type(base, scale, minLength, maxLength), '.');
+        assertEquals(expected, rendered(renderer));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "-7, 0, 3, -7, false",
+        "12, 2, 5, 1200, false",
+        "12, 2, 5, 01200, true",
+    })
+    void testRenderLongPaddingFollowsFormatting(long value, int scale, long minLength, String expected, boolean padding) {
+        ValueRenderer renderer = new ValueRenderer(padding);
+        renderer.render(value, type(Base.NUMERIC, scale, minLength, 20));
+        assertEquals(expected, rendered(renderer));
+        assertEquals(padding, renderer.formatted());
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "DECIMAL, 0, 4, 10, -.25, -0.25",
+        "NUMERIC, 1, 4, 10, 3, 30",
+    })
+    void testRenderDecimalWithoutPadding(Base base, int scale, long minLength, long maxLength, BigDecimal value, String expected) {
+        ValueRenderer renderer = new ValueRenderer(false);
+        renderer.render(value, type(base, scale, minLength, maxLength), '.');
+        assertEquals(expected, rendered(renderer));
+        assertFalse(renderer.formatted());
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "DATE, 6, 230704",
+        "DATE, 8, 20230704",
+        "STRING, 6, 20230704",
+    })
+    void testRenderDate(Base base, long maxLength, String expected) {
+        ValueRenderer renderer = new ValueRenderer(true);
+        renderer.render(LocalDate.of(2023, 7, 4), type(base, null, 0, maxLength));
+        assertEquals(expected, rendered(renderer));
+    }
+}
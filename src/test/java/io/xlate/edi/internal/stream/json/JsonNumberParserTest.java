@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * Copyright 2023 xlate.io LLC, http://www.xlate.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package io.xlate.edi.internal.stream.json;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import io.xlate.edi.schema.EDISimpleType;
+import io.xlate.edi.schema.EDISimpleType.Base;
+import io.xlate.edi.stream.EDIStreamConstants.Delimiters;
+import io.xlate.edi.stream.EDIStreamReader;
+
+class JsonNumberParserTest {
+
+    static EDIStreamReader reader(String value, Character decimalMark) {
+        // Value surrounded by other data, as in the reader's buffer
+        char[] text = ("**" + value + "~").toCharArray();
+        EDIStreamReader reader = mock(EDIStreamReader.class);
+        when(reader.getTextCharacters()).thenReturn(text);
+        when(reader.getTextStart()).thenReturn(2);
+        when(reader.getTextLength()).thenReturn(value.length());
+        when(reader.getDelimiters()).thenReturn(decimalMark != null
+                ? Collections.singletonMap(Delimiters.DECIMAL, decimalMark)
+                : Collections.emptyMap());
+        return reader;
+    }
+
+    static EDISimpleType type(Base base, Integer scale) {
+        EDISimpleType type = mock(EDISimpleType.class);
+        when(type.getBase()).thenReturn(base);
+        when(type.getScale()).thenReturn(scale);
+        return type;
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "NUMERIC, 2, , 0500, 5.00, true",
+        "NUMERIC, , , -12, -12, true",
+        "NUMERIC, 1, , +125, 12.5, true",
+        "NUMERIC, , , +9223372036854775808, 9223372036854775808, false",
+        "NUMERIC, , , 9223372036854775807, 9223372036854775807, true",
+        "NUMERIC, , , -9223372036854775808, -9223372036854775808, true",
+        "NUMERIC, 3, , 123456789012345678901, 123456789012345678.901, false",
+        "DECIMAL, , , 1.50, 1.50, true",
+        "DECIMAL, , , -.25, -0.25, true",
+        "DECIMAL, , , 12., 12, true",
+        "DECIMAL, , , 1.5E3, 1500, true",
+        "DECIMAL, , , 25E-2, 0.25, true",
+        "DECIMAL, , ',', '3,14', 3.14, true",
+        "DECIMAL, , ',', 3.14, 3.14, true",
+        "DECIMAL, , ',', '12345678901234567890,5', 12345678901234567890.5, false",
+        "DECIMAL, , , 1E30, 1E+30, false",
+    })
+    void testParse(Base base, Integer scale, Character decimalMark, String value, BigDecimal expected, boolean compact) {
+        JsonNumberParser parser = new JsonNumberParser(reader(value, decimalMark));
+        assertTrue(parser.parse(type(base, scale)));
+        assertEquals(compact, parser.isCompact());
+        assertEquals(expected, parser.getBigDecimal());
+        assertEquals(expected.scale() == 0, parser.isIntegral());
+        assertEquals(expected.longValue(), parser.getLong());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "", "-", ".", "1.2.3", "1,5", "E5", "1E", "1E-", "1e5", "1.5A" })
+    void testParseDecimalInvalid(String value) {
+        JsonNumberParser parser = new JsonNumberParser(reader(value, '.'));
+        assertFalse(parser.parse(type(Base.DECIMAL, null)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "", "-", "+", "+-1", "1.0", "12A", "1+" })
+    void testParseNumericInvalid(String value) {
+        JsonNumberParser parser = new JsonNumberParser(reader(value, '.'));
+        assertFalse(parser.parse(type(Base.NUMERIC, 2)));
+    }
+}
@@ -8,15 +8,19 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
 import java.math.BigDecimal;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Base64;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -289,4 +293,54 @@ class StaEDIJacksonJsonParserTest extends StaEDIReaderTestBase implements JsonPa
 
         assertEquals(3, matched);
     }
+
+    @Test
+    void testBinaryElementStreamed() throws Exception {
+        byte[] binary = new byte[10_000];
+        new Random(1).nextBytes(binary);
+        ByteArrayOutputStream input = new ByteArrayOutputStream();
+        input.write(("ISA*00*          *00*          *ZZ*ReceiverID     *ZZ*Sender         *050812*1953*^*00501*508121953*0*P*:~"
+                + "GS*FA*ReceiverDept*SenderDept*20190922*155401*000001*X*005010~"
+                + "ST*000*0001~"
+                + "BIN*" + binary.length + "*").getBytes());
+        input.write(binary);
+        input.write(("~BIN*" + binary.length + "*").getBytes());
+        input.write(binary);
+        input.write("~SE*4*0001~GE*1*000001~IEA*1*508121953~".getBytes());
+        ediReaderConfig.put(EDIInputFactory.JSON_OBJECT_ELEMENTS, true);
+        setupReader(input.toByteArray(), "/x12/EDISchemaBinarySegment.xml");
+
+        JsonParser jsonParser = JsonParserFactory.createJsonParser(ediReader, JsonParser.class, ediReaderConfig);
+        List<String> results = new ArrayList<>();
+
+        while (jsonParser.nextToken() != null) {
+            String pointer = jsonParser.getParsingContext().pathAsPointer().toString();
+
+            if (jsonParser.currentToken() != JsonToken.VALUE_STRING) {
+                continue;
+            }
+
+            if ("/data/1/data/1/data/1/data/1/data".equals(pointer)) {
+                ByteArrayOutputStream output = new ByteArrayOutputStream();
+                assertEquals(binary.length, jsonParser.readBinaryValue(output));
+                assertArrayEquals(binary, output.toByteArray());
+                JsonParseException thrown = assertThrows(JsonParseException.class, jsonParser::getText);
+                assertTrue(thrown.getMessage().startsWith(StaEDIJsonParser.MSG_BINARY_STREAMED), thrown.getMessage());
+                assertThrows(JsonParseException.class, () -> jsonParser.readBinaryValue(new ByteArrayOutputStream()));
+                results.add("bytes");
+            } else if ("/data/1/data/1/data/2/data/1/data".equals(pointer)) {
+                StringWriter output = new StringWriter();
+                jsonParser.getText(output);
+                assertEquals(Base64.getEncoder().encodeToString(binary), output.toString());
+                assertThrows(JsonParseException.class, jsonParser::getBinaryValue);
+                assertThrows(JsonParseException.class, () -> jsonParser.getText(new StringWriter()));
+                results.add("text");
+            } else if ("type".equals(jsonParser.getCurrentName())) {
+                // The element type is not the binary value
+                assertTrue(jsonParser.getText().length() < 10);
+            }
+        }
+
+        assertEquals(Arrays.asList("bytes", "text"), results);
+    }
 }
@@ -0,0 +1,168 @@
+/*******************************************************************************
+ * Copyright 2023 xlate.io LLC, http://www.xlate.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package io.xlate.edi.internal.stream.json;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.skyscreamer.jsonassert.JSONAssert;
+
+import com.fasterxml.jackson.core.JsonFactory;
+
+import io.xlate.edi.schema.Schema;
+import io.xlate.edi.schema.SchemaFactory;
+import io.xlate.edi.stream.EDIStreamConstants.Standards;
+import io.xlate.edi.stream.EDIInputFactory;
+import io.xlate.edi.stream.EDIOutputFactory;
+import io.xlate.edi.stream.EDIStreamException;
+import io.xlate.edi.stream.EDIStreamWriter;
+import io.xlate.edi.test.StaEDIReaderTestBase;
+
+class StaEDIJsonReaderTest extends StaEDIReaderTestBase {
+
+    EDIOutputFactory ediOutputFactory;
+    ByteArrayOutputStream ediOutput;
+    EDIStreamWriter ediWriter;
+
+    @BeforeEach
+    void setupWriter() {
+        ediOutputFactory = EDIOutputFactory.newFactory();
+        ediOutput = new ByteArrayOutputStream();
+        ediWriter = ediOutputFactory.createEDIStreamWriter(ediOutput);
+    }
+
+    String json() throws Exception {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        ediInputFactory.writeJSON(ediReader, buffer);
+        return new String(buffer.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    void read(String parserType, String json) throws Exception {
+        InputStream stream = new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+
+        switch (parserType) {
+        case "jakarta":
+            try (jakarta.json.stream.JsonParser parser = jakarta.json.Json.createParser(stream)) {
+                ediOutputFactory.readJSON(jakarta.json.stream.JsonParser.class, parser, ediWriter);
+            }
+            break;
+        case "javax":
+            try (javax.json.stream.JsonParser parser = javax.json.Json.createParser(stream)) {
+                ediOutputFactory.readJSON(javax.json.stream.JsonParser.class, parser, ediWriter);
+            }
+            break;
+        default:
+            try (com.fasterxml.jackson.core.JsonParser parser = new JsonFactory().createParser(stream)) {
+                ediOutputFactory.readJSON(com.fasterxml.jackson.core.JsonParser.class, parser, ediWriter);
+            }
+            break;
+        }
+    }
+
+    String edi() {
+        return new String(ediOutput.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "jackson, false",
+        "jackson, true",
+        "jakarta, false",
+        "jakarta, true",
+        "javax,   false",
+        "javax,   true",
+    })
+    void testRoundTrip837(String parserType, boolean objectElements) throws Exception {
+        SchemaFactory schemaFactory = SchemaFactory.newFactory();
+        Schema schema = schemaFactory.createSchema(getClass().getResource("/x12/005010/837.xml"));
+        ediReaderConfig.put(EDIInputFactory.JSON_OBJECT_ELEMENTS, objectElements);
+        setupReader("/x12/sample837-original.edi", "/x12/005010/837.xml");
+        String expected = json();
+
+        // Schemas and formatting are required to restore the format of numeric elements
+        ediOutputFactory.setProperty(EDIOutputFactory.FORMAT_ELEMENTS, true);
+        ediWriter = ediOutputFactory.createEDIStreamWriter(ediOutput);
+        ediWriter.setControlSchema(schemaFactory.getControlSchema(Standards.X12, new String[] { "00402" }));
+        ediWriter.setTransactionSchema(schema);
+        read(parserType, expected);
+
+        setupReader(ediOutput.toByteArray(), "/x12/005010/837.xml");
+        JSONAssert.assertEquals(expected, json(), true);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "jackson", "jakarta", "javax" })
+    void testCompositesAndEmptyElements(String parserType) throws Exception {
+        String input = "UNB+UNOA:3+SENDER+RECEIVER+200101:1000+1'"
+                + "UNH+1+INVOIC:D:97B:UN'"
+                + "BGM+380+12345++9'"
+                + "DTM+137:20200101:102'"
+                + "UNT+4+1'"
+                + "UNZ+1+1'";
+        setupReader(input.getBytes(StandardCharsets.UTF_8), null);
+        read(parserType, json());
+        assertEquals(input, edi());
+    }
+
+    @Test
+    void testUnknownKeysSkipped() throws Exception {
+        String json = "{\"meta\":{\"a\":[1,{}]},\"name\":\"INTERCHANGE\",\"type\":\"loop\",\"data\":["
+                + "{\"name\":\"UNB\",\"type\":\"segment\",\"data\":["
+                + "{\"name\":\"S001\",\"type\":\"composite\",\"data\":[\"UNOA\",3]},"
+                + "{\"type\":\"element\",\"data\":\"SENDER\",\"extra\":[true]},"
+                + "\"RECEIVER\",{\"name\":\"S004\",\"type\":\"composite\",\"data\":[\"200101\",\"1000\"]},\"1\"],\"extra\":null},"
+                + "{\"name\":\"UNZ\",\"type\":\"segment\",\"data\":[\"0\",\"1\"]}"
+                + "],\"extra\":{}}";
+        read("jackson", json);
+        assertEquals("UNB+UNOA:3+SENDER+RECEIVER+200101:1000+1'UNZ+0+1'", edi());
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+        "[]|Unexpected JSON START_ARRAY",
+        "{\"name\":\"INTERCHANGE\",\"data\":[]}|Invalid structure type: null",
+        "{\"name\":\"INTERCHANGE\",\"type\":\"loop\",\"data\":[\"X\"]}|Unexpected JSON STRING \"X\"",
+        "{\"name\":\"INTERCHANGE\",\"type\":\"loop\",\"data\":[{\"name\":\"C001\",\"type\":\"composite\",\"data\":[]}]}|Composite C001 must be within a segment",
+        "{\"name\":\"INTERCHANGE\",\"type\":\"loop\",\"data\":[|Exception writing the JSON input as EDI",
+    })
+    void testInvalidLayout(String json, String message) {
+        EDIStreamException thrown = assertThrows(EDIStreamException.class, () -> read("jackson", json));
+
+        while (thrown.getCause() instanceof EDIStreamException) {
+            thrown = (EDIStreamException) thrown.getCause();
+        }
+
+        assertTrue(thrown.getMessage().startsWith(message), thrown.getMessage());
+    }
+
+    @Test
+    void testInvalidParserType() {
+        IllegalArgumentException thrown = assertThrows(IllegalArgumentException.class,
+                                                       () -> ediOutputFactory.readJSON(Object.class, new Object(), ediWriter));
+        assertEquals("Unsupported JSON parser type: " + Object.class.toString(), thrown.getMessage());
+    }
+}
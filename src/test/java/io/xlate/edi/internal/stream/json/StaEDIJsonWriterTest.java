@@ -0,0 +1,171 @@
+/*******************************************************************************
+ * Copyright 2023 xlate.io LLC, http://www.xlate.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package io.xlate.edi.internal.stream.json;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.skyscreamer.jsonassert.JSONAssert;
+
+import com.fasterxml.jackson.core.JsonFactory;
+
+import io.xlate.edi.stream.EDIInputFactory;
+import io.xlate.edi.stream.EDIStreamEvent;
+import io.xlate.edi.stream.EDIStreamException;
+import io.xlate.edi.stream.EDIValidationException;
+import io.xlate.edi.test.StaEDIReaderTestBase;
+
+class StaEDIJsonWriterTest extends StaEDIReaderTestBase {
+
+    String write(String generatorType) throws Exception {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+        switch (generatorType) {
+        case "jakarta":
+            try (jakarta.json.stream.JsonGenerator generator = jakarta.json.Json.createGenerator(buffer)) {
+                ediInputFactory.writeJSON(ediReader, jakarta.json.stream.JsonGenerator.class, generator);
+            }
+            break;
+        case "javax":
+            try (javax.json.stream.JsonGenerator generator = javax.json.Json.createGenerator(buffer)) {
+                ediInputFactory.writeJSON(ediReader, javax.json.stream.JsonGenerator.class, generator);
+            }
+            break;
+        case "jackson":
+            try (com.fasterxml.jackson.core.JsonGenerator generator = new JsonFactory().createGenerator(buffer)) {
+                ediInputFactory.writeJSON(ediReader, com.fasterxml.jackson.core.JsonGenerator.class, generator);
+            }
+            break;
+        default:
+            ediInputFactory.writeJSON(ediReader, buffer);
+            break;
+        }
+
+        return new String(buffer.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    String expected(String resource) throws Exception {
+        List<String> expected = Files.readAllLines(Paths.get(getClass().getResource(resource).toURI()));
+        return String.join("", expected);
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "utf8,    /x12/005010/837.xml,                            false, false, /x12/sample837-original.json",
+        "utf8,    /x12/005010/837-hierarchical-level-enabled.xml, true,  false, /x12/sample837-original-nestHL.json",
+        "utf8,    /x12/005010/837.xml,                            false, true,  /x12/sample837-original-object-elements.json",
+        "utf8,    /x12/005010/837-hierarchical-level-enabled.xml, true,  true,  /x12/sample837-original-object-elements-nestHL.json",
+        "jakarta, /x12/005010/837.xml,                            false, false, /x12/sample837-original.json",
+        "jakarta, /x12/005010/837-hierarchical-level-enabled.xml, true,  true,  /x12/sample837-original-object-elements-nestHL.json",
+        "javax,   /x12/005010/837.xml,                            false, false, /x12/sample837-original.json",
+        "javax,   /x12/005010/837-hierarchical-level-enabled.xml, true,  true,  /x12/sample837-original-object-elements-nestHL.json",
+        "jackson, /x12/005010/837.xml,                            false, false, /x12/sample837-original.json",
+        "jackson, /x12/005010/837-hierarchical-level-enabled.xml, true,  true,  /x12/sample837-original-object-elements-nestHL.json",
+    })
+    void testWriterMatchesParserLayout(String generatorType, String schemaPath, boolean nestHL, boolean objectElements, String expectedResource) throws Exception {
+        ediReaderConfig.put(EDIInputFactory.EDI_NEST_HIERARCHICAL_LOOPS, nestHL);
+        ediReaderConfig.put(EDIInputFactory.JSON_OBJECT_ELEMENTS, objectElements);
+        ediReaderConfig.put(EDIInputFactory.JSON_NULL_EMPTY_ELEMENTS, !objectElements);
+        setupReader("/x12/sample837-original.edi", schemaPath);
+
+        JSONAssert.assertEquals(expected(expectedResource), write(generatorType), true);
+    }
+
+    @ParameterizedTest
+    @CsvSource({ "utf8", "jakarta", "javax", "jackson" })
+    void testBinaryDataWrittenAsEncodedString(String generatorType) throws Exception {
+        setupReader("/x12/simple_with_binary_segment.edi", "/x12/EDISchemaBinarySegment.xml");
+        JSONAssert.assertEquals(expected("/x12/simple_with_binary_segment.json"), write(generatorType), true);
+    }
+
+    @Test
+    void testStringsEscaped() throws Exception {
+        String input = "UNB+UNOC:3+SENDER+RECEIVER+200101:1000+1'"
+                + "UNH+1+INVOIC:D:97B:UN'NAD+BY++\"Quoted\" \\ \t Müller ☃'UNT+3+1'"
+                + "UNZ+1+1'";
+        setupReader(input.getBytes(StandardCharsets.UTF_8), null);
+        String actual = write("utf8");
+
+        setupReader(input.getBytes(StandardCharsets.UTF_8), null);
+        JSONAssert.assertEquals(write("jackson"), actual, true);
+        assertTrue(actual.contains("\"\\\"Quoted\\\" \\\\ \\t Müller ☃\""), actual);
+    }
+
+    @Test
+    void testStartedReader() throws Exception {
+        setupReader("/x12/simple997.edi", null);
+        assertEquals(EDIStreamEvent.START_INTERCHANGE, ediReader.next());
+        String actual = write("utf8");
+
+        setupReader("/x12/simple997.edi", null);
+        JSONAssert.assertEquals(write("jakarta"), actual, true);
+    }
+
+    @Test
+    void testInvalidGeneratorType() {
+        EDIInputFactory factory = EDIInputFactory.newFactory();
+        IllegalArgumentException thrown = assertThrows(IllegalArgumentException.class,
+                                                       () -> factory.writeJSON(null, Object.class, new Object()));
+        assertEquals("Unsupported JSON generator type: " + Object.class.toString(), thrown.getMessage());
+    }
+
+    @Test
+    void testValidationErrorThrown() throws Exception {
+        String input = "ISA*00*          *00*          *ZZ*ReceiverID     *ZZ*Sender         *050812*1953*^*00501*508121953*0*P*:~"
+                + "GS*IN*SENDER*RECEIVER*20230101*1200*1*X*005010~"
+                + "ST*810*0001~"
+                + "SE*3*0001~"
+                + "GE*1*1~"
+                + "IEA*1*508121953~";
+        ediReader = ediInputFactory.createEDIStreamReader(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)));
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        EDIStreamException thrown = assertThrows(EDIStreamException.class, () -> ediInputFactory.writeJSON(ediReader, buffer));
+        assertInstanceOf(EDIValidationException.class, thrown.getCause());
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "0, 0, 0",
+        "-42, 0, -42",
+        "533254, 2, 5332.54",
+        "-5, 2, -0.05",
+        "12, 4, 0.0012",
+        "100, 2, 1.00",
+        "-9223372036854775808, 0, -9223372036854775808",
+    })
+    void testUtf8NumberWrittenFromUnscaledValue(long unscaled, int scale, String expected) throws Exception {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        StaEDIJsonUtf8Writer writer = new StaEDIJsonUtf8Writer(null, Collections.emptyMap(), buffer);
+        writer.writeNumber(unscaled, scale);
+        writer.flush();
+        assertEquals(expected, new String(buffer.toByteArray(), StandardCharsets.UTF_8));
+        assertEquals(new BigDecimal(expected), BigDecimal.valueOf(unscaled, scale));
+    }
+}
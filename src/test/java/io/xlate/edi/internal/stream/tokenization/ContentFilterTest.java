@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Copyright 2023 xlate.io LLC, http://www.xlate.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package io.xlate.edi.internal.stream.tokenization;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import io.xlate.edi.stream.EDIStreamFilterSpec;
+
+class ContentFilterTest {
+
+    @ParameterizedTest
+    @CsvSource({
+        "BEG03, BEG, 3, 0",
+        "N104, N1, 4, 0",
+        "REF02, REF, 2, 0",
+        "G6201, G62, 1, 0",
+        "CLM05-1, CLM, 5, 1",
+        "SV101-2, SV1, 1, 2",
+        "UNH02-10, UNH, 2, 10",
+    })
+    void testElementReferences(String reference, String tag, int element, int component) {
+        ContentFilter filter = new ContentFilter(new EDIStreamFilterSpec().addElementReferences(reference));
+
+        assertTrue(filter.isElementFiltered(tag));
+        assertTrue(filter.acceptsElement(tag, element));
+        assertFalse(filter.acceptsElement(tag, element + 1));
+
+        if (component > 0) {
+            assertTrue(filter.acceptsComponent(tag, element, component));
+            assertFalse(filter.acceptsComponent(tag, element, component + 1));
+        } else {
+            assertTrue(filter.acceptsComponent(tag, element, 1));
+        }
+    }
+
+    @Test
+    void testSpecAccepts() {
+        EDIStreamFilterSpec spec = new EDIStreamFilterSpec();
+        ContentFilter filter = new ContentFilter(spec);
+        assertTrue(filter.acceptsSegment("ANY"));
+        assertTrue(filter.acceptsTransaction("ANY"));
+        assertTrue(filter.acceptsElement("ANY", 1));
+        assertFalse(filter.isTransactionTypeFiltered());
+        assertFalse(filter.isElementFiltered("ANY"));
+
+        spec.addSegments("N1").addTransactionTypes("810").addElements("N1", 2);
+        // The specification was copied
+        assertTrue(filter.acceptsSegment("N2"));
+
+        filter = new ContentFilter(spec);
+        assertTrue(filter.acceptsSegment("N1"));
+        assertFalse(filter.acceptsSegment("N2"));
+        assertTrue(filter.acceptsTransaction("810"));
+        assertFalse(filter.acceptsTransaction("850"));
+        assertTrue(filter.isElementFiltered("N1"));
+        assertTrue(filter.acceptsElement("N1", 2));
+        assertFalse(filter.acceptsElement("N1", 1));
+        assertTrue(filter.acceptsElement("N2", 1));
+    }
+}
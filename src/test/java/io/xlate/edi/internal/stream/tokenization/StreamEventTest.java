@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * Copyright 2023 xlate.io LLC, http://www.xlate.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package io.xlate.edi.internal.stream.tokenization;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+import io.xlate.edi.internal.stream.StaEDIStreamLocation;
+import io.xlate.edi.stream.Location;
+
+class StreamEventTest {
+
+    static StaEDIStreamLocation location(String tag, int element) {
+        StaEDIStreamLocation location = new StaEDIStreamLocation();
+        location.incrementOffset('A');
+        location.incrementSegmentPosition(tag);
+
+        for (int i = 0; i < element; i++) {
+            location.incrementElementPosition();
+        }
+
+        return location;
+    }
+
+    @Test
+    void testLocationBuiltOnRequest() {
+        StreamEvent event = new StreamEvent();
+        StaEDIStreamLocation source = location("ISA", 2);
+        event.setLocation(source);
+
+        assertNull(event.location);
+
+        Location result = event.getLocation();
+        assertEquals(source.toString(), result.toString());
+        assertEquals(1, result.getCharacterOffset());
+        assertEquals(1, result.getSegmentPosition());
+        assertEquals(2, result.getElementPosition());
+        assertEquals(1, result.getElementOccurrence());
+        assertEquals(-1, result.getComponentPosition());
+        assertSame(result, event.getLocation());
+
+        // Changes to the source are not visible to the event
+        source.incrementElementPosition();
+        assertEquals(2, event.getLocation().getElementPosition());
+    }
+
+    @Test
+    void testLocationReusedAfterUpdate() {
+        StreamEvent event = new StreamEvent();
+        event.setLocation(location("ISA", 1));
+        Location first = event.getLocation();
+
+        event.setLocation(location("GS", 3), 4, 2, 3);
+        Location second = event.getLocation();
+
+        assertSame(first, second);
+        assertEquals("GS", second.getSegmentTag());
+        assertEquals(4, second.getElementPosition());
+        assertEquals(2, second.getComponentPosition());
+        assertEquals(3, second.getElementOccurrence());
+    }
+
+    @Test
+    void testLocationCopiedFromEvent() {
+        StreamEvent source = new StreamEvent();
+        source.setLocation(location("ST", 2));
+
+        StreamEvent event = new StreamEvent();
+        event.setLocation(source);
+
+        assertEquals(source.getLocation().toString(), event.getLocation().toString());
+    }
+}